@@ -0,0 +1,3 @@
+#!/bin/bash
+
+mvn -Pjmh -DskipTests verify "$@"
\ No newline at end of file
@@ -54,6 +54,9 @@ case "$1" in
         echo "Applying ConfigMap..."
         kubectl apply -f k8s/configmap.yaml
         
+        echo "Applying Secret..."
+        kubectl apply -f k8s/secret.yaml
+        
         echo "Applying Deployment..."
         kubectl apply -f k8s/deployment.yaml
         
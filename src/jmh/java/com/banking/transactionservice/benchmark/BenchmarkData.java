@@ -0,0 +1,85 @@
+package com.banking.transactionservice.benchmark;
+
+import com.banking.transactionservice.dto.TransactionDTO;
+import com.banking.transactionservice.model.Transaction;
+import com.banking.transactionservice.model.TransactionStatus;
+import com.banking.transactionservice.model.TransactionType;
+import com.banking.transactionservice.repository.TransactionRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基准测试数据
+ * 第i条交易的所有字段都由i确定，基准方法可以随时重建任意一条交易而无需保存原始对象
+ */
+final class BenchmarkData {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final TransactionStatus[] STATUSES = TransactionStatus.values();
+    private static final int CATEGORIES = 20;
+    private static final int LOAD_BATCH_SIZE = 10_000;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * 第i条交易的ID
+     * @param i 序号
+     * @return 交易ID
+     */
+    static String id(int i) {
+        return "tx-" + i;
+    }
+
+    /**
+     * 构建第i条交易
+     * @param i 序号
+     * @return 交易实体
+     */
+    static Transaction transaction(int i) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id(i));
+        transaction.setAmount(BigDecimal.valueOf(100 + i % 900, 2));
+        transaction.setDescription("Benchmark transaction " + i);
+        transaction.setTimestamp(BASE.plusSeconds(i));
+        transaction.setType(TYPES[i % TYPES.length]);
+        transaction.setCategory("Category-" + i % CATEGORIES);
+        transaction.setStatus(STATUSES[i % STATUSES.length]);
+        return transaction;
+    }
+
+    /**
+     * 构建一个合法的新建交易请求
+     * @param i 序号
+     * @return 交易DTO（不含ID）
+     */
+    static TransactionDTO newTransactionDTO(int i) {
+        TransactionDTO dto = new TransactionDTO();
+        dto.setAmount(BigDecimal.valueOf(100 + i % 900, 2));
+        dto.setDescription("Benchmark transaction " + i);
+        dto.setType(TYPES[i % TYPES.length]);
+        dto.setCategory("Category-" + i % CATEGORIES);
+        return dto;
+    }
+
+    /**
+     * 向仓库写入size条交易
+     * @param repository 交易仓库
+     * @param size 交易数量
+     */
+    static void load(TransactionRepository repository, int size) {
+        List<Transaction> batch = new ArrayList<>(LOAD_BATCH_SIZE);
+        for (int i = 0; i < size; i++) {
+            batch.add(transaction(i));
+            if (batch.size() == LOAD_BATCH_SIZE) {
+                repository.saveAll(batch);
+                batch.clear();
+            }
+        }
+        repository.saveAll(batch);
+    }
+}
@@ -0,0 +1,97 @@
+package com.banking.transactionservice.benchmark;
+
+import com.banking.transactionservice.model.CategoryDictionary;
+import com.banking.transactionservice.model.Transaction;
+import com.banking.transactionservice.repository.StorageEngine;
+import com.banking.transactionservice.repository.TransactionFilter;
+import com.banking.transactionservice.repository.TransactionRepository;
+import com.banking.transactionservice.repository.TransactionSummary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按类别过滤和汇总的基准
+ * 过滤条件中的类别与请求参数一样是新建的字符串，不与已保存交易的类别共享实例
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class CategoryBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+    private static final int MAX_PAGE = 50;
+    private static final int MATCH_BATCH = 1024;
+
+    @Param({"100000"})
+    private int size;
+
+    @Param({"HEAP"})
+    private StorageEngine engine;
+
+    private TransactionRepository repository;
+    private TransactionFilter filter;
+    private Transaction[] candidates;
+
+    @Setup
+    public void setUp() {
+        CategoryDictionary categories = new CategoryDictionary();
+        repository = new TransactionRepository(engine.createStore(categories), categories);
+        BenchmarkData.load(repository, size);
+        filter = new TransactionFilter(new StringBuilder("Category-").append(7).toString(), null, null);
+        candidates = new Transaction[MATCH_BATCH];
+        for (int i = 0; i < MATCH_BATCH; i++) {
+            candidates[i] = BenchmarkData.transaction(i);
+        }
+    }
+
+    @Benchmark
+    public List<Transaction> filteredPage() {
+        return repository.findAll(filter, ThreadLocalRandom.current().nextInt(MAX_PAGE), PAGE_SIZE);
+    }
+
+    /**
+     * 遍历一个类别的全部交易
+     */
+    @Benchmark
+    public long filteredScan() {
+        LongAdder count = new LongAdder();
+        repository.forEach(filter, transaction -> count.increment());
+        return count.sum();
+    }
+
+    /**
+     * 查询缓存失效判断等路径对单条交易的条件匹配
+     */
+    @Benchmark
+    public int matches() {
+        int matched = 0;
+        for (Transaction candidate : candidates) {
+            if (filter.matches(candidate)) {
+                matched++;
+            }
+        }
+        return matched;
+    }
+
+    @Benchmark
+    public TransactionSummary summarize() {
+        return repository.summarize();
+    }
+}
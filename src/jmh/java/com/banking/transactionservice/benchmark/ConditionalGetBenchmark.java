@@ -0,0 +1,150 @@
+package com.banking.transactionservice.benchmark;
+
+import com.banking.transactionservice.cache.EntityTags;
+import com.banking.transactionservice.cache.IdempotencyCache;
+import com.banking.transactionservice.cache.TransactionNearCache;
+import com.banking.transactionservice.cache.TransactionQueryCache;
+import com.banking.transactionservice.controller.TransactionController;
+import com.banking.transactionservice.repository.TransactionRepository;
+import com.banking.transactionservice.rollup.RollupGranularity;
+import com.banking.transactionservice.rollup.TransactionRollups;
+import com.banking.transactionservice.service.TransactionExporter;
+import com.banking.transactionservice.service.TransactionMapper;
+import com.banking.transactionservice.service.TransactionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.validation.Validation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * 条件GET的基准
+ * 经过控制器、Spring缓存代理和JSON序列化（MockMvc，不含网络），比较客户端轮询时
+ * 完整响应与If-None-Match命中后的304响应；被轮询的交易和页都在缓存中
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class ConditionalGetBenchmark {
+
+    private static final int SIZE = 100_000;
+    private static final int HOT = 500;
+    private static final int PAGE_SIZE = 20;
+
+    private AnnotationConfigApplicationContext context;
+    private MockMvc mockMvc;
+    private String[] eTags;
+    private String pageETag;
+
+    @Setup
+    public void setUp() throws Exception {
+        TransactionRepository repository = new TransactionRepository();
+        BenchmarkData.load(repository, SIZE);
+        TransactionQueryCache queryCache = new TransactionQueryCache(1000, Duration.ofMinutes(10));
+        repository.addChangeListener(queryCache);
+        TransactionRollups rollups = new TransactionRollups(Map.of(
+                RollupGranularity.HOUR, Duration.ofDays(30)), Duration.ofDays(1), Clock.systemDefaultZone());
+        TransactionMapper mapper = new TransactionMapper();
+
+        TransactionNearCache nearCache = new TransactionNearCache(Caffeine.newBuilder()
+                .maximumSize(1000).expireAfterWrite(10, TimeUnit.MINUTES).build(), repository);
+        repository.addChangeListener(nearCache);
+
+        context = new AnnotationConfigApplicationContext();
+        context.register(CacheConfiguration.class);
+        context.registerBean(CacheManager.class, () -> {
+            SimpleCacheManager cacheManager = new SimpleCacheManager();
+            cacheManager.setCaches(List.of(nearCache));
+            return cacheManager;
+        });
+        context.registerBean(TransactionService.class, () -> new TransactionService(repository, mapper,
+                Validation.buildDefaultValidatorFactory().getValidator(), queryCache, rollups,
+                new IdempotencyCache(1000, Duration.ofHours(1))));
+        context.refresh();
+
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        mockMvc = MockMvcBuilders.standaloneSetup(new TransactionController(context.getBean(TransactionService.class),
+                        new TransactionExporter(repository, mapper, objectMapper,
+                                new MappingJackson2CborHttpMessageConverter())))
+                .setMessageConverters(new MappingJackson2HttpMessageConverter(objectMapper))
+                .build();
+
+        eTags = new String[HOT];
+        for (int i = 0; i < HOT; i++) {
+            eTags[i] = EntityTags.of(repository.findById(BenchmarkData.id(i)).orElseThrow().getVersion());
+        }
+        pageETag = EntityTags.ofPage(repository.findAll(0, PAGE_SIZE));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getTransaction() throws Exception {
+        int i = ThreadLocalRandom.current().nextInt(HOT);
+        return mockMvc.perform(get("/api/transactions/{id}", BenchmarkData.id(i)))
+                .andReturn().getResponse().getContentLength();
+    }
+
+    @Benchmark
+    public int getTransactionNotModified() throws Exception {
+        int i = ThreadLocalRandom.current().nextInt(HOT);
+        return mockMvc.perform(get("/api/transactions/{id}", BenchmarkData.id(i))
+                        .header(HttpHeaders.IF_NONE_MATCH, eTags[i]))
+                .andReturn().getResponse().getStatus();
+    }
+
+    @Benchmark
+    public int getPage() throws Exception {
+        return mockMvc.perform(get("/api/transactions").param("size", String.valueOf(PAGE_SIZE)))
+                .andReturn().getResponse().getContentLength();
+    }
+
+    @Benchmark
+    public int getPageNotModified() throws Exception {
+        return mockMvc.perform(get("/api/transactions").param("size", String.valueOf(PAGE_SIZE))
+                        .header(HttpHeaders.IF_NONE_MATCH, pageETag))
+                .andReturn().getResponse().getStatus();
+    }
+
+    /**
+     * 启用Spring Cache，缓存管理器与生产配置一样只包含近端缓存
+     * 不标注@Configuration，避免在同一类路径上启动完整应用时被组件扫描到
+     */
+    @EnableCaching
+    static class CacheConfiguration {
+    }
+}
@@ -0,0 +1,52 @@
+package com.banking.transactionservice.benchmark;
+
+import com.banking.transactionservice.model.IdGenerator;
+import com.banking.transactionservice.model.IdStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 交易ID生成的基准
+ * 分别在单线程和4线程下比较随机UUID与按时间排序的UUIDv7，多线程时所有线程共享同一个生成器
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IdGeneratorBenchmark {
+
+    @Param({"RANDOM", "TIME_ORDERED"})
+    private IdStrategy strategy;
+
+    private IdGenerator generator;
+
+    @Setup
+    public void setUp() {
+        generator = strategy.createGenerator(1);
+    }
+
+    @Benchmark
+    public String nextId() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String nextIdContended() {
+        return generator.nextId();
+    }
+}
@@ -0,0 +1,53 @@
+package com.banking.transactionservice.benchmark;
+
+import com.banking.transactionservice.dto.TransactionDTO;
+import com.banking.transactionservice.model.Transaction;
+import com.banking.transactionservice.service.TransactionMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DTO与实体之间转换的基准
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+    private TransactionMapper mapper;
+    private Transaction transaction;
+    private TransactionDTO dto;
+
+    @Setup
+    public void setUp() {
+        mapper = new TransactionMapper();
+        transaction = BenchmarkData.transaction(42);
+        dto = mapper.toDTO(transaction);
+    }
+
+    @Benchmark
+    public TransactionDTO toDTO() {
+        return mapper.toDTO(transaction);
+    }
+
+    /**
+     * 包含新实体构造时生成的UUID和时间戳
+     */
+    @Benchmark
+    public Transaction toEntity() {
+        return mapper.toEntity(dto);
+    }
+}
@@ -0,0 +1,75 @@
+package com.banking.transactionservice.benchmark;
+
+import com.banking.transactionservice.model.Transaction;
+import com.banking.transactionservice.repository.TransactionRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 交易仓库读写混合基准
+ * 每次操作按readRatio的概率读取、否则原地更新一条随机交易；
+ * 同一操作在1、4和全部可用线程下分别测量，用于观察并发扩展性
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx8g"})
+@State(Scope.Benchmark)
+public class MixedWorkloadBenchmark {
+
+    @Param({"10000", "100000", "1000000", "10000000"})
+    private int size;
+
+    @Param({"0.5", "0.9", "0.99"})
+    private double readRatio;
+
+    private TransactionRepository repository;
+
+    @Setup
+    public void setUp() {
+        repository = new TransactionRepository();
+        BenchmarkData.load(repository, size);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object mixed_1Thread() {
+        return operation();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object mixed_4Threads() {
+        return operation();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Object mixed_maxThreads() {
+        return operation();
+    }
+
+    private Object operation() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int index = random.nextInt(size);
+        if (random.nextDouble() < readRatio) {
+            return repository.findById(BenchmarkData.id(index));
+        }
+        Transaction transaction = BenchmarkData.transaction(index);
+        return repository.save(transaction);
+    }
+}
@@ -0,0 +1,160 @@
+package com.banking.transactionservice.benchmark;
+
+import com.banking.transactionservice.TransactionServiceApplication;
+import com.banking.transactionservice.replication.AckMode;
+import com.banking.transactionservice.replication.TransactionReplicator;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 副本间读己之写延迟测量
+ * 在同一个JVM中以不同端口启动三个副本，向副本0创建交易后立即从副本1读取，直到读到为止。
+ * 分别在异步和同步确认模式下输出创建请求的延迟、从发出创建到在副本1可读的延迟，
+ * 以及创建返回后第一次读取就能读到的比例
+ */
+public final class ReplicationLatency {
+
+    private static final String SECRET = "benchmark-secret";
+    private static final Pattern ID = Pattern.compile("\"id\":\"([^\"]+)\"");
+    private static final String BODY =
+            "{\"amount\":100.00,\"description\":\"Replicated\",\"type\":\"CREDIT\",\"category\":\"Latency\"}";
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    private ReplicationLatency() {
+    }
+
+    /**
+     * 运行测量
+     * @param args 可选的写入次数，默认为2000
+     * @throws Exception 当副本无法启动或请求失败时抛出
+     */
+    public static void main(String[] args) throws Exception {
+        int writes = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        ReplicationLatency latency = new ReplicationLatency();
+        System.out.printf("%-6s %7s | %10s %10s %10s | %10s %10s %10s | %9s%n", "mode", "writes",
+                "write p50", "write p99", "write max", "read p50", "read p99", "read max", "1st read");
+        for (AckMode mode : AckMode.values()) {
+            latency.measure(mode, writes);
+        }
+        System.exit(0);
+    }
+
+    private void measure(AckMode mode, int writes) throws Exception {
+        int[] ports = {freePort(), freePort(), freePort()};
+        ConfigurableApplicationContext[] replicas = new ConfigurableApplicationContext[3];
+        try {
+            for (int i = 0; i < 3; i++) {
+                replicas[i] = start(ports, i, mode);
+            }
+            awaitConnected(ports);
+            run(ports, writes / 5, new long[writes / 5], new long[writes / 5]);
+            long[] write = new long[writes];
+            long[] read = new long[writes];
+            int immediate = run(ports, writes, write, read);
+            Arrays.sort(write);
+            Arrays.sort(read);
+            System.out.printf("%-6s %7d | %7.2f ms %7.2f ms %7.2f ms | %7.2f ms %7.2f ms %7.2f ms | %8.1f%%%n",
+                    mode, writes, millis(percentile(write, 0.5)), millis(percentile(write, 0.99)),
+                    millis(write[writes - 1]), millis(percentile(read, 0.5)), millis(percentile(read, 0.99)),
+                    millis(read[writes - 1]), 100.0 * immediate / writes);
+        } finally {
+            for (ConfigurableApplicationContext replica : replicas) {
+                if (replica != null) {
+                    replica.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * 依次创建并从另一个副本读取
+     * @return 创建返回后第一次读取就读到的次数
+     */
+    private int run(int[] ports, int writes, long[] write, long[] read) throws Exception {
+        int immediate = 0;
+        for (int i = 0; i < writes; i++) {
+            long start = System.nanoTime();
+            HttpResponse<String> created = client.send(HttpRequest.newBuilder(uri(ports[0], "/api/transactions"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(BODY)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            write[i] = System.nanoTime() - start;
+            Matcher matcher = ID.matcher(created.body());
+            if (created.statusCode() != 201 || !matcher.find()) {
+                throw new IllegalStateException("Create failed with HTTP " + created.statusCode());
+            }
+            URI uri = uri(ports[1], "/api/transactions/" + matcher.group(1));
+            int attempts = 0;
+            int status;
+            do {
+                status = client.send(HttpRequest.newBuilder(uri).GET().build(),
+                        HttpResponse.BodyHandlers.discarding()).statusCode();
+                attempts++;
+            } while (status == 404);
+            read[i] = System.nanoTime() - start;
+            if (attempts == 1) {
+                immediate++;
+            }
+        }
+        return immediate;
+    }
+
+    private static ConfigurableApplicationContext start(int[] ports, int index, AckMode mode) {
+        return new SpringApplicationBuilder(TransactionServiceApplication.class).run(
+                "--server.port=" + ports[index],
+                "--spring.jmx.enabled=false",
+                "--logging.level.root=WARN",
+                "--transaction.id.node-id=" + index,
+                "--transaction.replication.enabled=true",
+                "--transaction.replication.self=http://localhost:" + ports[index],
+                "--transaction.replication.peers=http://localhost:" + ports[0] + ",http://localhost:" + ports[1]
+                        + ",http://localhost:" + ports[2],
+                "--transaction.replication.shared-secret=" + SECRET,
+                "--transaction.replication.ack-mode=" + mode,
+                "--transaction.replication.min-acks=2");
+    }
+
+    private void awaitConnected(int[] ports) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        for (int port : ports) {
+            while (client.send(HttpRequest.newBuilder(uri(port, "/internal/replication/status"))
+                            .header(TransactionReplicator.TOKEN_HEADER, SECRET).GET().build(),
+                    HttpResponse.BodyHandlers.ofString()).body().contains("\"connected\":false")) {
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException("Replicas did not connect within 30s");
+                }
+                Thread.sleep(50);
+            }
+        }
+    }
+
+    private static URI uri(int port, String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1)];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
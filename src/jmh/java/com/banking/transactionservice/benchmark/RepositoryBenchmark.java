@@ -0,0 +1,90 @@
+package com.banking.transactionservice.benchmark;
+
+import com.banking.transactionservice.model.CategoryDictionary;
+import com.banking.transactionservice.model.Transaction;
+import com.banking.transactionservice.repository.StorageEngine;
+import com.banking.transactionservice.repository.TransactionFilter;
+import com.banking.transactionservice.repository.TransactionKey;
+import com.banking.transactionservice.repository.TransactionRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 交易仓库单线程基准
+ * 覆盖主键读取、原地更新、偏移分页、游标分页和按条件过滤分页，分别在两种存储引擎上运行
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx8g"})
+@State(Scope.Benchmark)
+public class RepositoryBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+    private static final int MAX_PAGE = 50;
+
+    @Param({"10000", "100000", "1000000", "10000000"})
+    private int size;
+
+    @Param({"HEAP", "COLUMNAR", "OFF_HEAP"})
+    private StorageEngine engine;
+
+    private TransactionRepository repository;
+    private TransactionFilter filter;
+
+    @Setup
+    public void setUp() {
+        CategoryDictionary categories = new CategoryDictionary();
+        repository = new TransactionRepository(engine.createStore(categories), categories);
+        BenchmarkData.load(repository, size);
+        filter = new TransactionFilter("Category-7", null, null);
+    }
+
+    @Benchmark
+    public Optional<Transaction> findById() {
+        return repository.findById(BenchmarkData.id(randomIndex()));
+    }
+
+    /**
+     * 更新已存在的交易，排序键不变
+     */
+    @Benchmark
+    public Transaction save() {
+        return repository.save(BenchmarkData.transaction(randomIndex()));
+    }
+
+    @Benchmark
+    public List<Transaction> findAllPage() {
+        return repository.findAll(ThreadLocalRandom.current().nextInt(MAX_PAGE), PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Transaction> findAfterCursor() {
+        Transaction anchor = BenchmarkData.transaction(randomIndex());
+        return repository.findAfter(TransactionKey.of(anchor), PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Transaction> findAllFilteredPage() {
+        return repository.findAll(filter, ThreadLocalRandom.current().nextInt(MAX_PAGE), PAGE_SIZE);
+    }
+
+    private int randomIndex() {
+        return ThreadLocalRandom.current().nextInt(size);
+    }
+}
@@ -0,0 +1,106 @@
+package com.banking.transactionservice.benchmark;
+
+import com.banking.transactionservice.cache.CachedTransaction;
+import com.banking.transactionservice.cache.IdempotencyCache;
+import com.banking.transactionservice.cache.TransactionQueryCache;
+import com.banking.transactionservice.dto.TransactionDTO;
+import com.banking.transactionservice.repository.TransactionRepository;
+import com.banking.transactionservice.rollup.RollupGranularity;
+import com.banking.transactionservice.rollup.TransactionRollups;
+import com.banking.transactionservice.service.TransactionMapper;
+import com.banking.transactionservice.service.TransactionService;
+import jakarta.validation.Validation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 交易服务基准
+ * 直接调用服务对象（不经过Spring代理），测量映射、校验和查询结果缓存之上的服务层开销
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx8g"})
+@State(Scope.Benchmark)
+public class ServiceBenchmark {
+
+    @Param({"10000", "100000", "1000000", "10000000"})
+    private int size;
+
+    private TransactionRepository repository;
+    private TransactionService service;
+    private TransactionDTO update;
+    private final List<String> created = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        repository = new TransactionRepository();
+        BenchmarkData.load(repository, size);
+        TransactionQueryCache queryCache = new TransactionQueryCache(1000, Duration.ofMinutes(10));
+        repository.addChangeListener(queryCache);
+        TransactionRollups rollups = new TransactionRollups(Map.of(
+                RollupGranularity.MINUTE, Duration.ofHours(24),
+                RollupGranularity.HOUR, Duration.ofDays(30),
+                RollupGranularity.DAY, Duration.ofDays(400)), Duration.ofDays(1), Clock.systemDefaultZone());
+        repository.addChangeListener(rollups);
+        rollups.load(repository);
+        service = new TransactionService(repository, new TransactionMapper(),
+                Validation.buildDefaultValidatorFactory().getValidator(), queryCache, rollups,
+                new IdempotencyCache(100_000, Duration.ofHours(1)));
+        update = new TransactionMapper().toDTO(BenchmarkData.transaction(0));
+    }
+
+    /**
+     * 删除上一轮迭代新建的交易，使数据集大小保持不变
+     */
+    @TearDown(Level.Iteration)
+    public void removeCreated() {
+        repository.deleteAllById(created);
+        created.clear();
+    }
+
+    @Benchmark
+    public CachedTransaction getTransaction() {
+        return service.getCachedTransaction(BenchmarkData.id(ThreadLocalRandom.current().nextInt(size)));
+    }
+
+    @Benchmark
+    public TransactionDTO createTransaction() {
+        TransactionDTO saved = service.createTransaction(BenchmarkData.newTransactionDTO(created.size()));
+        created.add(saved.getId());
+        return saved;
+    }
+
+    @Benchmark
+    public TransactionDTO updateTransaction() {
+        return service.updateTransaction(update.getId(), update);
+    }
+
+    /**
+     * 首页查询，绝大多数调用命中查询结果缓存
+     */
+    @Benchmark
+    public List<TransactionDTO> getAllTransactionsFirstPage() {
+        return service.getAllTransactions(0, 20);
+    }
+}
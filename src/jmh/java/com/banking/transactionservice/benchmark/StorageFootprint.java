@@ -0,0 +1,114 @@
+package com.banking.transactionservice.benchmark;
+
+import com.banking.transactionservice.model.CategoryDictionary;
+import com.banking.transactionservice.model.Transaction;
+import com.banking.transactionservice.model.TransactionStatus;
+import com.banking.transactionservice.model.TransactionType;
+import com.banking.transactionservice.repository.StorageEngine;
+import com.banking.transactionservice.repository.TransactionRepository;
+import com.banking.transactionservice.repository.TransactionStore;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 存储引擎的常驻内存测量
+ * 分别只向存储引擎、以及向带索引和汇总的完整仓库写入相同的数据，
+ * 强制GC后比较堆内存和直接内存的占用，输出每条记录的字节数，并记录数据存活时一次Full GC的耗时。
+ * 数据使用规范UUID作为ID，类别为每条记录新建的字符串，与经过TransactionMapper写入的数据一致
+ */
+public final class StorageFootprint {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final TransactionStatus[] STATUSES = TransactionStatus.values();
+
+    private StorageFootprint() {
+    }
+
+    /**
+     * 运行测量
+     * @param args 可选的记录数，默认为1000000
+     */
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        System.out.printf("%-10s %10s | %12s %14s | %12s %14s %14s%n", "engine", "records",
+                "store heap", "store direct", "repo heap", "repo direct", "repo full GC");
+        for (StorageEngine engine : StorageEngine.values()) {
+            Footprint store = measure(() -> {
+                TransactionStore transactions = engine.createStore();
+                for (int i = 0; i < size; i++) {
+                    Transaction transaction = transaction(i);
+                    transactions.compute(transaction.getId(), (id, existing) -> transaction);
+                }
+                return transactions;
+            });
+            Footprint repository = measure(() -> {
+                CategoryDictionary categories = new CategoryDictionary();
+                TransactionRepository transactions = new TransactionRepository(engine.createStore(categories),
+                        categories);
+                for (int i = 0; i < size; i++) {
+                    transactions.save(transaction(i));
+                }
+                return transactions;
+            });
+            System.out.printf("%-10s %10d | %10d B %12d B | %10d B %12d B %11d ms%n", engine, size,
+                    store.heapBytes() / size, store.directBytes() / size,
+                    repository.heapBytes() / size, repository.directBytes() / size, repository.fullGcMillis());
+        }
+    }
+
+    private static Transaction transaction(int i) {
+        Transaction transaction = new Transaction(new UUID(i * 0x9e3779b97f4a7c15L, ~i).toString());
+        transaction.setAmount(BigDecimal.valueOf(100 + i % 900, 2));
+        transaction.setDescription("Benchmark transaction " + i);
+        transaction.setTimestamp(BASE.plusSeconds(i));
+        transaction.setType(TYPES[i % TYPES.length]);
+        transaction.setCategory("Category-" + i % 20);
+        transaction.setStatus(STATUSES[i % STATUSES.length]);
+        return transaction;
+    }
+
+    /**
+     * 测量构建出的对象在GC后仍占用的堆内存和直接内存，以及对象存活时一次Full GC的耗时
+     */
+    private static Footprint measure(Supplier<Object> builder) {
+        gc();
+        long heapBefore = heapUsed();
+        long directBefore = directUsed();
+        Object retained = builder.get();
+        gc();
+        long start = System.nanoTime();
+        System.gc();
+        long fullGcMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        Footprint footprint = new Footprint(heapUsed() - heapBefore, directUsed() - directBefore, fullGcMillis);
+        Reference.reachabilityFence(retained);
+        return footprint;
+    }
+
+    private static void gc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+    }
+
+    private static long heapUsed() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long directUsed() {
+        return ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> pool.getName().equals("direct"))
+                .mapToLong(BufferPoolMXBean::getMemoryUsed)
+                .sum();
+    }
+
+    private record Footprint(long heapBytes, long directBytes, long fullGcMillis) {
+    }
+}
@@ -0,0 +1,103 @@
+package com.banking.transactionservice.benchmark;
+
+import com.banking.transactionservice.config.WireFormatConfig;
+import com.banking.transactionservice.dto.TransactionDTO;
+import com.banking.transactionservice.dto.TransactionDTOJson;
+import com.banking.transactionservice.service.TransactionMapper;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * API传输格式基准
+ * 比较JSON和CBOR编码单条交易和交易列表的序列化、反序列化耗时，两种ObjectMapper的配置与应用中的转换器一致。
+ * {@code codec} 为BEAN时使用Jackson默认的Bean序列化器，为STREAMING时使用应用注册的 {@link TransactionDTOJson}，
+ * 两者的编码结果相同。初始化时打印每种组合的编码字节数
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WireFormatBenchmark {
+
+    @Param({"JSON", "CBOR"})
+    private String format;
+
+    @Param({"BEAN", "STREAMING"})
+    private String codec;
+
+    /**
+     * 1表示单条交易，否则为交易列表的长度
+     */
+    @Param({"1", "100", "1000"})
+    private int records;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private Object value;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        Jackson2ObjectMapperBuilder builder = new Jackson2ObjectMapperBuilder();
+        if ("STREAMING".equals(codec)) {
+            builder.modulesToInstall(TransactionDTOJson.module());
+        }
+        ObjectMapper objectMapper = "CBOR".equals(format)
+                ? WireFormatConfig.cborObjectMapper(builder)
+                // 与Spring Boot配置的JSON ObjectMapper一致，日期写为ISO-8601字符串
+                : builder.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        TransactionMapper mapper = new TransactionMapper();
+        List<TransactionDTO> transactions = new ArrayList<>(records);
+        for (int i = 0; i < records; i++) {
+            TransactionDTO dto = mapper.toDTO(BenchmarkData.transaction(i));
+            // 应用生成的时间戳带有纳秒部分
+            dto.setTimestamp(dto.getTimestamp().plusNanos(123_456_789L * (i + 1) % 1_000_000_000L));
+            dto.setVersion(1_000_000L + i);
+            transactions.add(dto);
+        }
+        if (records == 1) {
+            value = transactions.get(0);
+            writer = objectMapper.writerFor(TransactionDTO.class);
+            reader = objectMapper.readerFor(TransactionDTO.class);
+        } else {
+            value = transactions;
+            writer = objectMapper.writerFor(new TypeReference<List<TransactionDTO>>() {});
+            reader = objectMapper.readerFor(new TypeReference<List<TransactionDTO>>() {});
+        }
+        encoded = writer.writeValueAsBytes(value);
+        System.out.printf("%n%s, %d records: %d bytes (%.1f bytes/record)%n",
+                format, records, encoded.length, (double) encoded.length / records);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return writer.writeValueAsBytes(value);
+    }
+
+    @Benchmark
+    public Object deserialize() throws IOException {
+        return reader.readValue(encoded);
+    }
+}
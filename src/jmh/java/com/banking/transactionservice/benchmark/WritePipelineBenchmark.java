@@ -0,0 +1,122 @@
+package com.banking.transactionservice.benchmark;
+
+import com.banking.transactionservice.cache.IdempotencyCache;
+import com.banking.transactionservice.cache.TransactionQueryCache;
+import com.banking.transactionservice.dto.TransactionDTO;
+import com.banking.transactionservice.persistence.PersistenceProperties;
+import com.banking.transactionservice.persistence.TransactionPersistence;
+import com.banking.transactionservice.repository.TransactionRepository;
+import com.banking.transactionservice.rollup.RollupGranularity;
+import com.banking.transactionservice.rollup.TransactionRollups;
+import com.banking.transactionservice.service.TransactionMapper;
+import com.banking.transactionservice.service.TransactionService;
+import com.banking.transactionservice.service.TransactionWritePipeline;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 新建交易写入路径基准
+ * 比较请求线程直接写入仓库与单写入线程流水线，分别在只写内存和同步提交预写日志两种持久化方式下，
+ * 用1个和16个线程并发创建交易。每轮迭代使用新的仓库和日志目录
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx8g"})
+@State(Scope.Benchmark)
+public class WritePipelineBenchmark {
+
+    @Param({"DIRECT", "PIPELINE"})
+    private String path;
+
+    @Param({"MEMORY", "WAL"})
+    private String durability;
+
+    private Path directory;
+    private TransactionPersistence persistence;
+    private TransactionWritePipeline pipeline;
+    private TransactionService service;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        TransactionRepository repository = new TransactionRepository();
+        TransactionQueryCache queryCache = new TransactionQueryCache(1000, Duration.ofMinutes(10));
+        repository.addChangeListener(queryCache);
+        TransactionRollups rollups = new TransactionRollups(Map.of(
+                RollupGranularity.MINUTE, Duration.ofHours(24),
+                RollupGranularity.HOUR, Duration.ofDays(30),
+                RollupGranularity.DAY, Duration.ofDays(400)), Duration.ofDays(1), Clock.systemDefaultZone());
+        repository.addChangeListener(rollups);
+        if ("WAL".equals(durability)) {
+            directory = Files.createTempDirectory("write-pipeline-benchmark");
+            PersistenceProperties properties = new PersistenceProperties();
+            properties.setDirectory(directory.toString());
+            properties.setSyncCommit(true);
+            persistence = new TransactionPersistence(repository, properties);
+            persistence.start();
+        }
+        if ("PIPELINE".equals(path)) {
+            pipeline = new TransactionWritePipeline(repository, 65_536, 1024, new SimpleMeterRegistry());
+        }
+        service = new TransactionService(repository, new TransactionMapper(),
+                Validation.buildDefaultValidatorFactory().getValidator(), queryCache, rollups,
+                new IdempotencyCache(100_000, Duration.ofHours(1)), pipeline);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        if (pipeline != null) {
+            pipeline.close();
+            pipeline = null;
+        }
+        if (persistence != null) {
+            persistence.close();
+            persistence = null;
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+            }
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public TransactionDTO create_1Thread() {
+        return create();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public TransactionDTO create_16Threads() {
+        return create();
+    }
+
+    private TransactionDTO create() {
+        return service.createTransaction(BenchmarkData.newTransactionDTO(ThreadLocalRandom.current().nextInt(1000)));
+    }
+}
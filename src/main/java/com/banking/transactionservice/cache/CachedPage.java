@@ -0,0 +1,13 @@
+package com.banking.transactionservice.cache;
+
+import com.banking.transactionservice.dto.TransactionDTO;
+
+import java.util.List;
+
+/**
+ * 分页查询结果缓存中保存的一页结果
+ * @param content 该页交易DTO（不可修改的列表）
+ * @param eTag 由页内交易版本号计算的强ETag，见 {@link EntityTags#ofPage(List)}
+ */
+public record CachedPage(List<TransactionDTO> content, String eTag) {
+}
@@ -0,0 +1,12 @@
+package com.banking.transactionservice.cache;
+
+import com.banking.transactionservice.dto.TransactionDTO;
+
+/**
+ * 单条交易缓存中保存的条目
+ * ETag在写入缓存时计算一次，条件请求命中缓存时只需比较ETag，不需要映射或序列化交易
+ * @param transaction 交易DTO
+ * @param eTag 交易版本号对应的强ETag
+ */
+public record CachedTransaction(TransactionDTO transaction, String eTag) {
+}
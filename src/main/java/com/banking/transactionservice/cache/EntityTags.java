@@ -0,0 +1,80 @@
+package com.banking.transactionservice.cache;
+
+import com.banking.transactionservice.exception.VersionConflictException;
+import com.banking.transactionservice.model.Transaction;
+import com.banking.transactionservice.repository.TransactionRepository;
+
+import java.util.List;
+
+/**
+ * HTTP实体标签（ETag）的生成和解析
+ * 单条交易的ETag是带引号的版本号，例如 "42"；一页交易的ETag由页内各交易的版本号计算。
+ * 每次写入都会分配全局唯一的版本号，因此版本号相同意味着内容相同，两种ETag都是强校验标签
+ */
+public final class EntityTags {
+
+    private EntityTags() {
+    }
+
+    /**
+     * 生成单条交易的强ETag
+     * @param version 交易版本号
+     * @return 带引号的ETag
+     */
+    public static String of(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * 生成一页交易的强ETag
+     * 页内任何一条交易被更新、或有交易移入移出该页时版本号序列都会改变；
+     * 页码、页大小和过滤条件属于请求URL，不需要参与计算
+     * @param transactions 按页内顺序排列的交易
+     * @return 带引号的ETag
+     */
+    public static String ofPage(List<Transaction> transactions) {
+        long hash = transactions.size();
+        for (Transaction transaction : transactions) {
+            hash = mix(hash * 31 + transaction.getVersion());
+        }
+        return "\"p" + Long.toHexString(hash) + "\"";
+    }
+
+    /**
+     * 把If-Match请求头解析为期望的版本号
+     * 只支持 * 或单个强ETag；弱ETag、多个ETag或不是由本服务生成的ETag都不可能与当前版本强匹配，直接视为前置条件失败
+     * @param id 交易ID，用于错误信息
+     * @param ifMatch If-Match请求头的值
+     * @return 期望的版本号，* 时为 {@link TransactionRepository#ANY_VERSION}
+     * @throws VersionConflictException 当请求头无法与任何版本匹配时抛出
+     */
+    public static long parseIfMatch(String id, String ifMatch) {
+        String value = ifMatch.trim();
+        if (value.equals("*")) {
+            return TransactionRepository.ANY_VERSION;
+        }
+        if (value.length() > 2 && value.charAt(0) == '"' && value.charAt(value.length() - 1) == '"') {
+            try {
+                long version = Long.parseLong(value.substring(1, value.length() - 1));
+                if (version > 0) {
+                    return version;
+                }
+            } catch (NumberFormatException e) {
+                // 不是本服务生成的ETag，按不匹配处理
+            }
+        }
+        throw new VersionConflictException(id, ifMatch);
+    }
+
+    /**
+     * 64位混合函数（MurmurHash3的fmix64），使相邻版本号的散列值充分分散
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
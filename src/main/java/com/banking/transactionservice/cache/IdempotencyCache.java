@@ -0,0 +1,120 @@
+package com.banking.transactionservice.cache;
+
+import com.banking.transactionservice.dto.TransactionDTO;
+import com.banking.transactionservice.exception.IdempotencyKeyConflictException;
+import com.banking.transactionservice.model.TransactionStatus;
+import com.banking.transactionservice.model.TransactionType;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * 创建交易的幂等键存储
+ * 以客户端提供的幂等键记录首次创建请求的内容和结果，条目数量有上限并在写入后过期：
+ * <ul>
+ *   <li>首次出现的键：先登记一个未完成的结果，再执行创建</li>
+ *   <li>已完成的键：直接返回原结果，不再写入仓库</li>
+ *   <li>创建进行中的键：等待进行中的那次创建并共享其结果，不会并发执行第二次</li>
+ *   <li>同一个键携带不同的请求内容：拒绝</li>
+ * </ul>
+ * 登记是对Caffeine底层并发映射的一次putIfAbsent，创建本身在登记之外执行，不持有任何锁，
+ * 仓库的写入路径不受影响。创建失败时移除登记并把异常交给等待者，客户端可以用同一个键重试
+ */
+public class IdempotencyCache {
+
+    private final Cache<String, Entry> cache;
+
+    /**
+     * @param maximumSize 最大条目数
+     * @param expireAfterWrite 条目写入后的过期时间
+     */
+    public IdempotencyCache(long maximumSize, Duration expireAfterWrite) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+    }
+
+    /**
+     * 以幂等方式执行创建
+     * @param key 幂等键
+     * @param request 创建请求，用于识别同一个键被用于不同请求的情况
+     * @param creation 执行创建并返回结果的函数，同一个键至多成功执行一次
+     * @return 创建结果，以及它是否为先前结果的重放
+     * @throws IdempotencyKeyConflictException 当该键已用于内容不同的请求时抛出
+     */
+    public IdempotentResult execute(String key, TransactionDTO request, Supplier<TransactionDTO> creation) {
+        Entry entry = new Entry(Fingerprint.of(request));
+        Entry existing = cache.asMap().putIfAbsent(key, entry);
+        if (existing != null) {
+            if (!existing.fingerprint.equals(entry.fingerprint)) {
+                throw new IdempotencyKeyConflictException(
+                        "Idempotency key was already used for a different request: " + key);
+            }
+            return new IdempotentResult(await(existing.result), true);
+        }
+        TransactionDTO created;
+        try {
+            created = creation.get();
+        } catch (RuntimeException | Error e) {
+            cache.asMap().remove(key, entry);
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+        entry.result.complete(created);
+        return new IdempotentResult(created, false);
+    }
+
+    /**
+     * 获取当前登记的幂等键数量（估计值）
+     * @return 条目数
+     */
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private static TransactionDTO await(CompletableFuture<TransactionDTO> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 一个幂等键的登记：请求内容和（可能尚未完成的）创建结果
+     */
+    private static final class Entry {
+        private final Fingerprint fingerprint;
+        private final CompletableFuture<TransactionDTO> result = new CompletableFuture<>();
+
+        private Entry(Fingerprint fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    /**
+     * 请求中客户端提供的全部字段
+     * 金额去掉末尾的0后比较，10.0与10.00视为同一请求
+     */
+    private record Fingerprint(String id, BigDecimal amount, String description, LocalDateTime timestamp,
+                               TransactionType type, String category, TransactionStatus status) {
+        static Fingerprint of(TransactionDTO request) {
+            BigDecimal amount = request.getAmount() == null ? null : request.getAmount().stripTrailingZeros();
+            return new Fingerprint(request.getId(), amount, request.getDescription(),
+                    request.getTimestamp(), request.getType(), request.getCategory(), request.getStatus());
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.banking.transactionservice.cache;
+
+import com.banking.transactionservice.dto.TransactionDTO;
+
+/**
+ * 幂等创建的结果
+ * @param transaction 创建的交易
+ * @param replayed 是否为同一幂等键先前结果的重放（本次请求没有写入）
+ */
+public record IdempotentResult(TransactionDTO transaction, boolean replayed) {
+}
@@ -0,0 +1,23 @@
+package com.banking.transactionservice.cache;
+
+/**
+ * 查询结果缓存的统计信息
+ * @param hitCount 命中次数
+ * @param missCount 未命中次数
+ * @param invalidationCount 因交易变更而失效的条目数
+ * @param evictionCount 因容量或过期被淘汰的条目数
+ * @param discardedLoadCount 加载期间发生相关变更、结果未被缓存的次数
+ * @param size 当前缓存的条目数
+ */
+public record QueryCacheStats(long hitCount, long missCount, long invalidationCount, long evictionCount,
+                              long discardedLoadCount, long size) {
+
+    /**
+     * 计算命中率
+     * @return 命中次数占查询次数的比例，没有查询时为0
+     */
+    public double hitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 0.0 : (double) hitCount / requests;
+    }
+}
@@ -0,0 +1,128 @@
+package com.banking.transactionservice.cache;
+
+import com.banking.transactionservice.model.Transaction;
+import com.banking.transactionservice.repository.TransactionChange;
+import com.banking.transactionservice.repository.TransactionChangeListener;
+import com.banking.transactionservice.repository.TransactionRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单条交易的本地近端缓存
+ * 作为Spring Cache {@value #CACHE_NAME} 的实现，缓存 {@link CachedTransaction}，同时是仓库的变更监听器：
+ * 本副本的写入、批量写入和其他副本复制来的写入都经过仓库，每条变更都会使对应ID的条目失效，
+ * 因此各副本的近端缓存与本地仓库保持一致，不依赖过期时间。批量变更按ID去重后逐个失效，不再清空整个缓存。
+ * <p>
+ * 通过 {@code @Cacheable(sync = true)} 的加载在Caffeine的compute中执行，并发写入的失效会等到加载的值放入缓存后才执行，
+ * 不会留下旧值。直接放入的值（非同步的@Cacheable或@CachePut）在读取仓库和放入缓存之间没有这种保护，
+ * 放入后再与仓库中的当前版本比较，不一致则移除，旧值不会一直留到过期
+ */
+public class TransactionNearCache extends CaffeineCache implements TransactionChangeListener, MeterBinder {
+
+    /**
+     * 缓存名
+     */
+    public static final String CACHE_NAME = "transactions";
+
+    private final TransactionRepository repository;
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder discardedLoads = new LongAdder();
+
+    /**
+     * @param cache Caffeine缓存，决定容量和过期策略
+     * @param repository 交易仓库，用于校验加载的版本
+     */
+    public TransactionNearCache(com.github.benmanes.caffeine.cache.Cache<Object, Object> cache,
+                                TransactionRepository repository) {
+        super(CACHE_NAME, cache, false);
+        this.repository = repository;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        super.put(key, value);
+        discardIfStale(key, value);
+    }
+
+    @Override
+    public void onChange(TransactionChange change) {
+        if (getNativeCache().asMap().remove(change.id()) != null) {
+            invalidations.increment();
+        }
+    }
+
+    /**
+     * 使一组变更涉及的条目失效，同一ID只处理一次
+     * @param changes 按生效顺序排列的变更
+     */
+    @Override
+    public void onChanges(List<TransactionChange> changes) {
+        Set<String> ids = new LinkedHashSet<>(changes.size() * 2);
+        for (TransactionChange change : changes) {
+            ids.add(change.id());
+        }
+        for (String id : ids) {
+            if (getNativeCache().asMap().remove(id) != null) {
+                invalidations.increment();
+            }
+        }
+    }
+
+    /**
+     * 注册失效和丢弃计数
+     * 命中率等指标由Spring Boot为CacheManager中的缓存统一发布
+     * @param registry 指标注册表
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        // 与Spring Boot为CacheManager中的缓存添加的标签保持一致
+        Tags tags = Tags.of("cache", CACHE_NAME, "cache.manager", "cacheManager", "name", CACHE_NAME);
+        FunctionCounter.builder("cache.invalidations", invalidations, LongAdder::sum)
+                .tags(tags)
+                .description("The number of entries invalidated by transaction changes")
+                .register(registry);
+        FunctionCounter.builder("cache.discarded.loads", discardedLoads, LongAdder::sum)
+                .tags(tags)
+                .description("The number of cached values removed because the transaction changed before they were put")
+                .register(registry);
+    }
+
+    /**
+     * 获取因变更而失效的条目数
+     * @return 失效次数
+     */
+    public long invalidationCount() {
+        return invalidations.sum();
+    }
+
+    /**
+     * 获取放入后因版本已变化而被移除的条目数
+     * @return 丢弃次数
+     */
+    public long discardedLoadCount() {
+        return discardedLoads.sum();
+    }
+
+    /**
+     * 放入的值已不是仓库中的当前版本时移除该值；只移除这个值本身，不影响其他线程之后放入的新值
+     */
+    private void discardIfStale(Object key, Object value) {
+        if (!(value instanceof CachedTransaction cached)) {
+            return;
+        }
+        Long current = repository.findById((String) key).map(Transaction::getVersion).orElse(null);
+        if (!Objects.equals(current, cached.transaction().getVersion())
+                && getNativeCache().asMap().remove(key, value)) {
+            discardedLoads.increment();
+        }
+    }
+}
@@ -0,0 +1,406 @@
+package com.banking.transactionservice.cache;
+
+import com.banking.transactionservice.dto.TransactionDTO;
+import com.banking.transactionservice.model.Transaction;
+import com.banking.transactionservice.model.TransactionStatus;
+import com.banking.transactionservice.model.TransactionType;
+import com.banking.transactionservice.repository.TransactionChange;
+import com.banking.transactionservice.repository.TransactionChangeListener;
+import com.banking.transactionservice.repository.TransactionFilter;
+import com.banking.transactionservice.repository.TransactionKey;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 分页查询结果缓存
+ * 每个条目记录查询条件以及结果页覆盖的排序键范围（首条、末条记录的(时间戳, ID)），
+ * 作为仓库的变更监听器，只让真正受影响的条目失效：
+ * <ul>
+ *   <li>变更前后都不满足条目查询条件的交易不影响该条目</li>
+ *   <li>位置不变的原地更新只影响包含该记录的页</li>
+ *   <li>新增、删除或排序键变化会使其后所有记录移位，只影响末条记录不早于该键的页，以及未满的最后一页</li>
+ * </ul>
+ * 交易默认以当前时间为时间戳，新增通常排在最后，因此只会使最后一页失效，前面的页保持有效。
+ * <p>
+ * 条目按查询条件分组索引，组内满页按末条记录的排序键排列。一条交易只可能满足
+ * 类别、类型、状态各取其值或不过滤的8种条件，变更只查找这些组，并只访问末条记录不早于变更键的满页和未满的页，
+ * 失效的开销与缓存中不相关的条目数无关。
+ * <p>
+ * 加载期间发生的相关变更可能未被读到，加载开始前会登记，期间收到匹配的变更则结果不进入缓存。
+ * <p>
+ * 作为 {@link MeterBinder} 以缓存名 {@value #CACHE_NAME} 发布命中率、淘汰次数、加载耗时和失效次数
+ */
+public class TransactionQueryCache implements TransactionChangeListener, MeterBinder {
+
+    /**
+     * 指标中使用的缓存名
+     */
+    public static final String CACHE_NAME = "allTransactions";
+
+    private final Cache<QueryKey, Entry> cache;
+    private final Map<TransactionFilter, FilterIndex> index = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Set<PendingLoad> pendingLoads = ConcurrentHashMap.newKeySet();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder discardedLoads = new LongAdder();
+
+    /**
+     * @param maximumSize 最大条目数
+     * @param expireAfterWrite 条目写入后的过期时间
+     */
+    public TransactionQueryCache(long maximumSize, Duration expireAfterWrite) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                // 淘汰在维护时同步通知，索引不会保留已淘汰的条目
+                .evictionListener((QueryKey key, Entry entry, RemovalCause cause) -> unindex(entry))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 获取一页查询结果，未命中时加载并缓存
+     * @param filter 查询条件
+     * @param page 页码
+     * @param size 每页记录数
+     * @param loader 从仓库读取该页交易的函数；它在Caffeine的compute中执行并持有哈希桶锁，
+     *               不能包含阻塞操作，否则虚拟线程会被钉住在载体线程上
+     * @param mapper 交易到DTO的转换函数
+     * @return 该页交易DTO（不可修改的列表）
+     */
+    public List<TransactionDTO> getPage(TransactionFilter filter, int page, int size,
+                                        Supplier<List<Transaction>> loader,
+                                        Function<Transaction, TransactionDTO> mapper) {
+        return getCachedPage(filter, page, size, loader, mapper).content();
+    }
+
+    /**
+     * 获取一页查询结果及其ETag，未命中时加载并缓存
+     * ETag与该页一起缓存，条目失效前条件请求不需要重新计算
+     * @param filter 查询条件
+     * @param page 页码
+     * @param size 每页记录数
+     * @param loader 从仓库读取该页交易的函数，限制同 {@link #getPage}
+     * @param mapper 交易到DTO的转换函数
+     * @return 该页交易DTO及ETag
+     */
+    public CachedPage getCachedPage(TransactionFilter filter, int page, int size,
+                                    Supplier<List<Transaction>> loader,
+                                    Function<Transaction, TransactionDTO> mapper) {
+        QueryKey key = new QueryKey(filter, page, size);
+        PendingLoad[] load = new PendingLoad[1];
+        Entry entry;
+        try {
+            // 同一页的并发未命中只加载一次，加载耗时计入缓存统计
+            entry = cache.get(key, k -> {
+                load[0] = new PendingLoad(filter);
+                pendingLoads.add(load[0]);
+                List<Transaction> transactions = loader.get();
+                return new Entry(k, sequence.incrementAndGet(), transactions,
+                        transactions.stream().map(mapper).toList());
+            });
+            if (load[0] != null) {
+                index(entry);
+            }
+        } finally {
+            // 条目加入索引后才注销登记：监听器要么看到登记并标记为过期，要么在索引中找到该条目
+            if (load[0] != null) {
+                pendingLoads.remove(load[0]);
+            }
+        }
+        if (load[0] != null) {
+            if (load[0].stale) {
+                discard(entry);
+                discardedLoads.increment();
+            } else if (cache.asMap().get(key) != entry) {
+                // 加入索引前已被淘汰，淘汰通知没有可移除的索引项
+                unindex(entry);
+            }
+        }
+        return entry.page;
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void invalidateAll() {
+        cache.asMap().values().forEach(this::discard);
+    }
+
+    /**
+     * 获取统计信息
+     * @return 命中、未命中、失效等计数
+     */
+    public QueryCacheStats stats() {
+        CacheStats stats = cache.stats();
+        return new QueryCacheStats(stats.hitCount(), stats.missCount(), invalidations.sum(),
+                stats.evictionCount(), discardedLoads.sum(), cache.estimatedSize());
+    }
+
+    /**
+     * 注册缓存指标
+     * @param registry 指标注册表
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        // 与Spring Boot为CacheManager中的缓存添加的标签保持一致，Prometheus要求同名指标的标签集合相同
+        Tags tags = Tags.of("cache", CACHE_NAME, "cache.manager", "transactionQueryCache", "name", CACHE_NAME);
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME, tags);
+        // CaffeineCacheMetrics只为LoadingCache发布加载指标，这里的加载函数随查询而变，因此单独注册
+        TimeGauge.builder("cache.load.duration", cache, TimeUnit.NANOSECONDS, c -> c.stats().totalLoadTime())
+                .tags(tags)
+                .description("The time the cache has spent loading new values")
+                .register(registry);
+        FunctionCounter.builder("cache.load", cache, c -> c.stats().loadSuccessCount())
+                .tags(tags.and("result", "success"))
+                .description("The number of times cache lookup methods have successfully loaded a new value")
+                .register(registry);
+        FunctionCounter.builder("cache.load", cache, c -> c.stats().loadFailureCount())
+                .tags(tags.and("result", "failure"))
+                .description("The number of times cache lookup methods threw an exception while loading a new value")
+                .register(registry);
+        FunctionCounter.builder("cache.invalidations", invalidations, LongAdder::sum)
+                .tags(tags)
+                .description("The number of entries invalidated by transaction changes")
+                .register(registry);
+        FunctionCounter.builder("cache.discarded.loads", discardedLoads, LongAdder::sum)
+                .tags(tags)
+                .description("The number of loads not cached because a matching change arrived during the load")
+                .register(registry);
+    }
+
+    @Override
+    public void onChange(TransactionChange change) {
+        onChanges(List.of(change));
+    }
+
+    /**
+     * 使受一组变更影响的条目失效
+     * 每条变更只查找它可能满足的查询条件对应的条目组，同一条目在整批中只失效一次
+     * @param changes 按生效顺序排列的变更
+     */
+    @Override
+    public void onChanges(List<TransactionChange> changes) {
+        for (PendingLoad load : pendingLoads) {
+            if (!load.stale && changes.stream().anyMatch(change -> touches(load.filter, change))) {
+                load.stale = true;
+            }
+        }
+        Set<Entry> affected = new HashSet<>();
+        for (TransactionChange change : changes) {
+            for (TransactionFilter filter : candidateFilters(change)) {
+                FilterIndex entries = index.get(filter);
+                if (entries != null) {
+                    entries.collectAffected(filter, change, affected);
+                }
+            }
+        }
+        for (Entry entry : affected) {
+            if (discard(entry)) {
+                invalidations.increment();
+            }
+        }
+    }
+
+    private void index(Entry entry) {
+        index.compute(entry.key.filter(), (filter, entries) -> {
+            FilterIndex target = entries == null ? new FilterIndex() : entries;
+            target.add(entry);
+            return target;
+        });
+    }
+
+    private void unindex(Entry entry) {
+        // 查询条件来自请求参数，空的组立即移除，索引不会随不同的条件无限增长
+        index.computeIfPresent(entry.key.filter(), (filter, entries) -> entries.remove(entry) ? null : entries);
+    }
+
+    /**
+     * 从缓存和索引中移除条目
+     * @return 条目是否仍在缓存中并被本次调用移除
+     */
+    private boolean discard(Entry entry) {
+        boolean removed = cache.asMap().remove(entry.key, entry);
+        unindex(entry);
+        return removed;
+    }
+
+    private static boolean touches(TransactionFilter filter, TransactionChange change) {
+        return (change.previous() != null && filter.matches(change.previous()))
+                || (change.current() != null && filter.matches(change.current()));
+    }
+
+    /**
+     * 变更前后的交易可能满足的所有查询条件：每个字段取交易的值或不过滤
+     */
+    private static Set<TransactionFilter> candidateFilters(TransactionChange change) {
+        Set<TransactionFilter> filters = new HashSet<>();
+        addCandidateFilters(change.previous(), filters);
+        addCandidateFilters(change.current(), filters);
+        return filters;
+    }
+
+    private static void addCandidateFilters(Transaction transaction, Set<TransactionFilter> filters) {
+        if (transaction == null) {
+            return;
+        }
+        for (String category : new String[]{null, transaction.getCategory()}) {
+            for (TransactionType type : new TransactionType[]{null, transaction.getType()}) {
+                for (TransactionStatus status : new TransactionStatus[]{null, transaction.getStatus()}) {
+                    filters.add(new TransactionFilter(category, type, status));
+                }
+            }
+        }
+    }
+
+    private record QueryKey(TransactionFilter filter, int page, int size) {
+    }
+
+    /**
+     * 索引中满页的排序键：末条记录的排序键，相同时按条目创建顺序区分
+     */
+    private record IndexKey(TransactionKey last, long sequence) implements Comparable<IndexKey> {
+
+        /**
+         * 所有末条记录不早于该键的满页中最小的索引键
+         */
+        private static IndexKey from(TransactionKey key) {
+            return new IndexKey(key, Long.MIN_VALUE);
+        }
+
+        @Override
+        public int compareTo(IndexKey other) {
+            int byKey = last.compareTo(other.last);
+            return byKey != 0 ? byKey : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    /**
+     * 同一查询条件下的缓存条目
+     * 满页按末条记录的排序键排列，只有末条记录不早于变更键的满页可能受影响；
+     * 未满的页（通常只有最后一页）受任何移位影响，单独保存
+     */
+    private static final class FilterIndex {
+        private final NavigableMap<IndexKey, Entry> fullPages = new ConcurrentSkipListMap<>();
+        private final Set<Entry> partialPages = ConcurrentHashMap.newKeySet();
+
+        private void add(Entry entry) {
+            if (!entry.full) {
+                partialPages.add(entry);
+            } else if (entry.last != null) {
+                fullPages.put(entry.indexKey(), entry);
+            }
+        }
+
+        /**
+         * 移除条目
+         * @return 移除后是否已经为空
+         */
+        private boolean remove(Entry entry) {
+            if (!entry.full) {
+                partialPages.remove(entry);
+            } else if (entry.last != null) {
+                fullPages.remove(entry.indexKey(), entry);
+            }
+            return fullPages.isEmpty() && partialPages.isEmpty();
+        }
+
+        /**
+         * 收集可能被一条变更改变内容的条目
+         */
+        private void collectAffected(TransactionFilter filter, TransactionChange change, Set<Entry> affected) {
+            boolean wasMember = change.previous() != null && filter.matches(change.previous());
+            boolean isMember = change.current() != null && filter.matches(change.current());
+            if (!wasMember && !isMember) {
+                return;
+            }
+            TransactionKey previousKey = wasMember ? TransactionKey.of(change.previous()) : null;
+            TransactionKey currentKey = isMember ? TransactionKey.of(change.current()) : null;
+            if (wasMember && isMember && previousKey.equals(currentKey)) {
+                // 原地更新只影响包含该记录的页，它们的末条记录都不早于该键
+                for (Entry entry : partialPages) {
+                    if (entry.contains(currentKey)) {
+                        affected.add(entry);
+                    }
+                }
+                for (Entry entry : fullPages.tailMap(IndexKey.from(currentKey)).values()) {
+                    if (entry.contains(currentKey)) {
+                        affected.add(entry);
+                    }
+                }
+                return;
+            }
+            // 插入或删除一条记录会使其后的记录移位
+            affected.addAll(partialPages);
+            if (wasMember) {
+                affected.addAll(fullPages.tailMap(IndexKey.from(previousKey)).values());
+            }
+            if (isMember) {
+                affected.addAll(fullPages.tailMap(IndexKey.from(currentKey)).values());
+            }
+        }
+    }
+
+    /**
+     * 正在进行的加载，按身份比较
+     */
+    private static final class PendingLoad {
+        private final TransactionFilter filter;
+        private volatile boolean stale;
+
+        private PendingLoad(TransactionFilter filter) {
+            this.filter = filter;
+        }
+    }
+
+    /**
+     * 缓存条目：一页结果、ETag及其覆盖的排序键范围
+     */
+    private static final class Entry {
+        private final QueryKey key;
+        private final long sequence;
+        private final CachedPage page;
+        private final TransactionKey first;
+        private final TransactionKey last;
+        private final boolean full;
+
+        private Entry(QueryKey key, long sequence, List<Transaction> transactions, List<TransactionDTO> content) {
+            this.key = key;
+            this.sequence = sequence;
+            this.page = new CachedPage(content, EntityTags.ofPage(transactions));
+            this.first = transactions.isEmpty() ? null : TransactionKey.of(transactions.get(0));
+            this.last = transactions.isEmpty() ? null : TransactionKey.of(transactions.get(transactions.size() - 1));
+            this.full = transactions.size() >= key.size();
+        }
+
+        private IndexKey indexKey() {
+            return new IndexKey(last, sequence);
+        }
+
+        private boolean contains(TransactionKey key) {
+            return first != null && first.compareTo(key) <= 0 && key.compareTo(last) <= 0;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.banking.transactionservice.changefeed;
+
+import java.util.List;
+
+/**
+ * 长轮询返回的一批变更
+ * @param events 按记录顺序排列的变更，等待超时时为空
+ * @param next 下次读取时传入的游标
+ */
+public record ChangeBatch(List<ChangeEvent> events, String next) {
+}
@@ -0,0 +1,18 @@
+package com.banking.transactionservice.changefeed;
+
+import com.banking.transactionservice.dto.TransactionDTO;
+import com.banking.transactionservice.repository.TransactionChange;
+
+/**
+ * 变更订阅中的一条变更
+ * 同一ID的变更在订阅中按生效顺序排列，见 {@link ChangeFeed}
+ * @param cursor 本条变更的游标，作为下次读取或重连的起点
+ * @param type 变更类型
+ * @param id 交易ID
+ * @param version 写入后的版本号；删除时为删除所用的变更序号
+ * @param timestamp 记录变更的时间（毫秒）
+ * @param transaction 写入后的交易，删除时为null
+ */
+public record ChangeEvent(String cursor, TransactionChange.Type type, String id, long version, long timestamp,
+                          TransactionDTO transaction) {
+}
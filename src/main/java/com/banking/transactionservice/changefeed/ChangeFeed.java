@@ -0,0 +1,291 @@
+package com.banking.transactionservice.changefeed;
+
+import com.banking.transactionservice.dto.TransactionDTO;
+import com.banking.transactionservice.exception.BadRequestException;
+import com.banking.transactionservice.exception.ChangeFeedExpiredException;
+import com.banking.transactionservice.repository.TransactionChange;
+import com.banking.transactionservice.repository.TransactionChangeListener;
+import com.banking.transactionservice.service.TransactionMapper;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 交易变更订阅的环形缓冲区
+ * 作为仓库的变更监听器，把每次写入和删除（包括批量写入和其他副本复制来的变更）依次记录为从1开始连续编号的变更，
+ * 最近 capacity 条保存在环形数组中。写入方只追加、从不等待消费方；每个消费方用自己的游标读取，
+ * 落后超过容量的游标不能继续读取。
+ * <p>
+ * 监听器在仓库的compute之外被调用，并发写入同一ID时，先生效的变更可能晚于后生效的变更到达。
+ * 缓冲区按变更序号记录每个ID最近一条保留的变更，晚到的旧变更已被取代，直接丢弃，
+ * 因此同一ID的变更在订阅中的顺序总是与生效顺序一致，消费方按编号顺序应用即可得到最终状态
+ * <p>
+ * 游标由本次启动的纪元和编号组成，服务重启后旧游标失效。
+ * 读取方可以用 {@link #read} 阻塞等待新变更，也可以用 {@link #onAppend} 注册回调而不占用线程（长轮询接口）。
+ * 使用ReentrantLock而不是synchronized，阻塞读取方在虚拟线程上等待时不会钉住载体线程
+ */
+public class ChangeFeed implements TransactionChangeListener {
+
+    private static final char SEPARATOR = '-';
+
+    private final TransactionMapper mapper;
+    private final ChangeEvent[] ring;
+    private final long[] sequences;
+    private final Map<String, Long> latestSequences = new HashMap<>();
+    private Set<Runnable> callbacks = new HashSet<>();
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private long head;
+
+    /**
+     * @param capacity 保留的变更条数
+     * @param mapper 交易映射器，变更中的交易在记录时转换为DTO
+     */
+    public ChangeFeed(int capacity, TransactionMapper mapper) {
+        this.ring = new ChangeEvent[capacity];
+        this.sequences = new long[capacity];
+        this.mapper = mapper;
+    }
+
+    @Override
+    public void onChange(TransactionChange change) {
+        TransactionDTO transaction = toDTO(change);
+        long timestamp = System.currentTimeMillis();
+        Set<Runnable> ready;
+        lock.lock();
+        try {
+            long before = head;
+            append(change, transaction, timestamp);
+            ready = signalAppended(before);
+        } finally {
+            lock.unlock();
+        }
+        ready.forEach(Runnable::run);
+    }
+
+    /**
+     * 记录批量写入的一组变更，只加一次锁、只唤醒一次读取方
+     * @param changes 按生效顺序排列的变更
+     */
+    @Override
+    public void onChanges(List<TransactionChange> changes) {
+        List<TransactionDTO> transactions = new ArrayList<>(changes.size());
+        for (TransactionChange change : changes) {
+            transactions.add(toDTO(change));
+        }
+        long timestamp = System.currentTimeMillis();
+        Set<Runnable> ready;
+        lock.lock();
+        try {
+            long before = head;
+            for (int i = 0; i < changes.size(); i++) {
+                append(changes.get(i), transactions.get(i), timestamp);
+            }
+            ready = signalAppended(before);
+        } finally {
+            lock.unlock();
+        }
+        ready.forEach(Runnable::run);
+    }
+
+    /**
+     * 读取某个编号之后的变更，没有新变更时最多等待timeout
+     * @param after 已读取的编号
+     * @param max 最多返回的条数
+     * @param timeout 最长等待时间
+     * @return 按编号排列的变更，等待超时时为空
+     * @throws ChangeFeedExpiredException 当after之后的变更已被覆盖时抛出
+     * @throws InterruptedException 等待被中断时抛出
+     */
+    public List<ChangeEvent> read(long after, int max, Duration timeout) throws InterruptedException {
+        lock.lock();
+        try {
+            long remaining = timeout.toNanos();
+            while (head <= after && remaining > 0) {
+                remaining = appended.awaitNanos(remaining);
+            }
+            return readLocked(after, max);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 不等待，读取某个编号之后已有的变更
+     * @param after 已读取的编号
+     * @param max 最多返回的条数
+     * @return 变更及下次读取的游标，没有新变更时变更为空
+     * @throws ChangeFeedExpiredException 当after之后的变更已被覆盖时抛出
+     */
+    public ChangeBatch poll(long after, int max) {
+        lock.lock();
+        try {
+            List<ChangeEvent> events = readLocked(after, max);
+            return new ChangeBatch(events, cursor(after + events.size()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 在某个编号之后出现变更时调用一次回调
+     * 已有新变更时立即在调用线程上执行；否则由追加变更的线程在释放锁之后执行，回调应尽快返回且不抛出异常
+     * @param after 已读取的编号
+     * @param callback 回调
+     * @return 取消回调的操作，回调已执行后调用没有效果
+     */
+    public Runnable onAppend(long after, Runnable callback) {
+        lock.lock();
+        try {
+            if (head <= after) {
+                callbacks.add(callback);
+                return () -> cancel(callback);
+            }
+        } finally {
+            lock.unlock();
+        }
+        callback.run();
+        return () -> { };
+    }
+
+    private void cancel(Runnable callback) {
+        lock.lock();
+        try {
+            callbacks.remove(callback);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 有新变更时唤醒阻塞的读取方并取出所有回调，回调由调用方在释放锁之后执行
+     * @param before 追加之前的编号
+     */
+    private Set<Runnable> signalAppended(long before) {
+        if (head == before) {
+            return Set.of();
+        }
+        appended.signalAll();
+        if (callbacks.isEmpty()) {
+            return Set.of();
+        }
+        Set<Runnable> ready = callbacks;
+        callbacks = new HashSet<>();
+        return ready;
+    }
+
+    private List<ChangeEvent> readLocked(long after, int max) {
+        long oldest = Math.max(1, head - ring.length + 1);
+        if (after < oldest - 1) {
+            throw new ChangeFeedExpiredException("Changes after " + cursor(after)
+                    + " are no longer retained, the oldest retained change is " + cursor(oldest));
+        }
+        if (head <= after) {
+            return Collections.emptyList();
+        }
+        long last = Math.min(head, after + max);
+        List<ChangeEvent> events = new ArrayList<>((int) (last - after));
+        for (long offset = after + 1; offset <= last; offset++) {
+            events.add(ring[(int) (offset % ring.length)]);
+        }
+        return events;
+    }
+
+    /**
+     * 读取游标之后的一批变更，没有新变更时最多等待wait
+     * @param cursor 游标，为空时只读取之后的变更
+     * @param max 最多返回的条数
+     * @param wait 最长等待时间
+     * @return 变更及下次读取的游标
+     * @throws ChangeFeedExpiredException 当游标已无法继续读取时抛出
+     * @throws InterruptedException 等待被中断时抛出
+     */
+    public ChangeBatch poll(String cursor, int max, Duration wait) throws InterruptedException {
+        long after = resolve(cursor);
+        List<ChangeEvent> events = read(after, max, wait);
+        return new ChangeBatch(events, cursor(after + events.size()));
+    }
+
+    /**
+     * 将游标解析为编号
+     * @param cursor 游标，为空时表示最新位置，即只读取之后的变更
+     * @return 已读取的编号
+     * @throws BadRequestException 当游标格式不正确时抛出
+     * @throws ChangeFeedExpiredException 当游标来自服务重启之前时抛出
+     */
+    public long resolve(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return head();
+        }
+        int separator = cursor.lastIndexOf(SEPARATOR);
+        long offset;
+        try {
+            offset = Long.parseLong(cursor.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid change feed cursor: " + cursor);
+        }
+        if (separator <= 0 || offset < 0) {
+            throw new BadRequestException("Invalid change feed cursor: " + cursor);
+        }
+        if (!epoch.equals(cursor.substring(0, separator)) || offset > head()) {
+            throw new ChangeFeedExpiredException("Change feed cursor " + cursor + " is from a previous run");
+        }
+        return offset;
+    }
+
+    /**
+     * 将编号编码为游标
+     * @param offset 编号
+     * @return 游标
+     */
+    public String cursor(long offset) {
+        return epoch + SEPARATOR + offset;
+    }
+
+    /**
+     * 获取最后一条变更的编号
+     * @return 编号，没有变更时为0
+     */
+    public long head() {
+        lock.lock();
+        try {
+            return head;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 追加一条变更；同一ID已记录了序号更大的变更时丢弃
+     * 只跟踪仍在缓冲区中的ID，内存占用不超过capacity条
+     */
+    private void append(TransactionChange change, TransactionDTO transaction, long timestamp) {
+        Long latest = latestSequences.get(change.id());
+        if (latest != null && latest >= change.sequence()) {
+            return;
+        }
+        long offset = ++head;
+        int slot = (int) (offset % ring.length);
+        ChangeEvent overwritten = ring[slot];
+        if (overwritten != null) {
+            latestSequences.remove(overwritten.id(), sequences[slot]);
+        }
+        long version = change.current() != null ? change.current().getVersion() : change.sequence();
+        ring[slot] = new ChangeEvent(cursor(offset), change.type(), change.id(), version, timestamp, transaction);
+        sequences[slot] = change.sequence();
+        latestSequences.put(change.id(), change.sequence());
+    }
+
+    private TransactionDTO toDTO(TransactionChange change) {
+        return change.current() == null ? null : mapper.toDTO(change.current());
+    }
+}
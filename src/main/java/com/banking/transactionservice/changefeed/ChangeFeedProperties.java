@@ -0,0 +1,85 @@
+package com.banking.transactionservice.changefeed;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 变更订阅配置
+ * 对应配置前缀 transaction.change-feed
+ */
+@ConfigurationProperties(prefix = "transaction.change-feed")
+public class ChangeFeedProperties {
+    private boolean enabled = true;                             // 是否记录变更并提供订阅接口
+    private int capacity = 65_536;                              // 环形缓冲区保留的变更条数
+    private int maxBatchSize = 500;                             // 单次返回或推送的最大变更条数
+    private int maxLag = 32_768;                                // SSE订阅允许落后的最大条数，超过后断开
+    private int maxSubscribers = 32;                            // 同时存在的SSE订阅数上限
+    private Duration heartbeatInterval = Duration.ofSeconds(15); // 没有新变更时SSE心跳的间隔
+    private Duration streamTimeout = Duration.ofMinutes(30);    // 单个SSE连接的最长时间，之后客户端需要重连
+    private Duration maxPollWait = Duration.ofSeconds(30);      // 长轮询的最长等待时间
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public int getMaxLag() {
+        return maxLag;
+    }
+
+    public void setMaxLag(int maxLag) {
+        this.maxLag = maxLag;
+    }
+
+    public int getMaxSubscribers() {
+        return maxSubscribers;
+    }
+
+    public void setMaxSubscribers(int maxSubscribers) {
+        this.maxSubscribers = maxSubscribers;
+    }
+
+    public Duration getHeartbeatInterval() {
+        return heartbeatInterval;
+    }
+
+    public void setHeartbeatInterval(Duration heartbeatInterval) {
+        this.heartbeatInterval = heartbeatInterval;
+    }
+
+    public Duration getStreamTimeout() {
+        return streamTimeout;
+    }
+
+    public void setStreamTimeout(Duration streamTimeout) {
+        this.streamTimeout = streamTimeout;
+    }
+
+    public Duration getMaxPollWait() {
+        return maxPollWait;
+    }
+
+    public void setMaxPollWait(Duration maxPollWait) {
+        this.maxPollWait = maxPollWait;
+    }
+}
@@ -0,0 +1,199 @@
+package com.banking.transactionservice.changefeed;
+
+import com.banking.transactionservice.exception.ChangeFeedExpiredException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 以Server-Sent Events推送变更
+ * 每个订阅由一个发送线程从自己的游标读取 {@link ChangeFeed}，有多少变更就一次推送多少（不超过max-batch-size），
+ * 推送完一批再读下一批，消费方读得慢时发送线程阻塞在写入上，写入方和其他订阅不受影响。
+ * 订阅落后超过max-lag条时推送一条evicted事件并断开，从同一游标重连会被拒绝，
+ * 消费方需要通过查询接口重新同步；这样慢消费方不会一直占用连接和发送线程，也不会读到已被覆盖的变更。
+ * <p>
+ * 发送线程使用平台线程：SseEmitter的发送方法是synchronized的，在虚拟线程上阻塞于慢消费方的写入时会钉住载体线程
+ */
+public class ChangeFeedStreamer implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeFeedStreamer.class);
+
+    private final ChangeFeed feed;
+    private final ChangeFeedProperties properties;
+    private final Map<Subscription, Thread> subscriptions = new ConcurrentHashMap<>();
+    private final Counter lagEvictions;
+    private final Counter expiredEvictions;
+    private volatile boolean closed;
+
+    /**
+     * @param feed 变更订阅的环形缓冲区
+     * @param properties 变更订阅配置
+     * @param registry 指标注册表
+     */
+    public ChangeFeedStreamer(ChangeFeed feed, ChangeFeedProperties properties, MeterRegistry registry) {
+        this.feed = feed;
+        this.properties = properties;
+        Gauge.builder("transaction.changefeed.subscribers", subscriptions, Map::size)
+                .description("The number of open change feed streams")
+                .register(registry);
+        Gauge.builder("transaction.changefeed.head", feed, ChangeFeed::head)
+                .description("The offset of the latest recorded change")
+                .register(registry);
+        this.lagEvictions = evictions(registry, "lag");
+        this.expiredEvictions = evictions(registry, "expired");
+    }
+
+    /**
+     * 打开一个从游标之后开始推送的订阅
+     * @param cursor 游标，为空时只推送之后的变更
+     * @return SSE发送器；订阅数已达上限时为空
+     * @throws ChangeFeedExpiredException 当游标已无法继续读取或落后超过max-lag时抛出
+     */
+    public Optional<SseEmitter> open(String cursor) {
+        SseEmitter emitter = new SseEmitter(properties.getStreamTimeout().toMillis());
+        return start(feed.resolve(cursor), emitter) ? Optional.of(emitter) : Optional.empty();
+    }
+
+    /**
+     * 启动订阅的发送线程
+     * @param after 已推送的编号
+     * @param emitter SSE发送器
+     * @return 是否启动；订阅数已达上限或已关闭时为false
+     */
+    boolean start(long after, SseEmitter emitter) {
+        if (feed.head() - after > properties.getMaxLag()) {
+            throw new ChangeFeedExpiredException("Change feed cursor " + feed.cursor(after) + " is more than "
+                    + properties.getMaxLag() + " changes behind");
+        }
+        Subscription subscription = new Subscription(after, emitter);
+        synchronized (subscriptions) {
+            if (closed || subscriptions.size() >= properties.getMaxSubscribers()) {
+                return false;
+            }
+            Thread thread = Thread.ofPlatform().daemon().name("change-feed-" + feed.cursor(after)).unstarted(subscription);
+            subscriptions.put(subscription, thread);
+            thread.start();
+        }
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(() -> {
+            // 在超时回调中完成请求，连接正常结束；否则超时会作为异常交给异常处理器，而响应已经以事件流开始
+            subscription.cancel();
+            emitter.complete();
+        });
+        emitter.onError(e -> subscription.cancel());
+        return true;
+    }
+
+    /**
+     * 获取当前的订阅数
+     * @return 订阅数
+     */
+    public int subscriberCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * 断开所有订阅
+     */
+    @Override
+    public void close() {
+        synchronized (subscriptions) {
+            closed = true;
+        }
+        subscriptions.keySet().forEach(Subscription::cancel);
+    }
+
+    private static Counter evictions(MeterRegistry registry, String reason) {
+        return Counter.builder("transaction.changefeed.evictions")
+                .tag("reason", reason)
+                .description("The number of change feed streams closed because the subscriber fell too far behind")
+                .register(registry);
+    }
+
+    /**
+     * 一个订阅的发送循环
+     */
+    private final class Subscription implements Runnable {
+
+        private final SseEmitter emitter;
+        private long position;
+        private volatile boolean cancelled;
+
+        private Subscription(long after, SseEmitter emitter) {
+            this.position = after;
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!cancelled) {
+                    List<ChangeEvent> events = feed.read(position, properties.getMaxBatchSize(),
+                            properties.getHeartbeatInterval());
+                    if (events.isEmpty()) {
+                        emitter.send(SseEmitter.event().comment("keep-alive"));
+                        continue;
+                    }
+                    long lag = feed.head() - position;
+                    if (lag > properties.getMaxLag()) {
+                        lagEvictions.increment();
+                        evict("Subscriber is " + lag + " changes behind, the limit is " + properties.getMaxLag());
+                        return;
+                    }
+                    Set<ResponseBodyEmitter.DataWithMediaType> batch = new LinkedHashSet<>();
+                    for (ChangeEvent event : events) {
+                        batch.addAll(SseEmitter.event()
+                                .id(event.cursor())
+                                .name(event.type().name().toLowerCase(Locale.ROOT))
+                                .data(event, MediaType.APPLICATION_JSON)
+                                .build());
+                    }
+                    emitter.send(batch);
+                    position += events.size();
+                }
+            } catch (ChangeFeedExpiredException e) {
+                expiredEvictions.increment();
+                evict(e.getMessage());
+            } catch (IOException | IllegalStateException e) {
+                // 消费方已断开或连接已超时
+                log.debug("Change feed stream at {} closed: {}", feed.cursor(position), e.toString());
+            } catch (InterruptedException e) {
+                // 订阅被取消
+            } finally {
+                subscriptions.remove(this);
+                emitter.complete();
+            }
+        }
+
+        private void evict(String reason) {
+            log.warn("Evicting change feed subscriber at {}: {}", feed.cursor(position), reason);
+            try {
+                emitter.send(SseEmitter.event().name("evicted").data(reason));
+            } catch (IOException | IllegalStateException e) {
+                // 消费方已断开
+            }
+        }
+
+        private void cancel() {
+            cancelled = true;
+            Thread thread = subscriptions.get(this);
+            if (thread != null && thread != Thread.currentThread()) {
+                thread.interrupt();
+            }
+        }
+    }
+}
@@ -1,32 +1,90 @@
 package com.banking.transactionservice.config;
 
+import com.banking.transactionservice.cache.IdempotencyCache;
+import com.banking.transactionservice.cache.TransactionNearCache;
+import com.banking.transactionservice.cache.TransactionQueryCache;
+import com.banking.transactionservice.repository.TransactionRepository;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
-import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.SimpleCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.util.concurrent.TimeUnit;
+import java.time.Duration;
+import java.util.List;
 
 /**
  * 缓存配置类
- * 使用Caffeine作为缓存实现
+ * 使用Caffeine作为缓存实现：单个交易（连同其ETag，见 {@link com.banking.transactionservice.cache.CachedTransaction}）使用Spring Cache，
+ * 由近端缓存 {@link TransactionNearCache} 实现，分页查询结果使用按变更范围失效的 {@link TransactionQueryCache}，
+ * 创建请求的幂等键使用 {@link IdempotencyCache}。前两者都是仓库的变更监听器，本副本和其他副本复制来的写入都会使其失效
  */
 @Configuration
 public class CachingConfig {
 
     /**
-     * 创建并配置缓存管理器
-     * @return 配置好的CacheManager实例
+     * 创建单条交易的近端缓存，并注册为仓库的变更监听器
+     * 失效由变更驱动，过期时间只用于回收长期不访问的条目
+     * @param repository 交易仓库
+     * @param maximumSize 最大缓存交易数
+     * @param expireAfterWrite 写入后的过期时间
+     * @return 近端缓存
      */
     @Bean
-    public CacheManager cacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager("transactions", "allTransactions");
-        cacheManager.setCaffeine(Caffeine.newBuilder()
-                .initialCapacity(100)     // 初始容量为100
-                .maximumSize(1000)        // 最大容量为1000
-                .expireAfterWrite(10, TimeUnit.MINUTES)  // 写入10分钟后过期
-                .recordStats());          // 记录缓存状态
+    public TransactionNearCache transactionNearCache(
+            TransactionRepository repository,
+            @Value("${transaction.near-cache.maximum-size:1000}") long maximumSize,
+            @Value("${transaction.near-cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        TransactionNearCache cache = new TransactionNearCache(Caffeine.newBuilder()
+                .initialCapacity(100)
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()            // 记录缓存状态
+                .build(), repository);
+        repository.addChangeListener(cache);
+        return cache;
+    }
+
+    /**
+     * 创建缓存管理器
+     * @param transactionNearCache 单条交易的近端缓存
+     * @return 只包含transactions缓存的CacheManager实例
+     */
+    @Bean
+    public CacheManager cacheManager(TransactionNearCache transactionNearCache) {
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(transactionNearCache));
         return cacheManager;
     }
+
+    /**
+     * 创建分页查询结果缓存，并注册为仓库的变更监听器
+     * @param repository 交易仓库
+     * @param maximumSize 最大缓存页数
+     * @param expireAfterWrite 写入后的过期时间
+     * @return 查询结果缓存
+     */
+    @Bean
+    public TransactionQueryCache transactionQueryCache(
+            TransactionRepository repository,
+            @Value("${transaction.query-cache.maximum-size:1000}") long maximumSize,
+            @Value("${transaction.query-cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        TransactionQueryCache cache = new TransactionQueryCache(maximumSize, expireAfterWrite);
+        repository.addChangeListener(cache);
+        return cache;
+    }
+
+    /**
+     * 创建幂等键存储
+     * @param maximumSize 最大幂等键数量
+     * @param expireAfterWrite 幂等键的保留时间
+     * @return 幂等键存储
+     */
+    @Bean
+    public IdempotencyCache idempotencyCache(
+            @Value("${transaction.idempotency.maximum-size:100000}") long maximumSize,
+            @Value("${transaction.idempotency.expire-after-write:24h}") Duration expireAfterWrite) {
+        return new IdempotencyCache(maximumSize, expireAfterWrite);
+    }
 } 
\ No newline at end of file
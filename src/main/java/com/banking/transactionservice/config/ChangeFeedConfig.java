@@ -0,0 +1,57 @@
+package com.banking.transactionservice.config;
+
+import com.banking.transactionservice.changefeed.ChangeFeed;
+import com.banking.transactionservice.changefeed.ChangeFeedProperties;
+import com.banking.transactionservice.changefeed.ChangeFeedStreamer;
+import com.banking.transactionservice.persistence.TransactionPersistence;
+import com.banking.transactionservice.repository.TransactionRepository;
+import com.banking.transactionservice.service.TransactionMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 变更订阅配置类
+ * 默认启用，transaction.change-feed.enabled=false 时不记录变更，也不提供订阅接口
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "transaction.change-feed", name = "enabled", havingValue = "true",
+        matchIfMissing = true)
+@EnableConfigurationProperties(ChangeFeedProperties.class)
+public class ChangeFeedConfig {
+
+    /**
+     * 创建变更订阅的环形缓冲区，并注册为仓库的变更监听器
+     * 持久化恢复的交易不是新的变更，监听器在恢复完成后才注册
+     * @param repository 交易仓库
+     * @param mapper 交易映射器
+     * @param properties 变更订阅配置
+     * @param persistence 持久化管理器，未启用持久化时不存在
+     * @return 变更订阅的环形缓冲区
+     */
+    @Bean
+    public ChangeFeed changeFeed(TransactionRepository repository, TransactionMapper mapper,
+                                 ChangeFeedProperties properties,
+                                 ObjectProvider<TransactionPersistence> persistence) {
+        persistence.getIfAvailable(); // 确保持久化管理器先完成恢复并注册监听器
+        ChangeFeed changeFeed = new ChangeFeed(properties.getCapacity(), mapper);
+        repository.addChangeListener(changeFeed);
+        return changeFeed;
+    }
+
+    /**
+     * 创建SSE推送
+     * @param changeFeed 变更订阅的环形缓冲区
+     * @param properties 变更订阅配置
+     * @param registry 指标注册表
+     * @return SSE推送，关闭时断开所有订阅
+     */
+    @Bean(destroyMethod = "close")
+    public ChangeFeedStreamer changeFeedStreamer(ChangeFeed changeFeed, ChangeFeedProperties properties,
+                                                 MeterRegistry registry) {
+        return new ChangeFeedStreamer(changeFeed, properties, registry);
+    }
+}
@@ -0,0 +1,27 @@
+package com.banking.transactionservice.config;
+
+import com.banking.transactionservice.model.IdGenerator;
+import com.banking.transactionservice.model.IdStrategy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 交易ID生成配置类
+ * 通过 transaction.id.strategy 选择ID生成策略，transaction.id.node-id 区分多个副本
+ */
+@Configuration
+public class IdGeneratorConfig {
+
+    /**
+     * 创建ID生成器
+     * @param strategy 生成策略，默认为按时间排序
+     * @param nodeId 节点ID，默认为0
+     * @return ID生成器
+     */
+    @Bean
+    public IdGenerator idGenerator(@Value("${transaction.id.strategy:time-ordered}") IdStrategy strategy,
+                                   @Value("${transaction.id.node-id:0}") int nodeId) {
+        return strategy.createGenerator(nodeId);
+    }
+}
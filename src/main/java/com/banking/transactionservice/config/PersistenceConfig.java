@@ -0,0 +1,32 @@
+package com.banking.transactionservice.config;
+
+import com.banking.transactionservice.persistence.PersistenceProperties;
+import com.banking.transactionservice.persistence.TransactionPersistence;
+import com.banking.transactionservice.repository.TransactionRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 持久化配置类
+ * 仅在 transaction.persistence.enabled=true 时启用预写日志和快照，
+ * 恢复在应用上下文初始化期间完成，早于Web服务器开始接收请求
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "transaction.persistence", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(PersistenceProperties.class)
+public class PersistenceConfig {
+
+    /**
+     * 创建持久化管理器
+     * @param repository 交易仓库
+     * @param properties 持久化配置
+     * @return 持久化管理器
+     */
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public TransactionPersistence transactionPersistence(TransactionRepository repository,
+                                                         PersistenceProperties properties) {
+        return new TransactionPersistence(repository, properties);
+    }
+}
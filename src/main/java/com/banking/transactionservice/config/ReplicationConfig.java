@@ -0,0 +1,47 @@
+package com.banking.transactionservice.config;
+
+import com.banking.transactionservice.persistence.TransactionPersistence;
+import com.banking.transactionservice.replication.ReplicationProperties;
+import com.banking.transactionservice.replication.TransactionReplicator;
+import com.banking.transactionservice.repository.TransactionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * 复制配置类
+ * 仅在 transaction.replication.enabled=true 时启用副本间复制，
+ * 启用持久化时在恢复完成之后才开始复制，对等副本获取的快照包含恢复的数据
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "transaction.replication", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ReplicationProperties.class)
+public class ReplicationConfig {
+
+    /**
+     * 创建交易复制器
+     * @param repository 交易仓库
+     * @param properties 复制配置
+     * @param persistence 持久化管理器，未启用持久化时不存在
+     * @param registry 指标注册表
+     * @return 交易复制器
+     */
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public TransactionReplicator transactionReplicator(TransactionRepository repository,
+                                                       ReplicationProperties properties,
+                                                       ObjectProvider<TransactionPersistence> persistence,
+                                                       MeterRegistry registry) {
+        persistence.getIfAvailable(); // 确保持久化管理器先完成恢复并注册监听器
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(2))
+                .build();
+        return new TransactionReplicator(repository, properties, httpClient, registry);
+    }
+}
@@ -0,0 +1,50 @@
+package com.banking.transactionservice.config;
+
+import com.banking.transactionservice.persistence.TransactionPersistence;
+import com.banking.transactionservice.repository.TransactionRepository;
+import com.banking.transactionservice.rollup.RollupGranularity;
+import com.banking.transactionservice.rollup.TransactionRollups;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * 时间汇总配置类
+ * 汇总在持久化恢复完成后、应用上下文初始化期间用仓库现有数据初始化，之后随每次写入增量更新
+ */
+@Configuration
+public class RollupConfig {
+
+    /**
+     * 创建时间汇总，注册为仓库的变更监听器后再用现有数据初始化，初始化期间的写入（如复制）不会丢失
+     * @param repository 交易仓库
+     * @param minuteRetention 分钟汇总的保留期
+     * @param hourRetention 小时汇总的保留期
+     * @param dayRetention 天汇总的保留期
+     * @param maxAhead 写入时允许的交易时间戳最大超前时间，也是汇总计入的未来范围
+     * @param persistence 持久化管理器，未启用持久化时不存在
+     * @return 时间汇总
+     */
+    @Bean
+    public TransactionRollups transactionRollups(
+            TransactionRepository repository,
+            @Value("${transaction.rollups.retention.minute:24h}") Duration minuteRetention,
+            @Value("${transaction.rollups.retention.hour:30d}") Duration hourRetention,
+            @Value("${transaction.rollups.retention.day:400d}") Duration dayRetention,
+            @Value("${transaction.timestamp.max-ahead:1d}") Duration maxAhead,
+            ObjectProvider<TransactionPersistence> persistence) {
+        persistence.getIfAvailable(); // 确保持久化管理器先完成恢复并注册监听器
+        TransactionRollups rollups = new TransactionRollups(Map.of(
+                RollupGranularity.MINUTE, minuteRetention,
+                RollupGranularity.HOUR, hourRetention,
+                RollupGranularity.DAY, dayRetention), maxAhead, Clock.systemDefaultZone());
+        repository.addChangeListener(rollups);
+        rollups.load(repository);
+        return rollups;
+    }
+}
@@ -0,0 +1,39 @@
+package com.banking.transactionservice.config;
+
+import com.banking.transactionservice.model.CategoryDictionary;
+import com.banking.transactionservice.repository.StorageEngine;
+import com.banking.transactionservice.repository.TransactionStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 存储引擎配置类
+ * 通过 transaction.storage.engine 选择交易仓库的主存储引擎
+ */
+@Configuration
+public class StorageConfig {
+
+    /**
+     * 创建仓库和存储引擎共用的类别字典
+     * @param maxSize 字典保存的最大类别数，之后出现的新类别按原字符串保存
+     * @return 类别字典
+     */
+    @Bean
+    public CategoryDictionary categoryDictionary(
+            @Value("${transaction.categories.max-size:" + CategoryDictionary.DEFAULT_MAX_SIZE + "}") int maxSize) {
+        return new CategoryDictionary(maxSize);
+    }
+
+    /**
+     * 创建主存储引擎
+     * @param engine 引擎类型，默认为堆存储
+     * @param categories 类别字典
+     * @return 存储引擎
+     */
+    @Bean
+    public TransactionStore transactionStore(@Value("${transaction.storage.engine:heap}") StorageEngine engine,
+                                             CategoryDictionary categories) {
+        return engine.createStore(categories);
+    }
+}
@@ -0,0 +1,35 @@
+package com.banking.transactionservice.config;
+
+import com.banking.transactionservice.threading.PinnedThreadMonitor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 虚拟线程配置类
+ * 仅在 spring.threads.virtual.enabled=true 时启用。此时Spring Boot让Tomcat的请求处理、
+ * 异步请求（例如流式导出）和应用任务执行器都运行在虚拟线程上，服务层调用随请求线程一起执行；
+ * 这里额外启用钉住监控
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    /**
+     * 创建虚拟线程钉住监控
+     * @param threshold 记录钉住事件的最短持续时间
+     * @param registry 指标注册表
+     * @return 钉住监控
+     */
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public PinnedThreadMonitor pinnedThreadMonitor(
+            @Value("${transaction.virtual-threads.pinning-threshold:20ms}") Duration threshold,
+            MeterRegistry registry) {
+        return new PinnedThreadMonitor(threshold, registry);
+    }
+}
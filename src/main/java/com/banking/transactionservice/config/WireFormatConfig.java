@@ -0,0 +1,42 @@
+package com.banking.transactionservice.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * 二进制传输格式配置类
+ * 为请求头 Accept 或 Content-Type 为 application/cbor 的请求提供CBOR编码，与JSON使用相同的DTO映射和校验。
+ * 金额按CBOR的十进制小数（tag 4，指数加整数尾数）编码，时间按整数数组编码，都不需要文本解析
+ */
+@Configuration
+public class WireFormatConfig {
+
+    /**
+     * 创建CBOR消息转换器
+     * 使用Spring Boot配置的ObjectMapper构建器，spring.jackson.* 配置同样生效；
+     * Spring Boot会用它替换默认的CBOR转换器，JSON转换器仍排在前面，未指定 Accept 的客户端得到JSON
+     * @param builder Spring Boot提供的ObjectMapper构建器（每次注入都是新实例）
+     * @return CBOR消息转换器
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(cborObjectMapper(builder));
+    }
+
+    /**
+     * 由构建器创建CBOR使用的ObjectMapper
+     * Spring Boot默认将日期写为ISO-8601字符串，这里改回Jackson的默认值，写为整数数组
+     * @param builder ObjectMapper构建器，会被修改
+     * @return CBOR ObjectMapper
+     */
+    public static ObjectMapper cborObjectMapper(Jackson2ObjectMapperBuilder builder) {
+        return builder.factory(new CBORFactory())
+                .featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+}
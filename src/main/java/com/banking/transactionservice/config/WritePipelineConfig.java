@@ -0,0 +1,41 @@
+package com.banking.transactionservice.config;
+
+import com.banking.transactionservice.persistence.TransactionPersistence;
+import com.banking.transactionservice.repository.TransactionRepository;
+import com.banking.transactionservice.service.TransactionWritePipeline;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 写入流水线配置类
+ * 仅在 transaction.write-pipeline.enabled=true 时启用，新建交易由单个写入线程合并为批次写入；
+ * 未启用时请求线程直接写入仓库
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "transaction.write-pipeline", name = "enabled", havingValue = "true")
+public class WritePipelineConfig {
+
+    /**
+     * 创建写入流水线
+     * @param repository 交易仓库
+     * @param persistence 持久化管理器，未启用持久化时不存在
+     * @param queueCapacity 队列中等待写入的最大请求数
+     * @param maxBatchSize 单批写入的最大请求数
+     * @param registry 指标注册表
+     * @return 写入流水线，关闭时写完队列中剩余的请求
+     */
+    @Bean(destroyMethod = "close")
+    public TransactionWritePipeline transactionWritePipeline(
+            TransactionRepository repository,
+            ObjectProvider<TransactionPersistence> persistence,
+            @Value("${transaction.write-pipeline.queue-capacity:65536}") int queueCapacity,
+            @Value("${transaction.write-pipeline.max-batch-size:1024}") int maxBatchSize,
+            MeterRegistry registry) {
+        persistence.getIfAvailable(); // 先于流水线创建，关闭时流水线先写完剩余请求，再关闭日志
+        return new TransactionWritePipeline(repository, queueCapacity, maxBatchSize, registry);
+    }
+}
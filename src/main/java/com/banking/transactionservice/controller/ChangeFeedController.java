@@ -0,0 +1,110 @@
+package com.banking.transactionservice.controller;
+
+import com.banking.transactionservice.changefeed.ChangeBatch;
+import com.banking.transactionservice.changefeed.ChangeFeed;
+import com.banking.transactionservice.changefeed.ChangeFeedProperties;
+import com.banking.transactionservice.changefeed.ChangeFeedStreamer;
+import com.banking.transactionservice.exception.BadRequestException;
+import com.banking.transactionservice.exception.ChangeFeedExpiredException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+/**
+ * 交易变更订阅控制器
+ * 下游服务通过长轮询或Server-Sent Events从游标之后读取交易的新建、更新和删除，代替轮询列表接口。
+ * 先记下不带游标读取时返回的游标，再通过查询接口获取全量数据，之后从该游标订阅，不会漏掉中间的变更
+ */
+@RestController
+@RequestMapping("/api/transactions/changes")
+@ConditionalOnProperty(prefix = "transaction.change-feed", name = "enabled", havingValue = "true",
+        matchIfMissing = true)
+public class ChangeFeedController {
+
+    private final ChangeFeed changeFeed;
+    private final ChangeFeedStreamer streamer;
+    private final ChangeFeedProperties properties;
+
+    /**
+     * 构造函数，注入变更订阅
+     * @param changeFeed 变更订阅的环形缓冲区
+     * @param streamer SSE推送
+     * @param properties 变更订阅配置
+     */
+    public ChangeFeedController(ChangeFeed changeFeed, ChangeFeedStreamer streamer, ChangeFeedProperties properties) {
+        this.changeFeed = changeFeed;
+        this.streamer = streamer;
+        this.properties = properties;
+    }
+
+    /**
+     * 长轮询游标之后的变更
+     * 没有新变更时请求以异步方式挂起，不占用处理线程，由变更订阅在下一次追加变更时完成，等待超时时返回空批次
+     * @param after 上次返回的next游标，为空时从最新位置开始
+     * @param max 最多返回的条数，不超过max-batch-size
+     * @param wait 没有新变更时的最长等待毫秒数，不超过max-poll-wait
+     * @return 变更及下次读取的游标；游标已无法继续读取时返回410
+     */
+    @GetMapping
+    public DeferredResult<ChangeBatch> poll(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "500") int max,
+            @RequestParam(defaultValue = "0") long wait) {
+        int limit = Math.max(1, Math.min(max, properties.getMaxBatchSize()));
+        long timeout = Math.max(0, Math.min(wait, properties.getMaxPollWait().toMillis()));
+        long position = changeFeed.resolve(after);
+        if (timeout == 0) {
+            DeferredResult<ChangeBatch> result = new DeferredResult<>();
+            result.setResult(changeFeed.poll(position, limit));
+            return result;
+        }
+        DeferredResult<ChangeBatch> result = new DeferredResult<>(timeout,
+                () -> new ChangeBatch(List.of(), changeFeed.cursor(position)));
+        Runnable cancel = changeFeed.onAppend(position, () -> {
+            try {
+                result.setResult(changeFeed.poll(position, limit));
+            } catch (RuntimeException e) {
+                result.setErrorResult(e);
+            }
+        });
+        result.onCompletion(cancel);
+        return result;
+    }
+
+    /**
+     * 以Server-Sent Events推送游标之后的变更
+     * 每个事件的id为该变更的游标，断线重连时客户端通过Last-Event-ID头从中断处继续
+     * @param after 开始的游标，为空时从最新位置开始
+     * @param lastEventId 重连时客户端发送的最后一个事件ID，优先于after
+     * @return 事件流；订阅数已达上限时返回503，游标已无法继续读取时返回410
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(
+            @RequestParam(required = false) String after,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        String cursor = lastEventId != null && !lastEventId.isEmpty() ? lastEventId : after;
+        // 客户端只接受text/event-stream，错误响应不能写出JSON正文，只返回状态码
+        try {
+            return streamer.open(cursor)
+                    .map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                            .header(HttpHeaders.RETRY_AFTER, "5")
+                            .build());
+        } catch (ChangeFeedExpiredException e) {
+            return ResponseEntity.status(HttpStatus.GONE).build();
+        } catch (BadRequestException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.banking.transactionservice.controller;
+
+import com.banking.transactionservice.replication.BacklogTruncatedException;
+import com.banking.transactionservice.replication.ReplicationAccessDeniedException;
+import com.banking.transactionservice.replication.ReplicationStatus;
+import com.banking.transactionservice.replication.TransactionReplicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Duration;
+
+/**
+ * 副本间复制控制器
+ * 仅在 transaction.replication.enabled=true 时启用，供对等副本拉取本副本的变更日志和快照，
+ * 所有请求都必须在 {@link TransactionReplicator#TOKEN_HEADER} 头中携带配置的共享密钥
+ */
+@RestController
+@RequestMapping("/internal/replication")
+@ConditionalOnProperty(prefix = "transaction.replication", name = "enabled", havingValue = "true")
+public class ReplicationController {
+
+    private final TransactionReplicator replicator;
+
+    /**
+     * 构造函数，注入复制器
+     * @param replicator 交易复制器
+     */
+    public ReplicationController(TransactionReplicator replicator) {
+        this.replicator = replicator;
+    }
+
+    /**
+     * 长轮询本副本日志中某个位置之后的变更
+     * @param after 已应用的位置，同时作为对之前变更的确认
+     * @param max 最多返回的条数
+     * @param replica 拉取方的基础URL，可选
+     * @param epoch 拉取方正在跟随的纪元
+     * @param wait 没有新变更时的最长等待毫秒数
+     * @param token 共享密钥
+     * @return 编码后的变更批次；所需位置已被覆盖时返回410
+     * @throws InterruptedException 等待被中断时抛出
+     */
+    @GetMapping(value = "/log", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<byte[]> readLog(
+            @RequestParam long after,
+            @RequestParam(defaultValue = "1000") int max,
+            @RequestParam(required = false) String replica,
+            @RequestParam(defaultValue = "0") long epoch,
+            @RequestParam(defaultValue = "0") long wait,
+            @RequestHeader(value = TransactionReplicator.TOKEN_HEADER, required = false) String token)
+            throws InterruptedException {
+        authenticate(token);
+        return ResponseEntity.ok(replicator.read(after, max, replica, epoch, Duration.ofMillis(wait)));
+    }
+
+    /**
+     * 以流的形式返回本副本的全部交易
+     * @param token 共享密钥
+     * @return 快照流
+     */
+    @GetMapping("/snapshot")
+    public ResponseEntity<StreamingResponseBody> snapshot(
+            @RequestHeader(value = TransactionReplicator.TOKEN_HEADER, required = false) String token) {
+        authenticate(token);
+        StreamingResponseBody body = replicator::writeSnapshot;
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_OCTET_STREAM).body(body);
+    }
+
+    /**
+     * 获取复制状态
+     * @param token 共享密钥
+     * @return 本副本和各对等副本的状态
+     */
+    @GetMapping("/status")
+    public ResponseEntity<ReplicationStatus> status(
+            @RequestHeader(value = TransactionReplicator.TOKEN_HEADER, required = false) String token) {
+        authenticate(token);
+        return ResponseEntity.ok(replicator.status());
+    }
+
+    /**
+     * 所需位置已被日志覆盖，拉取方需要重新获取快照
+     * @param ex 异常
+     * @return 410响应
+     */
+    @ExceptionHandler(BacklogTruncatedException.class)
+    public ResponseEntity<Void> handleBacklogTruncated(BacklogTruncatedException ex) {
+        return ResponseEntity.status(HttpStatus.GONE).build();
+    }
+
+    /**
+     * 请求没有携带正确的共享密钥
+     * @param ex 异常
+     * @return 403响应
+     */
+    @ExceptionHandler(ReplicationAccessDeniedException.class)
+    public ResponseEntity<Void> handleAccessDenied(ReplicationAccessDeniedException ex) {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+
+    private void authenticate(String token) {
+        if (!replicator.authenticate(token)) {
+            throw new ReplicationAccessDeniedException();
+        }
+    }
+}
@@ -1,69 +1,168 @@
 package com.banking.transactionservice.controller;
 
+import com.banking.transactionservice.cache.CachedPage;
+import com.banking.transactionservice.cache.CachedTransaction;
+import com.banking.transactionservice.cache.EntityTags;
+import com.banking.transactionservice.cache.IdempotentResult;
+import com.banking.transactionservice.cache.QueryCacheStats;
+import com.banking.transactionservice.dto.BatchResultDTO;
+import com.banking.transactionservice.dto.CursorPageDTO;
 import com.banking.transactionservice.dto.TransactionDTO;
+import com.banking.transactionservice.exception.BadRequestException;
+import com.banking.transactionservice.model.TransactionStatus;
+import com.banking.transactionservice.model.TransactionType;
+import com.banking.transactionservice.repository.TransactionFilter;
+import com.banking.transactionservice.repository.TransactionSummary;
+import com.banking.transactionservice.rollup.RollupGranularity;
+import com.banking.transactionservice.rollup.RollupPoint;
+import com.banking.transactionservice.service.ExportFormat;
+import com.banking.transactionservice.service.TransactionExporter;
 import com.banking.transactionservice.service.TransactionService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
 /**
  * 交易控制器类
  * 提供交易相关的RESTful API接口
+ * 请求体和响应体默认为JSON，Content-Type 或 Accept 为 application/cbor 时使用CBOR（见 WireFormatConfig）
  */
 @RestController
 @RequestMapping("/api/transactions")
 public class TransactionController {
 
+    /**
+     * 幂等键请求头
+     */
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    /**
+     * 标识响应是否为先前结果重放的响应头
+     */
+    public static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+
     private final TransactionService transactionService;
+    private final TransactionExporter transactionExporter;
 
     /**
      * 构造函数，注入交易服务
      * @param transactionService 交易服务实例
+     * @param transactionExporter 交易导出器
      */
     @Autowired
-    public TransactionController(TransactionService transactionService) {
+    public TransactionController(TransactionService transactionService, TransactionExporter transactionExporter) {
         this.transactionService = transactionService;
+        this.transactionExporter = transactionExporter;
     }
 
     /**
      * 创建新交易
+     * 带有幂等键时，同一个键的重试返回首次创建的交易，响应头 {@value #IDEMPOTENT_REPLAYED_HEADER} 标识是否为重放
      * @param transactionDTO 交易数据传输对象
-     * @return 创建成功的交易信息及201状态码
+     * @param idempotencyKey 幂等键，可选
+     * @return 创建成功的交易信息及201状态码；幂等键已用于不同请求时返回422
      */
     @PostMapping
-    public ResponseEntity<TransactionDTO> createTransaction(@Valid @RequestBody TransactionDTO transactionDTO) {
-        TransactionDTO created = transactionService.createTransaction(transactionDTO);
-        return new ResponseEntity<>(created, HttpStatus.CREATED);
+    public ResponseEntity<TransactionDTO> createTransaction(
+            @Valid @RequestBody TransactionDTO transactionDTO,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            TransactionDTO created = transactionService.createTransaction(transactionDTO);
+            return new ResponseEntity<>(created, HttpStatus.CREATED);
+        }
+        IdempotentResult result = transactionService.createTransaction(transactionDTO, idempotencyKey);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header(IDEMPOTENT_REPLAYED_HEADER, String.valueOf(result.replayed()))
+                .body(result.transaction());
+    }
+
+    /**
+     * 批量创建交易
+     * 每条记录单独校验，响应中按请求顺序给出每条记录的结果
+     * @param transactionDTOs 交易数据列表，最多 {@value TransactionService#MAX_BATCH_SIZE} 条
+     * @return 全部成功时返回201，部分失败时返回207
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<BatchResultDTO> createTransactions(@RequestBody List<TransactionDTO> transactionDTOs) {
+        BatchResultDTO result = transactionService.createTransactions(transactionDTOs);
+        return new ResponseEntity<>(result, result.getFailed() == 0 ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS);
+    }
+
+    /**
+     * 批量更新交易
+     * @param transactionDTOs 带ID的交易数据列表
+     * @return 全部成功时返回200，部分失败时返回207
+     */
+    @PutMapping("/batch")
+    public ResponseEntity<BatchResultDTO> updateTransactions(@RequestBody List<TransactionDTO> transactionDTOs) {
+        BatchResultDTO result = transactionService.updateTransactions(transactionDTOs);
+        return new ResponseEntity<>(result, result.getFailed() == 0 ? HttpStatus.OK : HttpStatus.MULTI_STATUS);
+    }
+
+    /**
+     * 批量删除交易
+     * @param ids 交易ID列表
+     * @return 全部成功时返回200，部分不存在时返回207
+     */
+    @DeleteMapping("/batch")
+    public ResponseEntity<BatchResultDTO> deleteTransactions(@RequestBody List<String> ids) {
+        BatchResultDTO result = transactionService.deleteTransactions(ids);
+        return new ResponseEntity<>(result, result.getFailed() == 0 ? HttpStatus.OK : HttpStatus.MULTI_STATUS);
     }
 
     /**
      * 根据ID获取交易信息
+     * 响应的ETag为交易的当前版本号，可用于更新时的If-Match；
+     * If-None-Match与之匹配时返回没有响应体的304，ETag取自缓存条目，不做映射和序列化。
+     * 响应体按Accept编码为JSON或CBOR，同一版本的两种编码共用ETag，响应带有 Vary: Accept
      * @param id 交易ID
-     * @return 交易信息
+     * @param request 当前请求，用于判断条件请求
+     * @return 交易信息，未修改时为null（304响应已由request写入）
      */
     @GetMapping("/{id}")
-    public ResponseEntity<TransactionDTO> getTransaction(@PathVariable String id) {
-        TransactionDTO transaction = transactionService.getTransaction(id);
-        return ResponseEntity.ok(transaction);
+    public ResponseEntity<TransactionDTO> getTransaction(@PathVariable String id, WebRequest request) {
+        CachedTransaction transaction = transactionService.getCachedTransaction(id);
+        if (request.checkNotModified(transaction.eTag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(transaction.eTag())
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(transaction.transaction());
     }
 
     /**
      * 更新交易信息
+     * 带If-Match时只有交易的当前版本与之匹配才会更新，否则返回412；
+     * 没有If-Match时使用请求体中的版本号，两者都没有时无条件更新
      * @param id 要更新的交易ID
      * @param transactionDTO 更新的交易数据
-     * @return 更新后的交易信息
+     * @param ifMatch 可选的If-Match请求头，* 或单个ETag
+     * @return 更新后的交易信息，ETag为新的版本号
      */
     @PutMapping("/{id}")
     public ResponseEntity<TransactionDTO> updateTransaction(
             @PathVariable String id, 
-            @Valid @RequestBody TransactionDTO transactionDTO) {
-        TransactionDTO updated = transactionService.updateTransaction(id, transactionDTO);
-        return ResponseEntity.ok(updated);
+            @Valid @RequestBody TransactionDTO transactionDTO,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = ifMatch == null ? transactionDTO.getVersion() : Long.valueOf(EntityTags.parseIfMatch(id, ifMatch));
+        TransactionDTO updated = transactionService.updateTransaction(id, transactionDTO, expectedVersion);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (updated.getVersion() != null) {
+            response.eTag(EntityTags.of(updated.getVersion()));
+        }
+        return response.body(updated);
     }
 
     /**
@@ -78,19 +177,133 @@ public class TransactionController {
     }
 
     /**
-     * 分页获取所有交易记录
+     * 分页获取交易记录，可按类别、类型、状态过滤
      * @param page 页码，默认为0
      * @param size 每页记录数，默认为10
-     * @return 交易记录列表
+     * @param category 交易类别，可选
+     * @param type 交易类型，可选
+     * @param status 交易状态，可选
+     * @param request 当前请求，用于判断条件请求
+     * @return 交易记录列表，ETag由页内交易的版本号计算；If-None-Match匹配时为null（304响应已由request写入）
      */
     @GetMapping
     public ResponseEntity<List<TransactionDTO>> getAllTransactions(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
-        List<TransactionDTO> transactions = transactionService.getAllTransactions(page, size);
-        return ResponseEntity.ok(transactions);
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) TransactionType type,
+            @RequestParam(required = false) TransactionStatus status,
+            WebRequest request) {
+        TransactionFilter filter = new TransactionFilter(category, type, status);
+        CachedPage transactions = transactionService.getCachedPage(filter, page, size);
+        if (request.checkNotModified(transactions.eTag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(transactions.eTag())
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(transactions.content());
+    }
+
+    /**
+     * 游标分页获取交易记录
+     * 按(时间戳, ID)顺序返回，适合大数据量的顺序遍历；首页传入空游标。
+     * 游标不能与时间范围同时使用，同时给出时返回400
+     * @param after 上一页返回的游标
+     * @param size 每页记录数，默认为10
+     * @param category 交易类别，可选
+     * @param type 交易类型，可选
+     * @param status 交易状态，可选
+     * @param from 不支持，只用于拒绝与游标同时给出的时间范围
+     * @param to 不支持，只用于拒绝与游标同时给出的时间范围
+     * @return 本页交易记录及下一页游标
+     */
+    @GetMapping(params = "after")
+    public ResponseEntity<CursorPageDTO> getTransactionsAfter(
+            @RequestParam String after,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) TransactionType type,
+            @RequestParam(required = false) TransactionStatus status,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+        if (from != null || to != null) {
+            throw new BadRequestException("'after' cannot be combined with 'from' or 'to'");
+        }
+        TransactionFilter filter = new TransactionFilter(category, type, status);
+        CursorPageDTO page = transactionService.getTransactionsAfter(filter, after, size);
+        return ResponseEntity.ok(page);
     }
     
+    /**
+     * 按时间范围获取交易记录，可按类别、类型、状态过滤
+     * 时间使用ISO-8601格式，例如 2024-01-01T00:00:00；参数为空表示该端不限制，
+     * 只给出 to 的请求由 {@link #getTransactionsBefore} 处理，
+     * 同时给出游标的请求由 {@link #getTransactionsAfter} 拒绝
+     * @param from 起始时间（包含）
+     * @param to 结束时间（不包含），可选
+     * @param limit 最多返回的记录数，默认为100
+     * @param category 交易类别，可选
+     * @param type 交易类型，可选
+     * @param status 交易状态，可选
+     * @return 按时间排序的交易记录列表
+     */
+    @GetMapping(params = {"from", "!after"})
+    public ResponseEntity<List<TransactionDTO>> getTransactionsBetween(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) TransactionType type,
+            @RequestParam(required = false) TransactionStatus status) {
+        TransactionFilter filter = new TransactionFilter(category, type, status);
+        List<TransactionDTO> transactions = transactionService.getTransactionsBetween(filter, from, to, limit);
+        return ResponseEntity.ok(transactions);
+    }
+
+    /**
+     * 获取结束时间之前的交易记录，可按类别、类型、状态过滤
+     * @param to 结束时间（不包含）
+     * @param limit 最多返回的记录数，默认为100
+     * @param category 交易类别，可选
+     * @param type 交易类型，可选
+     * @param status 交易状态，可选
+     * @return 按时间排序的交易记录列表
+     */
+    @GetMapping(params = {"to", "!from", "!after"})
+    public ResponseEntity<List<TransactionDTO>> getTransactionsBefore(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) TransactionType type,
+            @RequestParam(required = false) TransactionStatus status) {
+        return getTransactionsBetween(null, to, limit, category, type, status);
+    }
+
+    /**
+     * 流式导出交易记录，可按类别、类型、状态过滤
+     * 记录按(时间戳, ID)顺序逐条写入响应，不会在内存中构建完整的结果列表
+     * @param format 导出格式，默认为NDJSON；CBOR格式输出CBOR序列（application/cbor-seq）
+     * @param category 交易类别，可选
+     * @param type 交易类型，可选
+     * @param status 交易状态，可选
+     * @return 以附件形式下载的导出内容
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) TransactionType type,
+            @RequestParam(required = false) TransactionStatus status) {
+        TransactionFilter filter = new TransactionFilter(category, type, status);
+        StreamingResponseBody body = out -> transactionExporter.export(filter, format, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"transactions." + format.getFileExtension() + "\"")
+                .body(body);
+    }
+
     /**
      * 获取交易总数
      * @return 包含交易总数的Map
@@ -100,4 +313,38 @@ public class TransactionController {
         long count = transactionService.countTransactions();
         return ResponseEntity.ok(Map.of("count", count));
     }
+
+    /**
+     * 获取按类别和交易类型的金额汇总
+     * @return 全部交易、各类别、各类型的笔数、合计、最小和最大金额
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<TransactionSummary> getSummary() {
+        return ResponseEntity.ok(transactionService.getSummary());
+    }
+
+    /**
+     * 获取按分钟、小时或天汇总的收入、支出笔数和金额
+     * 时间使用ISO-8601格式；参数为空表示该端不限制（起点受保留期限制）
+     * @param granularity 汇总粒度，默认为HOUR
+     * @param from 起始时间（包含所在区间）
+     * @param to 结束时间（不包含）
+     * @return 按时间排序的数据点，没有交易的区间不返回
+     */
+    @GetMapping("/rollups")
+    public ResponseEntity<List<RollupPoint>> getRollups(
+            @RequestParam(defaultValue = "HOUR") RollupGranularity granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(transactionService.getRollups(granularity, from, to));
+    }
+
+    /**
+     * 获取分页查询结果缓存的统计信息
+     * @return 命中、未命中、失效、淘汰次数及当前条目数
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<QueryCacheStats> getQueryCacheStats() {
+        return ResponseEntity.ok(transactionService.getQueryCacheStats());
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,81 @@
+package com.banking.transactionservice.dto;
+
+import java.util.Map;
+
+/**
+ * 批量操作中单条记录的结果
+ */
+public class BatchItemResultDTO {
+
+    /**
+     * 单条记录的处理状态
+     */
+    public enum Status {
+        CREATED,    // 已创建
+        UPDATED,    // 已更新
+        DELETED,    // 已删除
+        INVALID,    // 校验失败
+        NOT_FOUND,  // 交易不存在
+        CONFLICT,   // 版本号与交易的当前版本不一致
+        FAILED      // 转换或写入失败，不影响其他记录
+    }
+
+    private int index;                   // 记录在请求中的下标
+    private Status status;               // 处理状态
+    private String id;                   // 交易ID
+    private TransactionDTO transaction;  // 处理后的交易，失败时为空
+    private Map<String, String> errors;  // 字段校验错误或失败原因，仅INVALID和FAILED时有值
+
+    public BatchItemResultDTO() {
+    }
+
+    public BatchItemResultDTO(int index, Status status, String id, TransactionDTO transaction,
+                              Map<String, String> errors) {
+        this.index = index;
+        this.status = status;
+        this.id = id;
+        this.transaction = transaction;
+        this.errors = errors;
+    }
+
+    // Getter 和 Setter 方法
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public TransactionDTO getTransaction() {
+        return transaction;
+    }
+
+    public void setTransaction(TransactionDTO transaction) {
+        this.transaction = transaction;
+    }
+
+    public Map<String, String> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(Map<String, String> errors) {
+        this.errors = errors;
+    }
+}
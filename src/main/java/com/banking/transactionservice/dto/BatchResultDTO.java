@@ -0,0 +1,51 @@
+package com.banking.transactionservice.dto;
+
+import java.util.List;
+
+/**
+ * 批量操作结果
+ * 汇总成功和失败的数量，并按请求顺序给出每条记录的结果
+ */
+public class BatchResultDTO {
+    private int succeeded;                    // 成功条数
+    private int failed;                       // 失败条数
+    private List<BatchItemResultDTO> results; // 每条记录的结果
+
+    public BatchResultDTO() {
+    }
+
+    public BatchResultDTO(List<BatchItemResultDTO> results) {
+        this.results = results;
+        for (BatchItemResultDTO result : results) {
+            switch (result.getStatus()) {
+                case CREATED, UPDATED, DELETED -> succeeded++;
+                default -> failed++;
+            }
+        }
+    }
+
+    // Getter 和 Setter 方法
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public void setSucceeded(int succeeded) {
+        this.succeeded = succeeded;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public List<BatchItemResultDTO> getResults() {
+        return results;
+    }
+
+    public void setResults(List<BatchItemResultDTO> results) {
+        this.results = results;
+    }
+}
@@ -0,0 +1,52 @@
+package com.banking.transactionservice.dto;
+
+import java.util.List;
+
+/**
+ * 游标分页结果
+ * 包含本页的交易记录以及获取下一页所需的游标
+ */
+public class CursorPageDTO {
+    private List<TransactionDTO> content; // 本页交易记录
+    private String nextCursor;            // 下一页游标，没有更多数据时为空
+
+    public CursorPageDTO() {
+    }
+
+    public CursorPageDTO(List<TransactionDTO> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * 获取本页交易记录
+     * @return 交易记录列表
+     */
+    public List<TransactionDTO> getContent() {
+        return content;
+    }
+
+    /**
+     * 设置本页交易记录
+     * @param content 交易记录列表
+     */
+    public void setContent(List<TransactionDTO> content) {
+        this.content = content;
+    }
+
+    /**
+     * 获取下一页游标
+     * @return 下一页游标，没有更多数据时为null
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * 设置下一页游标
+     * @param nextCursor 下一页游标
+     */
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
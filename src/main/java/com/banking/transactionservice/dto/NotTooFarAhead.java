@@ -0,0 +1,24 @@
+package com.banking.transactionservice.dto;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 交易时间戳不能晚于当前时间超过 transaction.timestamp.max-ahead（默认1天）
+ * 时间汇总只计入这个范围内的未来交易，超出范围的时间戳在写入时被拒绝
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+@Constraint(validatedBy = NotTooFarAheadValidator.class)
+public @interface NotTooFarAhead {
+    String message() default "交易时间不能晚于当前时间太多";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+}
@@ -0,0 +1,34 @@
+package com.banking.transactionservice.dto;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * {@link NotTooFarAhead} 的校验器
+ * 由Spring创建时注入配置的最大超前时间，否则使用默认值
+ */
+public class NotTooFarAheadValidator implements ConstraintValidator<NotTooFarAhead, LocalDateTime> {
+
+    /** 默认的最大超前时间 */
+    public static final Duration DEFAULT_MAX_AHEAD = Duration.ofDays(1);
+
+    private Duration maxAhead = DEFAULT_MAX_AHEAD;
+
+    /**
+     * 设置最大超前时间
+     * @param maxAhead 交易时间戳最多晚于当前时间多久
+     */
+    @Value("${transaction.timestamp.max-ahead:1d}")
+    public void setMaxAhead(Duration maxAhead) {
+        this.maxAhead = maxAhead;
+    }
+
+    @Override
+    public boolean isValid(LocalDateTime value, ConstraintValidatorContext context) {
+        return value == null || !value.isAfter(LocalDateTime.now().plus(maxAhead));
+    }
+}
@@ -23,6 +23,7 @@ public class TransactionDTO {
     @NotBlank(message = "描述不能为空")
     private String description;       // 交易描述
     
+    @NotTooFarAhead
     private LocalDateTime timestamp;  // 交易时间戳
     
     @NotNull(message = "交易类型不能为空")
@@ -33,6 +34,8 @@ public class TransactionDTO {
     
     private TransactionStatus status; // 交易状态
 
+    private Long version;             // 版本号，由服务端分配，更新时可作为期望版本
+
     /**
      * 获取交易ID
      * @return 交易ID
@@ -144,4 +147,21 @@ public class TransactionDTO {
     public void setStatus(TransactionStatus status) {
         this.status = status;
     }
+
+    /**
+     * 获取版本号
+     * @return 版本号，尚未保存时为null
+     */
+    public Long getVersion() {
+        return version;
+    }
+
+    /**
+     * 设置版本号
+     * 更新请求中携带版本号时，只有与当前版本一致才会写入
+     * @param version 版本号
+     */
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 } 
\ No newline at end of file
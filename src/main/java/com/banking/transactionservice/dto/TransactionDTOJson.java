@@ -0,0 +1,389 @@
+package com.banking.transactionservice.dto;
+
+import com.banking.transactionservice.model.TransactionStatus;
+import com.banking.transactionservice.model.TransactionType;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.ContextualDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link TransactionDTO} 的流式序列化和反序列化
+ * 按固定的字段顺序直接读写 JsonGenerator/JsonParser，不经过Jackson的反射式Bean序列化器。
+ * 字段名和枚举名预先编码为 {@link SerializedString}，写出时直接复制缓存的字节；
+ * 时间戳在常见格式下手工格式化和解析。输出与默认序列化器逐字节相同（包括JSON和CBOR两种编码），
+ * 不常见的输入（字符串形式的金额、数组形式的时间戳、非法的枚举值等）交给Jackson的默认反序列化器处理，
+ * 接受的输入和错误信息也与之前一致。
+ * <p>
+ * 通过 {@link JsonComponent} 注册到Spring Boot配置的所有ObjectMapper，Spring之外使用 {@link #module()}
+ */
+@JsonComponent
+public class TransactionDTOJson {
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString AMOUNT = new SerializedString("amount");
+    private static final SerializedString DESCRIPTION = new SerializedString("description");
+    private static final SerializedString TIMESTAMP = new SerializedString("timestamp");
+    private static final SerializedString TYPE = new SerializedString("type");
+    private static final SerializedString CATEGORY = new SerializedString("category");
+    private static final SerializedString STATUS = new SerializedString("status");
+    private static final SerializedString VERSION = new SerializedString("version");
+
+    /**
+     * 创建包含序列化器和反序列化器的Jackson模块，供Spring之外构建的ObjectMapper使用
+     * @return Jackson模块
+     */
+    public static Module module() {
+        return new SimpleModule(TransactionDTOJson.class.getSimpleName())
+                .addSerializer(TransactionDTO.class, new Serializer())
+                .addDeserializer(TransactionDTO.class, new Deserializer());
+    }
+
+    /**
+     * 流式序列化器
+     * 时间戳与JavaTimeModule的规则相同：启用 WRITE_DATES_AS_TIMESTAMPS 时写为整数数组，否则写为ISO-8601字符串
+     */
+    public static class Serializer extends StdSerializer<TransactionDTO> {
+
+        private static final SerializedString[] TYPE_NAMES = names(TransactionType.values());
+        private static final SerializedString[] STATUS_NAMES = names(TransactionStatus.values());
+
+        public Serializer() {
+            super(TransactionDTO.class);
+        }
+
+        @Override
+        public void serialize(TransactionDTO value, JsonGenerator generator, SerializerProvider provider)
+                throws IOException {
+            generator.writeStartObject(value);
+            generator.writeFieldName(ID);
+            writeString(generator, value.getId());
+            generator.writeFieldName(AMOUNT);
+            if (value.getAmount() == null) {
+                generator.writeNull();
+            } else {
+                generator.writeNumber(value.getAmount());
+            }
+            generator.writeFieldName(DESCRIPTION);
+            writeString(generator, value.getDescription());
+            generator.writeFieldName(TIMESTAMP);
+            writeTimestamp(generator, provider, value.getTimestamp());
+            generator.writeFieldName(TYPE);
+            writeName(generator, TYPE_NAMES, value.getType());
+            generator.writeFieldName(CATEGORY);
+            writeString(generator, value.getCategory());
+            generator.writeFieldName(STATUS);
+            writeName(generator, STATUS_NAMES, value.getStatus());
+            generator.writeFieldName(VERSION);
+            if (value.getVersion() == null) {
+                generator.writeNull();
+            } else {
+                generator.writeNumber(value.getVersion());
+            }
+            generator.writeEndObject();
+        }
+
+        private static void writeString(JsonGenerator generator, String value) throws IOException {
+            if (value == null) {
+                generator.writeNull();
+            } else {
+                generator.writeString(value);
+            }
+        }
+
+        private static void writeName(JsonGenerator generator, SerializedString[] names, Enum<?> value)
+                throws IOException {
+            if (value == null) {
+                generator.writeNull();
+            } else {
+                generator.writeString(names[value.ordinal()]);
+            }
+        }
+
+        private static void writeTimestamp(JsonGenerator generator, SerializerProvider provider,
+                                           LocalDateTime timestamp) throws IOException {
+            if (timestamp == null) {
+                generator.writeNull();
+            } else if (provider.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)) {
+                writeTimestampArray(generator, provider, timestamp);
+            } else if (timestamp.getYear() < 0 || timestamp.getYear() > 9999) {
+                // 四位以外的年份带有符号，交给标准格式化器
+                generator.writeString(timestamp.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            } else {
+                char[] buffer = new char[29];
+                generator.writeString(buffer, 0, formatIsoLocalDateTime(timestamp, buffer));
+            }
+        }
+
+        /**
+         * 年、月、日、时、分，秒和纳秒不为0时依次追加；未启用 WRITE_DATE_TIMESTAMPS_AS_NANOSECONDS 时最后一项为毫秒
+         */
+        private static void writeTimestampArray(JsonGenerator generator, SerializerProvider provider,
+                                                LocalDateTime timestamp) throws IOException {
+            generator.writeStartArray();
+            generator.writeNumber(timestamp.getYear());
+            generator.writeNumber(timestamp.getMonthValue());
+            generator.writeNumber(timestamp.getDayOfMonth());
+            generator.writeNumber(timestamp.getHour());
+            generator.writeNumber(timestamp.getMinute());
+            int second = timestamp.getSecond();
+            int nano = timestamp.getNano();
+            if (second > 0 || nano > 0) {
+                generator.writeNumber(second);
+                if (nano > 0) {
+                    generator.writeNumber(provider.isEnabled(SerializationFeature.WRITE_DATE_TIMESTAMPS_AS_NANOSECONDS)
+                            ? nano : nano / 1_000_000);
+                }
+            }
+            generator.writeEndArray();
+        }
+
+        /**
+         * 按 {@link DateTimeFormatter#ISO_LOCAL_DATE_TIME} 的格式写入四位年份的时间：总是包含秒，
+         * 纳秒不为0时追加去掉末尾0的小数部分
+         * @return 写入的字符数
+         */
+        static int formatIsoLocalDateTime(LocalDateTime timestamp, char[] buffer) {
+            writeDigits(buffer, 0, timestamp.getYear(), 4);
+            buffer[4] = '-';
+            writeDigits(buffer, 5, timestamp.getMonthValue(), 2);
+            buffer[7] = '-';
+            writeDigits(buffer, 8, timestamp.getDayOfMonth(), 2);
+            buffer[10] = 'T';
+            writeDigits(buffer, 11, timestamp.getHour(), 2);
+            buffer[13] = ':';
+            writeDigits(buffer, 14, timestamp.getMinute(), 2);
+            buffer[16] = ':';
+            writeDigits(buffer, 17, timestamp.getSecond(), 2);
+            int nano = timestamp.getNano();
+            if (nano == 0) {
+                return 19;
+            }
+            buffer[19] = '.';
+            int digits = 9;
+            while (nano % 10 == 0) {
+                nano /= 10;
+                digits--;
+            }
+            writeDigits(buffer, 20, nano, digits);
+            return 20 + digits;
+        }
+
+        private static void writeDigits(char[] buffer, int offset, int value, int width) {
+            for (int i = offset + width - 1; i >= offset; i--) {
+                buffer[i] = (char) ('0' + value % 10);
+                value /= 10;
+            }
+        }
+
+        private static SerializedString[] names(Enum<?>[] values) {
+            SerializedString[] names = new SerializedString[values.length];
+            for (Enum<?> value : values) {
+                names[value.ordinal()] = new SerializedString(value.name());
+            }
+            return names;
+        }
+    }
+
+    /**
+     * 流式反序列化器
+     * 未知字段按 FAIL_ON_UNKNOWN_PROPERTIES 的配置忽略或报错，与默认的Bean反序列化器一致。
+     * 处理不常见输入的默认反序列化器在上下文化时从所属的ObjectMapper查找一次，之后直接调用
+     */
+    public static class Deserializer extends StdDeserializer<TransactionDTO> implements ContextualDeserializer {
+
+        private static final Map<String, TransactionType> TYPES = byName(TransactionType.values());
+        private static final Map<String, TransactionStatus> STATUSES = byName(TransactionStatus.values());
+
+        private final JsonDeserializer<?> strings;
+        private final JsonDeserializer<?> decimals;
+        private final JsonDeserializer<?> longs;
+        private final JsonDeserializer<?> timestamps;
+        private final JsonDeserializer<?> types;
+        private final JsonDeserializer<?> statuses;
+
+        public Deserializer() {
+            this(null, null, null, null, null, null);
+        }
+
+        private Deserializer(JsonDeserializer<?> strings, JsonDeserializer<?> decimals, JsonDeserializer<?> longs,
+                             JsonDeserializer<?> timestamps, JsonDeserializer<?> types,
+                             JsonDeserializer<?> statuses) {
+            super(TransactionDTO.class);
+            this.strings = strings;
+            this.decimals = decimals;
+            this.longs = longs;
+            this.timestamps = timestamps;
+            this.types = types;
+            this.statuses = statuses;
+        }
+
+        @Override
+        public JsonDeserializer<?> createContextual(DeserializationContext context, BeanProperty property)
+                throws JsonMappingException {
+            return new Deserializer(find(context, String.class), find(context, BigDecimal.class),
+                    find(context, Long.class), find(context, LocalDateTime.class),
+                    find(context, TransactionType.class), find(context, TransactionStatus.class));
+        }
+
+        @Override
+        public TransactionDTO deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            JsonToken token = parser.currentToken();
+            if (token == JsonToken.START_OBJECT) {
+                token = parser.nextToken();
+            } else if (token != JsonToken.FIELD_NAME && token != JsonToken.END_OBJECT) {
+                return (TransactionDTO) context.handleUnexpectedToken(TransactionDTO.class, parser);
+            }
+            TransactionDTO dto = new TransactionDTO();
+            for (; token == JsonToken.FIELD_NAME; token = parser.nextToken()) {
+                String name = parser.currentName();
+                token = parser.nextToken();
+                switch (name) {
+                    case "id" -> dto.setId(readString(parser, context, token));
+                    case "amount" -> dto.setAmount(readDecimal(parser, context, token));
+                    case "description" -> dto.setDescription(readString(parser, context, token));
+                    case "timestamp" -> dto.setTimestamp(readTimestamp(parser, context, token));
+                    case "type" -> dto.setType(readEnum(parser, context, token, TYPES, types));
+                    case "category" -> dto.setCategory(readString(parser, context, token));
+                    case "status" -> dto.setStatus(readEnum(parser, context, token, STATUSES, statuses));
+                    case "version" -> dto.setVersion(readLong(parser, context, token));
+                    default -> context.handleUnknownProperty(parser, this, dto, name);
+                }
+            }
+            return dto;
+        }
+
+        private String readString(JsonParser parser, DeserializationContext context, JsonToken token)
+                throws IOException {
+            return switch (token) {
+                case VALUE_STRING -> parser.getText();
+                case VALUE_NULL -> null;
+                default -> (String) strings.deserialize(parser, context);
+            };
+        }
+
+        private BigDecimal readDecimal(JsonParser parser, DeserializationContext context, JsonToken token)
+                throws IOException {
+            return switch (token) {
+                case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> parser.getDecimalValue();
+                case VALUE_NULL -> null;
+                default -> (BigDecimal) decimals.deserialize(parser, context);
+            };
+        }
+
+        private Long readLong(JsonParser parser, DeserializationContext context, JsonToken token)
+                throws IOException {
+            return switch (token) {
+                case VALUE_NUMBER_INT -> parser.getLongValue();
+                case VALUE_NULL -> null;
+                default -> (Long) longs.deserialize(parser, context);
+            };
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <E extends Enum<E>> E readEnum(JsonParser parser, DeserializationContext context,
+                                                      JsonToken token, Map<String, E> byName,
+                                                      JsonDeserializer<?> fallback) throws IOException {
+            if (token == JsonToken.VALUE_NULL) {
+                return null;
+            }
+            E value = token == JsonToken.VALUE_STRING ? byName.get(parser.getText()) : null;
+            return value != null ? value : (E) fallback.deserialize(parser, context);
+        }
+
+        /**
+         * ISO-8601字符串由 {@link #parseIsoLocalDateTime} 解析；CBOR使用的整数数组和其他形式交给默认反序列化器
+         */
+        private LocalDateTime readTimestamp(JsonParser parser, DeserializationContext context, JsonToken token)
+                throws IOException {
+            if (token == JsonToken.VALUE_NULL) {
+                return null;
+            }
+            LocalDateTime timestamp = token == JsonToken.VALUE_STRING ? parseIsoLocalDateTime(parser.getText()) : null;
+            return timestamp != null ? timestamp : (LocalDateTime) timestamps.deserialize(parser, context);
+        }
+
+        private static JsonDeserializer<?> find(DeserializationContext context, Class<?> type)
+                throws JsonMappingException {
+            return context.findContextualValueDeserializer(context.constructType(type), null);
+        }
+
+        /**
+         * 解析 yyyy-MM-ddTHH:mm[:ss[.f{1,9}]] 格式的时间
+         * @return 时间，格式不符或数值越界时为null
+         */
+        static LocalDateTime parseIsoLocalDateTime(String text) {
+            int length = text.length();
+            if (length != 16 && length != 19 && (length < 21 || length > 29)
+                    || text.charAt(4) != '-' || text.charAt(7) != '-' || text.charAt(10) != 'T'
+                    || text.charAt(13) != ':' || length > 16 && text.charAt(16) != ':'
+                    || length > 19 && text.charAt(19) != '.') {
+                return null;
+            }
+            int year = parseDigits(text, 0, 4);
+            int month = parseDigits(text, 5, 2);
+            int day = parseDigits(text, 8, 2);
+            int hour = parseDigits(text, 11, 2);
+            int minute = parseDigits(text, 14, 2);
+            int second = length > 16 ? parseDigits(text, 17, 2) : 0;
+            int nano = 0;
+            if (length > 19) {
+                nano = parseDigits(text, 20, length - 20);
+                for (int i = length - 20; i < 9; i++) {
+                    nano *= 10;
+                }
+            }
+            if ((year | month | day | hour | minute | second | nano) < 0) {
+                return null;
+            }
+            try {
+                return LocalDateTime.of(year, month, day, hour, minute, second, nano);
+            } catch (DateTimeException e) {
+                return null;
+            }
+        }
+
+        /**
+         * @return 数值，包含非数字字符时为-1
+         */
+        private static int parseDigits(String text, int offset, int count) {
+            int value = 0;
+            for (int i = offset; i < offset + count; i++) {
+                int digit = text.charAt(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    return -1;
+                }
+                value = value * 10 + digit;
+            }
+            return value;
+        }
+
+        private static <E extends Enum<E>> Map<String, E> byName(E[] values) {
+            Map<String, E> byName = new HashMap<>(values.length * 2);
+            for (E value : values) {
+                byName.put(value.name(), value);
+            }
+            return byName;
+        }
+    }
+}
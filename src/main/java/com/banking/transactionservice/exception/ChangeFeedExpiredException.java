@@ -0,0 +1,12 @@
+package com.banking.transactionservice.exception;
+
+/**
+ * 请求的游标已无法继续读取
+ * 游标之后的变更已被环形缓冲区覆盖、订阅落后过多，或者游标来自服务重启之前，
+ * 消费方需要通过查询接口重新同步，再从最新位置订阅
+ */
+public class ChangeFeedExpiredException extends RuntimeException {
+    public ChangeFeedExpiredException(String message) {
+        super(message);
+    }
+}
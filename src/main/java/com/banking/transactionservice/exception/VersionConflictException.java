@@ -0,0 +1,11 @@
+package com.banking.transactionservice.exception;
+
+public class VersionConflictException extends RuntimeException {
+    public VersionConflictException(String id, long expectedVersion, long currentVersion) {
+        super("Transaction " + id + " has version " + currentVersion + ", expected " + expectedVersion);
+    }
+
+    public VersionConflictException(String id, String ifMatch) {
+        super("Transaction " + id + " does not match If-Match: " + ifMatch);
+    }
+}
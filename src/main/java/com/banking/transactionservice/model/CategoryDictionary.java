@@ -0,0 +1,117 @@
+package com.banking.transactionservice.model;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 交易类别字典
+ * 把类别字符串映射为从0开始的连续整数编码，编码一经分配不会改变或回收。
+ * 仓库保存的交易引用字典中的共享字符串实例，列式和堆外存储引擎只保存编码。
+ * 编码只在同一个字典内有效，持久化和对外接口仍使用类别字符串。
+ * 编码和解码都不加锁，只有新类别的首次分配需要加锁。
+ * <p>
+ * 类别来自客户端请求，字典最多保存 maxSize 个类别，任意请求都不能让字典无限增长；
+ * 字典已满后出现的新类别不分配编码，由调用方按原字符串保存，写入不会因此失败
+ */
+public class CategoryDictionary {
+
+    /**
+     * 表示没有类别（null）的编码
+     */
+    public static final int NONE = -1;
+
+    /**
+     * 表示字典已满、类别没有编码的编码，调用方需要另外保存原字符串
+     */
+    public static final int UNENCODED = -2;
+
+    /**
+     * 默认保存的最大类别数
+     */
+    public static final int DEFAULT_MAX_SIZE = 10_000;
+
+    private final int maxSize;
+    private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile String[] values = new String[16];
+    private int size;
+
+    /**
+     * 创建最多保存 {@link #DEFAULT_MAX_SIZE} 个类别的字典
+     */
+    public CategoryDictionary() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * 创建字典
+     * @param maxSize 保存的最大类别数
+     */
+    public CategoryDictionary(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * 获取类别的编码，首次出现且字典未满时分配新编码
+     * @param category 类别，可以为null
+     * @return 编码，类别为null时返回 {@link #NONE}，字典已满且类别是新的时返回 {@link #UNENCODED}
+     */
+    public int encode(String category) {
+        if (category == null) {
+            return NONE;
+        }
+        Integer code = codes.get(category);
+        if (code != null) {
+            return code;
+        }
+        lock.lock();
+        try {
+            code = codes.get(category);
+            if (code != null) {
+                return code;
+            }
+            if (size >= maxSize) {
+                return UNENCODED;
+            }
+            String[] current = values;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+            }
+            current[size] = category;
+            values = current;
+            codes.put(category, size);
+            return size++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 根据编码获取类别
+     * @param code 由 {@link #encode(String)} 返回的非负编码或 {@link #NONE}
+     * @return 字典中的共享实例，编码为 {@link #NONE} 时返回null
+     */
+    public String decode(int code) {
+        return code == NONE ? null : values[code];
+    }
+
+    /**
+     * 获取类别在字典中的共享实例
+     * @param category 类别，可以为null
+     * @return 共享实例；类别为null或字典已满且类别是新的时返回参数本身
+     */
+    public String intern(String category) {
+        int code = encode(category);
+        return code < 0 ? category : values[code];
+    }
+
+    /**
+     * 获取已分配的编码数量
+     * @return 不同类别的数量
+     */
+    public int size() {
+        return codes.size();
+    }
+}
@@ -0,0 +1,22 @@
+package com.banking.transactionservice.model;
+
+import java.util.UUID;
+
+/**
+ * 交易ID生成策略
+ * 为新建的交易生成ID，实现必须是线程安全的
+ */
+@FunctionalInterface
+public interface IdGenerator {
+
+    /**
+     * 随机UUID（v4），依赖SecureRandom，生成的ID没有顺序
+     */
+    IdGenerator RANDOM_UUID = () -> UUID.randomUUID().toString();
+
+    /**
+     * 生成新的交易ID
+     * @return 交易ID
+     */
+    String nextId();
+}
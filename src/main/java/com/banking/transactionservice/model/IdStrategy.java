@@ -0,0 +1,21 @@
+package com.banking.transactionservice.model;
+
+/**
+ * 交易ID生成策略类型
+ */
+public enum IdStrategy {
+    RANDOM,        // 随机UUID（v4），不使用节点ID
+    TIME_ORDERED;  // 按时间排序的UUIDv7，同一节点上单调递增
+
+    /**
+     * 创建该类型的ID生成器
+     * @param nodeId 节点ID，多个副本应当配置不同的值
+     * @return ID生成器
+     */
+    public IdGenerator createGenerator(int nodeId) {
+        return switch (this) {
+            case RANDOM -> IdGenerator.RANDOM_UUID;
+            case TIME_ORDERED -> new TimeOrderedIdGenerator(nodeId);
+        };
+    }
+}
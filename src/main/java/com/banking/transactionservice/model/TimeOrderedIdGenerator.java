@@ -0,0 +1,83 @@
+package com.banking.transactionservice.model;
+
+import java.time.Clock;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按时间排序的交易ID生成器
+ * 生成RFC 9562中UUIDv7格式的ID，128位的布局为：
+ * <pre>
+ * 48位Unix毫秒时间戳 | 4位版本(7) | 12位序号 | 2位变体(10) | 10位节点ID | 52位随机数
+ * </pre>
+ * 毫秒时间戳和序号组成一个60位的状态，每次生成用CAS把它推进到 max(上一个值 + 1, 当前毫秒)：
+ * 同一毫秒内序号递增，序号用尽或时钟回拨时借用下一毫秒，因此同一生成器生成的ID严格递增，
+ * 其字符串形式按字典序同样递增。不同副本配置不同的节点ID，生成的ID不会冲突。
+ * 随机部分来自ThreadLocalRandom而不是SecureRandom，ID不能用作不可猜测的凭证
+ */
+public final class TimeOrderedIdGenerator implements IdGenerator {
+
+    private static final int SEQUENCE_BITS = 12;
+    private static final int NODE_BITS = 10;
+    private static final int RANDOM_BITS = 52;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final long VERSION = 7L << SEQUENCE_BITS;
+    private static final long VARIANT = 2L << (NODE_BITS + RANDOM_BITS);
+
+    /**
+     * 节点ID的最大值
+     */
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+    private final long node;
+    private final Clock clock;
+    private final AtomicLong state = new AtomicLong();
+
+    /**
+     * 创建使用系统时钟的生成器
+     * @param nodeId 节点ID，0到 {@link #MAX_NODE_ID}
+     */
+    public TimeOrderedIdGenerator(int nodeId) {
+        this(nodeId, Clock.systemUTC());
+    }
+
+    /**
+     * 创建生成器
+     * @param nodeId 节点ID，0到 {@link #MAX_NODE_ID}
+     * @param clock 提供毫秒时间戳的时钟
+     */
+    public TimeOrderedIdGenerator(int nodeId, Clock clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.node = VARIANT | (long) nodeId << RANDOM_BITS;
+        this.clock = clock;
+    }
+
+    /**
+     * 生成新的交易ID
+     * @return 规范格式的UUID字符串
+     */
+    @Override
+    public String nextId() {
+        return nextUuid().toString();
+    }
+
+    /**
+     * 生成新ID的二进制形式
+     * @return UUID
+     */
+    public UUID nextUuid() {
+        long now = clock.millis() << SEQUENCE_BITS;
+        long previous;
+        long next;
+        do {
+            previous = state.get();
+            next = Math.max(previous + 1, now);
+        } while (!state.compareAndSet(previous, next));
+        long mostSignificant = (next >>> SEQUENCE_BITS) << 16 | VERSION | (next & SEQUENCE_MASK);
+        long leastSignificant = node | ThreadLocalRandom.current().nextLong() >>> (Long.SIZE - RANDOM_BITS);
+        return new UUID(mostSignificant, leastSignificant);
+    }
+}
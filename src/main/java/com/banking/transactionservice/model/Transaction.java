@@ -3,7 +3,6 @@ package com.banking.transactionservice.model;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Objects;
-import java.util.UUID;
 
 /**
  * 交易实体类
@@ -15,15 +14,25 @@ public class Transaction {
     private String description;       // 交易描述
     private LocalDateTime timestamp;  // 交易时间戳
     private TransactionType type;     // 交易类型
-    private String category;          // 交易类别
+    private String category;          // 交易类别，仓库保存时替换为CategoryDictionary中的共享实例
     private TransactionStatus status; // 交易状态
+    private long version;             // 版本号：最后一次写入的变更序号，由仓库分配
     
     /**
      * 默认构造函数
      * 生成随机ID并设置默认时间和状态
      */
     public Transaction() {
-        this.id = UUID.randomUUID().toString();
+        this(IdGenerator.RANDOM_UUID);
+    }
+
+    /**
+     * 使用指定的ID生成策略创建交易
+     * 生成ID并设置默认时间和状态
+     * @param idGenerator ID生成器
+     */
+    public Transaction(IdGenerator idGenerator) {
+        this.id = idGenerator.nextId();
         this.timestamp = LocalDateTime.now();
         this.status = TransactionStatus.COMPLETED;
     }
@@ -42,7 +51,32 @@ public class Transaction {
         this.type = type;
         this.category = category;
     }
-    
+
+    /**
+     * 创建只有ID的交易
+     * 不生成随机ID，也不设置默认时间和状态，供存储引擎还原已保存的记录
+     * @param id 交易ID
+     */
+    public Transaction(String id) {
+        this.id = id;
+    }
+
+    /**
+     * 复制构造函数
+     * 创建与给定交易字段完全相同的独立副本，不会重新生成ID
+     * @param other 被复制的交易
+     */
+    public Transaction(Transaction other) {
+        this.id = other.id;
+        this.amount = other.amount;
+        this.description = other.description;
+        this.timestamp = other.timestamp;
+        this.type = other.type;
+        this.category = other.category;
+        this.status = other.status;
+        this.version = other.version;
+    }
+
     // Getter 和 Setter 方法
     /**
      * 获取交易ID
@@ -156,6 +190,23 @@ public class Transaction {
         this.status = status;
     }
 
+    /**
+     * 获取版本号
+     * 版本号是仓库中最后一次写入该交易的变更序号，每次写入都会变化，且不会在删除后重新创建时重复
+     * @return 版本号，尚未保存时为0
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 设置版本号
+     * @param version 版本号
+     */
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     /**
      * 判断对象是否相等
      * 仅通过ID判断交易是否相同
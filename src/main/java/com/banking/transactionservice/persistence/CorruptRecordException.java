@@ -0,0 +1,11 @@
+package com.banking.transactionservice.persistence;
+
+/**
+ * 持久化记录损坏异常
+ * 在日志或快照中读到校验失败或格式非法的记录时抛出
+ */
+public class CorruptRecordException extends RuntimeException {
+    public CorruptRecordException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
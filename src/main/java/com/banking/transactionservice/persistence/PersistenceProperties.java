@@ -0,0 +1,65 @@
+package com.banking.transactionservice.persistence;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 持久化配置
+ * 对应配置前缀 transaction.persistence
+ */
+@ConfigurationProperties(prefix = "transaction.persistence")
+public class PersistenceProperties {
+    private boolean enabled = false;                   // 是否启用持久化
+    private String directory = "data/transactions";    // 日志和快照目录
+    private boolean syncCommit = true;                 // 写入是否等待日志fsync后才返回
+    private int maxBatchSize = 4096;                   // 单次组提交的最大记录数
+    private long snapshotThreshold = 1_000_000;        // 距上次快照累计多少条日志后触发快照
+    private long snapshotCheckIntervalSeconds = 30;    // 检查是否需要快照的间隔
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public boolean isSyncCommit() {
+        return syncCommit;
+    }
+
+    public void setSyncCommit(boolean syncCommit) {
+        this.syncCommit = syncCommit;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public long getSnapshotThreshold() {
+        return snapshotThreshold;
+    }
+
+    public void setSnapshotThreshold(long snapshotThreshold) {
+        this.snapshotThreshold = snapshotThreshold;
+    }
+
+    public long getSnapshotCheckIntervalSeconds() {
+        return snapshotCheckIntervalSeconds;
+    }
+
+    public void setSnapshotCheckIntervalSeconds(long snapshotCheckIntervalSeconds) {
+        this.snapshotCheckIntervalSeconds = snapshotCheckIntervalSeconds;
+    }
+}
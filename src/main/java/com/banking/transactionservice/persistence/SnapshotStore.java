@@ -0,0 +1,218 @@
+package com.banking.transactionservice.persistence;
+
+import com.banking.transactionservice.model.Transaction;
+import com.banking.transactionservice.repository.TransactionRepository;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * 压缩快照存储
+ * 快照是仓库在某一时刻的完整内容，文件名中的段号表示恢复时需要从哪个日志段开始重放。
+ * 快照先写入临时文件并fsync，再原子重命名，因此目录中的快照文件总是完整的。
+ * <p>
+ * 文件格式：[4字节魔数][8字节序号][8字节起始段号]，随后是若干 [4字节长度][4字节CRC32C][交易编码]，
+ * 以 [4字节0][8字节记录数] 结尾
+ */
+class SnapshotStore {
+
+    private static final int MAGIC = 0x54585331; // "TXS1"
+    private static final Pattern SNAPSHOT_NAME = Pattern.compile("snapshot-(\\d+)\\.snap");
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final Path directory;
+
+    SnapshotStore(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * 将仓库当前内容写成快照
+     * @param repository 交易仓库
+     * @param sequence 开始快照时仓库的变更序号
+     * @param walSegment 恢复时需要重放的首个日志段号
+     * @return 写入的记录数
+     * @throws IOException 当写入失败时抛出
+     */
+    long write(TransactionRepository repository, long sequence, long walSegment) throws IOException {
+        Path target = snapshotPath(walSegment);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        long[] count = new long[1];
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer[] buffer = {ByteBuffer.allocateDirect(BUFFER_SIZE)};
+            CRC32C crc = new CRC32C();
+            buffer[0].putInt(MAGIC).putLong(sequence).putLong(walSegment);
+            try {
+                repository.forEach(transaction -> {
+                    buffer[0] = append(channel, buffer[0], transaction, crc);
+                    count[0]++;
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            buffer[0] = ensureCapacity(channel, buffer[0], 12);
+            buffer[0].putInt(0).putLong(count[0]);
+            drain(channel, buffer[0]);
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        syncDirectory();
+        return count[0];
+    }
+
+    /**
+     * 查找最新的快照
+     * @return 最新快照的起始段号
+     */
+    Optional<Long> latest() {
+        List<Long> snapshots = list();
+        return snapshots.isEmpty() ? Optional.empty() : Optional.of(snapshots.get(snapshots.size() - 1));
+    }
+
+    /**
+     * 读取快照
+     * @param walSegment 快照的起始段号
+     * @param consumer 逐条接收快照中的交易
+     * @return 快照头信息
+     * @throws IOException 当读取失败时抛出
+     * @throws CorruptRecordException 当快照内容校验失败时抛出
+     */
+    Header read(long walSegment, Consumer<Transaction> consumer) throws IOException {
+        Path path = snapshotPath(walSegment);
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC) {
+                throw new CorruptRecordException("Not a snapshot file: " + path, null);
+            }
+            Header header = new Header(in.readLong(), in.readLong());
+            CRC32C crc = new CRC32C();
+            byte[] record = new byte[256];
+            long count = 0;
+            while (true) {
+                int length = in.readInt();
+                if (length == 0) {
+                    break;
+                }
+                int expected = in.readInt();
+                if (length < 0) {
+                    throw new CorruptRecordException("Negative record length in " + path, null);
+                }
+                if (record.length < length) {
+                    record = new byte[Math.max(length, record.length * 2)];
+                }
+                in.readFully(record, 0, length);
+                crc.reset();
+                crc.update(record, 0, length);
+                if ((int) crc.getValue() != expected) {
+                    throw new CorruptRecordException("Checksum mismatch in " + path + " at record " + count, null);
+                }
+                consumer.accept(TransactionCodec.read(ByteBuffer.wrap(record, 0, length)));
+                count++;
+            }
+            if (in.readLong() != count) {
+                throw new CorruptRecordException("Record count mismatch in " + path, null);
+            }
+            return header;
+        } catch (EOFException e) {
+            throw new CorruptRecordException("Truncated snapshot " + path, e);
+        }
+    }
+
+    /**
+     * 删除起始段号小于给定值的旧快照
+     * @param walSegment 保留的最早起始段号
+     * @throws IOException 当删除失败时抛出
+     */
+    void deleteOlderThan(long walSegment) throws IOException {
+        for (long snapshot : list()) {
+            if (snapshot < walSegment) {
+                Files.deleteIfExists(snapshotPath(snapshot));
+            }
+        }
+    }
+
+    private List<Long> list() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> SNAPSHOT_NAME.matcher(path.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(matcher -> Long.parseLong(matcher.group(1)))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path snapshotPath(long walSegment) {
+        return directory.resolve(String.format("snapshot-%012d.snap", walSegment));
+    }
+
+    private static ByteBuffer append(FileChannel channel, ByteBuffer buffer, Transaction transaction, CRC32C crc) {
+        try {
+            buffer = ensureCapacity(channel, buffer, 8 + TransactionCodec.maxEncodedSize(transaction));
+            int start = buffer.position();
+            buffer.position(start + 8);
+            TransactionCodec.write(transaction, buffer);
+            int end = buffer.position();
+            crc.reset();
+            crc.update(buffer.duplicate().position(start + 8).limit(end));
+            buffer.putInt(start, end - start - 8);
+            buffer.putInt(start + 4, (int) crc.getValue());
+            return buffer;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ByteBuffer ensureCapacity(FileChannel channel, ByteBuffer buffer, int required) throws IOException {
+        if (buffer.remaining() >= required) {
+            return buffer;
+        }
+        drain(channel, buffer);
+        return buffer.capacity() >= required ? buffer : ByteBuffer.allocateDirect(required);
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * fsync目录，使重命名本身持久化；不支持目录fsync的平台上忽略
+     */
+    private void syncDirectory() {
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException ignored) {
+            // 部分平台不支持对目录执行fsync
+        }
+    }
+
+    /**
+     * 快照头信息
+     * @param sequence 开始快照时仓库的变更序号
+     * @param walSegment 恢复时需要重放的首个日志段号
+     */
+    record Header(long sequence, long walSegment) {
+    }
+}
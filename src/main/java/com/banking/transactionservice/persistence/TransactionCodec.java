@@ -0,0 +1,164 @@
+package com.banking.transactionservice.persistence;
+
+import com.banking.transactionservice.model.Transaction;
+import com.banking.transactionservice.model.TransactionStatus;
+import com.banking.transactionservice.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * 交易二进制编解码器
+ * 用于预写日志、快照文件和副本间复制消息的紧凑定长+变长编码。
+ * 枚举按序号编码，因此 {@link TransactionType} 和 {@link TransactionStatus} 只能在末尾追加新值。
+ * 版本号写在记录末尾，读取没有版本号的旧记录时版本号为0
+ */
+public final class TransactionCodec {
+
+    private static final byte NULL = -1;
+
+    /**
+     * 所有字段为空的模板，解码时复制它以避免默认构造函数生成随机ID和时间戳
+     */
+    private static final Transaction BLANK = blankTemplate();
+
+    private TransactionCodec() {
+    }
+
+    /**
+     * 将交易编码写入缓冲区
+     * @param transaction 交易实体
+     * @param buffer 目标缓冲区，剩余空间必须不小于 {@link #maxEncodedSize(Transaction)}
+     */
+    public static void write(Transaction transaction, ByteBuffer buffer) {
+        writeString(transaction.getId(), buffer);
+        BigDecimal amount = transaction.getAmount();
+        if (amount == null) {
+            buffer.put(NULL);
+        } else {
+            byte[] unscaled = amount.unscaledValue().toByteArray();
+            if (unscaled.length > Byte.MAX_VALUE) {
+                throw new IllegalArgumentException("Amount too large to encode: " + amount);
+            }
+            buffer.put((byte) unscaled.length);
+            buffer.put(unscaled);
+            buffer.putInt(amount.scale());
+        }
+        writeString(transaction.getDescription(), buffer);
+        LocalDateTime timestamp = transaction.getTimestamp();
+        if (timestamp == null) {
+            buffer.put(NULL);
+        } else {
+            buffer.put((byte) 0);
+            buffer.putLong(timestamp.toLocalDate().toEpochDay());
+            buffer.putLong(timestamp.toLocalTime().toNanoOfDay());
+        }
+        buffer.put(transaction.getType() == null ? NULL : (byte) transaction.getType().ordinal());
+        writeString(transaction.getCategory(), buffer);
+        buffer.put(transaction.getStatus() == null ? NULL : (byte) transaction.getStatus().ordinal());
+        buffer.putLong(transaction.getVersion());
+    }
+
+    /**
+     * 从缓冲区解码交易
+     * @param buffer 源缓冲区
+     * @return 交易实体
+     * @throws CorruptRecordException 当数据不完整或取值非法时抛出
+     */
+    public static Transaction read(ByteBuffer buffer) {
+        try {
+            Transaction transaction = new Transaction(BLANK);
+            transaction.setId(readString(buffer));
+            byte amountLength = buffer.get();
+            if (amountLength != NULL) {
+                byte[] unscaled = new byte[amountLength];
+                buffer.get(unscaled);
+                transaction.setAmount(new BigDecimal(new BigInteger(unscaled), buffer.getInt()));
+            }
+            transaction.setDescription(readString(buffer));
+            if (buffer.get() != NULL) {
+                LocalDate date = LocalDate.ofEpochDay(buffer.getLong());
+                transaction.setTimestamp(LocalDateTime.of(date, LocalTime.ofNanoOfDay(buffer.getLong())));
+            }
+            byte type = buffer.get();
+            transaction.setType(type == NULL ? null : TransactionType.values()[type]);
+            transaction.setCategory(readString(buffer));
+            byte status = buffer.get();
+            transaction.setStatus(status == NULL ? null : TransactionStatus.values()[status]);
+            if (buffer.remaining() >= Long.BYTES) {
+                transaction.setVersion(buffer.getLong());
+            }
+            return transaction;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException
+                 | DateTimeException e) {
+            throw new CorruptRecordException("Malformed transaction record", e);
+        }
+    }
+
+    /**
+     * 估算编码后的最大字节数
+     * @param transaction 交易实体
+     * @return 最大字节数
+     */
+    public static int maxEncodedSize(Transaction transaction) {
+        int size = 72; // 定长字段、版本号、长度前缀和空值标记
+        size += maxStringSize(transaction.getId());
+        size += maxStringSize(transaction.getDescription());
+        size += maxStringSize(transaction.getCategory());
+        if (transaction.getAmount() != null) {
+            size += transaction.getAmount().unscaledValue().bitLength() / 8 + 1;
+        }
+        return size;
+    }
+
+    /**
+     * 写入可为空的字符串：4字节长度（-1表示null）+ UTF-8字节
+     */
+    public static void writeString(String value, ByteBuffer buffer) {
+        if (value == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * 读取可为空的字符串
+     */
+    public static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > buffer.remaining()) {
+            throw new CorruptRecordException("String length " + length + " exceeds record size", null);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 字符串编码后的最大字节数
+     */
+    public static int maxStringSize(String value) {
+        return 4 + (value == null ? 0 : value.length() * 3);
+    }
+
+    private static Transaction blankTemplate() {
+        Transaction template = new Transaction();
+        template.setId(null);
+        template.setTimestamp(null);
+        template.setStatus(null);
+        return template;
+    }
+}
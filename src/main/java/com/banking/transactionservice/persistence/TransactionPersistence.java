@@ -0,0 +1,218 @@
+package com.banking.transactionservice.persistence;
+
+import com.banking.transactionservice.model.Transaction;
+import com.banking.transactionservice.repository.TransactionChange;
+import com.banking.transactionservice.repository.TransactionChangeListener;
+import com.banking.transactionservice.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 交易仓库的持久化管理器
+ * 启动时从最新快照和其后的日志段恢复仓库内容，然后作为变更监听器把每次写入追加到预写日志，
+ * 并在日志累积到阈值后生成新的压缩快照、删除已被快照覆盖的旧日志段。
+ * <p>
+ * 恢复时同一ID可能在快照和日志中各出现一次，且日志中不同线程的记录顺序可能与序号顺序不同，
+ * 因此日志记录只有在序号大于该ID已应用的序号、也大于仓库中该记录的版本号（可能来自快照）时才生效
+ */
+public class TransactionPersistence implements TransactionChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionPersistence.class);
+
+    private final TransactionRepository repository;
+    private final PersistenceProperties properties;
+    private final Path directory;
+    private final SnapshotStore snapshots;
+
+    private WriteAheadLog wal;
+    private ScheduledExecutorService scheduler;
+
+    public TransactionPersistence(TransactionRepository repository, PersistenceProperties properties) {
+        this.repository = repository;
+        this.properties = properties;
+        this.directory = Paths.get(properties.getDirectory());
+        this.snapshots = new SnapshotStore(directory);
+    }
+
+    /**
+     * 恢复数据并开始记录日志
+     * @throws IOException 当目录无法访问或日志无法创建时抛出
+     */
+    public void start() throws IOException {
+        Files.createDirectories(directory);
+        long nextSegment = recover();
+        wal = new WriteAheadLog(directory, nextSegment, properties.getMaxBatchSize());
+        repository.addChangeListener(this);
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "snapshot-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getSnapshotCheckIntervalSeconds();
+        scheduler.scheduleWithFixedDelay(this::snapshotIfNeeded, interval, interval, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 停止快照调度并关闭日志
+     * @throws IOException 当关闭日志失败时抛出
+     */
+    public void close() throws IOException {
+        repository.removeChangeListener(this);
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+        if (wal != null) {
+            wal.close();
+        }
+    }
+
+    /**
+     * 将变更追加到日志
+     * 同步提交模式下等待该记录所在的批次fsync完成后才返回
+     * @param change 交易变更
+     */
+    @Override
+    public void onChange(TransactionChange change) {
+        CompletableFuture<Void> durable = wal.append(change);
+        if (properties.isSyncCommit()) {
+            try {
+                durable.join();
+            } catch (CompletionException e) {
+                throw new UncheckedIOException(new IOException("Failed to persist transaction change", e.getCause()));
+            }
+        }
+    }
+
+    /**
+     * 将一批变更追加到日志
+     * 整批记录一起入队，通常落在同一次组提交中，同步提交模式下只需等待一次fsync
+     * @param changes 交易变更
+     */
+    @Override
+    public void onChanges(List<TransactionChange> changes) {
+        CompletableFuture<?>[] durable = new CompletableFuture<?>[changes.size()];
+        for (int i = 0; i < durable.length; i++) {
+            durable[i] = wal.append(changes.get(i));
+        }
+        if (properties.isSyncCommit()) {
+            try {
+                CompletableFuture.allOf(durable).join();
+            } catch (CompletionException e) {
+                throw new UncheckedIOException(new IOException("Failed to persist transaction changes", e.getCause()));
+            }
+        }
+    }
+
+    /**
+     * 立即生成一次快照
+     * 先切换日志段，再遍历仓库写快照：切段前写入日志的变更一定已经生效，因而包含在快照中；
+     * 切段后的变更都在新段里，恢复时会在快照之上重放
+     * @throws IOException 当快照写入失败时抛出
+     */
+    public void snapshot() throws IOException {
+        long sequence = repository.currentSequence();
+        long segment = wal.rotate().join();
+        long start = System.nanoTime();
+        long records = snapshots.write(repository, sequence, segment);
+        snapshots.deleteOlderThan(segment);
+        for (long old : WriteAheadLog.listSegments(directory)) {
+            if (old < segment) {
+                Files.deleteIfExists(WriteAheadLog.segmentPath(directory, old));
+            }
+        }
+        log.info("Wrote snapshot of {} transactions in {} ms (replay starts at segment {})",
+                records, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), segment);
+    }
+
+    private void snapshotIfNeeded() {
+        if (wal.recordsSinceRotation() < properties.getSnapshotThreshold()) {
+            return;
+        }
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            log.error("Snapshot failed, write-ahead log will keep growing until the next attempt", e);
+        }
+    }
+
+    /**
+     * 从快照和日志恢复仓库
+     * @return 新日志应使用的段号
+     */
+    private long recover() throws IOException {
+        long start = System.nanoTime();
+        long maxSequence = 0;
+        long snapshotRecords = 0;
+        long firstSegment = 0;
+
+        Optional<Long> latest = snapshots.latest();
+        if (latest.isPresent()) {
+            long[] count = new long[1];
+            SnapshotStore.Header header = snapshots.read(latest.get(), transaction -> {
+                repository.restore(transaction);
+                count[0]++;
+            });
+            snapshotRecords = count[0];
+            maxSequence = header.sequence();
+            firstSegment = header.walSegment();
+        }
+
+        List<Long> segments = WriteAheadLog.listSegments(directory);
+        Map<String, Long> appliedSequence = new HashMap<>();
+        long[] walRecords = new long[1];
+        long[] walMaxSequence = {maxSequence};
+        for (long segment : segments) {
+            if (segment < firstSegment) {
+                continue;
+            }
+            WriteAheadLog.replay(WriteAheadLog.segmentPath(directory, segment), record -> {
+                walRecords[0]++;
+                walMaxSequence[0] = Math.max(walMaxSequence[0], record.sequence());
+                Long applied = appliedSequence.get(record.id());
+                if (applied != null && applied >= record.sequence()) {
+                    return;
+                }
+                appliedSequence.put(record.id(), record.sequence());
+                // 快照是弱一致的，可能已经包含比这条日志记录更新的版本，此时不能覆盖或删除快照中的记录
+                Transaction transaction = record.transaction();
+                if (transaction != null) {
+                    if (transaction.getVersion() == 0) {
+                        // 旧格式的日志记录没有版本号，写入时的版本号就是它的变更序号
+                        transaction.setVersion(record.sequence());
+                    }
+                    repository.restoreIf(transaction,
+                            (existing, incoming) -> existing == null || existing.getVersion() < record.sequence());
+                } else {
+                    repository.deleteIf(record.id(), existing -> existing.getVersion() < record.sequence());
+                }
+            });
+        }
+        repository.advanceSequence(walMaxSequence[0]);
+
+        long elapsedNanos = System.nanoTime() - start;
+        long total = snapshotRecords + walRecords[0];
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        log.info("Recovered {} transactions from {} snapshot records and {} log records in {} ms ({} records/s)",
+                repository.count(), snapshotRecords, walRecords[0], elapsedMillis,
+                elapsedNanos == 0 ? 0 : total * 1_000_000_000L / elapsedNanos);
+
+        long lastSegment = segments.isEmpty() ? 0 : segments.get(segments.size() - 1);
+        return Math.max(lastSegment, firstSegment) + 1;
+    }
+}
@@ -0,0 +1,363 @@
+package com.banking.transactionservice.persistence;
+
+import com.banking.transactionservice.model.Transaction;
+import com.banking.transactionservice.repository.TransactionChange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * 只追加的预写日志
+ * 写入方把变更放入队列后等待返回的Future；单个写线程批量取出队列中的全部变更，
+ * 一次 write + 一次 force 提交整批（组提交），因此并发写入越多，每次fsync分摊的记录越多。
+ * 日志按段文件存放（wal-000000000001.log），段文件超过 {@value #MAX_SEGMENT_BYTES} 字节或
+ * 快照开始时切换到新段，快照完成后旧段可以整体删除。
+ * <p>
+ * 记录格式：[4字节负载长度][4字节CRC32C][负载]，负载为 [8字节序号][1字节操作][交易编码或ID]
+ */
+class WriteAheadLog implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteAheadLog.class);
+
+    static final byte OP_SAVE = 1;
+    static final byte OP_DELETE = 2;
+    static final int HEADER_SIZE = 8;
+    static final long MAX_SEGMENT_BYTES = 512L << 20;
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("wal-(\\d+)\\.log");
+    private static final int INITIAL_BUFFER_SIZE = 1 << 20;
+
+    private final Path directory;
+    private final int maxBatchSize;
+    private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+    private final AtomicLong recordsSinceRotation = new AtomicLong();
+    private final Thread writer;
+    private final CRC32C crc = new CRC32C();
+
+    private volatile boolean running = true;
+    private FileChannel channel;
+    private long segment;
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(INITIAL_BUFFER_SIZE);
+
+    /**
+     * 打开日志并从指定段号开始写入
+     * @param directory 日志目录
+     * @param segment 首个写入的段号，必须大于已有的所有段号
+     * @param maxBatchSize 单次组提交的最大记录数
+     * @throws IOException 当无法创建段文件时抛出
+     */
+    WriteAheadLog(Path directory, long segment, int maxBatchSize) throws IOException {
+        this.directory = directory;
+        this.maxBatchSize = maxBatchSize;
+        this.segment = segment;
+        this.channel = openSegment(segment);
+        this.writer = new Thread(this::runWriter, "wal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * 追加一条变更
+     * @param change 交易变更
+     * @return 该记录落盘（fsync完成）后完成的Future
+     */
+    CompletableFuture<Void> append(TransactionChange change) {
+        PendingWrite write = new PendingWrite(change, new CompletableFuture<>());
+        enqueue(write);
+        return write.done;
+    }
+
+    /**
+     * 切换到新的段文件
+     * 在此之前入队的记录都写入旧段，之后入队的记录都写入新段
+     * @return 完成后给出新段号的Future
+     */
+    CompletableFuture<Long> rotate() {
+        CompletableFuture<Long> rotated = new CompletableFuture<>();
+        PendingWrite marker = new PendingWrite(null, new CompletableFuture<>());
+        marker.done.whenComplete((ignored, error) -> {
+            if (error != null) {
+                rotated.completeExceptionally(error);
+            } else {
+                rotated.complete(marker.rotatedTo);
+            }
+        });
+        enqueue(marker);
+        return rotated;
+    }
+
+    /**
+     * 上次调用 {@link #rotate()} 之后写入的记录数
+     * @return 记录数
+     */
+    long recordsSinceRotation() {
+        return recordsSinceRotation.get();
+    }
+
+    /**
+     * 停止写线程，写完队列中剩余的记录后关闭文件
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+
+    private void enqueue(PendingWrite write) {
+        if (!running) {
+            write.done.completeExceptionally(new IllegalStateException("Write-ahead log is closed"));
+            return;
+        }
+        queue.add(write);
+    }
+
+    private void runWriter() {
+        List<PendingWrite> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (IOException | RuntimeException e) {
+                log.error("Write-ahead log commit failed", e);
+                buffer.clear();
+                batch.forEach(write -> write.done.completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 提交一批记录：编码、写入、fsync，然后完成所有Future
+     * 批中的切段标记会先提交它之前的记录，再切换文件
+     */
+    private void commit(List<PendingWrite> batch) throws IOException {
+        int committedUpTo = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            PendingWrite write = batch.get(i);
+            if (write.change == null) {
+                flush();
+                complete(batch, committedUpTo, i);
+                switchSegment();
+                recordsSinceRotation.set(0);
+                write.rotatedTo = segment;
+                write.done.complete(null);
+                committedUpTo = i + 1;
+            } else {
+                encode(write);
+            }
+        }
+        flush();
+        complete(batch, committedUpTo, batch.size());
+        if (channel.position() >= MAX_SEGMENT_BYTES) {
+            switchSegment();
+        }
+    }
+
+    /**
+     * 将一条变更编码进写缓冲区；单条记录无法编码时只让这一条失败
+     */
+    private void encode(PendingWrite write) throws IOException {
+        TransactionChange change = write.change;
+        Transaction current = change.current();
+        int maxSize = HEADER_SIZE + 9 + (current != null
+                ? TransactionCodec.maxEncodedSize(current)
+                : TransactionCodec.maxStringSize(change.id()));
+        if (buffer.remaining() < maxSize) {
+            flushBuffer();
+            if (buffer.capacity() < maxSize) {
+                buffer = ByteBuffer.allocateDirect(maxSize);
+            }
+        }
+        int start = buffer.position();
+        try {
+            buffer.position(start + HEADER_SIZE);
+            buffer.putLong(change.sequence());
+            if (change.type() == TransactionChange.Type.SAVE) {
+                buffer.put(OP_SAVE);
+                TransactionCodec.write(current, buffer);
+            } else {
+                buffer.put(OP_DELETE);
+                TransactionCodec.writeString(change.id(), buffer);
+            }
+        } catch (RuntimeException e) {
+            buffer.position(start);
+            write.done.completeExceptionally(e);
+            return;
+        }
+        int end = buffer.position();
+        ByteBuffer payload = buffer.duplicate().position(start + HEADER_SIZE).limit(end);
+        crc.reset();
+        crc.update(payload);
+        buffer.putInt(start, end - start - HEADER_SIZE);
+        buffer.putInt(start + 4, (int) crc.getValue());
+        recordsSinceRotation.incrementAndGet();
+    }
+
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void flush() throws IOException {
+        if (buffer.position() == 0) {
+            return;
+        }
+        flushBuffer();
+        channel.force(false);
+    }
+
+    private void switchSegment() throws IOException {
+        channel.close();
+        segment++;
+        channel = openSegment(segment);
+    }
+
+    private FileChannel openSegment(long number) throws IOException {
+        return FileChannel.open(segmentPath(directory, number),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    }
+
+    private static void complete(List<PendingWrite> batch, int from, int to) {
+        for (int i = from; i < to; i++) {
+            batch.get(i).done.complete(null);
+        }
+    }
+
+    /**
+     * 段文件路径
+     * @param directory 日志目录
+     * @param number 段号
+     * @return 段文件路径
+     */
+    static Path segmentPath(Path directory, long number) {
+        return directory.resolve(String.format("wal-%012d.log", number));
+    }
+
+    /**
+     * 列出目录中所有段号（升序）
+     * @param directory 日志目录
+     * @return 段号列表
+     */
+    static List<Long> listSegments(Path directory) {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> SEGMENT_NAME.matcher(path.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(matcher -> Long.parseLong(matcher.group(1)))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 重放一个段文件
+     * 读到不完整或校验失败的记录时视为崩溃造成的撕裂尾部，截断该段并停止读取
+     * @param path 段文件
+     * @param consumer 记录消费者
+     * @return 成功读取的记录数
+     * @throws IOException 当读取失败时抛出
+     */
+    static long replay(Path path, Consumer<LogRecord> consumer) throws IOException {
+        long records = 0;
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer data = file.map(FileChannel.MapMode.READ_ONLY, 0, file.size());
+            CRC32C checksum = new CRC32C();
+            while (data.remaining() >= HEADER_SIZE) {
+                int recordStart = data.position();
+                int length = data.getInt();
+                int expected = data.getInt();
+                if (length <= 0 || length > data.remaining()) {
+                    truncate(file, path, recordStart);
+                    break;
+                }
+                ByteBuffer payload = data.slice(data.position(), length);
+                checksum.reset();
+                checksum.update(payload.duplicate());
+                if ((int) checksum.getValue() != expected) {
+                    truncate(file, path, recordStart);
+                    break;
+                }
+                data.position(data.position() + length);
+                long sequence = payload.getLong();
+                byte op = payload.get();
+                if (op == OP_SAVE) {
+                    Transaction transaction = TransactionCodec.read(payload);
+                    consumer.accept(new LogRecord(sequence, transaction.getId(), transaction));
+                } else if (op == OP_DELETE) {
+                    consumer.accept(new LogRecord(sequence, TransactionCodec.readString(payload), null));
+                } else {
+                    throw new CorruptRecordException("Unknown operation " + op + " in " + path, null);
+                }
+                records++;
+            }
+        }
+        return records;
+    }
+
+    private static void truncate(FileChannel file, Path path, long position) throws IOException {
+        log.warn("Truncating torn tail of {} at offset {} (file size {})", path, position, file.size());
+        file.truncate(position);
+        file.force(true);
+    }
+
+    /**
+     * 日志中的一条记录
+     * @param sequence 变更序号
+     * @param id 交易ID
+     * @param transaction 保存的交易，删除记录为null
+     */
+    record LogRecord(long sequence, String id, Transaction transaction) {
+    }
+
+    /**
+     * 等待写入的变更；change为null表示切段标记
+     */
+    private static final class PendingWrite {
+        private final TransactionChange change;
+        private final CompletableFuture<Void> done;
+        private long rotatedTo;
+
+        private PendingWrite(TransactionChange change, CompletableFuture<Void> done) {
+            this.change = change;
+            this.done = done;
+        }
+    }
+}
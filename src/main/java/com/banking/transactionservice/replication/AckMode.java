@@ -0,0 +1,9 @@
+package com.banking.transactionservice.replication;
+
+/**
+ * 复制确认模式
+ */
+public enum AckMode {
+    ASYNC,  // 写入在本地完成后立即返回，变更由对等副本异步拉取
+    SYNC    // 写入等待足够数量的对等副本应用该变更后才返回
+}
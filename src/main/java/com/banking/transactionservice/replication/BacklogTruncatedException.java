@@ -0,0 +1,11 @@
+package com.banking.transactionservice.replication;
+
+/**
+ * 请求的复制位置已不在内存日志中
+ * 拉取方需要先获取完整快照，再从快照对应的位置继续拉取
+ */
+public class BacklogTruncatedException extends RuntimeException {
+    public BacklogTruncatedException(long after, long oldest) {
+        super("Replication position " + after + " is older than the oldest retained entry " + oldest);
+    }
+}
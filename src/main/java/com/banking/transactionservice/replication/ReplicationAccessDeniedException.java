@@ -0,0 +1,10 @@
+package com.banking.transactionservice.replication;
+
+/**
+ * 复制请求没有携带正确的共享密钥
+ */
+public class ReplicationAccessDeniedException extends RuntimeException {
+    public ReplicationAccessDeniedException() {
+        super("Missing or invalid replication token");
+    }
+}
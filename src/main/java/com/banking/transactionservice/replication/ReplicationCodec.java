@@ -0,0 +1,187 @@
+package com.banking.transactionservice.replication;
+
+import com.banking.transactionservice.model.Transaction;
+import com.banking.transactionservice.persistence.CorruptRecordException;
+import com.banking.transactionservice.persistence.TransactionCodec;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 复制消息编解码器
+ * 变更批次：8字节纪元 + 8字节日志末尾位置 + 4字节条数，
+ * 每条变更为8字节位置 + 8字节时间戳 + 8字节版本号 + 1字节类型，之后是交易编码（写入）或交易ID（删除）。
+ * 快照流：8字节纪元 + 8字节快照对应的日志位置，之后每条交易为4字节长度 + 交易编码，以长度-1结束。
+ * 交易编码与预写日志相同，见 {@link TransactionCodec}
+ */
+final class ReplicationCodec {
+
+    private static final byte SAVE = 0;
+    private static final byte DELETE = 1;
+    private static final int BATCH_HEADER_SIZE = 20;
+    private static final int ENTRY_HEADER_SIZE = 25;
+    private static final int END_OF_SNAPSHOT = -1;
+
+    private ReplicationCodec() {
+    }
+
+    /**
+     * 拉取到的一批变更
+     * @param epoch 来源副本的纪元，来源副本重启后改变
+     * @param head 来源副本日志末尾的位置
+     * @param entries 按位置排列的变更
+     */
+    record Batch(long epoch, long head, List<ReplicationEntry> entries) {
+    }
+
+    /**
+     * 编码一批变更
+     * @param batch 变更批次
+     * @return 编码后的字节
+     */
+    static byte[] encode(Batch batch) {
+        int size = BATCH_HEADER_SIZE;
+        for (ReplicationEntry entry : batch.entries()) {
+            size += ENTRY_HEADER_SIZE + (entry.isDelete()
+                    ? TransactionCodec.maxStringSize(entry.id())
+                    : TransactionCodec.maxEncodedSize(entry.transaction()));
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putLong(batch.epoch()).putLong(batch.head()).putInt(batch.entries().size());
+        for (ReplicationEntry entry : batch.entries()) {
+            buffer.putLong(entry.position()).putLong(entry.timestamp()).putLong(entry.version());
+            if (entry.isDelete()) {
+                buffer.put(DELETE);
+                TransactionCodec.writeString(entry.id(), buffer);
+            } else {
+                buffer.put(SAVE);
+                TransactionCodec.write(entry.transaction(), buffer);
+            }
+        }
+        byte[] bytes = new byte[buffer.position()];
+        buffer.flip().get(bytes);
+        return bytes;
+    }
+
+    /**
+     * 解码一批变更
+     * @param bytes 编码后的字节
+     * @return 变更批次
+     * @throws CorruptRecordException 当数据不完整或取值非法时抛出
+     */
+    static Batch decode(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        try {
+            long epoch = buffer.getLong();
+            long head = buffer.getLong();
+            int count = buffer.getInt();
+            List<ReplicationEntry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                long position = buffer.getLong();
+                long timestamp = buffer.getLong();
+                long version = buffer.getLong();
+                byte type = buffer.get();
+                if (type == DELETE) {
+                    entries.add(new ReplicationEntry(position, timestamp, TransactionCodec.readString(buffer), version, null));
+                } else if (type == SAVE) {
+                    Transaction transaction = TransactionCodec.read(buffer);
+                    entries.add(new ReplicationEntry(position, timestamp, transaction.getId(), version, transaction));
+                } else {
+                    throw new CorruptRecordException("Unknown replication entry type " + type, null);
+                }
+            }
+            return new Batch(epoch, head, entries);
+        } catch (RuntimeException e) {
+            if (e instanceof CorruptRecordException) {
+                throw e;
+            }
+            throw new CorruptRecordException("Malformed replication batch", e);
+        }
+    }
+
+    /**
+     * 写入快照流的头部
+     * @param epoch 本副本的纪元
+     * @param position 快照开始前日志末尾的位置
+     * @param out 输出流
+     * @throws IOException 当写入失败时抛出
+     */
+    static void writeSnapshotHeader(long epoch, long position, DataOutputStream out) throws IOException {
+        out.writeLong(epoch);
+        out.writeLong(position);
+    }
+
+    /**
+     * 向快照流写入一条交易
+     * @param transaction 交易
+     * @param buffer 可复用的缓冲区，容量不足时会重新分配
+     * @param out 输出流
+     * @return 本次使用的缓冲区，供下次调用复用
+     * @throws IOException 当写入失败时抛出
+     */
+    static ByteBuffer writeSnapshotEntry(Transaction transaction, ByteBuffer buffer, DataOutputStream out)
+            throws IOException {
+        int maxSize = TransactionCodec.maxEncodedSize(transaction);
+        if (buffer.capacity() < maxSize) {
+            buffer = ByteBuffer.allocate(Math.max(maxSize, buffer.capacity() * 2));
+        }
+        buffer.clear();
+        TransactionCodec.write(transaction, buffer);
+        out.writeInt(buffer.position());
+        out.write(buffer.array(), 0, buffer.position());
+        return buffer;
+    }
+
+    /**
+     * 结束快照流
+     * @param out 输出流
+     * @throws IOException 当写入失败时抛出
+     */
+    static void writeSnapshotEnd(DataOutputStream out) throws IOException {
+        out.writeInt(END_OF_SNAPSHOT);
+        out.flush();
+    }
+
+    /**
+     * 读取快照流，逐条交给action处理
+     * @param in 输入流
+     * @param action 每条交易的处理
+     * @return 快照对应的纪元和日志位置（条目为空）
+     * @throws IOException 当读取失败或流提前结束时抛出
+     */
+    static Batch readSnapshot(DataInputStream in, Consumer<Transaction> action) throws IOException {
+        long epoch = in.readLong();
+        long position = in.readLong();
+        byte[] bytes = new byte[256];
+        int length;
+        while ((length = in.readInt()) != END_OF_SNAPSHOT) {
+            if (length < 0) {
+                throw new CorruptRecordException("Negative snapshot entry length " + length, null);
+            }
+            if (bytes.length < length) {
+                bytes = new byte[Math.max(length, bytes.length * 2)];
+            }
+            in.readFully(bytes, 0, length);
+            action.accept(TransactionCodec.read(ByteBuffer.wrap(bytes, 0, length)));
+        }
+        return new Batch(epoch, position, List.of());
+    }
+
+    /**
+     * 用于比较同一版本号的两次写入，使所有副本选出相同的结果
+     * @param transaction 交易
+     * @return 交易编码
+     */
+    static byte[] encode(Transaction transaction) {
+        ByteBuffer buffer = ByteBuffer.allocate(TransactionCodec.maxEncodedSize(transaction));
+        TransactionCodec.write(transaction, buffer);
+        byte[] bytes = new byte[buffer.position()];
+        buffer.flip().get(bytes);
+        return bytes;
+    }
+}
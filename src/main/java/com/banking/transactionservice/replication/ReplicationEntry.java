@@ -0,0 +1,22 @@
+package com.banking.transactionservice.replication;
+
+import com.banking.transactionservice.model.Transaction;
+
+/**
+ * 复制日志中的一条变更
+ * @param position 在来源副本日志中的位置，从1开始连续递增
+ * @param timestamp 来源副本写入时的时间（毫秒），用于统计复制延迟
+ * @param id 交易ID
+ * @param version 写入后的版本号；删除时为删除所用的变更序号，用于与并发写入比较先后
+ * @param transaction 写入后的交易，删除时为null
+ */
+public record ReplicationEntry(long position, long timestamp, String id, long version, Transaction transaction) {
+
+    /**
+     * 是否为删除
+     * @return 删除时为true
+     */
+    public boolean isDelete() {
+        return transaction == null;
+    }
+}
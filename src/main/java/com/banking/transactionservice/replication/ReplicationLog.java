@@ -0,0 +1,169 @@
+package com.banking.transactionservice.replication;
+
+import com.banking.transactionservice.model.Transaction;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 本副本产生的变更日志
+ * 变更按追加顺序分配从1开始的连续位置，最近 capacity 条保存在环形数组中供对等副本拉取；
+ * 对等副本每次拉取时携带已应用的位置，作为对之前所有变更的确认。
+ * 使用ReentrantLock而不是synchronized，长轮询的读取方在虚拟线程上等待时不会钉住载体线程
+ */
+class ReplicationLog {
+
+    private final ReplicationEntry[] ring;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final Condition acknowledged = lock.newCondition();
+    private final Map<String, Long> acks = new HashMap<>();
+    private long head;
+
+    /**
+     * @param capacity 保留的变更条数
+     */
+    ReplicationLog(int capacity) {
+        this.ring = new ReplicationEntry[capacity];
+    }
+
+    /**
+     * 追加一条变更
+     * @param timestamp 写入时间（毫秒）
+     * @param id 交易ID
+     * @param version 版本号
+     * @param transaction 写入后的交易，删除时为null
+     * @return 分配的位置
+     */
+    long append(long timestamp, String id, long version, Transaction transaction) {
+        lock.lock();
+        try {
+            long position = ++head;
+            ring[(int) (position % ring.length)] = new ReplicationEntry(position, timestamp, id, version, transaction);
+            appended.signalAll();
+            return position;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 读取某个位置之后的变更，没有新变更时最多等待timeout
+     * @param after 已应用的位置
+     * @param max 最多返回的条数
+     * @param timeout 最长等待时间
+     * @return 按位置排列的变更，等待超时时为空
+     * @throws BacklogTruncatedException 当after之后的变更已被覆盖时抛出
+     * @throws InterruptedException 等待被中断时抛出
+     */
+    List<ReplicationEntry> read(long after, int max, Duration timeout) throws InterruptedException {
+        lock.lock();
+        try {
+            long remaining = timeout.toNanos();
+            while (head <= after && remaining > 0) {
+                remaining = appended.awaitNanos(remaining);
+            }
+            long oldest = oldest();
+            if (after < oldest - 1) {
+                throw new BacklogTruncatedException(after, oldest);
+            }
+            if (head <= after) {
+                return Collections.emptyList();
+            }
+            long last = Math.min(head, after + max);
+            List<ReplicationEntry> entries = new ArrayList<>((int) (last - after));
+            for (long position = after + 1; position <= last; position++) {
+                entries.add(ring[(int) (position % ring.length)]);
+            }
+            return entries;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 记录对等副本已应用的位置
+     * @param replica 对等副本标识
+     * @param position 已应用的位置，小于已记录的位置时忽略
+     */
+    void acknowledge(String replica, long position) {
+        lock.lock();
+        try {
+            acks.merge(replica, position, Math::max);
+            acknowledged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 等待至少required个对等副本确认某个位置
+     * @param position 需要确认的位置
+     * @param required 需要的确认数
+     * @param timeout 最长等待时间
+     * @return 是否在超时前收到足够的确认
+     * @throws InterruptedException 等待被中断时抛出
+     */
+    boolean awaitAcks(long position, int required, Duration timeout) throws InterruptedException {
+        lock.lock();
+        try {
+            long remaining = timeout.toNanos();
+            while (countAcks(position) < required) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = acknowledged.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 获取最后一条变更的位置
+     * @return 位置，没有变更时为0
+     */
+    long head() {
+        lock.lock();
+        try {
+            return head;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 获取对等副本确认过的位置
+     * @param replica 对等副本标识
+     * @return 位置，从未确认时为0
+     */
+    long acknowledged(String replica) {
+        lock.lock();
+        try {
+            return acks.getOrDefault(replica, 0L);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long oldest() {
+        return Math.max(1, head - ring.length + 1);
+    }
+
+    private int countAcks(long position) {
+        int count = 0;
+        for (long acked : acks.values()) {
+            if (acked >= position) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
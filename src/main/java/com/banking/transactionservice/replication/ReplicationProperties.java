@@ -0,0 +1,123 @@
+package com.banking.transactionservice.replication;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 复制配置
+ * 对应配置前缀 transaction.replication
+ */
+@ConfigurationProperties(prefix = "transaction.replication")
+public class ReplicationProperties {
+    private boolean enabled = false;                        // 是否启用副本间复制
+    private String self;                                    // 本副本的基础URL，会从peers中排除
+    private List<String> peers = new ArrayList<>();         // 所有副本的基础URL
+    private String sharedSecret;                            // 副本间请求携带的共享密钥，启用复制时必须配置
+    private AckMode ackMode = AckMode.ASYNC;                // 写入是否等待对等副本确认
+    private int minAcks = 1;                                // 同步模式下需要确认的对等副本数
+    private Duration syncTimeout = Duration.ofSeconds(1);   // 同步模式下等待确认的最长时间
+    private int backlogSize = 100_000;                      // 内存中保留的本副本变更条数
+    private int maxBatchSize = 1000;                        // 单次拉取的最大变更条数
+    private Duration pollTimeout = Duration.ofSeconds(5);   // 没有新变更时长轮询的等待时间
+    private Duration retryInterval = Duration.ofSeconds(1); // 对等副本不可用时的重试间隔
+    private int tombstoneSize = 100_000;                    // 保留的删除记录数，用于拒绝迟到的旧写入
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getSelf() {
+        return self;
+    }
+
+    public void setSelf(String self) {
+        this.self = self;
+    }
+
+    public List<String> getPeers() {
+        return peers;
+    }
+
+    public void setPeers(List<String> peers) {
+        this.peers = peers;
+    }
+
+    public String getSharedSecret() {
+        return sharedSecret;
+    }
+
+    public void setSharedSecret(String sharedSecret) {
+        this.sharedSecret = sharedSecret;
+    }
+
+    public AckMode getAckMode() {
+        return ackMode;
+    }
+
+    public void setAckMode(AckMode ackMode) {
+        this.ackMode = ackMode;
+    }
+
+    public int getMinAcks() {
+        return minAcks;
+    }
+
+    public void setMinAcks(int minAcks) {
+        this.minAcks = minAcks;
+    }
+
+    public Duration getSyncTimeout() {
+        return syncTimeout;
+    }
+
+    public void setSyncTimeout(Duration syncTimeout) {
+        this.syncTimeout = syncTimeout;
+    }
+
+    public int getBacklogSize() {
+        return backlogSize;
+    }
+
+    public void setBacklogSize(int backlogSize) {
+        this.backlogSize = backlogSize;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public Duration getPollTimeout() {
+        return pollTimeout;
+    }
+
+    public void setPollTimeout(Duration pollTimeout) {
+        this.pollTimeout = pollTimeout;
+    }
+
+    public Duration getRetryInterval() {
+        return retryInterval;
+    }
+
+    public void setRetryInterval(Duration retryInterval) {
+        this.retryInterval = retryInterval;
+    }
+
+    public int getTombstoneSize() {
+        return tombstoneSize;
+    }
+
+    public void setTombstoneSize(int tombstoneSize) {
+        this.tombstoneSize = tombstoneSize;
+    }
+}
@@ -0,0 +1,28 @@
+package com.banking.transactionservice.replication;
+
+import java.util.List;
+
+/**
+ * 本副本的复制状态
+ * @param self 本副本的基础URL
+ * @param epoch 本副本的纪元，每次启动随机生成
+ * @param head 本副本日志末尾的位置
+ * @param ackMode 确认模式
+ * @param peers 各对等副本的状态
+ */
+public record ReplicationStatus(String self, long epoch, long head, AckMode ackMode, List<PeerStatus> peers) {
+
+    /**
+     * 对等副本的状态
+     * @param url 对等副本的基础URL
+     * @param connected 最近一次拉取是否成功
+     * @param epoch 正在跟随的对等副本纪元，尚未获取快照时为0
+     * @param applied 已应用的对等副本日志位置
+     * @param head 最近一次拉取时对等副本日志末尾的位置
+     * @param acknowledged 对等副本已确认的本副本日志位置
+     * @param lastError 最近一次拉取失败的原因，成功后清空
+     */
+    public record PeerStatus(String url, boolean connected, long epoch, long applied, long head,
+                             long acknowledged, String lastError) {
+    }
+}
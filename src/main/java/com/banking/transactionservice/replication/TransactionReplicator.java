@@ -0,0 +1,483 @@
+package com.banking.transactionservice.replication;
+
+import com.banking.transactionservice.model.Transaction;
+import com.banking.transactionservice.repository.TransactionChange;
+import com.banking.transactionservice.repository.TransactionChangeListener;
+import com.banking.transactionservice.repository.TransactionRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 副本间的交易复制
+ * 每个副本都可以接受写入（多主），本副本的写入按生效后的顺序追加到内存中的 {@link ReplicationLog}，
+ * 每个对等副本由一个虚拟线程通过长轮询拉取其日志并按位置顺序应用；拉取请求携带的位置同时作为确认。
+ * 拉取到的一批变更按ID合并后以批量写入应用，本地的近端缓存和分页缓存作为仓库的监听器按批失效。
+ * 首次连接、对等副本重启（纪元改变）或所需位置已被日志覆盖时，先拉取对等副本的完整快照再继续跟随日志。
+ * <p>
+ * 同一交易的并发写入按版本号合并：仓库在应用复制来的写入后会把变更序号推进到不小于该版本号，
+ * 因此版本号相当于Lamport时钟，版本号更大的写入获胜；版本号相同时比较交易编码，使所有副本选出相同的结果。
+ * 删除按其变更序号记录为墓碑，拒绝之后到达的更旧写入；删除与同版本号的写入冲突时删除获胜。
+ * <p>
+ * 同步模式下写入在本地生效后等待足够数量的对等副本确认，超时后仍然返回成功并计数，
+ * 因此对等副本不可用时写入只会变慢而不会失败
+ * <p>
+ * 副本间的请求都在 {@link #TOKEN_HEADER} 头中携带配置的共享密钥，只有配置的对等副本才会被记录确认
+ */
+public class TransactionReplicator implements TransactionChangeListener, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionReplicator.class);
+    private static final String BASE_PATH = "/internal/replication";
+    /** 携带共享密钥的请求头 */
+    public static final String TOKEN_HEADER = "X-Replication-Token";
+    private static final Duration REQUEST_MARGIN = Duration.ofSeconds(10);
+
+    private final TransactionRepository repository;
+    private final ReplicationProperties properties;
+    private final HttpClient httpClient;
+    private final String self;
+    private final byte[] secret;
+    private final long epoch;
+    private final ReplicationLog changeLog;
+    private final Cache<String, Long> tombstones;
+    private final Map<String, Peer> peers = new LinkedHashMap<>();
+    private final ThreadLocal<Boolean> applying = new ThreadLocal<>();
+    private final Timer lag;
+    private final Counter syncTimeouts;
+    private final List<Thread> pullers = new ArrayList<>();
+    private volatile boolean running;
+
+    /**
+     * @param repository 交易仓库
+     * @param properties 复制配置
+     * @param httpClient 访问对等副本的HTTP客户端
+     * @param registry 指标注册表
+     * @throws IllegalStateException 当没有配置共享密钥时抛出
+     */
+    public TransactionReplicator(TransactionRepository repository, ReplicationProperties properties,
+                                 HttpClient httpClient, MeterRegistry registry) {
+        this.repository = repository;
+        this.properties = properties;
+        this.httpClient = httpClient;
+        this.self = normalize(properties.getSelf());
+        if (properties.getSharedSecret() == null || properties.getSharedSecret().isBlank()) {
+            throw new IllegalStateException(
+                    "transaction.replication.shared-secret must be set when replication is enabled");
+        }
+        this.secret = properties.getSharedSecret().getBytes(StandardCharsets.UTF_8);
+        this.epoch = newEpoch();
+        this.changeLog = new ReplicationLog(properties.getBacklogSize());
+        this.tombstones = Caffeine.newBuilder().maximumSize(properties.getTombstoneSize()).build();
+        for (String url : properties.getPeers()) {
+            String peer = normalize(url);
+            if (!peer.equals(self)) {
+                peers.put(peer, new Peer(peer));
+            }
+        }
+        this.lag = Timer.builder("transaction.replication.lag")
+                .description("Time from a write on the originating replica until it is applied on this replica")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.syncTimeouts = Counter.builder("transaction.replication.sync.timeouts")
+                .description("The number of synchronous writes that returned before enough peers acknowledged them")
+                .register(registry);
+    }
+
+    /**
+     * 开始记录本副本的变更并从各对等副本拉取
+     * 应在持久化恢复完成之后调用，快照才会包含恢复的数据
+     */
+    public void start() {
+        running = true;
+        repository.addChangeListener(this);
+        for (Peer peer : peers.values()) {
+            pullers.add(Thread.ofVirtual().name("replication-" + peer.url).start(() -> follow(peer)));
+        }
+        log.info("Replicating as {} (epoch {}) with peers {} in {} mode", self, epoch, peers.keySet(),
+                properties.getAckMode());
+    }
+
+    /**
+     * 停止拉取和记录变更
+     */
+    @Override
+    public void close() {
+        running = false;
+        repository.removeChangeListener(this);
+        pullers.forEach(Thread::interrupt);
+        for (Thread puller : pullers) {
+            try {
+                puller.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void onChange(TransactionChange change) {
+        if (applying.get() != null) {
+            return;
+        }
+        awaitAcks(append(change));
+    }
+
+    @Override
+    public void onChanges(List<TransactionChange> changes) {
+        if (applying.get() != null) {
+            return;
+        }
+        long position = 0;
+        for (TransactionChange change : changes) {
+            position = append(change);
+        }
+        awaitAcks(position);
+    }
+
+    /**
+     * 检查请求携带的共享密钥，按常量时间比较
+     * @param token 请求头中的密钥，可以为null
+     * @return 与配置的共享密钥相同时返回true
+     */
+    public boolean authenticate(String token) {
+        return token != null && MessageDigest.isEqual(secret, token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 读取本副本日志中某个位置之后的变更，供对等副本拉取
+     * @param after 对等副本已应用的位置，同时作为确认
+     * @param max 最多返回的条数
+     * @param replica 对等副本的基础URL，为null或不是配置的对等副本时不记录确认
+     * @param replicaEpoch 对等副本正在跟随的纪元，与本副本纪元不同时不记录确认也不等待
+     * @param wait 没有新变更时的最长等待时间，不超过配置的长轮询时间
+     * @return 编码后的变更批次
+     * @throws BacklogTruncatedException 当after之后的变更已被覆盖时抛出
+     * @throws InterruptedException 等待被中断时抛出
+     */
+    public byte[] read(long after, int max, String replica, long replicaEpoch, Duration wait)
+            throws InterruptedException {
+        if (replicaEpoch != epoch) {
+            // 拉取方跟随的是本副本重启前的日志，立即返回新的纪元让其重新获取快照
+            wait = Duration.ZERO;
+        } else if (replica != null && peers.containsKey(normalize(replica))) {
+            changeLog.acknowledge(normalize(replica), after);
+        }
+        if (wait.compareTo(properties.getPollTimeout()) > 0) {
+            wait = properties.getPollTimeout();
+        }
+        List<ReplicationEntry> entries = changeLog.read(after, Math.min(max, properties.getMaxBatchSize()), wait);
+        return ReplicationCodec.encode(new ReplicationCodec.Batch(epoch, changeLog.head(), entries));
+    }
+
+    /**
+     * 把当前全部交易写成快照流
+     * 先记录日志末尾的位置再遍历仓库，遍历期间的并发写入会在之后从日志中再次应用
+     * @param out 输出流
+     * @throws IOException 当写入失败时抛出
+     */
+    public void writeSnapshot(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, 64 * 1024));
+        ReplicationCodec.writeSnapshotHeader(epoch, changeLog.head(), data);
+        ByteBuffer[] buffer = {ByteBuffer.allocate(512)};
+        try {
+            repository.forEach(transaction -> {
+                try {
+                    buffer[0] = ReplicationCodec.writeSnapshotEntry(transaction, buffer[0], data);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        ReplicationCodec.writeSnapshotEnd(data);
+    }
+
+    /**
+     * 获取复制状态
+     * @return 本副本和各对等副本的状态
+     */
+    public ReplicationStatus status() {
+        List<ReplicationStatus.PeerStatus> peerStatuses = new ArrayList<>(peers.size());
+        for (Peer peer : peers.values()) {
+            peerStatuses.add(new ReplicationStatus.PeerStatus(peer.url, peer.connected, peer.epoch, peer.applied,
+                    peer.head, changeLog.acknowledged(peer.url), peer.lastError));
+        }
+        return new ReplicationStatus(self, epoch, changeLog.head(), properties.getAckMode(), peerStatuses);
+    }
+
+    private long append(TransactionChange change) {
+        long now = System.currentTimeMillis();
+        if (change.type() == TransactionChange.Type.DELETE) {
+            tombstones.asMap().merge(change.id(), change.sequence(), Math::max);
+            return changeLog.append(now, change.id(), change.sequence(), null);
+        }
+        Transaction current = change.current();
+        return changeLog.append(now, change.id(), current.getVersion(), current);
+    }
+
+    private void awaitAcks(long position) {
+        if (properties.getAckMode() != AckMode.SYNC || peers.isEmpty() || position == 0) {
+            return;
+        }
+        int required = Math.min(properties.getMinAcks(), peers.size());
+        try {
+            if (!changeLog.awaitAcks(position, required, properties.getSyncTimeout())) {
+                syncTimeouts.increment();
+                log.debug("Position {} was not acknowledged by {} peers within {}", position, required,
+                        properties.getSyncTimeout());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 跟随一个对等副本，直到关闭
+     */
+    private void follow(Peer peer) {
+        while (running) {
+            try {
+                if (peer.epoch == 0) {
+                    bootstrap(peer);
+                }
+                ReplicationCodec.Batch batch = fetch(peer);
+                if (batch == null || batch.epoch() != peer.epoch) {
+                    log.info("Replica {} restarted or truncated its log, fetching a new snapshot", peer.url);
+                    peer.epoch = 0;
+                    continue;
+                }
+                apply(peer, batch);
+                peer.connected = true;
+                peer.lastError = null;
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                if (peer.connected || peer.lastError == null) {
+                    log.warn("Replication from {} failed: {}", peer.url, e.toString());
+                }
+                peer.connected = false;
+                peer.lastError = e.toString();
+                try {
+                    Thread.sleep(properties.getRetryInterval());
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * 拉取对等副本的快照并合并到本地
+     */
+    private void bootstrap(Peer peer) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(peer.url + BASE_PATH + "/snapshot"))
+                .header(TOKEN_HEADER, properties.getSharedSecret())
+                .GET()
+                .build();
+        HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(response.body(), 64 * 1024))) {
+            if (response.statusCode() != 200) {
+                throw new IOException("Snapshot request to " + peer.url + " returned HTTP " + response.statusCode());
+            }
+            long[] count = new long[1];
+            List<Transaction> chunk = new ArrayList<>(properties.getMaxBatchSize());
+            ReplicationCodec.Batch header = ReplicationCodec.readSnapshot(in, transaction -> {
+                chunk.add(transaction);
+                count[0]++;
+                if (chunk.size() == properties.getMaxBatchSize()) {
+                    applySnapshot(chunk);
+                    chunk.clear();
+                }
+            });
+            if (!chunk.isEmpty()) {
+                applySnapshot(chunk);
+            }
+            peer.epoch = header.epoch();
+            peer.applied = header.head();
+            peer.head = header.head();
+            log.info("Merged snapshot of {} transactions from {} at position {}", count[0], peer.url, header.head());
+        }
+    }
+
+    /**
+     * 长轮询对等副本的日志
+     * @return 变更批次，所需位置已被对等副本的日志覆盖时返回null
+     */
+    private ReplicationCodec.Batch fetch(Peer peer) throws IOException, InterruptedException {
+        Duration wait = properties.getPollTimeout();
+        URI uri = URI.create(peer.url + BASE_PATH + "/log?after=" + peer.applied
+                + "&max=" + properties.getMaxBatchSize()
+                + "&replica=" + URLEncoder.encode(self, StandardCharsets.UTF_8)
+                + "&epoch=" + peer.epoch
+                + "&wait=" + wait.toMillis());
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(wait.plus(REQUEST_MARGIN))
+                .header(TOKEN_HEADER, properties.getSharedSecret())
+                .GET()
+                .build();
+        HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() == 410) {
+            return null;
+        }
+        if (response.statusCode() != 200) {
+            throw new IOException("Log request to " + peer.url + " returned HTTP " + response.statusCode());
+        }
+        return ReplicationCodec.decode(response.body());
+    }
+
+    /**
+     * 应用一批变更
+     * 同一ID的多次变更先合并为按相同规则获胜的一条，再分别以一次批量写入和一次批量删除应用，
+     * 缓存等监听器对整批变更只处理一次
+     */
+    private void apply(Peer peer, ReplicationCodec.Batch batch) {
+        Map<String, ReplicationEntry> latest = new LinkedHashMap<>(batch.entries().size() * 2);
+        long expected = peer.applied + 1;
+        for (ReplicationEntry entry : batch.entries()) {
+            if (entry.position() != expected++) {
+                throw new IllegalStateException("Expected position " + (expected - 1) + " from " + peer.url
+                        + " but received " + entry.position());
+            }
+            latest.merge(entry.id(), entry, (current, next) -> supersedes(next, current) ? next : current);
+        }
+        List<Transaction> saves = new ArrayList<>(latest.size());
+        Map<String, Long> deletes = new HashMap<>();
+        for (ReplicationEntry entry : latest.values()) {
+            if (entry.isDelete()) {
+                tombstones.asMap().merge(entry.id(), entry.version(), Math::max);
+                deletes.put(entry.id(), entry.version());
+            } else {
+                saves.add(entry.transaction());
+            }
+        }
+        applying.set(Boolean.TRUE);
+        try {
+            if (!saves.isEmpty()) {
+                repository.restoreAllIf(saves, this::replaces);
+            }
+            if (!deletes.isEmpty()) {
+                repository.deleteAllIf(deletes.keySet(),
+                        existing -> existing.getVersion() <= deletes.get(existing.getId()));
+            }
+        } finally {
+            applying.remove();
+        }
+        long now = System.currentTimeMillis();
+        for (ReplicationEntry entry : batch.entries()) {
+            lag.record(Math.max(0, now - entry.timestamp()), TimeUnit.MILLISECONDS);
+        }
+        if (!batch.entries().isEmpty()) {
+            peer.applied = batch.entries().get(batch.entries().size() - 1).position();
+        }
+        peer.head = batch.head();
+    }
+
+    /**
+     * 合并快照中的一组交易
+     */
+    private void applySnapshot(List<Transaction> transactions) {
+        applying.set(Boolean.TRUE);
+        try {
+            repository.restoreAllIf(transactions, this::replaces);
+        } finally {
+            applying.remove();
+        }
+    }
+
+    /**
+     * 判断同一交易的两条变更中next是否按合并规则胜出：版本号更大者胜，版本号相同时删除胜，
+     * 都是写入时按交易编码比较
+     */
+    private static boolean supersedes(ReplicationEntry next, ReplicationEntry current) {
+        if (next.version() != current.version()) {
+            return next.version() > current.version();
+        }
+        if (next.isDelete() || current.isDelete()) {
+            return next.isDelete();
+        }
+        return Arrays.compare(ReplicationCodec.encode(next.transaction()),
+                ReplicationCodec.encode(current.transaction())) > 0;
+    }
+
+    /**
+     * 判断复制来的写入是否覆盖本地记录
+     */
+    private boolean replaces(Transaction existing, Transaction incoming) {
+        if (existing == null) {
+            Long deleted = tombstones.getIfPresent(incoming.getId());
+            return deleted == null || incoming.getVersion() > deleted;
+        }
+        if (incoming.getVersion() != existing.getVersion()) {
+            return incoming.getVersion() > existing.getVersion();
+        }
+        return Arrays.compare(ReplicationCodec.encode(incoming), ReplicationCodec.encode(existing)) > 0;
+    }
+
+    private static String normalize(String url) {
+        if (url == null) {
+            return "";
+        }
+        String trimmed = url.trim();
+        return trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+    }
+
+    private static long newEpoch() {
+        SecureRandom random = new SecureRandom();
+        long value;
+        do {
+            value = random.nextLong();
+        } while (value == 0);
+        return value;
+    }
+
+    /**
+     * 一个对等副本的跟随进度，只由其拉取线程写入
+     */
+    private static final class Peer {
+        private final String url;
+        private volatile long epoch;
+        private volatile long applied;
+        private volatile long head;
+        private volatile boolean connected;
+        private volatile String lastError;
+
+        private Peer(String url) {
+            this.url = url;
+        }
+    }
+}
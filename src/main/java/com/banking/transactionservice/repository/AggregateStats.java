@@ -0,0 +1,38 @@
+package com.banking.transactionservice.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * 一组交易的金额汇总
+ * @param count 交易笔数
+ * @param sum 金额合计，没有交易时为0
+ * @param min 最小金额，没有交易时为null
+ * @param max 最大金额，没有交易时为null
+ */
+public record AggregateStats(long count, BigDecimal sum, BigDecimal min, BigDecimal max) {
+
+    /**
+     * 空汇总
+     */
+    public static final AggregateStats EMPTY = new AggregateStats(0, BigDecimal.ZERO, null, null);
+
+    /**
+     * 合并两组互不重叠的交易汇总
+     * @param other 另一组汇总
+     * @return 合并后的汇总
+     */
+    public AggregateStats combine(AggregateStats other) {
+        return new AggregateStats(count + other.count, sum.add(other.sum),
+                pick(min, other.min, -1), pick(max, other.max, 1));
+    }
+
+    private static BigDecimal pick(BigDecimal a, BigDecimal b, int direction) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        return Integer.signum(a.compareTo(b)) == direction ? a : b;
+    }
+}
@@ -0,0 +1,402 @@
+package com.banking.transactionservice.repository;
+
+import com.banking.transactionservice.model.CategoryDictionary;
+import com.banking.transactionservice.model.Transaction;
+import com.banking.transactionservice.model.TransactionStatus;
+import com.banking.transactionservice.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * 列式存储引擎
+ * 交易按字段存放在基本类型数组中，每条记录只占各列中的一个位置，不为单条记录创建对象：
+ * <ul>
+ *   <li>ID：规范格式的UUID存为两个long；其他格式的ID另存原字符串，并以其128位哈希作为键</li>
+ *   <li>金额：未缩放值存为long、小数位数存为byte，超出long范围的金额另存原对象</li>
+ *   <li>时间戳：自1970-01-01T00:00起的微秒数，以及微秒以下的纳秒数（short），保证精确还原</li>
+ *   <li>类型、状态：枚举序号加1存为byte，0表示null</li>
+ *   <li>类别：{@link CategoryDictionary} 编码，存为int，字典已满时另存原字符串；描述：UTF-8字节数组</li>
+ *   <li>版本号：long</li>
+ * </ul>
+ * 数据按ID哈希分为若干段，每段有独立的列、开放寻址的ID哈希表和读写锁，不同段的写入可以并行。
+ * 读取时每次都会把记录解码为新的 {@link Transaction} 对象，用较多的短命对象换取更小的常驻内存
+ */
+public class ColumnarTransactionStore implements TransactionStore {
+
+    private static final int SEGMENT_BITS = 5;
+    private static final int ITERATION_CHUNK = 256;
+
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final TransactionStatus[] STATUSES = TransactionStatus.values();
+
+    private static final byte FLAG_LIVE = 1;
+    private static final byte FLAG_CUSTOM_ID = 1 << 1;
+    private static final byte FLAG_NULL_AMOUNT = 1 << 2;
+    private static final byte FLAG_WIDE_AMOUNT = 1 << 3;
+    private static final byte FLAG_NULL_TIMESTAMP = 1 << 4;
+
+    private final Segment[] segments = new Segment[1 << SEGMENT_BITS];
+    private final AtomicLong size = new AtomicLong();
+    private final CategoryDictionary categories;
+
+    public ColumnarTransactionStore() {
+        this(new CategoryDictionary());
+    }
+
+    /**
+     * @param categories 类别字典
+     */
+    public ColumnarTransactionStore(CategoryDictionary categories) {
+        this.categories = categories;
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    @Override
+    public Transaction get(String id) {
+        EncodedId key = EncodedId.of(id);
+        Segment segment = segmentFor(key);
+        segment.lock.readLock().lock();
+        try {
+            int row = segment.find(key);
+            return row < 0 ? null : segment.decode(row);
+        } finally {
+            segment.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean containsKey(String id) {
+        EncodedId key = EncodedId.of(id);
+        Segment segment = segmentFor(key);
+        segment.lock.readLock().lock();
+        try {
+            return segment.find(key) >= 0;
+        } finally {
+            segment.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Transaction compute(String id, BiFunction<String, Transaction, Transaction> remapping) {
+        EncodedId key = EncodedId.of(id);
+        Segment segment = segmentFor(key);
+        segment.lock.writeLock().lock();
+        try {
+            int row = segment.find(key);
+            Transaction existing = row < 0 ? null : segment.decode(row);
+            Transaction result = remapping.apply(id, existing);
+            if (result == null) {
+                if (row >= 0) {
+                    segment.remove(row);
+                    size.decrementAndGet();
+                }
+            } else {
+                segment.write(row, key, result);
+                if (row < 0) {
+                    size.incrementAndGet();
+                }
+            }
+            return result;
+        } finally {
+            segment.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public long size() {
+        return size.get();
+    }
+
+    @Override
+    public void validate(Transaction transaction) {
+        if (transaction.getTimestamp() != null) {
+            toMicros(transaction.getTimestamp());
+        }
+    }
+
+    /**
+     * 逐条遍历所有交易
+     * 每次在读锁内解码一小段行，释放锁后再交给操作处理，耗时较长的操作不会阻塞写入
+     * @param action 对每条交易执行的操作
+     */
+    @Override
+    public void forEach(Consumer<Transaction> action) {
+        List<Transaction> chunk = new ArrayList<>(ITERATION_CHUNK);
+        for (Segment segment : segments) {
+            int next = 0;
+            while (next >= 0) {
+                segment.lock.readLock().lock();
+                try {
+                    next = segment.decodeRange(next, ITERATION_CHUNK, chunk);
+                } finally {
+                    segment.lock.readLock().unlock();
+                }
+                chunk.forEach(action);
+                chunk.clear();
+            }
+        }
+    }
+
+    private Segment segmentFor(EncodedId key) {
+        return segments[(int) (key.hash() >>> (64 - SEGMENT_BITS))];
+    }
+
+    /**
+     * 把时间戳转换为UTC微秒计数
+     * @throws IllegalArgumentException 当时间戳超出微秒计数的表示范围时抛出
+     */
+    private static long toMicros(LocalDateTime timestamp) {
+        try {
+            return Math.addExact(Math.multiplyExact(timestamp.toEpochSecond(ZoneOffset.UTC), 1_000_000L),
+                    timestamp.getNano() / 1000);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Timestamp out of range: " + timestamp, e);
+        }
+    }
+
+    /**
+     * 一个数据段
+     * 所有字段只在持有段锁时访问：读取需要读锁，修改需要写锁
+     */
+    private final class Segment {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        private int capacity = 16;
+        private int rows;
+        private long[] idHigh = new long[capacity];
+        private long[] idLow = new long[capacity];
+        private long[] amountUnscaled = new long[capacity];
+        private byte[] amountScale = new byte[capacity];
+        private long[] timestampMicros = new long[capacity];
+        private short[] timestampNanos = new short[capacity];
+        private byte[] type = new byte[capacity];
+        private byte[] status = new byte[capacity];
+        private byte[] flags = new byte[capacity];
+        private int[] category = new int[capacity];
+        private long[] version = new long[capacity];
+        private byte[][] description = new byte[capacity][];
+
+        private int[] freeRows = new int[0];
+        private int freeCount;
+        private int live;
+
+        /**
+         * 开放寻址哈希表，每个槽保存行号加1，0表示空槽
+         */
+        private int[] table = new int[32];
+
+        private final Map<Integer, String> customIds = new HashMap<>();
+        private final Map<Integer, BigDecimal> wideAmounts = new HashMap<>();
+        private final Map<Integer, String> rawCategories = new HashMap<>();
+
+        int find(EncodedId key) {
+            int mask = table.length - 1;
+            for (int slot = (int) key.hash() & mask; ; slot = (slot + 1) & mask) {
+                int entry = table[slot];
+                if (entry == 0) {
+                    return -1;
+                }
+                int row = entry - 1;
+                if (idHigh[row] == key.high() && idLow[row] == key.low()
+                        && (key.custom() == null
+                        ? (flags[row] & FLAG_CUSTOM_ID) == 0
+                        : key.custom().equals(customIds.get(row)))) {
+                    return row;
+                }
+            }
+        }
+
+        /**
+         * 为新ID分配一行并加入哈希表
+         * @return 行号
+         */
+        private int insert(EncodedId key) {
+            if ((live + 1) * 4L > table.length * 3L) {
+                rehash(table.length * 2);
+            }
+            int row = freeCount > 0 ? freeRows[--freeCount] : nextRow();
+            idHigh[row] = key.high();
+            idLow[row] = key.low();
+            flags[row] = key.custom() == null ? FLAG_LIVE : FLAG_LIVE | FLAG_CUSTOM_ID;
+            if (key.custom() != null) {
+                customIds.put(row, key.custom());
+            }
+            place(row, key.hash());
+            live++;
+            return row;
+        }
+
+        /**
+         * 写入一条交易
+         * 先完成所有可能失败的编码，再修改任何列，编码失败时段保持不变
+         * @param row 已有记录的行号，新记录为-1
+         * @param key 交易ID
+         * @param transaction 交易实体
+         * @throws IllegalArgumentException 当时间戳超出微秒计数的表示范围时抛出
+         */
+        void write(int row, EncodedId key, Transaction transaction) {
+            LocalDateTime timestamp = transaction.getTimestamp();
+            long micros = timestamp == null ? 0 : toMicros(timestamp);
+            if (row < 0) {
+                row = insert(key);
+            }
+            byte rowFlags = (byte) (flags[row] & (FLAG_LIVE | FLAG_CUSTOM_ID));
+            wideAmounts.remove(row);
+            BigDecimal amount = transaction.getAmount();
+            if (amount == null) {
+                rowFlags |= FLAG_NULL_AMOUNT;
+            } else if (amount.unscaledValue().bitLength() < 64 && amount.scale() == (byte) amount.scale()) {
+                amountUnscaled[row] = amount.unscaledValue().longValue();
+                amountScale[row] = (byte) amount.scale();
+            } else {
+                rowFlags |= FLAG_WIDE_AMOUNT;
+                wideAmounts.put(row, amount);
+            }
+            if (timestamp == null) {
+                rowFlags |= FLAG_NULL_TIMESTAMP;
+            } else {
+                timestampMicros[row] = micros;
+                timestampNanos[row] = (short) (timestamp.getNano() % 1000);
+            }
+            type[row] = transaction.getType() == null ? 0 : (byte) (transaction.getType().ordinal() + 1);
+            status[row] = transaction.getStatus() == null ? 0 : (byte) (transaction.getStatus().ordinal() + 1);
+            category[row] = categories.encode(transaction.getCategory());
+            if (category[row] == CategoryDictionary.UNENCODED) {
+                rawCategories.put(row, transaction.getCategory());
+            } else {
+                rawCategories.remove(row);
+            }
+            version[row] = transaction.getVersion();
+            description[row] = transaction.getDescription() == null
+                    ? null
+                    : transaction.getDescription().getBytes(StandardCharsets.UTF_8);
+            flags[row] = rowFlags;
+        }
+
+        Transaction decode(int row) {
+            byte rowFlags = flags[row];
+            Transaction transaction = new Transaction((rowFlags & FLAG_CUSTOM_ID) != 0
+                    ? customIds.get(row)
+                    : new UUID(idHigh[row], idLow[row]).toString());
+            if ((rowFlags & FLAG_WIDE_AMOUNT) != 0) {
+                transaction.setAmount(wideAmounts.get(row));
+            } else if ((rowFlags & FLAG_NULL_AMOUNT) == 0) {
+                transaction.setAmount(BigDecimal.valueOf(amountUnscaled[row], amountScale[row]));
+            }
+            if ((rowFlags & FLAG_NULL_TIMESTAMP) == 0) {
+                long micros = timestampMicros[row];
+                transaction.setTimestamp(LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                        (int) Math.floorMod(micros, 1_000_000L) * 1000 + timestampNanos[row], ZoneOffset.UTC));
+            }
+            transaction.setType(type[row] == 0 ? null : TYPES[type[row] - 1]);
+            transaction.setStatus(status[row] == 0 ? null : STATUSES[status[row] - 1]);
+            transaction.setCategory(category[row] == CategoryDictionary.UNENCODED
+                    ? rawCategories.get(row)
+                    : categories.decode(category[row]));
+            transaction.setVersion(version[row]);
+            transaction.setDescription(description[row] == null
+                    ? null
+                    : new String(description[row], StandardCharsets.UTF_8));
+            return transaction;
+        }
+
+        /**
+         * 从start行开始解码最多count条有效记录
+         * @return 下次继续的行号，已到末尾时为-1
+         */
+        int decodeRange(int start, int count, List<Transaction> out) {
+            int row = start;
+            while (row < rows && out.size() < count) {
+                if ((flags[row] & FLAG_LIVE) != 0) {
+                    out.add(decode(row));
+                }
+                row++;
+            }
+            return row < rows ? row : -1;
+        }
+
+        /**
+         * 删除一行：从哈希表中移除（后移删除，不留墓碑），并把行放回空闲列表
+         */
+        void remove(int row) {
+            int mask = table.length - 1;
+            int slot = (int) EncodedId.hashOf(idHigh[row], idLow[row]) & mask;
+            while (table[slot] != row + 1) {
+                slot = (slot + 1) & mask;
+            }
+            int hole = slot;
+            for (int next = (hole + 1) & mask; table[next] != 0; next = (next + 1) & mask) {
+                int candidate = table[next] - 1;
+                int home = (int) EncodedId.hashOf(idHigh[candidate], idLow[candidate]) & mask;
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    table[hole] = table[next];
+                    hole = next;
+                }
+            }
+            table[hole] = 0;
+
+            flags[row] = 0;
+            description[row] = null;
+            customIds.remove(row);
+            wideAmounts.remove(row);
+            rawCategories.remove(row);
+            if (freeCount == freeRows.length) {
+                freeRows = Arrays.copyOf(freeRows, Math.max(16, freeRows.length * 2));
+            }
+            freeRows[freeCount++] = row;
+            live--;
+        }
+
+        private void place(int row, long hash) {
+            int mask = table.length - 1;
+            int slot = (int) hash & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = row + 1;
+        }
+
+        private void rehash(int length) {
+            table = new int[length];
+            for (int row = 0; row < rows; row++) {
+                if ((flags[row] & FLAG_LIVE) != 0) {
+                    place(row, EncodedId.hashOf(idHigh[row], idLow[row]));
+                }
+            }
+        }
+
+        private int nextRow() {
+            if (rows == capacity) {
+                capacity += capacity >> 1;
+                idHigh = Arrays.copyOf(idHigh, capacity);
+                idLow = Arrays.copyOf(idLow, capacity);
+                amountUnscaled = Arrays.copyOf(amountUnscaled, capacity);
+                amountScale = Arrays.copyOf(amountScale, capacity);
+                timestampMicros = Arrays.copyOf(timestampMicros, capacity);
+                timestampNanos = Arrays.copyOf(timestampNanos, capacity);
+                type = Arrays.copyOf(type, capacity);
+                status = Arrays.copyOf(status, capacity);
+                flags = Arrays.copyOf(flags, capacity);
+                category = Arrays.copyOf(category, capacity);
+                version = Arrays.copyOf(version, capacity);
+                description = Arrays.copyOf(description, capacity);
+            }
+            return rows++;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.banking.transactionservice.repository;
+
+/**
+ * 编码后的交易ID
+ * 规范UUID格式的ID无损编码为两个long，其他格式的ID以其128位哈希为键并保留原字符串，
+ * 供按字段存储的引擎在不保存ID对象的情况下查找和还原ID
+ * @param high UUID的高64位，或非UUID字符串哈希的高64位
+ * @param low UUID的低64位，或非UUID字符串哈希的低64位
+ * @param custom 非UUID格式的原字符串，UUID时为null
+ * @param hash 用于选择段和哈希槽的散列值
+ */
+record EncodedId(long high, long low, String custom, long hash) {
+
+    /**
+     * 编码交易ID
+     * @param id 交易ID
+     * @return 编码后的ID
+     */
+    static EncodedId of(String id) {
+        long high;
+        long low;
+        String custom = null;
+        if (isCanonicalUuid(id)) {
+            high = parseHex(id, 0, 8) << 32 | parseHex(id, 9, 13) << 16 | parseHex(id, 14, 18);
+            low = parseHex(id, 19, 23) << 48 | parseHex(id, 24, 36);
+        } else {
+            high = 0xcbf29ce484222325L;
+            low = id.length();
+            for (int i = 0; i < id.length(); i++) {
+                high = (high ^ id.charAt(i)) * 0x100000001b3L;
+                low = low * 31 + id.charAt(i);
+            }
+            custom = id;
+        }
+        return new EncodedId(high, low, custom, hashOf(high, low));
+    }
+
+    /**
+     * 根据已保存的两个long重新计算散列值，与 {@link #of(String)} 的结果一致
+     * @param high 高64位
+     * @param low 低64位
+     * @return 散列值
+     */
+    static long hashOf(long high, long low) {
+        return mix(high ^ Long.rotateLeft(low, 32));
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+        value = (value ^ (value >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return value ^ (value >>> 33);
+    }
+
+    /**
+     * 是否是小写十六进制的规范UUID格式，只有这种格式能由两个long无损还原
+     */
+    private static boolean isCanonicalUuid(String id) {
+        if (id.length() != 36) {
+            return false;
+        }
+        for (int i = 0; i < 36; i++) {
+            char c = id.charAt(i);
+            boolean valid = i == 8 || i == 13 || i == 18 || i == 23
+                    ? c == '-'
+                    : (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f');
+            if (!valid) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long parseHex(String id, int from, int to) {
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            if (id.charAt(i) != '-') {
+                value = value << 4 | Character.digit(id.charAt(i), 16);
+            }
+        }
+        return value;
+    }
+}
@@ -0,0 +1,42 @@
+package com.banking.transactionservice.repository;
+
+import com.banking.transactionservice.model.Transaction;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * 基于ConcurrentHashMap的存储引擎
+ * 直接保存交易对象，读取不需要解码，但每条记录包含多个对象头和引用
+ */
+public class HeapTransactionStore implements TransactionStore {
+
+    private final Map<String, Transaction> transactions = new ConcurrentHashMap<>();
+
+    @Override
+    public Transaction get(String id) {
+        return transactions.get(id);
+    }
+
+    @Override
+    public boolean containsKey(String id) {
+        return transactions.containsKey(id);
+    }
+
+    @Override
+    public Transaction compute(String id, BiFunction<String, Transaction, Transaction> remapping) {
+        return transactions.compute(id, remapping);
+    }
+
+    @Override
+    public long size() {
+        return transactions.size();
+    }
+
+    @Override
+    public void forEach(Consumer<Transaction> action) {
+        transactions.values().forEach(action);
+    }
+}
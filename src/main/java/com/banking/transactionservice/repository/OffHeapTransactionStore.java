@@ -0,0 +1,467 @@
+package com.banking.transactionservice.repository;
+
+import com.banking.transactionservice.model.CategoryDictionary;
+import com.banking.transactionservice.model.Transaction;
+import com.banking.transactionservice.model.TransactionStatus;
+import com.banking.transactionservice.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * 堆外存储引擎
+ * 每条交易占用直接内存中一个固定宽度的记录槽，ID查找使用同样位于直接内存的开放寻址哈希表，
+ * GC扫描和复制的对象数量与记录数无关。记录槽布局（{@value #SLOT_SIZE}字节）：
+ * <pre>
+ *  0  ID高64位 / 非UUID ID哈希      long
+ *  8  ID低64位                     long
+ * 16  金额未缩放值                  long
+ * 24  时间戳纪元微秒数               long
+ * 32  版本号                         long
+ * 40  类别字典编码（-1为null，-2为原字符串） int
+ * 44  时间戳微秒以下的纳秒            short
+ * 46  金额小数位数                  byte
+ * 47  类型序号+1（0为null）          byte
+ * 48  状态序号+1（0为null）          byte
+ * 49  标志位                       byte
+ * 50  描述的UTF-8字节数              byte
+ * 51  描述的UTF-8字节，最多{@value #INLINE_DESCRIPTION}字节
+ * </pre>
+ * 只有少数无法放进记录槽的值留在堆上：非UUID格式的ID、超出long范围的金额、超长描述和字典已满后出现的新类别。
+ * 数据按ID哈希分段，每段有独立的记录块、哈希表和读写锁；直接内存随段扩容按块分配，
+ * 总量受 -XX:MaxDirectMemorySize 限制（默认与最大堆相同）
+ */
+public class OffHeapTransactionStore implements TransactionStore {
+
+    static final int SLOT_SIZE = 96;
+    static final int INLINE_DESCRIPTION = SLOT_SIZE - 51;
+
+    private static final int SEGMENT_BITS = 5;
+    private static final int CHUNK_BITS = 10;
+    private static final int CHUNK_SLOTS = 1 << CHUNK_BITS;
+    private static final int ITERATION_CHUNK = 256;
+
+    private static final int ID_HIGH = 0;
+    private static final int ID_LOW = 8;
+    private static final int AMOUNT = 16;
+    private static final int MICROS = 24;
+    private static final int VERSION = 32;
+    private static final int CATEGORY = 40;
+    private static final int NANOS = 44;
+    private static final int SCALE = 46;
+    private static final int TYPE = 47;
+    private static final int STATUS = 48;
+    private static final int FLAGS = 49;
+    private static final int DESCRIPTION_LENGTH = 50;
+    private static final int DESCRIPTION = 51;
+
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final TransactionStatus[] STATUSES = TransactionStatus.values();
+
+    private static final byte FLAG_LIVE = 1;
+    private static final byte FLAG_CUSTOM_ID = 1 << 1;
+    private static final byte FLAG_NULL_AMOUNT = 1 << 2;
+    private static final byte FLAG_WIDE_AMOUNT = 1 << 3;
+    private static final byte FLAG_NULL_TIMESTAMP = 1 << 4;
+    private static final byte FLAG_NULL_DESCRIPTION = 1 << 5;
+    private static final byte FLAG_LONG_DESCRIPTION = 1 << 6;
+
+    private final Segment[] segments = new Segment[1 << SEGMENT_BITS];
+    private final AtomicLong size = new AtomicLong();
+    private final CategoryDictionary categories;
+
+    public OffHeapTransactionStore() {
+        this(new CategoryDictionary());
+    }
+
+    /**
+     * @param categories 类别字典
+     */
+    public OffHeapTransactionStore(CategoryDictionary categories) {
+        this.categories = categories;
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    @Override
+    public Transaction get(String id) {
+        EncodedId key = EncodedId.of(id);
+        Segment segment = segmentFor(key);
+        segment.lock.readLock().lock();
+        try {
+            int row = segment.find(key);
+            return row < 0 ? null : segment.decode(row);
+        } finally {
+            segment.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean containsKey(String id) {
+        EncodedId key = EncodedId.of(id);
+        Segment segment = segmentFor(key);
+        segment.lock.readLock().lock();
+        try {
+            return segment.find(key) >= 0;
+        } finally {
+            segment.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Transaction compute(String id, BiFunction<String, Transaction, Transaction> remapping) {
+        EncodedId key = EncodedId.of(id);
+        Segment segment = segmentFor(key);
+        segment.lock.writeLock().lock();
+        try {
+            int row = segment.find(key);
+            Transaction existing = row < 0 ? null : segment.decode(row);
+            Transaction result = remapping.apply(id, existing);
+            if (result == null) {
+                if (row >= 0) {
+                    segment.remove(row);
+                    size.decrementAndGet();
+                }
+            } else {
+                segment.write(row, key, result);
+                if (row < 0) {
+                    size.incrementAndGet();
+                }
+            }
+            return result;
+        } finally {
+            segment.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public long size() {
+        return size.get();
+    }
+
+    @Override
+    public void validate(Transaction transaction) {
+        if (transaction.getTimestamp() != null) {
+            toMicros(transaction.getTimestamp());
+        }
+    }
+
+    /**
+     * 逐条遍历所有交易
+     * 每次在读锁内解码一小段记录槽，释放锁后再交给操作处理，耗时较长的操作不会阻塞写入
+     * @param action 对每条交易执行的操作
+     */
+    @Override
+    public void forEach(Consumer<Transaction> action) {
+        List<Transaction> chunk = new ArrayList<>(ITERATION_CHUNK);
+        for (Segment segment : segments) {
+            int next = 0;
+            while (next >= 0) {
+                segment.lock.readLock().lock();
+                try {
+                    next = segment.decodeRange(next, ITERATION_CHUNK, chunk);
+                } finally {
+                    segment.lock.readLock().unlock();
+                }
+                chunk.forEach(action);
+                chunk.clear();
+            }
+        }
+    }
+
+    private Segment segmentFor(EncodedId key) {
+        return segments[(int) (key.hash() >>> (64 - SEGMENT_BITS))];
+    }
+
+    /**
+     * 把时间戳转换为UTC微秒计数
+     * @throws IllegalArgumentException 当时间戳超出微秒计数的表示范围时抛出
+     */
+    private static long toMicros(LocalDateTime timestamp) {
+        try {
+            return Math.addExact(Math.multiplyExact(timestamp.toEpochSecond(ZoneOffset.UTC), 1_000_000L),
+                    timestamp.getNano() / 1000);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Timestamp out of range: " + timestamp, e);
+        }
+    }
+
+    /**
+     * 一个数据段
+     * 所有字段只在持有段锁时访问：读取需要读锁，修改需要写锁
+     */
+    private final class Segment {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        private ByteBuffer[] chunks = new ByteBuffer[4];
+        private int chunkCount;
+        private int rows;
+
+        /**
+         * 开放寻址哈希表，每个int槽保存行号加1，0表示空槽
+         */
+        private ByteBuffer table = allocate(32 * Integer.BYTES);
+        private int tableSlots = 32;
+
+        private int[] freeRows = new int[0];
+        private int freeCount;
+        private int live;
+
+        private final Map<Integer, String> customIds = new HashMap<>();
+        private final Map<Integer, BigDecimal> wideAmounts = new HashMap<>();
+        private final Map<Integer, String> longDescriptions = new HashMap<>();
+        private final Map<Integer, String> rawCategories = new HashMap<>();
+
+        int find(EncodedId key) {
+            int mask = tableSlots - 1;
+            for (int slot = (int) key.hash() & mask; ; slot = (slot + 1) & mask) {
+                int entry = table.getInt(slot * Integer.BYTES);
+                if (entry == 0) {
+                    return -1;
+                }
+                int row = entry - 1;
+                ByteBuffer chunk = chunk(row);
+                int base = base(row);
+                if (chunk.getLong(base + ID_HIGH) == key.high() && chunk.getLong(base + ID_LOW) == key.low()
+                        && (key.custom() == null
+                        ? (chunk.get(base + FLAGS) & FLAG_CUSTOM_ID) == 0
+                        : key.custom().equals(customIds.get(row)))) {
+                    return row;
+                }
+            }
+        }
+
+        /**
+         * 写入一条交易
+         * 先完成所有可能失败的编码，再修改记录槽，编码失败时段保持不变
+         * @param row 已有记录的行号，新记录为-1
+         * @param key 交易ID
+         * @param transaction 交易实体
+         * @throws IllegalArgumentException 当时间戳超出微秒计数的表示范围时抛出
+         */
+        void write(int row, EncodedId key, Transaction transaction) {
+            LocalDateTime timestamp = transaction.getTimestamp();
+            long micros = timestamp == null ? 0 : toMicros(timestamp);
+            if (row < 0) {
+                row = insert(key);
+            }
+            ByteBuffer chunk = chunk(row);
+            int base = base(row);
+            byte flags = (byte) (chunk.get(base + FLAGS) & (FLAG_LIVE | FLAG_CUSTOM_ID));
+
+            wideAmounts.remove(row);
+            BigDecimal amount = transaction.getAmount();
+            if (amount == null) {
+                flags |= FLAG_NULL_AMOUNT;
+            } else if (amount.unscaledValue().bitLength() < 64 && amount.scale() == (byte) amount.scale()) {
+                chunk.putLong(base + AMOUNT, amount.unscaledValue().longValue());
+                chunk.put(base + SCALE, (byte) amount.scale());
+            } else {
+                flags |= FLAG_WIDE_AMOUNT;
+                wideAmounts.put(row, amount);
+            }
+
+            if (timestamp == null) {
+                flags |= FLAG_NULL_TIMESTAMP;
+            } else {
+                chunk.putLong(base + MICROS, micros);
+                chunk.putShort(base + NANOS, (short) (timestamp.getNano() % 1000));
+            }
+            chunk.put(base + TYPE, transaction.getType() == null ? 0 : (byte) (transaction.getType().ordinal() + 1));
+            chunk.put(base + STATUS,
+                    transaction.getStatus() == null ? 0 : (byte) (transaction.getStatus().ordinal() + 1));
+            int category = categories.encode(transaction.getCategory());
+            chunk.putInt(base + CATEGORY, category);
+            if (category == CategoryDictionary.UNENCODED) {
+                rawCategories.put(row, transaction.getCategory());
+            } else {
+                rawCategories.remove(row);
+            }
+            chunk.putLong(base + VERSION, transaction.getVersion());
+
+            longDescriptions.remove(row);
+            String description = transaction.getDescription();
+            if (description == null) {
+                flags |= FLAG_NULL_DESCRIPTION;
+            } else {
+                byte[] bytes = description.getBytes(StandardCharsets.UTF_8);
+                if (bytes.length <= INLINE_DESCRIPTION) {
+                    chunk.put(base + DESCRIPTION_LENGTH, (byte) bytes.length);
+                    chunk.put(base + DESCRIPTION, bytes);
+                } else {
+                    flags |= FLAG_LONG_DESCRIPTION;
+                    longDescriptions.put(row, description);
+                }
+            }
+            chunk.put(base + FLAGS, flags);
+        }
+
+        Transaction decode(int row) {
+            ByteBuffer chunk = chunk(row);
+            int base = base(row);
+            byte flags = chunk.get(base + FLAGS);
+            Transaction transaction = new Transaction((flags & FLAG_CUSTOM_ID) != 0
+                    ? customIds.get(row)
+                    : new UUID(chunk.getLong(base + ID_HIGH), chunk.getLong(base + ID_LOW)).toString());
+            if ((flags & FLAG_WIDE_AMOUNT) != 0) {
+                transaction.setAmount(wideAmounts.get(row));
+            } else if ((flags & FLAG_NULL_AMOUNT) == 0) {
+                transaction.setAmount(BigDecimal.valueOf(chunk.getLong(base + AMOUNT), chunk.get(base + SCALE)));
+            }
+            if ((flags & FLAG_NULL_TIMESTAMP) == 0) {
+                long micros = chunk.getLong(base + MICROS);
+                transaction.setTimestamp(LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                        (int) Math.floorMod(micros, 1_000_000L) * 1000 + chunk.getShort(base + NANOS),
+                        ZoneOffset.UTC));
+            }
+            byte type = chunk.get(base + TYPE);
+            byte status = chunk.get(base + STATUS);
+            int category = chunk.getInt(base + CATEGORY);
+            transaction.setType(type == 0 ? null : TYPES[type - 1]);
+            transaction.setStatus(status == 0 ? null : STATUSES[status - 1]);
+            transaction.setCategory(category == CategoryDictionary.UNENCODED
+                    ? rawCategories.get(row)
+                    : categories.decode(category));
+            transaction.setVersion(chunk.getLong(base + VERSION));
+            if ((flags & FLAG_LONG_DESCRIPTION) != 0) {
+                transaction.setDescription(longDescriptions.get(row));
+            } else if ((flags & FLAG_NULL_DESCRIPTION) == 0) {
+                byte[] bytes = new byte[chunk.get(base + DESCRIPTION_LENGTH)];
+                chunk.get(base + DESCRIPTION, bytes);
+                transaction.setDescription(new String(bytes, StandardCharsets.UTF_8));
+            }
+            return transaction;
+        }
+
+        /**
+         * 从start行开始解码最多count条有效记录
+         * @return 下次继续的行号，已到末尾时为-1
+         */
+        int decodeRange(int start, int count, List<Transaction> out) {
+            int row = start;
+            while (row < rows && out.size() < count) {
+                if ((chunk(row).get(base(row) + FLAGS) & FLAG_LIVE) != 0) {
+                    out.add(decode(row));
+                }
+                row++;
+            }
+            return row < rows ? row : -1;
+        }
+
+        /**
+         * 删除一行：从哈希表中移除（后移删除，不留墓碑），并把记录槽放回空闲列表
+         */
+        void remove(int row) {
+            int mask = tableSlots - 1;
+            int slot = (int) hashOf(row) & mask;
+            while (table.getInt(slot * Integer.BYTES) != row + 1) {
+                slot = (slot + 1) & mask;
+            }
+            int hole = slot;
+            for (int next = (hole + 1) & mask; table.getInt(next * Integer.BYTES) != 0; next = (next + 1) & mask) {
+                int entry = table.getInt(next * Integer.BYTES);
+                int home = (int) hashOf(entry - 1) & mask;
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    table.putInt(hole * Integer.BYTES, entry);
+                    hole = next;
+                }
+            }
+            table.putInt(hole * Integer.BYTES, 0);
+
+            chunk(row).put(base(row) + FLAGS, (byte) 0);
+            customIds.remove(row);
+            wideAmounts.remove(row);
+            longDescriptions.remove(row);
+            rawCategories.remove(row);
+            if (freeCount == freeRows.length) {
+                freeRows = Arrays.copyOf(freeRows, Math.max(16, freeRows.length * 2));
+            }
+            freeRows[freeCount++] = row;
+            live--;
+        }
+
+        /**
+         * 为新ID分配记录槽并加入哈希表
+         * @return 行号
+         */
+        private int insert(EncodedId key) {
+            if ((live + 1) * 4L > tableSlots * 3L) {
+                rehash(tableSlots * 2);
+            }
+            int row = freeCount > 0 ? freeRows[--freeCount] : nextRow();
+            ByteBuffer chunk = chunk(row);
+            int base = base(row);
+            chunk.putLong(base + ID_HIGH, key.high());
+            chunk.putLong(base + ID_LOW, key.low());
+            chunk.put(base + FLAGS, key.custom() == null ? FLAG_LIVE : FLAG_LIVE | FLAG_CUSTOM_ID);
+            if (key.custom() != null) {
+                customIds.put(row, key.custom());
+            }
+            place(row, key.hash());
+            live++;
+            return row;
+        }
+
+        private long hashOf(int row) {
+            ByteBuffer chunk = chunk(row);
+            int base = base(row);
+            return EncodedId.hashOf(chunk.getLong(base + ID_HIGH), chunk.getLong(base + ID_LOW));
+        }
+
+        private void place(int row, long hash) {
+            int mask = tableSlots - 1;
+            int slot = (int) hash & mask;
+            while (table.getInt(slot * Integer.BYTES) != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table.putInt(slot * Integer.BYTES, row + 1);
+        }
+
+        private void rehash(int slots) {
+            table = allocate(slots * Integer.BYTES);
+            tableSlots = slots;
+            for (int row = 0; row < rows; row++) {
+                if ((chunk(row).get(base(row) + FLAGS) & FLAG_LIVE) != 0) {
+                    place(row, hashOf(row));
+                }
+            }
+        }
+
+        private int nextRow() {
+            if (rows == chunkCount * CHUNK_SLOTS) {
+                if (chunkCount == chunks.length) {
+                    chunks = Arrays.copyOf(chunks, chunks.length * 2);
+                }
+                chunks[chunkCount++] = allocate(CHUNK_SLOTS * SLOT_SIZE);
+            }
+            return rows++;
+        }
+
+        private ByteBuffer chunk(int row) {
+            return chunks[row >>> CHUNK_BITS];
+        }
+
+        private int base(int row) {
+            return (row & (CHUNK_SLOTS - 1)) * SLOT_SIZE;
+        }
+    }
+
+    private static ByteBuffer allocate(int bytes) {
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+    }
+}
@@ -0,0 +1,147 @@
+package com.banking.transactionservice.repository;
+
+import com.banking.transactionservice.model.Transaction;
+import com.banking.transactionservice.model.TransactionStatus;
+import com.banking.transactionservice.model.TransactionType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * 类别、类型、状态的二级索引
+ * 维护两个组合索引，每个桶是按(时间戳, ID)排序的并发跳表：
+ * <ul>
+ *   <li>(类别, 类型, 状态)：指定了类别的查询</li>
+ *   <li>(类型, 状态)：未指定类别的查询</li>
+ * </ul>
+ * 查询时把满足条件的所有桶（最多12个）按顺序归并，每个返回的键都满足条件，
+ * 因此查询耗时与结果数量成正比，与表大小无关，且结果顺序与主列表一致。
+ * 桶在变空后不会被删除，类别数量应当是有限的
+ */
+final class SecondaryIndexes {
+
+    private static final List<TransactionType> ALL_TYPES = withNull(TransactionType.values());
+    private static final List<TransactionStatus> ALL_STATUSES = withNull(TransactionStatus.values());
+
+    private final Map<CategoryBucket, NavigableSet<TransactionKey>> byCategory = new ConcurrentHashMap<>();
+    private final Map<TypeStatusBucket, NavigableSet<TransactionKey>> byTypeStatus = new ConcurrentHashMap<>();
+
+    /**
+     * 将交易加入索引
+     * @param transaction 交易实体
+     */
+    void add(Transaction transaction) {
+        TransactionKey key = TransactionKey.of(transaction);
+        byCategory.computeIfAbsent(CategoryBucket.of(transaction), bucket -> new ConcurrentSkipListSet<>()).add(key);
+        byTypeStatus.computeIfAbsent(TypeStatusBucket.of(transaction), bucket -> new ConcurrentSkipListSet<>()).add(key);
+    }
+
+    /**
+     * 将交易移出索引
+     * @param transaction 交易实体（必须是加入索引时的同一状态）
+     */
+    void remove(Transaction transaction) {
+        TransactionKey key = TransactionKey.of(transaction);
+        NavigableSet<TransactionKey> categoryKeys = byCategory.get(CategoryBucket.of(transaction));
+        if (categoryKeys != null) {
+            categoryKeys.remove(key);
+        }
+        NavigableSet<TransactionKey> typeStatusKeys = byTypeStatus.get(TypeStatusBucket.of(transaction));
+        if (typeStatusKeys != null) {
+            typeStatusKeys.remove(key);
+        }
+    }
+
+    /**
+     * 按顺序返回满足条件的排序键
+     * @param filter 非空的查询条件
+     * @param after 起始位置（不含），为null时从头开始
+     * @return 有序的键迭代器
+     */
+    Iterator<TransactionKey> keys(TransactionFilter filter, TransactionKey after) {
+        List<TransactionType> types = filter.type() == null ? ALL_TYPES : List.of(filter.type());
+        List<TransactionStatus> statuses = filter.status() == null ? ALL_STATUSES : List.of(filter.status());
+        List<NavigableSet<TransactionKey>> buckets = new ArrayList<>();
+        for (TransactionType type : types) {
+            for (TransactionStatus status : statuses) {
+                NavigableSet<TransactionKey> keys = filter.category() != null
+                        ? byCategory.get(new CategoryBucket(filter.category(), type, status))
+                        : byTypeStatus.get(new TypeStatusBucket(type, status));
+                if (keys != null) {
+                    buckets.add(after == null ? keys : keys.tailSet(after, false));
+                }
+            }
+        }
+        if (buckets.isEmpty()) {
+            return Collections.emptyIterator();
+        }
+        if (buckets.size() == 1) {
+            return buckets.get(0).iterator();
+        }
+        return new MergingIterator(buckets);
+    }
+
+    private static <T> List<T> withNull(T[] values) {
+        List<T> list = new ArrayList<>(Arrays.asList(values));
+        list.add(null);
+        return Collections.unmodifiableList(list);
+    }
+
+    private record CategoryBucket(String category, TransactionType type, TransactionStatus status) {
+        static CategoryBucket of(Transaction transaction) {
+            return new CategoryBucket(transaction.getCategory(), transaction.getType(), transaction.getStatus());
+        }
+    }
+
+    private record TypeStatusBucket(TransactionType type, TransactionStatus status) {
+        static TypeStatusBucket of(Transaction transaction) {
+            return new TypeStatusBucket(transaction.getType(), transaction.getStatus());
+        }
+    }
+
+    /**
+     * 多个有序集合的k路归并迭代器
+     */
+    private static final class MergingIterator implements Iterator<TransactionKey> {
+        private final PriorityQueue<Head> heads = new PriorityQueue<>(Comparator.comparing(Head::key));
+
+        private MergingIterator(List<NavigableSet<TransactionKey>> sets) {
+            for (NavigableSet<TransactionKey> set : sets) {
+                Iterator<TransactionKey> iterator = set.iterator();
+                if (iterator.hasNext()) {
+                    heads.add(new Head(iterator.next(), iterator));
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public TransactionKey next() {
+            Head head = heads.poll();
+            if (head == null) {
+                throw new NoSuchElementException();
+            }
+            if (head.iterator.hasNext()) {
+                heads.add(new Head(head.iterator.next(), head.iterator));
+            }
+            return head.key;
+        }
+
+        private record Head(TransactionKey key, Iterator<TransactionKey> iterator) {
+        }
+    }
+}
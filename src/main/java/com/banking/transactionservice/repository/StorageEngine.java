@@ -0,0 +1,33 @@
+package com.banking.transactionservice.repository;
+
+import com.banking.transactionservice.model.CategoryDictionary;
+
+/**
+ * 主存储引擎类型
+ */
+public enum StorageEngine {
+    HEAP,      // 每条交易一个堆对象，读取无需解码
+    COLUMNAR,  // 按字段存放在基本类型数组中，每条记录占用的内存更少
+    OFF_HEAP;  // 固定宽度记录槽和ID哈希表都位于直接内存，GC几乎不需要扫描交易数据
+
+    /**
+     * 创建该类型的空存储引擎，使用独立的类别字典
+     * @return 存储引擎
+     */
+    public TransactionStore createStore() {
+        return createStore(new CategoryDictionary());
+    }
+
+    /**
+     * 创建该类型的空存储引擎
+     * @param categories 列式和堆外引擎保存类别编码所用的字典
+     * @return 存储引擎
+     */
+    public TransactionStore createStore(CategoryDictionary categories) {
+        return switch (this) {
+            case HEAP -> new HeapTransactionStore();
+            case COLUMNAR -> new ColumnarTransactionStore(categories);
+            case OFF_HEAP -> new OffHeapTransactionStore(categories);
+        };
+    }
+}
@@ -0,0 +1,153 @@
+package com.banking.transactionservice.repository;
+
+import com.banking.transactionservice.model.Transaction;
+import com.banking.transactionservice.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 按类别、按交易类型增量维护的金额汇总
+ * 与二级索引一样在仓库的compute中随每次写入更新：更新时先减去旧记录再加上新记录，
+ * 因此金额、类别或类型的变化都会得到正确的差值。
+ * <ul>
+ *   <li>笔数和合计作为一个不可变值用CAS整体替换，更新为O(1)，读取时两者一致</li>
+ *   <li>最小、最大值需要在删除当前极值后找到下一个，每个桶维护按金额排序的跳表，更新为O(log n)，读取为O(1)</li>
+ * </ul>
+ * 全部交易的汇总由各类型的桶合并得到，不单独维护。
+ * 不同桶的读取之间是弱一致的，与并发写入同时读取时各桶可能反映不同时刻的状态
+ */
+final class TransactionAggregates {
+
+    private final Map<String, Bucket> byCategory = new ConcurrentHashMap<>();
+    private final Map<TransactionType, Bucket> byType;
+    private final Bucket untyped = new Bucket();
+
+    TransactionAggregates() {
+        Map<TransactionType, Bucket> types = new EnumMap<>(TransactionType.class);
+        for (TransactionType type : TransactionType.values()) {
+            types.put(type, new Bucket());
+        }
+        this.byType = Collections.unmodifiableMap(types);
+    }
+
+    /**
+     * 将交易计入汇总
+     * @param transaction 交易实体
+     */
+    void add(Transaction transaction) {
+        if (transaction.getCategory() != null) {
+            byCategory.computeIfAbsent(transaction.getCategory(), category -> new Bucket()).add(transaction);
+        }
+        typeBucket(transaction).add(transaction);
+    }
+
+    /**
+     * 将交易移出汇总
+     * @param transaction 交易实体（必须是计入汇总时的同一状态）
+     */
+    void remove(Transaction transaction) {
+        if (transaction.getCategory() != null) {
+            Bucket bucket = byCategory.get(transaction.getCategory());
+            if (bucket != null) {
+                bucket.remove(transaction);
+            }
+        }
+        typeBucket(transaction).remove(transaction);
+    }
+
+    /**
+     * 读取当前汇总
+     * 耗时与类别数量成正比，与交易数量无关
+     * @return 交易汇总
+     */
+    TransactionSummary summary() {
+        Map<String, AggregateStats> categories = new TreeMap<>();
+        byCategory.forEach((category, bucket) -> {
+            AggregateStats stats = bucket.stats();
+            if (stats.count() > 0) {
+                categories.put(category, stats);
+            }
+        });
+        Map<TransactionType, AggregateStats> types = new EnumMap<>(TransactionType.class);
+        AggregateStats total = untyped.stats();
+        for (Map.Entry<TransactionType, Bucket> entry : byType.entrySet()) {
+            AggregateStats stats = entry.getValue().stats();
+            types.put(entry.getKey(), stats);
+            total = total.combine(stats);
+        }
+        return new TransactionSummary(total, categories, types);
+    }
+
+    private Bucket typeBucket(Transaction transaction) {
+        return transaction.getType() == null ? untyped : byType.get(transaction.getType());
+    }
+
+    /**
+     * 单个分组的汇总状态
+     */
+    private static final class Bucket {
+        private final AtomicReference<Totals> totals = new AtomicReference<>(Totals.EMPTY);
+        private final NavigableSet<AmountKey> amounts = new ConcurrentSkipListSet<>();
+
+        void add(Transaction transaction) {
+            BigDecimal amount = transaction.getAmount();
+            totals.updateAndGet(current -> current.plus(amount));
+            if (amount != null) {
+                amounts.add(new AmountKey(amount, transaction.getId()));
+            }
+        }
+
+        void remove(Transaction transaction) {
+            BigDecimal amount = transaction.getAmount();
+            totals.updateAndGet(current -> current.minus(amount));
+            if (amount != null) {
+                amounts.remove(new AmountKey(amount, transaction.getId()));
+            }
+        }
+
+        AggregateStats stats() {
+            Totals current = totals.get();
+            return new AggregateStats(current.count(), current.sum(),
+                    first(amounts.iterator()), first(amounts.descendingIterator()));
+        }
+
+        private static BigDecimal first(Iterator<AmountKey> iterator) {
+            return iterator.hasNext() ? iterator.next().amount() : null;
+        }
+    }
+
+    /**
+     * 笔数与合计，作为一个整体被CAS替换
+     */
+    private record Totals(long count, BigDecimal sum) {
+        static final Totals EMPTY = new Totals(0, BigDecimal.ZERO);
+
+        Totals plus(BigDecimal amount) {
+            return new Totals(count + 1, amount == null ? sum : sum.add(amount));
+        }
+
+        Totals minus(BigDecimal amount) {
+            return new Totals(count - 1, amount == null ? sum : sum.subtract(amount));
+        }
+    }
+
+    /**
+     * 金额排序键，金额相同时按ID区分
+     */
+    private record AmountKey(BigDecimal amount, String id) implements Comparable<AmountKey> {
+        @Override
+        public int compareTo(AmountKey other) {
+            int byAmount = amount.compareTo(other.amount);
+            return byAmount != 0 ? byAmount : id.compareTo(other.id);
+        }
+    }
+}
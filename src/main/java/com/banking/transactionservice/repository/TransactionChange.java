@@ -0,0 +1,24 @@
+package com.banking.transactionservice.repository;
+
+import com.banking.transactionservice.model.Transaction;
+
+/**
+ * 交易变更事件
+ * 仓库每次成功写入或删除后发布一条变更，序号在同一ID的写入之间严格递增，
+ * 与变更实际生效的顺序一致
+ * @param sequence 变更序号
+ * @param type 变更类型
+ * @param id 交易ID
+ * @param previous 变更前的交易，新建时为null
+ * @param current 变更后的交易，删除时为null
+ */
+public record TransactionChange(long sequence, Type type, String id, Transaction previous, Transaction current) {
+
+    /**
+     * 变更类型
+     */
+    public enum Type {
+        SAVE,   // 新建或更新
+        DELETE  // 删除
+    }
+}
@@ -0,0 +1,28 @@
+package com.banking.transactionservice.repository;
+
+import java.util.List;
+
+/**
+ * 交易变更监听器
+ * 在仓库完成写入之后、写方法返回之前被同步调用，
+ * 不会持有仓库内部锁，因此实现中可以执行阻塞操作（例如等待日志落盘）。
+ * 抛出的异常不会阻止其他监听器收到同一变更，所有监听器通知完后才传给写入的调用方
+ */
+@FunctionalInterface
+public interface TransactionChangeListener {
+
+    /**
+     * 处理一条交易变更
+     * @param change 变更事件
+     */
+    void onChange(TransactionChange change);
+
+    /**
+     * 处理批量写入产生的一组变更
+     * 默认逐条调用 {@link #onChange(TransactionChange)}，需要摊销开销的监听器（例如等待落盘）可以覆盖
+     * @param changes 按生效顺序排列的变更
+     */
+    default void onChanges(List<TransactionChange> changes) {
+        changes.forEach(this::onChange);
+    }
+}
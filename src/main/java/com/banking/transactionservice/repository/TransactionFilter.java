@@ -0,0 +1,39 @@
+package com.banking.transactionservice.repository;
+
+import com.banking.transactionservice.model.Transaction;
+import com.banking.transactionservice.model.TransactionStatus;
+import com.banking.transactionservice.model.TransactionType;
+
+/**
+ * 交易查询条件
+ * 为null的字段表示不按该字段过滤
+ * @param category 交易类别
+ * @param type 交易类型
+ * @param status 交易状态
+ */
+public record TransactionFilter(String category, TransactionType type, TransactionStatus status) {
+
+    /**
+     * 不过滤任何字段的条件
+     */
+    public static final TransactionFilter NONE = new TransactionFilter(null, null, null);
+
+    /**
+     * 是否没有指定任何过滤字段
+     * @return 是否为空条件
+     */
+    public boolean isEmpty() {
+        return category == null && type == null && status == null;
+    }
+
+    /**
+     * 判断交易是否满足条件
+     * @param transaction 交易实体
+     * @return 是否满足
+     */
+    public boolean matches(Transaction transaction) {
+        return (category == null || category.equals(transaction.getCategory()))
+                && (type == null || type == transaction.getType())
+                && (status == null || status == transaction.getStatus());
+    }
+}
@@ -0,0 +1,44 @@
+package com.banking.transactionservice.repository;
+
+import com.banking.transactionservice.model.Transaction;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Objects;
+
+/**
+ * 交易排序键
+ * 按时间戳、再按ID排序，用作有序索引的键和游标分页的位置
+ * @param timestamp 交易时间戳，可以为空（排在最前）
+ * @param id 交易ID
+ */
+public record TransactionKey(LocalDateTime timestamp, String id) implements Comparable<TransactionKey> {
+
+    private static final Comparator<TransactionKey> ORDER = Comparator
+            .comparing(TransactionKey::timestamp, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(TransactionKey::id);
+
+    /**
+     * 根据交易生成排序键
+     * @param transaction 交易实体
+     * @return 排序键
+     */
+    public static TransactionKey of(Transaction transaction) {
+        return new TransactionKey(transaction.getTimestamp(), transaction.getId());
+    }
+
+    /**
+     * 判断该键是否仍与给定交易的当前状态一致
+     * @param transaction 交易实体
+     * @return 时间戳和ID是否都相同
+     */
+    boolean matches(Transaction transaction) {
+        return id.equals(transaction.getId())
+                && Objects.equals(timestamp, transaction.getTimestamp());
+    }
+
+    @Override
+    public int compareTo(TransactionKey other) {
+        return ORDER.compare(this, other);
+    }
+}
@@ -1,31 +1,322 @@
 package com.banking.transactionservice.repository;
 
+import com.banking.transactionservice.exception.VersionConflictException;
+import com.banking.transactionservice.model.CategoryDictionary;
 import com.banking.transactionservice.model.Transaction;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.NavigableSet;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Predicate;
 
 /**
  * 交易数据访问仓库
- * 使用内存中的ConcurrentHashMap存储交易数据
+ * 交易数据保存在可替换的主存储引擎中（见 {@link TransactionStore}，默认为基于ConcurrentHashMap的堆存储），
+ * 仓库在其之上维护一个按(时间戳, ID)排序的并发跳表索引，用于稳定的分页顺序和游标分页，
+ * 以及类别、类型、状态的二级索引（见 {@link SecondaryIndexes}），用于按条件过滤的列表查询，
+ * 和按类别、类型的金额汇总（见 {@link TransactionAggregates}），汇总查询不需要遍历数据。
+ * 写入的交易是调用方对象的副本，其类别替换为 {@link CategoryDictionary} 中的共享实例，相同类别的交易共享同一个字符串。
+ * 每次写入都会分配一个递增的变更序号并通知已注册的 {@link TransactionChangeListener}，
+ * 变更序号同时作为被写入交易的版本号，用于 {@link #update(Transaction, long)} 的条件更新。
+ * 作为Spring Bean时每个公共方法的耗时以 transaction.repository 直方图发布（按method标签区分）
  */
 @Repository
+@Timed(value = "transaction.repository", histogram = true)
 public class TransactionRepository {
-    private final Map<String, Transaction> transactions = new ConcurrentHashMap<>();
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionRepository.class);
+
+    /**
+     * 条件更新时表示不检查版本号
+     */
+    public static final long ANY_VERSION = -1;
+
+    private final TransactionStore transactions;
+    private final CategoryDictionary categories;
+    private final NavigableSet<TransactionKey> orderedIndex = new ConcurrentSkipListSet<>();
+    private final SecondaryIndexes secondaryIndexes = new SecondaryIndexes();
+    private final TransactionAggregates aggregates = new TransactionAggregates();
+    private final AtomicLong sequence = new AtomicLong();
+    private final List<TransactionChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * 使用堆存储引擎创建仓库
+     */
+    public TransactionRepository() {
+        this(new HeapTransactionStore());
+    }
+
+    /**
+     * 使用指定的存储引擎和独立的类别字典创建仓库
+     * @param store 主存储引擎
+     */
+    public TransactionRepository(TransactionStore store) {
+        this(store, new CategoryDictionary());
+    }
+
+    /**
+     * 使用指定的存储引擎和类别字典创建仓库
+     * @param store 主存储引擎
+     * @param categories 类别字典，应与存储引擎使用的字典相同
+     */
+    @Autowired
+    public TransactionRepository(TransactionStore store, CategoryDictionary categories) {
+        this.transactions = store;
+        this.categories = categories;
+    }
 
     /**
      * 保存交易记录
+     * 仓库保存的是交易的副本，调用方之后对参数的修改不会影响已存储的数据和索引。
+     * 主存储与各索引在同一个compute中更新，保证同一ID的并发写入不会留下过期的索引键，
+     * 更新改变了时间戳、类别、类型或状态时旧键会被移除
      * @param transaction 待保存的交易对象
-     * @return 保存后的交易对象
+     * @return 保存后的交易对象（仓库持有的副本，不应再修改）
      */
     public Transaction save(Transaction transaction) {
-        transactions.put(transaction.getId(), transaction);
-        return transaction;
+        Transaction stored = copy(transaction);
+        Transaction[] previous = new Transaction[1];
+        long[] changeSequence = new long[1];
+        transactions.compute(stored.getId(), (id, existing) -> {
+            if (existing != null) {
+                unindex(existing);
+            }
+            previous[0] = existing;
+            changeSequence[0] = sequence.incrementAndGet();
+            stored.setVersion(changeSequence[0]);
+            index(stored);
+            return stored;
+        });
+        publish(changeSequence[0], TransactionChange.Type.SAVE, stored.getId(), previous[0], stored);
+        return stored;
+    }
+
+    /**
+     * 条件更新交易记录
+     * 只有记录存在、且当前版本号等于期望值时才写入，比较和写入在同一个compute中完成，
+     * 因此并发的更新之间只有一个能成功，已被删除的记录也不会被更新重新创建
+     * @param transaction 新的交易内容，ID指定要更新的记录
+     * @param expectedVersion 期望的当前版本号，{@link #ANY_VERSION} 表示只要求记录存在
+     * @return 更新后的交易对象（仓库持有的副本，不应再修改），记录不存在时为空
+     * @throws VersionConflictException 当前版本号与期望值不同时抛出，此时没有任何写入
+     */
+    public Optional<Transaction> update(Transaction transaction, long expectedVersion) {
+        Transaction stored = copy(transaction);
+        Transaction[] previous = new Transaction[1];
+        long[] changeSequence = new long[1];
+        transactions.compute(stored.getId(), (id, existing) -> {
+            if (existing == null) {
+                return null;
+            }
+            if (expectedVersion != ANY_VERSION && existing.getVersion() != expectedVersion) {
+                throw new VersionConflictException(id, expectedVersion, existing.getVersion());
+            }
+            unindex(existing);
+            previous[0] = existing;
+            changeSequence[0] = sequence.incrementAndGet();
+            stored.setVersion(changeSequence[0]);
+            index(stored);
+            return stored;
+        });
+        if (previous[0] == null) {
+            return Optional.empty();
+        }
+        publish(changeSequence[0], TransactionChange.Type.SAVE, stored.getId(), previous[0], stored);
+        return Optional.of(stored);
+    }
+
+    /**
+     * 批量条件更新交易记录
+     * 每条记录的版本比较和写入与 {@link #update(Transaction, long)} 相同，在同一个compute中完成，
+     * 不存在或版本不符的记录不写入，也不会抛出异常；监听器只会收到一次批量通知
+     * @param batch 新的交易内容，ID指定要更新的记录
+     * @param expectedVersions 每条记录期望的当前版本号，与batch一一对应，{@link #ANY_VERSION} 表示只要求记录存在
+     * @return 每条记录的更新结果，顺序与参数一致
+     */
+    public List<UpdateResult> updateAll(List<Transaction> batch, long[] expectedVersions) {
+        if (batch.size() != expectedVersions.length) {
+            throw new IllegalArgumentException("Expected " + batch.size() + " versions, got " + expectedVersions.length);
+        }
+        List<UpdateResult> results = new ArrayList<>(batch.size());
+        List<TransactionChange> changes = listeners.isEmpty() ? null : new ArrayList<>(batch.size());
+        Transaction[] previous = new Transaction[1];
+        long[] currentVersion = new long[1];
+        long[] changeSequence = new long[1];
+        for (int i = 0; i < expectedVersions.length; i++) {
+            Transaction stored = copy(batch.get(i));
+            long expectedVersion = expectedVersions[i];
+            previous[0] = null;
+            currentVersion[0] = 0;
+            transactions.compute(stored.getId(), (id, existing) -> {
+                if (existing == null) {
+                    return null;
+                }
+                if (expectedVersion != ANY_VERSION && existing.getVersion() != expectedVersion) {
+                    currentVersion[0] = existing.getVersion();
+                    return existing;
+                }
+                unindex(existing);
+                previous[0] = existing;
+                changeSequence[0] = sequence.incrementAndGet();
+                stored.setVersion(changeSequence[0]);
+                index(stored);
+                return stored;
+            });
+            if (previous[0] == null) {
+                results.add(new UpdateResult(currentVersion[0] == 0 ? UpdateResult.Status.NOT_FOUND
+                        : UpdateResult.Status.CONFLICT, null, currentVersion[0]));
+                continue;
+            }
+            results.add(new UpdateResult(UpdateResult.Status.UPDATED, stored, stored.getVersion()));
+            if (changes != null) {
+                changes.add(new TransactionChange(changeSequence[0], TransactionChange.Type.SAVE,
+                        stored.getId(), previous[0], stored));
+            }
+        }
+        publishAll(changes);
+        return results;
+    }
+
+    /**
+     * 恢复一条之前保存过的交易记录，保留其版本号
+     * 用于从快照和日志恢复；之后分配的变更序号不会小于恢复的版本号。
+     * 没有版本号（为0）的旧记录会像 {@link #save(Transaction)} 一样分配新的版本号
+     * @param transaction 待恢复的交易对象
+     * @return 保存后的交易对象（仓库持有的副本，不应再修改）
+     */
+    public Transaction restore(Transaction transaction) {
+        if (transaction.getVersion() == 0) {
+            return save(transaction);
+        }
+        Transaction stored = copy(transaction);
+        restoreIf(stored, (existing, incoming) -> true);
+        return stored;
+    }
+
+    /**
+     * 有条件地恢复一条交易记录，保留其版本号
+     * 条件在与写入相同的compute中判断，用于合并其他副本复制来的写入
+     * @param transaction 待写入的交易对象，版本号必须大于0
+     * @param replaces 根据当前记录（不存在时为null）和待写入记录判断是否写入
+     * @return 是否写入
+     */
+    public boolean restoreIf(Transaction transaction, BiPredicate<Transaction, Transaction> replaces) {
+        return !restoreAllIf(List.of(transaction), replaces).isEmpty();
+    }
+
+    /**
+     * 有条件地批量恢复交易记录，保留其版本号
+     * 每条记录的判断和写入与 {@link #restoreIf} 相同，但监听器只会收到一次批量通知，
+     * 缓存等监听器可以把整批失效合并处理
+     * @param batch 待写入的交易对象，版本号必须大于0
+     * @param replaces 根据当前记录（不存在时为null）和待写入记录判断是否写入
+     * @return 实际写入的交易ID
+     */
+    public List<String> restoreAllIf(Collection<Transaction> batch, BiPredicate<Transaction, Transaction> replaces) {
+        List<String> restored = new ArrayList<>(batch.size());
+        List<TransactionChange> changes = listeners.isEmpty() ? null : new ArrayList<>(batch.size());
+        Transaction[] previous = new Transaction[1];
+        long[] changeSequence = new long[1];
+        for (Transaction transaction : batch) {
+            Transaction stored = copy(transaction);
+            changeSequence[0] = 0;
+            transactions.compute(stored.getId(), (id, existing) -> {
+                if (!replaces.test(existing, stored)) {
+                    return existing;
+                }
+                if (existing != null) {
+                    unindex(existing);
+                }
+                index(stored);
+                previous[0] = existing;
+                sequence.accumulateAndGet(stored.getVersion(), Math::max);
+                changeSequence[0] = sequence.incrementAndGet();
+                return stored;
+            });
+            if (changeSequence[0] == 0) {
+                continue;
+            }
+            restored.add(stored.getId());
+            if (changes != null) {
+                changes.add(new TransactionChange(changeSequence[0], TransactionChange.Type.SAVE,
+                        stored.getId(), previous[0], stored));
+            }
+        }
+        publishAll(changes);
+        return restored;
+    }
+
+    /**
+     * 批量保存交易记录
+     * 每条记录的索引维护与 {@link #save(Transaction)} 相同，但监听器只会收到一次批量通知，
+     * 持久化等监听器可以把整批变更合并为一次提交
+     * @param batch 待保存的交易对象
+     * @return 保存后的交易对象，顺序与参数一致
+     * @throws RuntimeException 某条记录写入失败时抛出，之前已写入的记录照常通知监听器
+     */
+    public List<Transaction> saveAll(Collection<Transaction> batch) {
+        return saveAll(batch, (e, index) -> {
+            throw e;
+        });
+    }
+
+    /**
+     * 批量保存交易记录，逐条处理写入失败
+     * 写入失败的记录交给 onFailure 处理，其余记录照常写入并在最后一次性通知监听器
+     * @param batch 待保存的交易对象
+     * @param onFailure 接收写入失败的异常和记录在batch中的下标，抛出异常时停止写入之后的记录
+     * @return 保存后的交易对象，顺序与参数一致，写入失败的位置为null
+     */
+    public List<Transaction> saveAll(Collection<Transaction> batch, ObjIntConsumer<RuntimeException> onFailure) {
+        List<Transaction> saved = new ArrayList<>(batch.size());
+        List<TransactionChange> changes = listeners.isEmpty() ? null : new ArrayList<>(batch.size());
+        Transaction[] previous = new Transaction[1];
+        long[] changeSequence = new long[1];
+        try {
+            for (Transaction transaction : batch) {
+                Transaction stored;
+                try {
+                    stored = copy(transaction);
+                    transactions.compute(stored.getId(), (id, existing) -> {
+                        if (existing != null) {
+                            unindex(existing);
+                        }
+                        previous[0] = existing;
+                        changeSequence[0] = sequence.incrementAndGet();
+                        stored.setVersion(changeSequence[0]);
+                        index(stored);
+                        return stored;
+                    });
+                } catch (RuntimeException e) {
+                    onFailure.accept(e, saved.size());
+                    saved.add(null);
+                    continue;
+                }
+                saved.add(stored);
+                if (changes != null) {
+                    changes.add(new TransactionChange(changeSequence[0], TransactionChange.Type.SAVE,
+                            stored.getId(), previous[0], stored));
+                }
+            }
+        } finally {
+            publishAll(changes);
+        }
+        return saved;
     }
 
     /**
@@ -42,7 +333,99 @@ public class TransactionRepository {
      * @param id 要删除的交易ID
      */
     public void deleteById(String id) {
-        transactions.remove(id);
+        Transaction[] previous = new Transaction[1];
+        long[] changeSequence = new long[1];
+        transactions.compute(id, (key, existing) -> {
+            if (existing == null) {
+                return null;
+            }
+            unindex(existing);
+            previous[0] = existing;
+            changeSequence[0] = sequence.incrementAndGet();
+            return null;
+        });
+        if (previous[0] != null) {
+            publish(changeSequence[0], TransactionChange.Type.DELETE, id, previous[0], null);
+        }
+    }
+
+    /**
+     * 有条件地删除交易
+     * 条件在与删除相同的compute中判断，用于合并其他副本复制来的删除
+     * @param id 要删除的交易ID
+     * @param condition 根据当前记录判断是否删除
+     * @return 是否删除
+     */
+    public boolean deleteIf(String id, Predicate<Transaction> condition) {
+        return !deleteAllIf(List.of(id), condition).isEmpty();
+    }
+
+    /**
+     * 有条件地批量删除交易
+     * 每条记录的判断和删除与 {@link #deleteIf} 相同，但监听器只会收到一次批量通知
+     * @param ids 要删除的交易ID
+     * @param condition 根据当前记录判断是否删除
+     * @return 实际被删除的交易ID
+     */
+    public List<String> deleteAllIf(Collection<String> ids, Predicate<Transaction> condition) {
+        List<String> deleted = new ArrayList<>(ids.size());
+        List<TransactionChange> changes = listeners.isEmpty() ? null : new ArrayList<>(ids.size());
+        Transaction[] previous = new Transaction[1];
+        long[] changeSequence = new long[1];
+        for (String id : ids) {
+            previous[0] = null;
+            transactions.compute(id, (key, existing) -> {
+                if (existing == null || !condition.test(existing)) {
+                    return existing;
+                }
+                unindex(existing);
+                previous[0] = existing;
+                changeSequence[0] = sequence.incrementAndGet();
+                return null;
+            });
+            if (previous[0] != null) {
+                deleted.add(id);
+                if (changes != null) {
+                    changes.add(new TransactionChange(changeSequence[0], TransactionChange.Type.DELETE,
+                            id, previous[0], null));
+                }
+            }
+        }
+        publishAll(changes);
+        return deleted;
+    }
+
+    /**
+     * 批量删除交易
+     * @param ids 要删除的交易ID
+     * @return 实际被删除的交易ID
+     */
+    public List<String> deleteAllById(Collection<String> ids) {
+        List<String> deleted = new ArrayList<>(ids.size());
+        List<TransactionChange> changes = listeners.isEmpty() ? null : new ArrayList<>(ids.size());
+        Transaction[] previous = new Transaction[1];
+        long[] changeSequence = new long[1];
+        for (String id : ids) {
+            previous[0] = null;
+            transactions.compute(id, (key, existing) -> {
+                if (existing == null) {
+                    return null;
+                }
+                unindex(existing);
+                previous[0] = existing;
+                changeSequence[0] = sequence.incrementAndGet();
+                return null;
+            });
+            if (previous[0] != null) {
+                deleted.add(id);
+                if (changes != null) {
+                    changes.add(new TransactionChange(changeSequence[0], TransactionChange.Type.DELETE,
+                            id, previous[0], null));
+                }
+            }
+        }
+        publishAll(changes);
+        return deleted;
     }
 
     /**
@@ -50,20 +433,130 @@ public class TransactionRepository {
      * @return 所有交易记录的列表
      */
     public List<Transaction> findAll() {
-        return new ArrayList<>(transactions.values());
+        List<Transaction> all = new ArrayList<>((int) Math.min(transactions.size(), Integer.MAX_VALUE - 8));
+        transactions.forEach(all::add);
+        return all;
+    }
+
+    /**
+     * 逐条遍历所有交易记录
+     * 不复制数据集，遍历是弱一致的：可以与写入并发进行，但不保证看到遍历开始后的变更
+     * @param action 对每条交易执行的操作
+     */
+    public void forEach(Consumer<Transaction> action) {
+        transactions.forEach(action);
+    }
+
+    /**
+     * 按(时间戳, ID)顺序逐条遍历满足条件的交易记录
+     * 直接在有序索引或二级索引上迭代，内存占用与数据量无关，适合全量导出；
+     * 遍历是弱一致的，遍历期间被更新的记录可能以新值出现在新位置，或被跳过
+     * @param filter 查询条件
+     * @param action 对每条交易执行的操作
+     */
+    public void forEach(TransactionFilter filter, Consumer<Transaction> action) {
+        Iterator<TransactionKey> keys = keys(filter, null);
+        while (keys.hasNext()) {
+            Transaction transaction = resolve(keys.next(), filter);
+            if (transaction != null) {
+                action.accept(transaction);
+            }
+        }
     }
 
     /**
      * 分页获取交易记录
+     * 按(时间戳, ID)顺序分页，顺序不受哈希表扩容影响；深分页仍需跳过前面的记录，
+     * 大数据量遍历请使用 {@link #findAfter(TransactionKey, int)}
      * @param page 页码
      * @param size 每页记录数
      * @return 指定页的交易记录列表
      */
     public List<Transaction> findAll(int page, int size) {
-        return transactions.values().stream()
-                .skip((long) page * size)
-                .limit(size)
-                .collect(Collectors.toList());
+        return findAll(TransactionFilter.NONE, page, size);
+    }
+
+    /**
+     * 按条件分页获取交易记录
+     * 指定了过滤字段时从二级索引读取，只遍历满足条件的记录
+     * @param filter 查询条件
+     * @param page 页码
+     * @param size 每页记录数
+     * @return 指定页的交易记录列表，按(时间戳, ID)排序
+     */
+    public List<Transaction> findAll(TransactionFilter filter, int page, int size) {
+        Iterator<TransactionKey> keys = keys(filter, null);
+        long toSkip = (long) page * size;
+        while (toSkip > 0 && keys.hasNext()) {
+            if (resolve(keys.next(), filter) != null) {
+                toSkip--;
+            }
+        }
+        return collect(keys, filter, size);
+    }
+
+    /**
+     * 游标分页获取交易记录
+     * 从有序索引中定位到游标之后的位置，耗时为O(log n + size)，与分页深度无关
+     * @param after 上一页最后一条记录的排序键，为null时从头开始
+     * @param size 最多返回的记录数
+     * @return 排在游标之后的交易记录列表
+     */
+    public List<Transaction> findAfter(TransactionKey after, int size) {
+        return findAfter(TransactionFilter.NONE, after, size);
+    }
+
+    /**
+     * 按条件游标分页获取交易记录
+     * @param filter 查询条件
+     * @param after 上一页最后一条记录的排序键，为null时从头开始
+     * @param size 最多返回的记录数
+     * @return 排在游标之后且满足条件的交易记录列表
+     */
+    public List<Transaction> findAfter(TransactionFilter filter, TransactionKey after, int size) {
+        return collect(keys(filter, after), filter, size);
+    }
+
+    /**
+     * 按时间范围查询交易
+     * 在有序索引上截取 [from, to) 区间，耗时为O(log n + limit)。
+     * 跳表读取不加锁，查询不会阻塞并发写入；结果是弱一致的，可能不包含查询期间发生的变更
+     * @param from 起始时间（包含），为null时不限制
+     * @param to 结束时间（不包含），为null时不限制
+     * @param limit 最多返回的记录数
+     * @return 按(时间戳, ID)排序的交易记录列表
+     */
+    public List<Transaction> findByTimestampBetween(LocalDateTime from, LocalDateTime to, int limit) {
+        return findByTimestampBetween(TransactionFilter.NONE, from, to, limit);
+    }
+
+    /**
+     * 按条件和时间范围查询交易
+     * 有过滤条件时从二级索引中定位到起始时间，遇到结束时间即停止，不扫描范围之外的记录
+     * @param filter 查询条件
+     * @param from 起始时间（包含），为null时不限制
+     * @param to 结束时间（不包含），为null时不限制
+     * @param limit 最多返回的记录数
+     * @return 按(时间戳, ID)排序且满足条件的交易记录列表
+     */
+    public List<Transaction> findByTimestampBetween(TransactionFilter filter, LocalDateTime from, LocalDateTime to,
+                                                    int limit) {
+        // ID不为空，(from, "")排在该时刻的所有记录之前
+        TransactionKey start = from == null ? null : new TransactionKey(from, "");
+        TransactionKey end = to == null ? null : new TransactionKey(to, "");
+        Iterator<TransactionKey> keys = keys(filter, start);
+        List<Transaction> result = new ArrayList<>(Math.min(limit, 1024));
+        while (result.size() < limit && keys.hasNext()) {
+            TransactionKey key = keys.next();
+            if (end != null && key.compareTo(end) >= 0) {
+                break;
+            }
+            Transaction transaction = resolve(key, filter);
+            if (transaction != null) {
+                result.add(transaction);
+            }
+        }
+        return result;
     }
 
     /**
@@ -74,7 +567,7 @@ public class TransactionRepository {
     public boolean existsById(String id) {
         return transactions.containsKey(id);
     }
-    
+
     /**
      * 获取交易总数
      * @return 交易记录总数
@@ -82,4 +575,154 @@ public class TransactionRepository {
     public long count() {
         return transactions.size();
     }
-} 
\ No newline at end of file
+
+    /**
+     * 获取按类别和交易类型的金额汇总
+     * 汇总随每次写入增量更新，读取耗时与类别数量成正比，与交易数量无关
+     * @return 交易汇总
+     */
+    public TransactionSummary summarize() {
+        return aggregates.summary();
+    }
+
+    /**
+     * 注册变更监听器
+     * @param listener 监听器
+     */
+    public void addChangeListener(TransactionChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * 移除变更监听器
+     * @param listener 监听器
+     */
+    public void removeChangeListener(TransactionChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * 获取最近分配的变更序号
+     * @return 变更序号
+     */
+    public long currentSequence() {
+        return sequence.get();
+    }
+
+    /**
+     * 确保之后分配的变更序号不小于给定值
+     * 用于从持久化日志恢复后继续沿用原有的序号空间
+     * @param minimum 已使用过的最大序号
+     */
+    public void advanceSequence(long minimum) {
+        sequence.accumulateAndGet(minimum, Math::max);
+    }
+
+    /**
+     * 通知所有监听器
+     * 在compute之外调用，监听器不会阻塞同一哈希桶上的其他写入
+     */
+    private void publish(long changeSequence, TransactionChange.Type type, String id,
+                         Transaction previous, Transaction current) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        TransactionChange change = new TransactionChange(changeSequence, type, id, previous, current);
+        notifyListeners(listener -> listener.onChange(change));
+    }
+
+    /**
+     * 批量通知所有监听器
+     */
+    private void publishAll(List<TransactionChange> changes) {
+        if (changes == null || changes.isEmpty()) {
+            return;
+        }
+        notifyListeners(listener -> listener.onChanges(changes));
+    }
+
+    /**
+     * 依次通知每个监听器
+     * 一个监听器失败不会影响其他监听器收到变更，缓存、变更流等仍会与仓库保持一致；
+     * 所有监听器都通知完后再抛出第一个异常（其余的作为suppressed附加），
+     * 同步提交模式下日志落盘失败因此仍会传给写入的调用方
+     */
+    private void notifyListeners(Consumer<TransactionChangeListener> notification) {
+        RuntimeException failure = null;
+        for (TransactionChangeListener listener : listeners) {
+            try {
+                notification.accept(listener);
+            } catch (RuntimeException e) {
+                log.error("Transaction change listener {} failed", listener, e);
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * 创建仓库持有的副本，类别替换为字典中的共享实例
+     * 同时检查存储引擎能否保存该记录，使写入失败发生在compute修改索引之前
+     * @throws IllegalArgumentException 当存储引擎无法保存该记录时抛出
+     */
+    private Transaction copy(Transaction transaction) {
+        Transaction stored = new Transaction(transaction);
+        stored.setCategory(categories.intern(stored.getCategory()));
+        transactions.validate(stored);
+        return stored;
+    }
+
+    private void index(Transaction transaction) {
+        orderedIndex.add(TransactionKey.of(transaction));
+        secondaryIndexes.add(transaction);
+        aggregates.add(transaction);
+    }
+
+    private void unindex(Transaction transaction) {
+        orderedIndex.remove(TransactionKey.of(transaction));
+        secondaryIndexes.remove(transaction);
+        aggregates.remove(transaction);
+    }
+
+    /**
+     * 返回满足条件的有序键迭代器
+     */
+    private Iterator<TransactionKey> keys(TransactionFilter filter, TransactionKey after) {
+        if (filter.isEmpty()) {
+            return (after == null ? orderedIndex : orderedIndex.tailSet(after, false)).iterator();
+        }
+        return secondaryIndexes.keys(filter, after);
+    }
+
+    /**
+     * 从键迭代器中取出最多size条有效记录
+     */
+    private List<Transaction> collect(Iterator<TransactionKey> keys, TransactionFilter filter, int size) {
+        List<Transaction> result = new ArrayList<>(Math.min(size, 1024));
+        while (result.size() < size && keys.hasNext()) {
+            Transaction transaction = resolve(keys.next(), filter);
+            if (transaction != null) {
+                result.add(transaction);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 将索引键解析为当前存储的交易
+     * 并发更新期间索引可能短暂包含已被替换的键，此时返回null以跳过该键
+     * @param key 索引键
+     * @param filter 查询条件
+     * @return 当前交易，键已过期或不再满足条件时为null
+     */
+    private Transaction resolve(TransactionKey key, TransactionFilter filter) {
+        Transaction transaction = transactions.get(key.id());
+        return transaction != null && key.matches(transaction) && filter.matches(transaction) ? transaction : null;
+    }
+}
@@ -0,0 +1,58 @@
+package com.banking.transactionservice.repository;
+
+import com.banking.transactionservice.model.Transaction;
+
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * 交易仓库的主存储引擎
+ * 按ID保存交易记录，{@link TransactionRepository} 在其之上维护排序索引、二级索引和汇总。
+ * 实现必须保证同一ID的 {@link #compute} 互斥执行，仓库依赖这一点在写入时原子地更新索引
+ */
+public interface TransactionStore {
+
+    /**
+     * 根据ID读取交易
+     * @param id 交易ID
+     * @return 交易实体，不存在时为null；返回的对象不应被修改
+     */
+    Transaction get(String id);
+
+    /**
+     * 检查指定ID的交易是否存在
+     * @param id 交易ID
+     * @return 是否存在
+     */
+    boolean containsKey(String id);
+
+    /**
+     * 原子地读取、计算并写回一条交易，语义与 {@link java.util.Map#compute} 相同
+     * @param id 交易ID
+     * @param remapping 根据ID和当前交易（不存在时为null）计算新交易，返回null表示删除
+     * @return 新交易，删除时为null
+     */
+    Transaction compute(String id, BiFunction<String, Transaction, Transaction> remapping);
+
+    /**
+     * 获取交易总数
+     * @return 交易记录数
+     */
+    long size();
+
+    /**
+     * 检查交易能否写入本存储引擎
+     * 仓库在compute之前调用，使写入失败发生在修改索引之前；默认不做任何检查
+     * @param transaction 待写入的交易实体
+     * @throws IllegalArgumentException 当交易无法以本引擎的格式保存时抛出
+     */
+    default void validate(Transaction transaction) {
+    }
+
+    /**
+     * 逐条遍历所有交易
+     * 遍历是弱一致的，可以与写入并发进行
+     * @param action 对每条交易执行的操作
+     */
+    void forEach(Consumer<Transaction> action);
+}
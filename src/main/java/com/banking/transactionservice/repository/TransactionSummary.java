@@ -0,0 +1,15 @@
+package com.banking.transactionservice.repository;
+
+import com.banking.transactionservice.model.TransactionType;
+
+import java.util.Map;
+
+/**
+ * 交易汇总
+ * @param total 全部交易的汇总
+ * @param byCategory 按类别的汇总，按类别名排序，不包含没有交易的类别
+ * @param byType 按交易类型的汇总，包含所有类型
+ */
+public record TransactionSummary(AggregateStats total, Map<String, AggregateStats> byCategory,
+                                 Map<TransactionType, AggregateStats> byType) {
+}
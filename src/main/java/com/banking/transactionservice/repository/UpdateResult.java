@@ -0,0 +1,21 @@
+package com.banking.transactionservice.repository;
+
+import com.banking.transactionservice.model.Transaction;
+
+/**
+ * 条件更新中单条记录的结果
+ * @param status 更新结果
+ * @param transaction 更新后的交易（仓库持有的副本，不应再修改），未写入时为null
+ * @param currentVersion 未写入时记录的当前版本号，记录不存在时为0
+ */
+public record UpdateResult(Status status, Transaction transaction, long currentVersion) {
+
+    /**
+     * 更新结果
+     */
+    public enum Status {
+        UPDATED,    // 已更新
+        NOT_FOUND,  // 记录不存在
+        CONFLICT    // 当前版本号与期望值不同
+    }
+}
@@ -0,0 +1,28 @@
+package com.banking.transactionservice.rollup;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * 时间汇总的粒度
+ */
+public enum RollupGranularity {
+    MINUTE(ChronoUnit.MINUTES),  // 按分钟
+    HOUR(ChronoUnit.HOURS),      // 按小时
+    DAY(ChronoUnit.DAYS);        // 按天
+
+    private final ChronoUnit unit;
+
+    RollupGranularity(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    /**
+     * 计算时间所在区间的起点
+     * @param timestamp 时间
+     * @return 向下取整到本粒度的时间
+     */
+    public LocalDateTime truncate(LocalDateTime timestamp) {
+        return timestamp.truncatedTo(unit);
+    }
+}
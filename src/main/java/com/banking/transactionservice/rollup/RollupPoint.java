@@ -0,0 +1,49 @@
+package com.banking.transactionservice.rollup;
+
+import com.banking.transactionservice.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 一个时间区间内的交易量
+ * @param start 区间起点
+ * @param creditCount 收入笔数
+ * @param creditAmount 收入金额合计
+ * @param debitCount 支出笔数
+ * @param debitAmount 支出金额合计
+ */
+public record RollupPoint(LocalDateTime start, long creditCount, BigDecimal creditAmount,
+                          long debitCount, BigDecimal debitAmount) {
+
+    /**
+     * 创建空区间
+     * @param start 区间起点
+     * @return 笔数和金额都为0的区间
+     */
+    static RollupPoint empty(LocalDateTime start) {
+        return new RollupPoint(start, 0, BigDecimal.ZERO, 0, BigDecimal.ZERO);
+    }
+
+    /**
+     * 计入或扣除一笔交易
+     * @param type 交易类型
+     * @param amount 交易金额，可以为null
+     * @param sign 1为计入，-1为扣除
+     * @return 更新后的区间
+     */
+    RollupPoint plus(TransactionType type, BigDecimal amount, int sign) {
+        BigDecimal delta = amount == null ? BigDecimal.ZERO : sign > 0 ? amount : amount.negate();
+        return type == TransactionType.CREDIT
+                ? new RollupPoint(start, creditCount + sign, creditAmount.add(delta), debitCount, debitAmount)
+                : new RollupPoint(start, creditCount, creditAmount, debitCount + sign, debitAmount.add(delta));
+    }
+
+    /**
+     * 判断区间内是否没有交易
+     * @return 两种类型的笔数都为0时返回true
+     */
+    boolean isEmpty() {
+        return creditCount == 0 && debitCount == 0;
+    }
+}
@@ -0,0 +1,237 @@
+package com.banking.transactionservice.rollup;
+
+import com.banking.transactionservice.model.Transaction;
+import com.banking.transactionservice.repository.TransactionChange;
+import com.banking.transactionservice.repository.TransactionChangeListener;
+import com.banking.transactionservice.repository.TransactionRepository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 按分钟、小时、天汇总的交易量时间序列
+ * 作为仓库的变更监听器增量维护：每次写入按交易时间戳找到所在区间，扣除变更前的记录、计入变更后的记录，
+ * 因此更新时间戳、金额或类型，以及删除交易都会修正对应区间。
+ * <p>
+ * 区间按交易时间戳而不是写入时间划分，迟到或补录的历史交易会计入它实际所在的区间；
+ * 每个粒度只保留最近一段时间（保留期）的区间，时间戳早于保留期的交易不计入，
+ * 过期区间在写入和查询时被清除，因此内存占用与交易数量无关。
+ * 时间戳晚于当前时间的交易同样按其时间戳计入，但只计入当前时间之后 horizon 以内的区间，更远的交易不计入，
+ * 因此未来区间的数量同样有上限。写入时校验的最大超前时间不超过 horizon，计入过的交易在之后的修改和删除时仍在范围内。
+ * <p>
+ * 每个区间是一个不可变的 {@link RollupPoint}，用CAS整体替换，读取到的笔数和金额总是一致的
+ * <p>
+ * 应先注册为监听器再调用 {@link #load} 初始化，初始化期间的写入不会丢失。初始化期间按ID记录已计入的版本，
+ * 遍历和变更通知谁先到谁计入，后到的一方据此跳过或只补上差额，同一条记录不会被计入两次
+ */
+public class TransactionRollups implements TransactionChangeListener {
+
+    private final Clock clock;
+    private final Duration horizon;
+    private final Map<RollupGranularity, Series> series;
+    private final AtomicBoolean loaded = new AtomicBoolean();
+    private volatile boolean loading;
+    private volatile Map<String, Long> countedVersions;
+
+    /**
+     * 构造函数
+     * @param retention 每个粒度的保留期，未配置的粒度不生成汇总
+     * @param horizon 计入的交易时间戳最多晚于当前时间多久
+     * @param clock 用于计算保留期的时钟
+     */
+    public TransactionRollups(Map<RollupGranularity, Duration> retention, Duration horizon, Clock clock) {
+        this.clock = clock;
+        this.horizon = horizon;
+        Map<RollupGranularity, Series> map = new EnumMap<>(RollupGranularity.class);
+        retention.forEach((granularity, duration) -> map.put(granularity, new Series(granularity, duration)));
+        this.series = Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * 从仓库现有数据初始化汇总
+     * 应在注册为监听器之后调用，只有第一次调用生效。初始化期间收到的变更与遍历按ID的版本对账；
+     * 初始化结束后只保留遍历期间被写入的ID的版本，供之后才送达的变更通知对账
+     * @param repository 交易仓库
+     */
+    public void load(TransactionRepository repository) {
+        if (!loaded.compareAndSet(false, true)) {
+            return;
+        }
+        Map<String, Long> versions = new ConcurrentHashMap<>();
+        countedVersions = versions;
+        loading = true;
+        long watermark = repository.currentSequence();
+        LocalDateTime now = LocalDateTime.now(clock);
+        repository.forEach(transaction -> versions.computeIfAbsent(transaction.getId(), id -> {
+            apply(transaction, 1, now);
+            return transaction.getVersion();
+        }));
+        loading = false;
+        versions.values().removeIf(version -> version <= watermark);
+        if (versions.isEmpty()) {
+            countedVersions = null;
+        }
+    }
+
+    /**
+     * 按变更修正所在区间
+     * @param change 交易变更
+     */
+    @Override
+    public void onChange(TransactionChange change) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        Map<String, Long> versions = countedVersions;
+        if (versions == null) {
+            apply(change, now);
+            return;
+        }
+        versions.compute(change.id(), (id, counted) -> reconcile(change, counted, now));
+    }
+
+    /**
+     * 初始化期间或之后按已计入的版本处理一条变更
+     * @param counted 该ID已计入汇总的记录的版本（删除时为删除变更的序号），没有记录时为null
+     * @return 处理后该ID已计入的版本，不再需要对账时为null
+     */
+    private Long reconcile(TransactionChange change, Long counted, LocalDateTime now) {
+        if (counted == null) {
+            if (!loading) {
+                apply(change, now);
+                return null;
+            }
+            // 遍历还没有计入该ID，变更前的记录不在汇总中，之后遍历到该ID时跳过
+            if (change.current() != null) {
+                apply(change.current(), 1, now);
+            }
+            return version(change);
+        }
+        long next = version(change);
+        if (counted >= next) {
+            // 遍历已经计入了变更后或更新的记录
+            return counted;
+        }
+        if (change.previous() != null && change.previous().getVersion() == counted) {
+            apply(change.previous(), -1, now);
+        }
+        if (change.current() != null) {
+            apply(change.current(), 1, now);
+        }
+        return next;
+    }
+
+    private static long version(TransactionChange change) {
+        return change.current() != null ? change.current().getVersion() : change.sequence();
+    }
+
+    private void apply(TransactionChange change, LocalDateTime now) {
+        if (change.previous() != null) {
+            apply(change.previous(), -1, now);
+        }
+        if (change.current() != null) {
+            apply(change.current(), 1, now);
+        }
+    }
+
+    /**
+     * 查询时间序列
+     * 只读取区间索引，不访问仓库；没有交易的区间不出现在结果中
+     * @param granularity 汇总粒度
+     * @param from 起始时间（包含所在区间），为null时从保留期起点开始
+     * @param to 结束时间（不包含），为null时不限制
+     * @return 按区间起点排序的数据点
+     * @throws IllegalArgumentException 当该粒度未启用时抛出
+     */
+    public List<RollupPoint> query(RollupGranularity granularity, LocalDateTime from, LocalDateTime to) {
+        Series target = series.get(granularity);
+        if (target == null) {
+            throw new IllegalArgumentException("Rollup granularity not enabled: " + granularity);
+        }
+        return target.query(from, to, LocalDateTime.now(clock));
+    }
+
+    private void apply(Transaction transaction, int sign, LocalDateTime now) {
+        if (transaction.getTimestamp() == null || transaction.getType() == null
+                || transaction.getTimestamp().isAfter(now.plus(horizon))) {
+            return;
+        }
+        for (Series target : series.values()) {
+            target.apply(transaction, sign, now);
+        }
+    }
+
+    /**
+     * 单个粒度的区间序列
+     */
+    private static final class Series {
+        private final RollupGranularity granularity;
+        private final Duration retention;
+        private final NavigableMap<LocalDateTime, AtomicReference<RollupPoint>> buckets =
+                new ConcurrentSkipListMap<>();
+
+        Series(RollupGranularity granularity, Duration retention) {
+            this.granularity = granularity;
+            this.retention = retention;
+        }
+
+        /**
+         * 计入或扣除一笔交易
+         * 扣除时区间不存在说明计入后已过期，无需处理
+         */
+        void apply(Transaction transaction, int sign, LocalDateTime now) {
+            LocalDateTime cutoff = expire(now);
+            LocalDateTime start = granularity.truncate(transaction.getTimestamp());
+            if (start.isBefore(cutoff)) {
+                return;
+            }
+            AtomicReference<RollupPoint> bucket = sign > 0
+                    ? buckets.computeIfAbsent(start, key -> new AtomicReference<>(RollupPoint.empty(key)))
+                    : buckets.get(start);
+            if (bucket != null) {
+                bucket.updateAndGet(point -> point.plus(transaction.getType(), transaction.getAmount(), sign));
+            }
+        }
+
+        List<RollupPoint> query(LocalDateTime from, LocalDateTime to, LocalDateTime now) {
+            LocalDateTime cutoff = expire(now);
+            LocalDateTime start = from == null || from.isBefore(cutoff) ? cutoff : granularity.truncate(from);
+            if (to != null && !start.isBefore(to)) {
+                return List.of();
+            }
+            NavigableMap<LocalDateTime, AtomicReference<RollupPoint>> range = to == null
+                    ? buckets.tailMap(start, true)
+                    : buckets.subMap(start, true, to, false);
+            List<RollupPoint> points = new ArrayList<>();
+            for (AtomicReference<RollupPoint> bucket : range.values()) {
+                RollupPoint point = bucket.get();
+                if (!point.isEmpty()) {
+                    points.add(point);
+                }
+            }
+            return points;
+        }
+
+        /**
+         * 删除保留期之前的区间
+         * @return 保留期内第一个区间的起点
+         */
+        private LocalDateTime expire(LocalDateTime now) {
+            LocalDateTime cutoff = granularity.truncate(now.minus(retention));
+            Map.Entry<LocalDateTime, AtomicReference<RollupPoint>> first = buckets.firstEntry();
+            if (first != null && first.getKey().isBefore(cutoff)) {
+                buckets.headMap(cutoff, false).clear();
+            }
+            return cutoff;
+        }
+    }
+}
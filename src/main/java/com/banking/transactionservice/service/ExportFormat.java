@@ -0,0 +1,34 @@
+package com.banking.transactionservice.service;
+
+/**
+ * 交易导出格式
+ */
+public enum ExportFormat {
+    NDJSON("application/x-ndjson;charset=UTF-8", "ndjson"),  // 每行一个JSON对象
+    CSV("text/csv;charset=UTF-8", "csv"),                     // 带表头的逗号分隔值
+    CBOR("application/cbor-seq", "cbor");                     // 首尾相接的CBOR对象（RFC 8742）
+
+    private final String contentType;
+    private final String fileExtension;
+
+    ExportFormat(String contentType, String fileExtension) {
+        this.contentType = contentType;
+        this.fileExtension = fileExtension;
+    }
+
+    /**
+     * 获取响应的内容类型
+     * @return MIME类型，文本格式带有字符集参数
+     */
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * 获取导出文件的扩展名
+     * @return 扩展名（不含点号）
+     */
+    public String getFileExtension() {
+        return fileExtension;
+    }
+}
@@ -0,0 +1,57 @@
+package com.banking.transactionservice.service;
+
+import com.banking.transactionservice.exception.BadRequestException;
+import com.banking.transactionservice.repository.TransactionKey;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 分页游标编解码工具
+ * 游标是排序键(时间戳, ID)的URL安全Base64编码，对客户端不透明
+ */
+final class TransactionCursor {
+
+    private static final char SEPARATOR = '|';
+
+    private TransactionCursor() {
+    }
+
+    /**
+     * 将排序键编码为游标
+     * @param key 排序键
+     * @return 游标字符串
+     */
+    static String encode(TransactionKey key) {
+        String timestamp = key.timestamp() == null ? "" : key.timestamp().toString();
+        String raw = timestamp + SEPARATOR + key.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 将游标解码为排序键
+     * @param cursor 游标字符串，为空时表示从头开始
+     * @return 排序键，游标为空时返回null
+     * @throws BadRequestException 当游标格式不正确时抛出
+     */
+    static TransactionKey decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new BadRequestException("Invalid cursor: " + cursor);
+            }
+            String timestamp = raw.substring(0, separator);
+            return new TransactionKey(
+                    timestamp.isEmpty() ? null : LocalDateTime.parse(timestamp),
+                    raw.substring(separator + 1));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.banking.transactionservice.service;
+
+import com.banking.transactionservice.dto.TransactionDTO;
+import com.banking.transactionservice.model.Transaction;
+import com.banking.transactionservice.repository.TransactionFilter;
+import com.banking.transactionservice.repository.TransactionRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 交易导出器
+ * 直接从仓库索引逐条读取交易，转换为DTO后立即写出，不会在内存中构建结果列表，
+ * 导出期间的堆占用只取决于输出缓冲区大小，与交易总数无关
+ */
+@Component
+public class TransactionExporter {
+
+    private static final String CSV_HEADER = "id,amount,description,timestamp,type,category,status";
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionMapper transactionMapper;
+    private final ObjectWriter jsonWriter;
+    private final ObjectWriter cborWriter;
+
+    /**
+     * @param transactionRepository 交易仓库
+     * @param transactionMapper DTO转换器
+     * @param objectMapper JSON使用的ObjectMapper
+     * @param cborConverter CBOR消息转换器，导出与API响应使用相同的CBOR编码
+     */
+    @Autowired
+    public TransactionExporter(TransactionRepository transactionRepository, TransactionMapper transactionMapper,
+                               ObjectMapper objectMapper, MappingJackson2CborHttpMessageConverter cborConverter) {
+        this.transactionRepository = transactionRepository;
+        this.transactionMapper = transactionMapper;
+        // 逐条写入时不刷新输出流，由底层缓冲区决定何时发送
+        this.jsonWriter = objectMapper.writerFor(TransactionDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.cborWriter = cborConverter.getObjectMapper().writerFor(TransactionDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * 将满足条件的交易按(时间戳, ID)顺序写入输出流
+     * 输出流不会被关闭
+     * @param filter 查询条件
+     * @param format 导出格式
+     * @param out 输出流
+     * @return 写出的记录数
+     * @throws IOException 当写入失败（例如客户端断开连接）时抛出
+     */
+    public long export(TransactionFilter filter, ExportFormat format, OutputStream out) throws IOException {
+        try {
+            return switch (format) {
+                case NDJSON -> writeNdjson(filter, out);
+                case CSV -> writeCsv(filter, out);
+                case CBOR -> writeCbor(filter, out);
+            };
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private long writeNdjson(TransactionFilter filter, OutputStream out) throws IOException {
+        long[] count = new long[1];
+        try (JsonGenerator generator = jsonWriter.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            transactionRepository.forEach(filter, transaction -> {
+                try {
+                    jsonWriter.writeValue(generator, transactionMapper.toDTO(transaction));
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                count[0]++;
+            });
+        }
+        return count[0];
+    }
+
+    /**
+     * 逐条写出CBOR对象，对象之间没有分隔符，构成CBOR序列
+     */
+    private long writeCbor(TransactionFilter filter, OutputStream out) throws IOException {
+        long[] count = new long[1];
+        try (JsonGenerator generator = cborWriter.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            transactionRepository.forEach(filter, transaction -> {
+                try {
+                    cborWriter.writeValue(generator, transactionMapper.toDTO(transaction));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                count[0]++;
+            });
+        }
+        return count[0];
+    }
+
+    private long writeCsv(TransactionFilter filter, OutputStream out) throws IOException {
+        long[] count = new long[1];
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        transactionRepository.forEach(filter, transaction -> {
+            try {
+                writeCsvRow(writer, transaction);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            count[0]++;
+        });
+        writer.flush();
+        return count[0];
+    }
+
+    private static void writeCsvRow(Writer writer, Transaction transaction) throws IOException {
+        writeCsvField(writer, transaction.getId());
+        writer.write(',');
+        writeCsvField(writer, transaction.getAmount() == null ? null : transaction.getAmount().toPlainString());
+        writer.write(',');
+        writeCsvField(writer, transaction.getDescription());
+        writer.write(',');
+        writeCsvField(writer, transaction.getTimestamp() == null ? null : transaction.getTimestamp().toString());
+        writer.write(',');
+        writeCsvField(writer, transaction.getType() == null ? null : transaction.getType().name());
+        writer.write(',');
+        writeCsvField(writer, transaction.getCategory());
+        writer.write(',');
+        writeCsvField(writer, transaction.getStatus() == null ? null : transaction.getStatus().name());
+        writer.write('\n');
+    }
+
+    /**
+     * 按RFC 4180写入单个字段，包含逗号、引号或换行时加引号并转义
+     */
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -1,16 +1,36 @@
 package com.banking.transactionservice.service;
 
 import com.banking.transactionservice.dto.TransactionDTO;
+import com.banking.transactionservice.model.IdGenerator;
 import com.banking.transactionservice.model.Transaction;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 /**
  * 交易对象映射器
- * 负责在DTO和实体对象之间进行转换
+ * 负责在DTO和实体对象之间进行转换，并为没有ID的新交易生成ID
  */
 @Component
 public class TransactionMapper {
 
+    private final IdGenerator idGenerator;
+
+    /**
+     * 创建使用随机UUID的映射器
+     */
+    public TransactionMapper() {
+        this(IdGenerator.RANDOM_UUID);
+    }
+
+    /**
+     * 创建使用指定ID生成策略的映射器
+     * @param idGenerator ID生成器
+     */
+    @Autowired
+    public TransactionMapper(IdGenerator idGenerator) {
+        this.idGenerator = idGenerator;
+    }
+
     /**
      * 将实体对象转换为DTO
      * @param transaction 交易实体
@@ -29,12 +49,14 @@ public class TransactionMapper {
         dto.setType(transaction.getType());
         dto.setCategory(transaction.getCategory());
         dto.setStatus(transaction.getStatus());
+        dto.setVersion(transaction.getVersion());
         
         return dto;
     }
 
     /**
      * 将DTO转换为实体对象
+     * DTO中的版本号不会写入实体，版本号只由仓库分配
      * @param dto 交易DTO
      * @return 交易实体
      */
@@ -43,7 +65,7 @@ public class TransactionMapper {
             return null;
         }
 
-        Transaction transaction = new Transaction();
+        Transaction transaction = new Transaction(idGenerator);
         if (dto.getId() != null) {
             transaction.setId(dto.getId());
         }
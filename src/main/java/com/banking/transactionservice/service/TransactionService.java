@@ -1,67 +1,215 @@
 package com.banking.transactionservice.service;
 
+import com.banking.transactionservice.cache.CachedPage;
+import com.banking.transactionservice.cache.CachedTransaction;
+import com.banking.transactionservice.cache.EntityTags;
+import com.banking.transactionservice.cache.IdempotencyCache;
+import com.banking.transactionservice.cache.IdempotentResult;
+import com.banking.transactionservice.cache.QueryCacheStats;
+import com.banking.transactionservice.cache.TransactionQueryCache;
+import com.banking.transactionservice.dto.BatchItemResultDTO;
+import com.banking.transactionservice.dto.BatchResultDTO;
+import com.banking.transactionservice.dto.CursorPageDTO;
 import com.banking.transactionservice.dto.TransactionDTO;
+import com.banking.transactionservice.exception.BadRequestException;
 import com.banking.transactionservice.exception.ResourceNotFoundException;
+import com.banking.transactionservice.exception.VersionConflictException;
 import com.banking.transactionservice.model.Transaction;
+import com.banking.transactionservice.repository.TransactionFilter;
+import com.banking.transactionservice.repository.TransactionKey;
 import com.banking.transactionservice.repository.TransactionRepository;
+import com.banking.transactionservice.repository.TransactionSummary;
+import com.banking.transactionservice.repository.UpdateResult;
+import com.banking.transactionservice.rollup.RollupGranularity;
+import com.banking.transactionservice.rollup.RollupPoint;
+import com.banking.transactionservice.rollup.TransactionRollups;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
 
 @Service
 public class TransactionService {
 
+    /**
+     * 单次批量请求允许的最大记录数
+     */
+    public static final int MAX_BATCH_SIZE = 10_000;
+
+    /**
+     * 幂等键的最大长度
+     */
+    public static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionService.class);
+
     private final TransactionRepository transactionRepository;
     private final TransactionMapper transactionMapper;
+    private final Validator validator;
+    private final TransactionQueryCache queryCache;
+    private final TransactionRollups rollups;
+    private final IdempotencyCache idempotencyCache;
+    private final TransactionWritePipeline writePipeline;
 
+    public TransactionService(TransactionRepository transactionRepository, TransactionMapper transactionMapper,
+                              Validator validator, TransactionQueryCache queryCache, TransactionRollups rollups,
+                              IdempotencyCache idempotencyCache) {
+        this(transactionRepository, transactionMapper, validator, queryCache, rollups, idempotencyCache, null);
+    }
+
+    /**
+     * 创建交易服务
+     * @param writePipeline 新建交易的写入流水线，仅在 transaction.write-pipeline.enabled=true 时存在，为null时直接写入仓库
+     */
     @Autowired
-    public TransactionService(TransactionRepository transactionRepository, TransactionMapper transactionMapper) {
+    public TransactionService(TransactionRepository transactionRepository, TransactionMapper transactionMapper,
+                              Validator validator, TransactionQueryCache queryCache, TransactionRollups rollups,
+                              IdempotencyCache idempotencyCache, @Nullable TransactionWritePipeline writePipeline) {
         this.transactionRepository = transactionRepository;
         this.transactionMapper = transactionMapper;
+        this.validator = validator;
+        this.queryCache = queryCache;
+        this.rollups = rollups;
+        this.idempotencyCache = idempotencyCache;
+        this.writePipeline = writePipeline;
     }
 
+    /**
+     * 创建交易
+     * 映射和ID生成在调用线程上完成；启用写入流水线时由写入线程与其他并发请求合并为一批写入，否则直接写入仓库
+     * @param transactionDTO 交易DTO
+     * @return 创建的交易
+     */
     public TransactionDTO createTransaction(TransactionDTO transactionDTO) {
         Transaction transaction = transactionMapper.toEntity(transactionDTO);
-        Transaction saved = transactionRepository.save(transaction);
+        Transaction saved = writePipeline != null
+                ? writePipeline.save(transaction)
+                : transactionRepository.save(transaction);
         return transactionMapper.toDTO(saved);
     }
 
     /**
-     * 获取单个交易
+     * 以幂等键创建交易
+     * 同一个键的重复请求返回首次创建的结果而不再写入，并发的重复请求等待同一次创建
+     * @param transactionDTO 交易DTO
+     * @param idempotencyKey 客户端提供的幂等键
+     * @return 创建的交易，以及它是否为先前结果的重放
+     * @throws BadRequestException 当幂等键为空或超过 {@link #MAX_IDEMPOTENCY_KEY_LENGTH} 个字符时抛出
+     * @throws com.banking.transactionservice.exception.IdempotencyKeyConflictException 当该键已用于内容不同的请求时抛出
+     */
+    public IdempotentResult createTransaction(TransactionDTO transactionDTO, String idempotencyKey) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new BadRequestException(
+                    "Idempotency key must be 1 to " + MAX_IDEMPOTENCY_KEY_LENGTH + " non-blank characters");
+        }
+        return idempotencyCache.execute(idempotencyKey, transactionDTO, () -> createTransaction(transactionDTO));
+    }
+
+    /**
+     * 批量创建交易
+     * 逐条校验后，把所有合法记录通过一次 {@link TransactionRepository#saveAll} 写入，
+     * 持久化等监听器只需为整批提交一次；非法记录不会影响其他记录。
+     * 单条记录转换或写入失败时该条报告为FAILED，其他记录照常写入
+     * @param transactionDTOs 交易DTO列表
+     * @return 每条记录的处理结果，顺序与请求一致
+     * @throws BadRequestException 当批量为空或超过 {@link #MAX_BATCH_SIZE} 时抛出
+     */
+    public BatchResultDTO createTransactions(List<TransactionDTO> transactionDTOs) {
+        checkBatchSize(transactionDTOs);
+        BatchItemResultDTO[] results = new BatchItemResultDTO[transactionDTOs.size()];
+        List<Transaction> valid = new ArrayList<>(transactionDTOs.size());
+        List<Integer> positions = new ArrayList<>(transactionDTOs.size());
+        for (int i = 0; i < results.length; i++) {
+            TransactionDTO dto = transactionDTOs.get(i);
+            Map<String, String> errors = validate(dto);
+            if (!errors.isEmpty()) {
+                results[i] = invalid(i, dto, errors);
+                continue;
+            }
+            try {
+                valid.add(transactionMapper.toEntity(dto));
+            } catch (RuntimeException e) {
+                results[i] = failed(i, dto.getId(), e);
+                continue;
+            }
+            positions.add(i);
+        }
+        List<Transaction> saved = transactionRepository.saveAll(valid, (e, j) -> {
+            int index = positions.get(j);
+            results[index] = failed(index, valid.get(j).getId(), e);
+        });
+        for (int j = 0; j < saved.size(); j++) {
+            Transaction transaction = saved.get(j);
+            if (transaction == null) {
+                continue;
+            }
+            int index = positions.get(j);
+            results[index] = new BatchItemResultDTO(index, BatchItemResultDTO.Status.CREATED,
+                    transaction.getId(), transactionMapper.toDTO(transaction), null);
+        }
+        return new BatchResultDTO(Arrays.asList(results));
+    }
+
+    /**
+     * 获取单个交易及其ETag
+     * 结果连同ETag一起保存在transactions缓存中，命中时既不读取仓库也不做映射；
+     * 写入不需要在这里声明失效，缓存作为仓库的变更监听器处理，见 {@link com.banking.transactionservice.cache.TransactionNearCache}
      * @param id 交易ID
-     * @return 交易DTO
+     * @return 交易DTO及其版本号对应的ETag
      * @throws ResourceNotFoundException 当交易不存在时抛出
      */
-    @Cacheable(value = "transactions", key = "#id", unless = "#result == null")
-    public TransactionDTO getTransaction(String id) {
+    @Cacheable(value = "transactions", key = "#id", sync = true)
+    public CachedTransaction getCachedTransaction(String id) {
         Transaction transaction = transactionRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Transaction not found with ID: " + id));
-        return transactionMapper.toDTO(transaction);
+        return new CachedTransaction(transactionMapper.toDTO(transaction), EntityTags.of(transaction.getVersion()));
     }
 
-    @Caching(evict = {
-            @CacheEvict(value = "transactions", key = "#id"),
-            @CacheEvict(value = "allTransactions", allEntries = true)
-    })
+    /**
+     * 更新交易
+     * DTO带有版本号时作为期望版本进行条件更新，否则只要求交易存在
+     * @param id 交易ID
+     * @param transactionDTO 新的交易内容
+     * @return 更新后的交易DTO
+     * @throws ResourceNotFoundException 当交易不存在时抛出
+     * @throws VersionConflictException 当交易的当前版本与DTO中的版本号不一致时抛出
+     */
     public TransactionDTO updateTransaction(String id, TransactionDTO transactionDTO) {
-        if (!transactionRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Transaction not found with ID: " + id);
-        }
-        
+        return updateTransaction(id, transactionDTO, transactionDTO.getVersion());
+    }
+
+    /**
+     * 条件更新交易
+     * 版本比较和写入在仓库中原子完成，并发更新同一交易时只有一个能基于同一版本成功
+     * @param id 交易ID
+     * @param transactionDTO 新的交易内容
+     * @param expectedVersion 期望的当前版本号，为null时只要求交易存在
+     * @return 更新后的交易DTO
+     * @throws ResourceNotFoundException 当交易不存在时抛出
+     * @throws VersionConflictException 当交易的当前版本与期望不一致时抛出
+     */
+    public TransactionDTO updateTransaction(String id, TransactionDTO transactionDTO, Long expectedVersion) {
         Transaction transaction = transactionMapper.toEntity(transactionDTO);
         transaction.setId(id);
-        Transaction updated = transactionRepository.save(transaction);
+        Transaction updated = transactionRepository
+                .update(transaction, expectedVersion == null ? TransactionRepository.ANY_VERSION : expectedVersion)
+                .orElseThrow(() -> new ResourceNotFoundException("Transaction not found with ID: " + id));
         return transactionMapper.toDTO(updated);
     }
 
-    @Caching(evict = {
-            @CacheEvict(value = "transactions", key = "#id"),
-            @CacheEvict(value = "allTransactions", allEntries = true)
-    })
     public void deleteTransaction(String id) {
         if (!transactionRepository.existsById(id)) {
             throw new ResourceNotFoundException("Transaction not found with ID: " + id);
@@ -69,15 +217,251 @@ public class TransactionService {
         transactionRepository.deleteById(id);
     }
 
-    @Cacheable(value = "allTransactions")
+    /**
+     * 批量更新交易
+     * 每条DTO必须带有ID；合法记录通过一次 {@link TransactionRepository#updateAll} 条件写入，
+     * 与单条更新一样，存在性和DTO中的版本号都在写入时原子判断：
+     * 不存在（包括校验之后被并发删除）的交易返回NOT_FOUND，版本号不一致的返回CONFLICT
+     * @param transactionDTOs 带ID的交易DTO列表
+     * @return 每条记录的处理结果，顺序与请求一致
+     * @throws BadRequestException 当批量为空或超过 {@link #MAX_BATCH_SIZE} 时抛出
+     */
+    public BatchResultDTO updateTransactions(List<TransactionDTO> transactionDTOs) {
+        checkBatchSize(transactionDTOs);
+        BatchItemResultDTO[] results = new BatchItemResultDTO[transactionDTOs.size()];
+        List<Transaction> valid = new ArrayList<>(transactionDTOs.size());
+        long[] expectedVersions = new long[transactionDTOs.size()];
+        List<Integer> positions = new ArrayList<>(transactionDTOs.size());
+        for (int i = 0; i < results.length; i++) {
+            TransactionDTO dto = transactionDTOs.get(i);
+            Map<String, String> errors = validate(dto);
+            if (dto != null && dto.getId() == null) {
+                errors.put("id", "ID不能为空");
+            }
+            if (!errors.isEmpty()) {
+                results[i] = invalid(i, dto, errors);
+            } else {
+                expectedVersions[valid.size()] = dto.getVersion() == null
+                        ? TransactionRepository.ANY_VERSION
+                        : dto.getVersion();
+                valid.add(transactionMapper.toEntity(dto));
+                positions.add(i);
+            }
+        }
+        List<UpdateResult> updated = transactionRepository.updateAll(valid,
+                Arrays.copyOf(expectedVersions, valid.size()));
+        for (int j = 0; j < updated.size(); j++) {
+            UpdateResult result = updated.get(j);
+            int index = positions.get(j);
+            String id = transactionDTOs.get(index).getId();
+            results[index] = switch (result.status()) {
+                case UPDATED -> new BatchItemResultDTO(index, BatchItemResultDTO.Status.UPDATED,
+                        id, transactionMapper.toDTO(result.transaction()), null);
+                case NOT_FOUND -> new BatchItemResultDTO(index, BatchItemResultDTO.Status.NOT_FOUND, id, null, null);
+                case CONFLICT -> new BatchItemResultDTO(index, BatchItemResultDTO.Status.CONFLICT, id, null, null);
+            };
+        }
+        return new BatchResultDTO(Arrays.asList(results));
+    }
+
+    /**
+     * 批量删除交易
+     * @param ids 交易ID列表
+     * @return 每条记录的处理结果，顺序与请求一致
+     * @throws BadRequestException 当批量为空或超过 {@link #MAX_BATCH_SIZE} 时抛出
+     */
+    public BatchResultDTO deleteTransactions(List<String> ids) {
+        checkBatchSize(ids);
+        Set<String> deleted = Set.copyOf(transactionRepository.deleteAllById(ids));
+        List<BatchItemResultDTO> results = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            String id = ids.get(i);
+            BatchItemResultDTO.Status status = deleted.contains(id)
+                    ? BatchItemResultDTO.Status.DELETED
+                    : BatchItemResultDTO.Status.NOT_FOUND;
+            results.add(new BatchItemResultDTO(i, status, id, null, null));
+        }
+        return new BatchResultDTO(results);
+    }
+
+    /**
+     * 分页获取交易
+     * 结果由查询结果缓存保存，交易变更时只有受影响的页会失效
+     * @param page 页码
+     * @param size 每页记录数
+     * @return 交易DTO列表
+     */
     public List<TransactionDTO> getAllTransactions(int page, int size) {
-        List<Transaction> transactions = transactionRepository.findAll(page, size);
-        return transactions.stream()
+        return getCachedPage(TransactionFilter.NONE, page, size).content();
+    }
+
+    /**
+     * 按条件分页获取交易
+     * 通过二级索引只读取满足条件的记录，耗时与结果数量成正比；结果同样由查询结果缓存保存
+     * @param filter 查询条件（类别、类型、状态）
+     * @param page 页码
+     * @param size 每页记录数
+     * @return 交易DTO列表
+     */
+    public List<TransactionDTO> getTransactions(TransactionFilter filter, int page, int size) {
+        return getCachedPage(filter, page, size).content();
+    }
+
+    /**
+     * 按条件分页获取交易及该页的ETag
+     * 该页与ETag一起由查询结果缓存保存，条件请求命中时不需要映射或序列化
+     * @param filter 查询条件，{@link TransactionFilter#NONE} 表示不过滤
+     * @param page 页码
+     * @param size 每页记录数
+     * @return 交易DTO列表及ETag
+     */
+    public CachedPage getCachedPage(TransactionFilter filter, int page, int size) {
+        Supplier<List<Transaction>> loader = filter.isEmpty()
+                ? () -> transactionRepository.findAll(page, size)
+                : () -> transactionRepository.findAll(filter, page, size);
+        return queryCache.getCachedPage(filter, page, size, loader, transactionMapper::toDTO);
+    }
+
+    /**
+     * 游标分页获取交易
+     * 按(时间戳, ID)顺序返回游标之后的记录，每页耗时与分页深度无关，
+     * 并发插入或删除不会导致已遍历过的记录重复或遗漏
+     * @param cursor 上一页返回的游标，为空时从第一条记录开始
+     * @param size 每页记录数
+     * @return 本页记录及下一页游标
+     * @throws BadRequestException 当游标或页大小无效时抛出
+     */
+    public CursorPageDTO getTransactionsAfter(String cursor, int size) {
+        return getTransactionsAfter(TransactionFilter.NONE, cursor, size);
+    }
+
+    /**
+     * 按条件游标分页获取交易
+     * @param filter 查询条件（类别、类型、状态）
+     * @param cursor 上一页返回的游标，为空时从第一条记录开始
+     * @param size 每页记录数
+     * @return 本页记录及下一页游标
+     * @throws BadRequestException 当游标或页大小无效时抛出
+     */
+    public CursorPageDTO getTransactionsAfter(TransactionFilter filter, String cursor, int size) {
+        if (size <= 0) {
+            throw new BadRequestException("Page size must be positive: " + size);
+        }
+        TransactionKey after = TransactionCursor.decode(cursor);
+        List<Transaction> transactions = transactionRepository.findAfter(filter, after, size + 1);
+        boolean hasMore = transactions.size() > size;
+        List<Transaction> page = hasMore ? transactions.subList(0, size) : transactions;
+        String nextCursor = hasMore ? TransactionCursor.encode(TransactionKey.of(page.get(size - 1))) : null;
+        List<TransactionDTO> content = page.stream()
                 .map(transactionMapper::toDTO)
                 .toList();
+        return new CursorPageDTO(content, nextCursor);
     }
-    
+
+    /**
+     * 按时间范围获取交易
+     * @param from 起始时间（包含），为null时不限制
+     * @param to 结束时间（不包含），为null时不限制
+     * @param limit 最多返回的记录数
+     * @return 按时间排序的交易DTO列表
+     * @throws BadRequestException 当时间范围或数量限制无效时抛出
+     */
+    public List<TransactionDTO> getTransactionsBetween(LocalDateTime from, LocalDateTime to, int limit) {
+        return getTransactionsBetween(TransactionFilter.NONE, from, to, limit);
+    }
+
+    /**
+     * 按条件和时间范围获取交易
+     * @param filter 查询条件（类别、类型、状态）
+     * @param from 起始时间（包含），为null时不限制
+     * @param to 结束时间（不包含），为null时不限制
+     * @param limit 最多返回的记录数
+     * @return 按时间排序的交易DTO列表
+     * @throws BadRequestException 当时间范围或数量限制无效时抛出
+     */
+    public List<TransactionDTO> getTransactionsBetween(TransactionFilter filter, LocalDateTime from,
+                                                       LocalDateTime to, int limit) {
+        if (limit <= 0) {
+            throw new BadRequestException("Limit must be positive: " + limit);
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new BadRequestException("'from' must not be after 'to'");
+        }
+        return transactionRepository.findByTimestampBetween(filter, from, to, limit).stream()
+                .map(transactionMapper::toDTO)
+                .toList();
+    }
+
     public long countTransactions() {
         return transactionRepository.count();
     }
+
+    /**
+     * 获取按类别和交易类型的金额汇总
+     * 汇总由仓库随写入增量维护，不会遍历交易数据
+     * @return 笔数、合计、最小和最大金额
+     */
+    public TransactionSummary getSummary() {
+        return transactionRepository.summarize();
+    }
+
+    /**
+     * 获取按时间区间汇总的交易量
+     * 从增量维护的时间汇总读取，不会遍历交易数据
+     * @param granularity 汇总粒度
+     * @param from 起始时间（包含所在区间），为null时从保留期起点开始
+     * @param to 结束时间（不包含），为null时不限制
+     * @return 按区间起点排序、至少有一笔交易的区间
+     * @throws BadRequestException 当时间范围无效时抛出
+     */
+    public List<RollupPoint> getRollups(RollupGranularity granularity, LocalDateTime from, LocalDateTime to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new BadRequestException("'from' must not be after 'to'");
+        }
+        return rollups.query(granularity, from, to);
+    }
+
+    /**
+     * 获取分页查询结果缓存的统计信息
+     * @return 命中、未命中、失效等计数
+     */
+    public QueryCacheStats getQueryCacheStats() {
+        return queryCache.stats();
+    }
+
+    private static void checkBatchSize(List<?> batch) {
+        if (batch == null || batch.isEmpty()) {
+            throw new BadRequestException("Batch must contain at least one item");
+        }
+        if (batch.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("Batch size " + batch.size() + " exceeds limit " + MAX_BATCH_SIZE);
+        }
+    }
+
+    /**
+     * 使用Bean Validation校验单条DTO
+     * @return 字段名到错误信息的映射，合法时为空
+     */
+    private Map<String, String> validate(TransactionDTO dto) {
+        Map<String, String> errors = new LinkedHashMap<>();
+        if (dto == null) {
+            errors.put("transaction", "交易不能为空");
+            return errors;
+        }
+        for (ConstraintViolation<TransactionDTO> violation : validator.validate(dto)) {
+            errors.put(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+        return errors;
+    }
+
+    private static BatchItemResultDTO invalid(int index, TransactionDTO dto, Map<String, String> errors) {
+        return new BatchItemResultDTO(index, BatchItemResultDTO.Status.INVALID,
+                dto == null ? null : dto.getId(), null, errors);
+    }
+
+    private static BatchItemResultDTO failed(int index, String id, RuntimeException e) {
+        log.warn("Failed to create transaction {} at batch index {}", id, index, e);
+        return new BatchItemResultDTO(index, BatchItemResultDTO.Status.FAILED, id, null,
+                Map.of("error", String.valueOf(e.getMessage())));
+    }
 } 
\ No newline at end of file
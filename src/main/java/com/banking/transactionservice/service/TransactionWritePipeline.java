@@ -0,0 +1,177 @@
+package com.banking.transactionservice.service;
+
+import com.banking.transactionservice.model.Transaction;
+import com.banking.transactionservice.repository.TransactionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 新建交易的单写入线程流水线
+ * 请求线程完成映射和ID生成后，把交易放入无锁的多生产者队列并等待自己的Future；
+ * 唯一的写入线程每次取出队列中已有的全部请求（不超过max-batch-size），通过一次 {@link TransactionRepository#saveAll}
+ * 写入，索引在同一线程中连续更新，预写日志、缓存失效、变更订阅和复制等监听器对整批只处理一次，
+ * 同步提交模式下整批只等待一次fsync。写入线程忙于上一批时新请求在队列中累积，负载越高批次越大。
+ * <p>
+ * 队列中的请求数达到queue-capacity时，新请求直接在调用线程上写入仓库，不会无限排队，也不会失败
+ */
+public class TransactionWritePipeline implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionWritePipeline.class);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final TransactionRepository repository;
+    private final int queueCapacity;
+    private final int maxBatchSize;
+    private final Queue<PendingCreate> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Thread writer;
+    private final DistributionSummary batchSizes;
+    private final Counter overflows;
+    private volatile boolean running = true;
+    private volatile boolean parked;
+
+    /**
+     * @param repository 交易仓库
+     * @param queueCapacity 队列中等待写入的最大请求数
+     * @param maxBatchSize 单批写入的最大请求数
+     * @param registry 指标注册表
+     */
+    public TransactionWritePipeline(TransactionRepository repository, int queueCapacity, int maxBatchSize,
+                                    MeterRegistry registry) {
+        this.repository = repository;
+        this.queueCapacity = queueCapacity;
+        this.maxBatchSize = maxBatchSize;
+        Gauge.builder("transaction.pipeline.queue.size", pending, AtomicInteger::get)
+                .description("The number of creates waiting for the write pipeline")
+                .register(registry);
+        this.batchSizes = DistributionSummary.builder("transaction.pipeline.batch.size")
+                .description("The number of transactions written by the write pipeline in one batch")
+                .register(registry);
+        this.overflows = Counter.builder("transaction.pipeline.overflows")
+                .description("The number of creates written on the calling thread because the pipeline queue was full")
+                .register(registry);
+        this.writer = new Thread(this::runWriter, "transaction-writer");
+        this.writer.start();
+    }
+
+    /**
+     * 保存交易，等待所在的批次写入完成后返回
+     * @param transaction 待保存的交易对象
+     * @return 保存后的交易对象（仓库持有的副本，不应再修改）
+     */
+    public Transaction save(Transaction transaction) {
+        if (!running || pending.incrementAndGet() > queueCapacity) {
+            if (running) {
+                pending.decrementAndGet();
+                overflows.increment();
+            }
+            return repository.save(transaction);
+        }
+        PendingCreate create = new PendingCreate(transaction);
+        queue.offer(create);
+        if (!running && queue.remove(create)) {
+            // close() 在上面的检查之后开始，写入线程可能已经看到空队列并退出，由调用线程自己写入；
+            // 移除失败说明请求已被写入线程取出，会随所在批次完成
+            pending.decrementAndGet();
+            return repository.save(transaction);
+        }
+        if (parked) {
+            LockSupport.unpark(writer);
+        }
+        try {
+            return create.done.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 写完队列中剩余的请求后停止写入线程，之后的请求直接写入仓库
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runWriter() {
+        List<PendingCreate> batch = new ArrayList<>(maxBatchSize);
+        List<Transaction> transactions = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            PendingCreate create;
+            while (batch.size() < maxBatchSize && (create = queue.poll()) != null) {
+                batch.add(create);
+                transactions.add(create.transaction);
+            }
+            if (batch.isEmpty()) {
+                awaitWork();
+                continue;
+            }
+            pending.addAndGet(-batch.size());
+            commit(batch, transactions);
+            batch.clear();
+            transactions.clear();
+        }
+    }
+
+    /**
+     * 队列为空时挂起写入线程；先公布挂起状态再检查一次队列，
+     * 生产者入队后看到挂起状态就会唤醒，入队发生在检查之前则不会挂起
+     */
+    private void awaitWork() {
+        parked = true;
+        if (queue.isEmpty() && running) {
+            LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+        }
+        parked = false;
+    }
+
+    private void commit(List<PendingCreate> batch, List<Transaction> transactions) {
+        batchSizes.record(batch.size());
+        List<Transaction> saved;
+        try {
+            saved = repository.saveAll(transactions);
+        } catch (RuntimeException e) {
+            log.error("Failed to write a batch of {} transactions", batch.size(), e);
+            batch.forEach(create -> create.done.completeExceptionally(e));
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).done.complete(saved.get(i));
+        }
+    }
+
+    /**
+     * 一个等待写入的新建请求
+     */
+    private static final class PendingCreate {
+        private final Transaction transaction;
+        private final CompletableFuture<Transaction> done = new CompletableFuture<>();
+
+        private PendingCreate(Transaction transaction) {
+            this.transaction = transaction;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.banking.transactionservice.threading;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * 虚拟线程钉住监控
+ * 虚拟线程在synchronized块或本地方法中阻塞时无法从载体线程卸载，会占住有限的载体线程。
+ * 通过JFR事件流订阅 jdk.VirtualThreadPinned，超过阈值的钉住会被计数并连同调用栈记录到日志，
+ * 便于在引入新的阻塞调用时及时发现问题
+ */
+public class PinnedThreadMonitor implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(PinnedThreadMonitor.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 12;
+
+    private final Duration threshold;
+    private final Counter counter;
+    private final AtomicLong pinnedCount = new AtomicLong();
+    private RecordingStream stream;
+
+    /**
+     * @param threshold 记录钉住事件的最短持续时间
+     * @param registry 指标注册表
+     */
+    public PinnedThreadMonitor(Duration threshold, MeterRegistry registry) {
+        this.threshold = threshold;
+        this.counter = Counter.builder("jvm.threads.virtual.pinned")
+                .description("The number of times a virtual thread blocked while pinned to its carrier thread")
+                .register(registry);
+    }
+
+    /**
+     * 开始订阅钉住事件
+     */
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+    }
+
+    /**
+     * 停止订阅
+     */
+    @Override
+    public void close() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    /**
+     * 自启动以来记录到的钉住次数
+     * @return 钉住次数
+     */
+    public long pinnedCount() {
+        return pinnedCount.get();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedCount.incrementAndGet();
+        counter.increment();
+        log.warn("Virtual thread pinned for {} ms:\n{}", event.getDuration().toMillis(), format(event.getStackTrace()));
+    }
+
+    private static String format(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "\t(no stack trace)";
+        }
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        return frames.stream()
+                .limit(LOGGED_FRAMES)
+                .map(frame -> "\tat " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                        + "(line " + frame.getLineNumber() + ")")
+                .collect(Collectors.joining("\n"));
+    }
+}
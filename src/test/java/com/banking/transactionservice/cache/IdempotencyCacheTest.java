@@ -0,0 +1,132 @@
+package com.banking.transactionservice.cache;
+
+import com.banking.transactionservice.dto.TransactionDTO;
+import com.banking.transactionservice.exception.IdempotencyKeyConflictException;
+import com.banking.transactionservice.model.TransactionType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotencyCacheTest {
+
+    private IdempotencyCache cache;
+    private AtomicInteger creations;
+
+    @BeforeEach
+    void setUp() {
+        cache = new IdempotencyCache(100, Duration.ofMinutes(10));
+        creations = new AtomicInteger();
+    }
+
+    @Test
+    void execute_ShouldReplayResultForRepeatedKey() {
+        IdempotentResult first = cache.execute("key-1", request("10.00"), this::create);
+        IdempotentResult second = cache.execute("key-1", request("10.00"), this::create);
+        IdempotentResult other = cache.execute("key-2", request("10.00"), this::create);
+
+        assertThat(first.replayed()).isFalse();
+        assertThat(second.replayed()).isTrue();
+        assertThat(second.transaction()).isSameAs(first.transaction());
+        assertThat(other.transaction().getId()).isNotEqualTo(first.transaction().getId());
+        assertThat(creations).hasValue(2);
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void execute_WithDifferentRequestForSameKey_ShouldThrowConflict() {
+        cache.execute("key-1", request("10.00"), this::create);
+
+        assertThatThrownBy(() -> cache.execute("key-1", request("99.00"), this::create))
+                .isInstanceOf(IdempotencyKeyConflictException.class);
+        assertThat(creations).hasValue(1);
+    }
+
+    @Test
+    void execute_WithSameAmountInDifferentScale_ShouldReplayResult() {
+        IdempotentResult first = cache.execute("key-1", request("10.0"), this::create);
+        IdempotentResult second = cache.execute("key-1", request("10.00"), this::create);
+
+        assertThat(second.replayed()).isTrue();
+        assertThat(second.transaction()).isSameAs(first.transaction());
+        assertThat(creations).hasValue(1);
+    }
+
+    @Test
+    void execute_WhenCreationFails_ShouldAllowRetryWithSameKey() {
+        assertThatThrownBy(() -> cache.execute("key-1", request("10.00"), () -> {
+            throw new IllegalStateException("store unavailable");
+        })).isInstanceOf(IllegalStateException.class);
+
+        IdempotentResult retry = cache.execute("key-1", request("10.00"), this::create);
+
+        assertThat(retry.replayed()).isFalse();
+        assertThat(creations).hasValue(1);
+    }
+
+    @Test
+    void execute_ConcurrentDuplicates_ShouldCoalesceOntoSingleCreation() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            Future<IdempotentResult> owner = executor.submit(() -> cache.execute("key-1", request("10.00"), () -> {
+                started.countDown();
+                await(release);
+                return create();
+            }));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            List<Future<IdempotentResult>> duplicates = new ArrayList<>();
+            for (int i = 0; i < 7; i++) {
+                duplicates.add(executor.submit(() -> cache.execute("key-1", request("10.00"), this::create)));
+            }
+            release.countDown();
+
+            TransactionDTO created = owner.get(5, TimeUnit.SECONDS).transaction();
+            for (Future<IdempotentResult> duplicate : duplicates) {
+                IdempotentResult result = duplicate.get(5, TimeUnit.SECONDS);
+                assertThat(result.replayed()).isTrue();
+                assertThat(result.transaction()).isSameAs(created);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(creations).hasValue(1);
+    }
+
+    private TransactionDTO create() {
+        TransactionDTO created = new TransactionDTO();
+        created.setId("tx-" + creations.incrementAndGet());
+        return created;
+    }
+
+    private static TransactionDTO request(String amount) {
+        TransactionDTO dto = new TransactionDTO();
+        dto.setAmount(new BigDecimal(amount));
+        dto.setDescription("Retried transaction");
+        dto.setType(TransactionType.DEBIT);
+        dto.setCategory("Test");
+        return dto;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
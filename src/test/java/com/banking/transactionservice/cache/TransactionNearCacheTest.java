@@ -0,0 +1,130 @@
+package com.banking.transactionservice.cache;
+
+import com.banking.transactionservice.model.Transaction;
+import com.banking.transactionservice.model.TransactionType;
+import com.banking.transactionservice.repository.TransactionRepository;
+import com.banking.transactionservice.service.TransactionMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransactionNearCacheTest {
+
+    private TransactionRepository repository;
+    private TransactionMapper mapper;
+    private TransactionNearCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        repository = new TransactionRepository();
+        mapper = new TransactionMapper();
+        cache = new TransactionNearCache(Caffeine.newBuilder().maximumSize(100).build(), repository);
+        repository.addChangeListener(cache);
+        loads = new AtomicInteger();
+        for (int i = 0; i < 5; i++) {
+            repository.save(transaction("id-" + i, "10.00"));
+        }
+    }
+
+    @Test
+    void get_ShouldServeRepeatedLookupsFromCache() {
+        CachedTransaction first = get("id-0");
+        CachedTransaction second = get("id-0");
+
+        assertThat(second).isSameAs(first);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void write_ShouldInvalidateOnlyThatTransaction() {
+        get("id-0");
+        get("id-1");
+
+        repository.save(transaction("id-0", "20.00"));
+
+        assertThat(get("id-0").transaction().getAmount()).isEqualByComparingTo("20.00");
+        get("id-1");
+        assertThat(loads).hasValue(3);
+        assertThat(cache.invalidationCount()).isEqualTo(1);
+    }
+
+    @Test
+    void replicatedAndDeletedTransactions_ShouldBeInvalidated() {
+        get("id-0");
+        get("id-1");
+        Transaction replicated = transaction("id-0", "30.00");
+        replicated.setVersion(repository.currentSequence() + 100);
+
+        repository.restoreIf(replicated, (existing, incoming) -> true);
+        repository.deleteById("id-1");
+
+        assertThat(get("id-0").transaction().getAmount()).isEqualByComparingTo("30.00");
+        assertThat(cache.getNativeCache().asMap()).doesNotContainKey("id-1");
+        assertThat(cache.invalidationCount()).isEqualTo(2);
+    }
+
+    @Test
+    void batchWrite_ShouldInvalidateEachTransactionOnceAndKeepOthers() {
+        for (int i = 0; i < 5; i++) {
+            get("id-" + i);
+        }
+
+        repository.saveAll(List.of(transaction("id-0", "1.00"), transaction("id-1", "1.00"),
+                transaction("id-0", "2.00")));
+
+        assertThat(cache.invalidationCount()).isEqualTo(2);
+        assertThat(cache.getNativeCache().asMap()).containsOnlyKeys("id-2", "id-3", "id-4");
+        assertThat(get("id-0").transaction().getAmount()).isEqualByComparingTo("2.00");
+    }
+
+    @Test
+    void put_WhenWriteCompletedAfterLoad_ShouldNotKeepStaleValue() {
+        CachedTransaction stale = load("id-0");
+        // 写入及其失效在读取仓库之后、结果放入缓存之前完成
+        repository.save(transaction("id-0", "99.00"));
+
+        cache.put("id-0", stale);
+
+        assertThat(cache.getNativeCache().asMap()).doesNotContainKey("id-0");
+        assertThat(cache.discardedLoadCount()).isEqualTo(1);
+        assertThat(get("id-0").transaction().getAmount()).isEqualByComparingTo("99.00");
+    }
+
+    @Test
+    void put_WithCurrentVersion_ShouldKeepValue() {
+        cache.put("id-0", load("id-0"));
+
+        assertThat(get("id-0")).isNotNull();
+        assertThat(loads).hasValue(1);
+        assertThat(cache.discardedLoadCount()).isZero();
+    }
+
+    private CachedTransaction get(String id) {
+        return cache.get(id, () -> load(id));
+    }
+
+    private CachedTransaction load(String id) {
+        loads.incrementAndGet();
+        Transaction transaction = repository.findById(id).orElseThrow();
+        return new CachedTransaction(mapper.toDTO(transaction), EntityTags.of(transaction.getVersion()));
+    }
+
+    private static Transaction transaction(String id, String amount) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setAmount(new BigDecimal(amount));
+        transaction.setDescription("Near cache " + id);
+        transaction.setTimestamp(LocalDateTime.of(2024, 1, 1, 0, 0));
+        transaction.setType(TransactionType.DEBIT);
+        transaction.setCategory("Test");
+        return transaction;
+    }
+}
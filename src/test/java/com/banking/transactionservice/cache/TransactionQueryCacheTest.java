@@ -0,0 +1,248 @@
+package com.banking.transactionservice.cache;
+
+import com.banking.transactionservice.dto.TransactionDTO;
+import com.banking.transactionservice.model.Transaction;
+import com.banking.transactionservice.model.TransactionType;
+import com.banking.transactionservice.repository.TransactionFilter;
+import com.banking.transactionservice.repository.TransactionRepository;
+import com.banking.transactionservice.service.TransactionMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransactionQueryCacheTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private TransactionRepository repository;
+    private TransactionMapper mapper;
+    private TransactionQueryCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        repository = new TransactionRepository();
+        mapper = new TransactionMapper();
+        cache = new TransactionQueryCache(100, Duration.ofMinutes(10));
+        repository.addChangeListener(cache);
+        loads = new AtomicInteger();
+        for (int i = 0; i < 5; i++) {
+            repository.save(transaction("id-" + i, i, TransactionType.DEBIT));
+        }
+    }
+
+    @Test
+    void getPage_ShouldServeRepeatedQueriesFromCache() {
+        List<TransactionDTO> first = page(TransactionFilter.NONE, 0, 2);
+        List<TransactionDTO> second = page(TransactionFilter.NONE, 0, 2);
+
+        assertThat(second).extracting(TransactionDTO::getId).containsExactly("id-0", "id-1");
+        assertThat(second).isSameAs(first);
+        assertThat(loads).hasValue(1);
+        QueryCacheStats stats = cache.stats();
+        assertThat(stats.hitCount()).isEqualTo(1);
+        assertThat(stats.missCount()).isEqualTo(1);
+        assertThat(stats.hitRate()).isEqualTo(0.5);
+    }
+
+    @Test
+    void insertAtEnd_ShouldOnlyInvalidateLastPage() {
+        page(TransactionFilter.NONE, 0, 2);
+        page(TransactionFilter.NONE, 1, 2);
+        page(TransactionFilter.NONE, 2, 2);
+
+        repository.save(transaction("id-5", 5, TransactionType.DEBIT));
+
+        assertThat(page(TransactionFilter.NONE, 0, 2)).extracting(TransactionDTO::getId)
+                .containsExactly("id-0", "id-1");
+        assertThat(page(TransactionFilter.NONE, 1, 2)).extracting(TransactionDTO::getId)
+                .containsExactly("id-2", "id-3");
+        assertThat(page(TransactionFilter.NONE, 2, 2)).extracting(TransactionDTO::getId)
+                .containsExactly("id-4", "id-5");
+        assertThat(loads).hasValue(4);
+        assertThat(cache.stats().invalidationCount()).isEqualTo(1);
+    }
+
+    @Test
+    void deleteInEarlierPage_ShouldInvalidateThatPageAndAllFollowingPages() {
+        page(TransactionFilter.NONE, 0, 2);
+        page(TransactionFilter.NONE, 1, 2);
+        page(TransactionFilter.NONE, 2, 2);
+
+        repository.deleteById("id-2");
+
+        assertThat(page(TransactionFilter.NONE, 0, 2)).extracting(TransactionDTO::getId)
+                .containsExactly("id-0", "id-1");
+        assertThat(page(TransactionFilter.NONE, 1, 2)).extracting(TransactionDTO::getId)
+                .containsExactly("id-3", "id-4");
+        assertThat(page(TransactionFilter.NONE, 2, 2)).isEmpty();
+        assertThat(loads).hasValue(5);
+    }
+
+    @Test
+    void inPlaceUpdate_ShouldOnlyInvalidatePageContainingTransaction() {
+        page(TransactionFilter.NONE, 0, 2);
+        page(TransactionFilter.NONE, 1, 2);
+
+        Transaction updated = transaction("id-1", 1, TransactionType.DEBIT);
+        updated.setAmount(new BigDecimal("99.99"));
+        repository.save(updated);
+
+        assertThat(page(TransactionFilter.NONE, 0, 2).get(1).getAmount()).isEqualByComparingTo("99.99");
+        page(TransactionFilter.NONE, 1, 2);
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void changeOutsideFilter_ShouldNotInvalidateFilteredPage() {
+        TransactionFilter credits = new TransactionFilter(null, TransactionType.CREDIT, null);
+        page(credits, 0, 10);
+
+        repository.save(transaction("id-9", 0, TransactionType.DEBIT));
+        page(credits, 0, 10);
+        repository.save(transaction("id-0", 0, TransactionType.CREDIT));
+
+        assertThat(page(credits, 0, 10)).extracting(TransactionDTO::getId).containsExactly("id-0");
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void changeDuringLoad_ShouldNotCacheStaleResult() {
+        List<TransactionDTO> stale = cache.getPage(TransactionFilter.NONE, 0, 10, () -> {
+            List<Transaction> result = repository.findAll(0, 10);
+            repository.save(transaction("id-5", 5, TransactionType.DEBIT));
+            return result;
+        }, mapper::toDTO);
+
+        assertThat(stale).hasSize(5);
+        assertThat(page(TransactionFilter.NONE, 0, 10)).hasSize(6);
+        assertThat(cache.stats().discardedLoadCount()).isEqualTo(1);
+    }
+
+    @Test
+    void largeCache_ShouldOnlyInvalidatePagesOfMatchingFilters() {
+        TransactionRepository large = new TransactionRepository();
+        TransactionQueryCache largeCache = new TransactionQueryCache(100_000, Duration.ofMinutes(10));
+        large.addChangeListener(largeCache);
+        int categories = 500;
+        int pages = 10;
+        int size = 2;
+        List<Transaction> batch = new ArrayList<>();
+        for (int i = 0; i < categories * pages * size; i++) {
+            TransactionType type = i % 2 == 0 ? TransactionType.DEBIT : TransactionType.CREDIT;
+            Transaction transaction = transaction("id-" + i, i, type);
+            transaction.setCategory("Category-" + i % categories);
+            batch.add(transaction);
+        }
+        large.saveAll(batch);
+        List<TransactionFilter> filters = new ArrayList<>();
+        for (int c = 0; c < categories; c++) {
+            filters.add(new TransactionFilter("Category-" + c, null, null));
+        }
+        filters.add(new TransactionFilter(null, TransactionType.CREDIT, null));
+        for (TransactionFilter filter : filters) {
+            for (int p = 0; p < pages; p++) {
+                int current = p;
+                largeCache.getPage(filter, current, size, () -> large.findAll(filter, current, size), mapper::toDTO);
+            }
+        }
+        assertThat(largeCache.stats().size()).isEqualTo((long) filters.size() * pages);
+
+        // Category-7的第k条在第500k+7小时：插入到第5页之前，只影响该条件的第5至9页
+        Transaction added = transaction("id-new", 500 * 10 + 6, TransactionType.CREDIT);
+        added.setCategory("Category-7");
+        large.save(added);
+        assertThat(largeCache.stats().invalidationCount()).isEqualTo(5);
+
+        // 删除Category-3第6页的第一条，影响该条件的第6至9页；它晚于CREDIT条件已缓存的页
+        large.deleteById("id-" + (3 + 12 * categories));
+        assertThat(largeCache.stats().invalidationCount()).isEqualTo(9);
+
+        // 原地更新只影响包含该交易的页：Category-9的第0页和CREDIT条件的第2页
+        Transaction updated = transaction("id-9", 9, TransactionType.CREDIT);
+        updated.setCategory("Category-9");
+        updated.setDescription("updated");
+        large.save(updated);
+        assertThat(largeCache.stats().invalidationCount()).isEqualTo(11);
+        assertThat(largeCache.stats().size()).isEqualTo((long) filters.size() * pages - 11);
+    }
+
+    private List<TransactionDTO> page(TransactionFilter filter, int page, int size) {
+        return cache.getPage(filter, page, size, () -> {
+            loads.incrementAndGet();
+            return repository.findAll(filter, page, size);
+        }, mapper::toDTO);
+    }
+
+    private static Transaction transaction(String id, int hour, TransactionType type) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setAmount(new BigDecimal("10.00"));
+        transaction.setDescription("Transaction " + id);
+        transaction.setType(type);
+        transaction.setCategory("Test");
+        transaction.setTimestamp(BASE.plusHours(hour));
+        return transaction;
+    }
+
+    @Test
+    void bindTo_ShouldPublishHitMissLoadAndInvalidationMetrics() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+
+        page(TransactionFilter.NONE, 0, 2);
+        page(TransactionFilter.NONE, 0, 2);
+        repository.deleteById("id-0");
+
+        assertThat(registry.get("cache.gets").tag("cache", "allTransactions").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("cache.gets").tag("cache", "allTransactions").tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("cache.load.duration").tag("cache", "allTransactions")
+                .timeGauge().value()).isPositive();
+        assertThat(registry.get("cache.invalidations").tag("cache", "allTransactions")
+                .functionCounter().count()).isEqualTo(1);
+    }
+
+
+    @Test
+    void getCachedPage_ShouldKeepETagUntilPageChanges() {
+        String first = cachedPage(0, 2).eTag();
+        String reloaded = cachedPage(0, 2).eTag();
+        repository.save(transaction("id-4", 4, TransactionType.CREDIT));
+        String unaffected = cachedPage(0, 2).eTag();
+        repository.save(transaction("id-1", 1, TransactionType.CREDIT));
+        String updated = cachedPage(0, 2).eTag();
+
+        assertThat(reloaded).isEqualTo(first);
+        assertThat(unaffected).isEqualTo(first);
+        assertThat(updated).isNotEqualTo(first).startsWith("\"").endsWith("\"");
+        assertThat(cachedPage(1, 2).eTag()).isNotEqualTo(updated);
+    }
+
+    @Test
+    void getCachedPage_ShouldComputeSameETagForSameContentAfterInvalidation() {
+        String before = cachedPage(0, 2).eTag();
+        cache.invalidateAll();
+
+        assertThat(cachedPage(0, 2).eTag()).isEqualTo(before);
+        assertThat(loads).hasValue(2);
+    }
+
+    private CachedPage cachedPage(int page, int size) {
+        return cache.getCachedPage(TransactionFilter.NONE, page, size, () -> {
+            loads.incrementAndGet();
+            return repository.findAll(page, size);
+        }, mapper::toDTO);
+    }
+}
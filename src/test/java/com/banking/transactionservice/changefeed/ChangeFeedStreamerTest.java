@@ -0,0 +1,174 @@
+package com.banking.transactionservice.changefeed;
+
+import com.banking.transactionservice.exception.ChangeFeedExpiredException;
+import com.banking.transactionservice.model.Transaction;
+import com.banking.transactionservice.model.TransactionType;
+import com.banking.transactionservice.repository.TransactionRepository;
+import com.banking.transactionservice.service.TransactionMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ChangeFeedStreamerTest {
+
+    private TransactionRepository repository;
+    private ChangeFeed feed;
+    private ChangeFeedProperties properties;
+    private SimpleMeterRegistry registry;
+    private ChangeFeedStreamer streamer;
+
+    @BeforeEach
+    void setUp() {
+        repository = new TransactionRepository();
+        feed = new ChangeFeed(64, new TransactionMapper());
+        repository.addChangeListener(feed);
+        properties = new ChangeFeedProperties();
+        properties.setMaxLag(5);
+        properties.setMaxSubscribers(2);
+        properties.setHeartbeatInterval(Duration.ofMillis(50));
+        registry = new SimpleMeterRegistry();
+        streamer = new ChangeFeedStreamer(feed, properties, registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        streamer.close();
+    }
+
+    @Test
+    void stream_ShouldPushAllAvailableChangesAfterCursorInOneSend() throws Exception {
+        repository.save(transaction("id-0"));
+        repository.save(transaction("id-1"));
+        repository.save(transaction("id-2"));
+        RecordingEmitter emitter = new RecordingEmitter();
+
+        assertThat(streamer.start(1, emitter)).isTrue();
+
+        String batch = emitter.next();
+        assertThat(batch).contains("SAVE:id-1", "SAVE:id-2", "id:" + feed.cursor(3)).doesNotContain("id-0");
+        repository.deleteById("id-1");
+        assertThat(emitter.next()).contains("event:delete", "DELETE:id-1");
+    }
+
+    @Test
+    void stream_WhenIdle_ShouldSendHeartbeats() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter();
+
+        streamer.start(feed.head(), emitter);
+
+        assertThat(emitter.next()).contains("keep-alive");
+        assertThat(streamer.subscriberCount()).isEqualTo(1);
+    }
+
+    @Test
+    void slowSubscriber_ShouldBeEvictedWithoutBlockingWriters() throws Exception {
+        properties.setHeartbeatInterval(Duration.ofSeconds(10));
+        RecordingEmitter slow = new RecordingEmitter();
+        slow.gate = new CountDownLatch(1);
+        streamer.start(feed.head(), slow);
+        repository.save(transaction("id-0"));
+        assertThat(slow.sending.await(5, TimeUnit.SECONDS)).isTrue();
+
+        for (int i = 1; i <= 10; i++) {
+            repository.save(transaction("id-" + i)); // 发送线程阻塞期间写入不受影响
+        }
+        slow.gate.countDown();
+
+        assertThat(slow.next()).contains("SAVE:id-0");
+        assertThat(slow.next()).contains("event:evicted", "10 changes behind");
+        assertThat(slow.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(registry.get("transaction.changefeed.evictions").tag("reason", "lag").counter().count())
+                .isEqualTo(1);
+        assertThat(streamer.subscriberCount()).isZero();
+        assertThatThrownBy(() -> streamer.start(1, new RecordingEmitter()))
+                .isInstanceOf(ChangeFeedExpiredException.class);
+    }
+
+    @Test
+    void start_WhenSubscriberLimitReached_ShouldRefuse() {
+        assertThat(streamer.start(0, new RecordingEmitter())).isTrue();
+        assertThat(streamer.start(0, new RecordingEmitter())).isTrue();
+
+        assertThat(streamer.start(0, new RecordingEmitter())).isFalse();
+        assertThat(registry.get("transaction.changefeed.subscribers").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void close_ShouldCompleteOpenStreams() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter();
+        streamer.start(0, emitter);
+
+        streamer.close();
+
+        assertThat(emitter.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(streamer.start(0, new RecordingEmitter())).isFalse();
+    }
+
+    private static Transaction transaction(String id) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setAmount(new BigDecimal("1.00"));
+        transaction.setDescription("Change feed " + id);
+        transaction.setTimestamp(LocalDateTime.of(2024, 1, 1, 0, 0));
+        transaction.setType(TransactionType.DEBIT);
+        transaction.setCategory("Test");
+        return transaction;
+    }
+
+    /**
+     * 记录每次发送的内容，可以让发送阻塞以模拟读得慢的消费方
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final BlockingQueue<String> sent = new LinkedBlockingQueue<>();
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private volatile CountDownLatch gate = new CountDownLatch(0);
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            send(builder.build());
+        }
+
+        @Override
+        public void send(Set<DataWithMediaType> items) throws IOException {
+            sending.countDown();
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            StringBuilder text = new StringBuilder();
+            for (DataWithMediaType item : items) {
+                text.append(item.getData() instanceof ChangeEvent event ? event.type() + ":" + event.id() : item.getData());
+            }
+            sent.add(text.toString());
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+
+        private String next() throws InterruptedException {
+            String text = sent.poll(5, TimeUnit.SECONDS);
+            assertThat(text).as("nothing sent within 5s").isNotNull();
+            return text;
+        }
+    }
+}
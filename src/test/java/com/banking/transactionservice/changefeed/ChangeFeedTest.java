@@ -0,0 +1,198 @@
+package com.banking.transactionservice.changefeed;
+
+import com.banking.transactionservice.exception.BadRequestException;
+import com.banking.transactionservice.exception.ChangeFeedExpiredException;
+import com.banking.transactionservice.model.Transaction;
+import com.banking.transactionservice.model.TransactionType;
+import com.banking.transactionservice.repository.TransactionChange;
+import com.banking.transactionservice.repository.TransactionRepository;
+import com.banking.transactionservice.service.TransactionMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ChangeFeedTest {
+
+    private TransactionRepository repository;
+    private ChangeFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        repository = new TransactionRepository();
+        feed = new ChangeFeed(8, new TransactionMapper());
+        repository.addChangeListener(feed);
+    }
+
+    @Test
+    void saveAndDelete_ShouldBeRecordedInOrderWithVersions() throws Exception {
+        Transaction saved = repository.save(transaction("id-1", "10.00"));
+        Transaction updated = repository.save(transaction("id-1", "20.00"));
+        repository.deleteById("id-1");
+
+        List<ChangeEvent> events = feed.read(0, 10, Duration.ZERO);
+
+        assertThat(events).extracting(ChangeEvent::type).containsExactly(
+                TransactionChange.Type.SAVE, TransactionChange.Type.SAVE, TransactionChange.Type.DELETE);
+        assertThat(events).extracting(ChangeEvent::cursor)
+                .containsExactly(feed.cursor(1), feed.cursor(2), feed.cursor(3));
+        assertThat(events.get(0).version()).isEqualTo(saved.getVersion());
+        assertThat(events.get(1).transaction().getAmount()).isEqualByComparingTo("20.00");
+        assertThat(events.get(2).version()).isGreaterThan(updated.getVersion());
+        assertThat(events.get(2).transaction()).isNull();
+    }
+
+    @Test
+    void batchWrite_ShouldRecordEveryChange() throws Exception {
+        repository.saveAll(List.of(transaction("id-1", "1.00"), transaction("id-2", "2.00")));
+        repository.deleteAllById(List.of("id-1", "id-2"));
+
+        assertThat(feed.read(0, 10, Duration.ZERO)).extracting(ChangeEvent::id)
+                .containsExactly("id-1", "id-2", "id-1", "id-2");
+        assertThat(feed.head()).isEqualTo(4);
+    }
+
+    @Test
+    void read_WhenNoNewChanges_ShouldWaitForNextWrite() throws Exception {
+        repository.save(transaction("id-1", "1.00"));
+        CompletableFuture<List<ChangeEvent>> pending = CompletableFuture.supplyAsync(() -> {
+            try {
+                return feed.read(1, 10, Duration.ofSeconds(10));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertThat(feed.read(1, 10, Duration.ofMillis(20))).isEmpty();
+        repository.save(transaction("id-2", "2.00"));
+
+        assertThat(pending.get(5, TimeUnit.SECONDS)).extracting(ChangeEvent::id).containsExactly("id-2");
+    }
+
+    @Test
+    void read_WhenChangesWereOverwritten_ShouldThrow() throws Exception {
+        for (int i = 0; i < 12; i++) {
+            repository.save(transaction("id-" + i, "1.00"));
+        }
+
+        assertThat(feed.read(4, 10, Duration.ZERO)).hasSize(8);
+        assertThatThrownBy(() -> feed.read(3, 10, Duration.ZERO)).isInstanceOf(ChangeFeedExpiredException.class);
+    }
+
+    @Test
+    void poll_ShouldReturnNextCursorAndResolveOnlyCursorsOfThisRun() throws Exception {
+        ChangeBatch start = feed.poll(null, 10, Duration.ZERO);
+        repository.save(transaction("id-1", "1.00"));
+        repository.save(transaction("id-2", "2.00"));
+
+        ChangeBatch first = feed.poll(start.next(), 1, Duration.ZERO);
+        ChangeBatch second = feed.poll(first.next(), 10, Duration.ZERO);
+
+        assertThat(start.events()).isEmpty();
+        assertThat(first.events()).extracting(ChangeEvent::id).containsExactly("id-1");
+        assertThat(second.events()).extracting(ChangeEvent::id).containsExactly("id-2");
+        assertThat(second.next()).isEqualTo(feed.cursor(2));
+        assertThatThrownBy(() -> feed.resolve("0-1")).isInstanceOf(ChangeFeedExpiredException.class);
+        assertThatThrownBy(() -> feed.resolve(feed.cursor(3))).isInstanceOf(ChangeFeedExpiredException.class);
+        assertThatThrownBy(() -> feed.resolve("not-a-cursor")).isInstanceOf(BadRequestException.class);
+    }
+
+    private static Transaction transaction(String id, String amount) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setAmount(new BigDecimal(amount));
+        transaction.setDescription("Change feed " + id);
+        transaction.setTimestamp(LocalDateTime.of(2024, 1, 1, 0, 0));
+        transaction.setType(TransactionType.CREDIT);
+        transaction.setCategory("Test");
+        return transaction;
+    }
+
+    @Test
+    void onChange_WhenOlderChangeArrivesLate_ShouldDropIt() throws Exception {
+        Transaction older = transaction("id-1", "1.00");
+        older.setVersion(4);
+        Transaction newer = transaction("id-1", "2.00");
+        newer.setVersion(5);
+
+        feed.onChange(new TransactionChange(5, TransactionChange.Type.SAVE, "id-1", older, newer));
+        feed.onChange(new TransactionChange(4, TransactionChange.Type.SAVE, "id-1", null, older));
+        feed.onChange(new TransactionChange(3, TransactionChange.Type.DELETE, "id-1", older, null));
+        feed.onChange(new TransactionChange(6, TransactionChange.Type.DELETE, "id-1", newer, null));
+
+        assertThat(feed.read(0, 10, Duration.ZERO)).extracting(ChangeEvent::version).containsExactly(5L, 6L);
+    }
+
+    @Test
+    void concurrentWritesToOneId_ShouldBeRecordedInEffectiveOrder() throws Exception {
+        feed = new ChangeFeed(4096, new TransactionMapper());
+        repository = new TransactionRepository();
+        repository.addChangeListener(feed);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            writers.add(executor.submit(() -> {
+                for (int i = 0; i < 200; i++) {
+                    repository.save(transaction("id-" + (i % 2), i + ".00"));
+                    if (i % 10 == 0) {
+                        repository.deleteById("id-" + (i % 2));
+                    }
+                }
+            }));
+        }
+        for (Future<?> writer : writers) {
+            writer.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        Map<String, Long> versions = new HashMap<>();
+        Map<String, ChangeEvent> last = new HashMap<>();
+        for (ChangeEvent event : feed.read(0, 4096, Duration.ZERO)) {
+            assertThat(event.version()).isGreaterThan(versions.getOrDefault(event.id(), 0L));
+            versions.put(event.id(), event.version());
+            last.put(event.id(), event);
+        }
+        for (String id : List.of("id-0", "id-1")) {
+            Transaction current = repository.findById(id).orElse(null);
+            if (current == null) {
+                assertThat(last.get(id).type()).isEqualTo(TransactionChange.Type.DELETE);
+            } else {
+                assertThat(last.get(id).version()).isEqualTo(current.getVersion());
+            }
+        }
+    }
+
+    @Test
+    void onAppend_ShouldRunCallbackOnceForNextChange() {
+        repository.save(transaction("id-1", "1.00"));
+        AtomicInteger calls = new AtomicInteger();
+
+        feed.onAppend(0, calls::incrementAndGet);
+        assertThat(calls).hasValue(1);
+
+        feed.onAppend(1, calls::incrementAndGet);
+        Runnable cancel = feed.onAppend(1, () -> calls.addAndGet(100));
+        cancel.run();
+        assertThat(calls).hasValue(1);
+        repository.save(transaction("id-2", "2.00"));
+        repository.save(transaction("id-3", "3.00"));
+
+        assertThat(calls).hasValue(2);
+        assertThat(feed.poll(1, 10).events()).extracting(ChangeEvent::id).containsExactly("id-2", "id-3");
+    }
+}
@@ -0,0 +1,187 @@
+package com.banking.transactionservice.controller;
+
+import com.banking.transactionservice.TransactionServiceApplication;
+import com.banking.transactionservice.changefeed.ChangeFeed;
+import com.banking.transactionservice.dto.TransactionDTO;
+import com.banking.transactionservice.repository.TransactionRepository;
+import com.banking.transactionservice.service.TransactionService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 启动完整的应用，通过HTTP验证长轮询和SSE推送
+ */
+class ChangeFeedControllerTest {
+
+    private static final HttpClient CLIENT = HttpClient.newHttpClient();
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String BODY =
+            "{\"amount\":10.00,\"description\":\"Change feed\",\"type\":\"CREDIT\",\"category\":\"Test\"}";
+
+    private static int port;
+    private static ConfigurableApplicationContext application;
+
+    @BeforeAll
+    static void startApplication() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        application = new SpringApplicationBuilder(TransactionServiceApplication.class).run(
+                "--server.port=" + port,
+                "--spring.jmx.enabled=false",
+                // 少量处理线程，验证挂起的长轮询不占用线程
+                "--server.tomcat.threads.max=4",
+                "--server.tomcat.threads.min-spare=1",
+                "--transaction.change-feed.stream-timeout=3s");
+    }
+
+    @AfterAll
+    static void stopApplication() {
+        application.close();
+    }
+
+    @Test
+    void poll_ShouldReturnChangesAfterCursor() throws Exception {
+        String cursor = MAPPER.readTree(get("/api/transactions/changes").body()).get("next").asText();
+        String id = create();
+
+        JsonNode batch = MAPPER.readTree(get("/api/transactions/changes?wait=1000&after=" + cursor).body());
+
+        assertThat(batch.get("events")).hasSize(1);
+        assertThat(batch.get("events").get(0).get("type").asText()).isEqualTo("SAVE");
+        assertThat(batch.get("events").get(0).get("transaction").get("id").asText()).isEqualTo(id);
+        assertThat(batch.get("next").asText()).isEqualTo(batch.get("events").get(0).get("cursor").asText());
+    }
+
+    @Test
+    void stream_ShouldPushChangesAsServerSentEvents() throws Exception {
+        String cursor = MAPPER.readTree(get("/api/transactions/changes").body()).get("next").asText();
+        CompletableFuture<HttpResponse<Stream<String>>> stream = CLIENT.sendAsync(
+                HttpRequest.newBuilder(uri("/api/transactions/changes/stream?after=" + cursor))
+                        .header("Accept", "text/event-stream").GET().build(),
+                HttpResponse.BodyHandlers.ofLines());
+        String id = create();
+
+        HttpResponse<Stream<String>> response = stream.get(10, TimeUnit.SECONDS);
+        try (Stream<String> lines = response.body()) {
+            Iterator<String> iterator = lines.iterator();
+            assertThat(response.statusCode()).isEqualTo(200);
+            assertThat(iterator.next()).startsWith("id:" + cursor.substring(0, cursor.lastIndexOf('-')));
+            assertThat(iterator.next()).isEqualTo("event:save");
+            JsonNode event = MAPPER.readTree(iterator.next().substring("data:".length()));
+            assertThat(event.get("id").asText()).isEqualTo(id);
+        }
+    }
+
+    @Test
+    void stream_WithCursorFromPreviousRun_ShouldReturnGone() throws Exception {
+        HttpResponse<String> response = CLIENT.send(
+                HttpRequest.newBuilder(uri("/api/transactions/changes/stream"))
+                        .header("Accept", "text/event-stream")
+                        .header("Last-Event-ID", "0-1")
+                        .timeout(Duration.ofSeconds(10)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertThat(response.statusCode()).isEqualTo(410);
+        assertThat(get("/api/transactions/changes?after=0-1").statusCode()).isEqualTo(410);
+    }
+
+    @Test
+    void recoveredTransactions_ShouldNotBeRecordedAsChanges(@TempDir Path directory) throws Exception {
+        String[] args = {"--server.port=0", "--spring.jmx.enabled=false",
+                "--transaction.persistence.enabled=true", "--transaction.persistence.directory=" + directory};
+        try (ConfigurableApplicationContext first = new SpringApplicationBuilder(TransactionServiceApplication.class)
+                .run(args)) {
+            first.getBean(TransactionService.class).createTransaction(MAPPER.readValue(BODY, TransactionDTO.class));
+        }
+
+        try (ConfigurableApplicationContext restarted = new SpringApplicationBuilder(
+                TransactionServiceApplication.class).run(args)) {
+            assertThat(restarted.getBean(TransactionRepository.class).count()).isEqualTo(1);
+            assertThat(restarted.getBean(ChangeFeed.class).head()).isZero();
+        }
+    }
+
+    private static String create() throws Exception {
+        HttpResponse<String> response = CLIENT.send(HttpRequest.newBuilder(uri("/api/transactions"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(BODY)).build(), HttpResponse.BodyHandlers.ofString());
+        assertThat(response.statusCode()).isEqualTo(201);
+        return MAPPER.readTree(response.body()).get("id").asText();
+    }
+
+    private static HttpResponse<String> get(String path) throws Exception {
+        return CLIENT.send(HttpRequest.newBuilder(uri(path)).timeout(Duration.ofSeconds(10)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    @Test
+    void poll_WhilePending_ShouldNotHoldRequestThreads() throws Exception {
+        String cursor = MAPPER.readTree(get("/api/transactions/changes").body()).get("next").asText();
+        List<CompletableFuture<HttpResponse<String>>> polls = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            polls.add(CLIENT.sendAsync(HttpRequest.newBuilder(uri("/api/transactions/changes?wait=20000&after=" + cursor))
+                    .timeout(Duration.ofSeconds(30)).GET().build(), HttpResponse.BodyHandlers.ofString()));
+        }
+        Thread.sleep(500);
+
+        assertThat(get("/api/transactions/count").statusCode()).isEqualTo(200);
+        String id = create();
+
+        for (CompletableFuture<HttpResponse<String>> poll : polls) {
+            JsonNode batch = MAPPER.readTree(poll.get(10, TimeUnit.SECONDS).body());
+            assertThat(batch.get("events").get(0).get("id").asText()).isEqualTo(id);
+        }
+    }
+
+    @Test
+    void poll_WhenWaitExpires_ShouldReturnEmptyBatchWithSameCursor() throws Exception {
+        String cursor = MAPPER.readTree(get("/api/transactions/changes").body()).get("next").asText();
+
+        HttpResponse<String> response = get("/api/transactions/changes?wait=200&after=" + cursor);
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        JsonNode batch = MAPPER.readTree(response.body());
+        assertThat(batch.get("events")).isEmpty();
+        assertThat(batch.get("next").asText()).isEqualTo(cursor);
+    }
+
+    @Test
+    void stream_WhenTimeoutExpires_ShouldEndWithoutErrorBody() throws Exception {
+        HttpResponse<Stream<String>> response = CLIENT.send(
+                HttpRequest.newBuilder(uri("/api/transactions/changes/stream"))
+                        .header("Accept", "text/event-stream").GET().build(),
+                HttpResponse.BodyHandlers.ofLines());
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        CompletableFuture<List<String>> lines = CompletableFuture.supplyAsync(() -> response.body().toList());
+        assertThat(lines.get(10, TimeUnit.SECONDS)).noneMatch(line -> line.contains("error"));
+    }
+}
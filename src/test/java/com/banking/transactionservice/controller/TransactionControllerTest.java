@@ -1,21 +1,49 @@
 package com.banking.transactionservice.controller;
 
+import com.banking.transactionservice.cache.CachedPage;
+import com.banking.transactionservice.cache.CachedTransaction;
+import com.banking.transactionservice.cache.IdempotentResult;
+import com.banking.transactionservice.cache.QueryCacheStats;
+import com.banking.transactionservice.config.WireFormatConfig;
+import com.banking.transactionservice.dto.BatchItemResultDTO;
+import com.banking.transactionservice.dto.BatchResultDTO;
+import com.banking.transactionservice.dto.CursorPageDTO;
 import com.banking.transactionservice.dto.TransactionDTO;
+import com.banking.transactionservice.exception.BadRequestException;
+import com.banking.transactionservice.exception.IdempotencyKeyConflictException;
 import com.banking.transactionservice.exception.ResourceNotFoundException;
+import com.banking.transactionservice.exception.VersionConflictException;
+import com.banking.transactionservice.model.TransactionStatus;
 import com.banking.transactionservice.model.TransactionType;
+import com.banking.transactionservice.repository.AggregateStats;
+import com.banking.transactionservice.repository.TransactionFilter;
+import com.banking.transactionservice.repository.TransactionSummary;
+import com.banking.transactionservice.rollup.RollupGranularity;
+import com.banking.transactionservice.rollup.RollupPoint;
+import com.banking.transactionservice.service.ExportFormat;
+import com.banking.transactionservice.service.TransactionExporter;
 import com.banking.transactionservice.service.TransactionService;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
@@ -23,11 +51,17 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(TransactionController.class)
+@Import(WireFormatConfig.class)
 class TransactionControllerTest {
 
     @Autowired
@@ -36,9 +70,15 @@ class TransactionControllerTest {
     @MockBean
     private TransactionService transactionService;
 
+    @MockBean
+    private TransactionExporter transactionExporter;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+
     private TransactionDTO transactionDTO;
 
     @BeforeEach
@@ -66,7 +106,7 @@ class TransactionControllerTest {
 
     @Test
     void getTransaction_WithValidId_ShouldReturnTransaction() throws Exception {
-        given(transactionService.getTransaction("1")).willReturn(transactionDTO);
+        given(transactionService.getCachedTransaction("1")).willReturn(new CachedTransaction(transactionDTO, "\"42\""));
 
         mockMvc.perform(get("/api/transactions/1"))
                 .andExpect(status().isOk())
@@ -77,7 +117,7 @@ class TransactionControllerTest {
 
     @Test
     void getTransaction_WithInvalidId_ShouldReturnNotFound() throws Exception {
-        given(transactionService.getTransaction("999")).willThrow(new ResourceNotFoundException("Transaction not found"));
+        given(transactionService.getCachedTransaction("999")).willThrow(new ResourceNotFoundException("Transaction not found"));
 
         mockMvc.perform(get("/api/transactions/999"))
                 .andExpect(status().isNotFound());
@@ -85,7 +125,7 @@ class TransactionControllerTest {
 
     @Test
     void updateTransaction_WithValidId_ShouldReturnUpdatedTransaction() throws Exception {
-        given(transactionService.updateTransaction(eq("1"), any(TransactionDTO.class))).willReturn(transactionDTO);
+        given(transactionService.updateTransaction(eq("1"), any(TransactionDTO.class), any())).willReturn(transactionDTO);
 
         mockMvc.perform(put("/api/transactions/1")
                 .contentType(MediaType.APPLICATION_JSON)
@@ -98,7 +138,7 @@ class TransactionControllerTest {
 
     @Test
     void updateTransaction_WithInvalidId_ShouldReturnNotFound() throws Exception {
-        given(transactionService.updateTransaction(eq("999"), any(TransactionDTO.class)))
+        given(transactionService.updateTransaction(eq("999"), any(TransactionDTO.class), any()))
                 .willThrow(new ResourceNotFoundException("Transaction not found"));
 
         mockMvc.perform(put("/api/transactions/999")
@@ -126,7 +166,7 @@ class TransactionControllerTest {
     @Test
     void getAllTransactions_ShouldReturnListOfTransactions() throws Exception {
         List<TransactionDTO> transactions = List.of(transactionDTO);
-        given(transactionService.getAllTransactions(0, 10)).willReturn(transactions);
+        given(transactionService.getCachedPage(TransactionFilter.NONE, 0, 10)).willReturn(new CachedPage(transactions, "\"p1\""));
 
         mockMvc.perform(get("/api/transactions?page=0&size=10"))
                 .andExpect(status().isOk())
@@ -163,6 +203,17 @@ class TransactionControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void createTransaction_WithTimestampTooFarAhead_ShouldReturnBadRequest() throws Exception {
+        transactionDTO.setTimestamp(LocalDateTime.now().plusDays(2));
+
+        mockMvc.perform(post("/api/transactions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(transactionDTO)))
+                .andExpect(status().isBadRequest());
+        verify(transactionService, never()).createTransaction(any(TransactionDTO.class));
+    }
+
     @Test
     void endToEndTest_TransactionLifecycle() throws Exception {
         // 1. 创建交易
@@ -175,7 +226,7 @@ class TransactionControllerTest {
                 .andExpect(jsonPath("$.id", is("1")));
         
         // 2. 获取交易
-        given(transactionService.getTransaction("1")).willReturn(transactionDTO);
+        given(transactionService.getCachedTransaction("1")).willReturn(new CachedTransaction(transactionDTO, "\"42\""));
         
         mockMvc.perform(get("/api/transactions/1"))
                 .andExpect(status().isOk())
@@ -189,7 +240,7 @@ class TransactionControllerTest {
         updatedDTO.setType(TransactionType.CREDIT);
         updatedDTO.setCategory("Updated");
         
-        given(transactionService.updateTransaction(eq("1"), any(TransactionDTO.class))).willReturn(updatedDTO);
+        given(transactionService.updateTransaction(eq("1"), any(TransactionDTO.class), any())).willReturn(updatedDTO);
         
         mockMvc.perform(put("/api/transactions/1")
                 .contentType(MediaType.APPLICATION_JSON)
@@ -205,9 +256,421 @@ class TransactionControllerTest {
                 .andExpect(status().isNoContent());
                 
         // 5. 验证删除后获取会失败
-        doThrow(new ResourceNotFoundException("Transaction not found")).when(transactionService).getTransaction("1");
+        doThrow(new ResourceNotFoundException("Transaction not found")).when(transactionService).getCachedTransaction("1");
         
         mockMvc.perform(get("/api/transactions/1"))
                 .andExpect(status().isNotFound());
     }
-} 
\ No newline at end of file
+
+    @Test
+    void getTransactionsAfter_ShouldReturnPageWithNextCursor() throws Exception {
+        given(transactionService.getTransactionsAfter(TransactionFilter.NONE, "", 1))
+                .willReturn(new CursorPageDTO(List.of(transactionDTO), "next"));
+
+        mockMvc.perform(get("/api/transactions")
+                .param("after", "")
+                .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].id", is("1")))
+                .andExpect(jsonPath("$.nextCursor", is("next")));
+    }
+
+    @Test
+    void getTransactionsAfter_WithInvalidCursor_ShouldReturnBadRequest() throws Exception {
+        given(transactionService.getTransactionsAfter(TransactionFilter.NONE, "bad", 10)).willThrow(new BadRequestException("Invalid cursor: bad"));
+
+        mockMvc.perform(get("/api/transactions").param("after", "bad"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getAllTransactions_WithFilters_ShouldQueryByFilter() throws Exception {
+        TransactionFilter filter = new TransactionFilter("Category-3", TransactionType.DEBIT, TransactionStatus.PENDING);
+        given(transactionService.getCachedPage(filter, 0, 10)).willReturn(new CachedPage(List.of(transactionDTO), "\"p1\""));
+
+        mockMvc.perform(get("/api/transactions")
+                .param("category", "Category-3")
+                .param("type", "DEBIT")
+                .param("status", "PENDING"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    void getAllTransactions_WithInvalidType_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/transactions").param("type", "REFUND"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getTransactionsBetween_ShouldParseIsoTimestamps() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 2, 1, 0, 0);
+        given(transactionService.getTransactionsBetween(TransactionFilter.NONE, from, to, 100))
+                .willReturn(List.of(transactionDTO));
+
+        mockMvc.perform(get("/api/transactions")
+                .param("from", "2024-01-01T00:00:00")
+                .param("to", "2024-02-01T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is("1")));
+    }
+
+    @Test
+    void createTransactions_ShouldReturnMultiStatusWhenSomeItemsFail() throws Exception {
+        BatchResultDTO result = new BatchResultDTO(List.of(
+                new BatchItemResultDTO(0, BatchItemResultDTO.Status.CREATED, "1", transactionDTO, null),
+                new BatchItemResultDTO(1, BatchItemResultDTO.Status.INVALID, null, null,
+                        Map.of("amount", "金额必须为正数"))));
+        given(transactionService.createTransactions(any())).willReturn(result);
+
+        mockMvc.perform(post("/api/transactions/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(transactionDTO, new TransactionDTO()))))
+                .andExpect(status().isMultiStatus())
+                .andExpect(jsonPath("$.succeeded", is(1)))
+                .andExpect(jsonPath("$.failed", is(1)))
+                .andExpect(jsonPath("$.results[1].errors.amount", is("金额必须为正数")));
+    }
+
+    @Test
+    void deleteTransactions_ShouldReturnOkWhenAllDeleted() throws Exception {
+        given(transactionService.deleteTransactions(List.of("1", "2"))).willReturn(new BatchResultDTO(List.of(
+                new BatchItemResultDTO(0, BatchItemResultDTO.Status.DELETED, "1", null, null),
+                new BatchItemResultDTO(1, BatchItemResultDTO.Status.DELETED, "2", null, null))));
+
+        mockMvc.perform(delete("/api/transactions/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[\"1\", \"2\"]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded", is(2)));
+    }
+
+    @Test
+    void exportTransactions_ShouldStreamExporterOutputWithFormatContentType() throws Exception {
+        TransactionFilter filter = new TransactionFilter("Food", TransactionType.DEBIT, null);
+        given(transactionExporter.export(eq(filter), eq(ExportFormat.CSV), any(OutputStream.class)))
+                .willAnswer(invocation -> {
+                    OutputStream out = invocation.getArgument(2);
+                    out.write("id,amount\n1,10.00\n".getBytes(StandardCharsets.UTF_8));
+                    return 1L;
+                });
+
+        MvcResult result = mockMvc.perform(get("/api/transactions/export")
+                        .param("format", "CSV")
+                        .param("category", "Food")
+                        .param("type", "DEBIT"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/csv;charset=UTF-8"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"transactions.csv\""))
+                .andExpect(content().string("id,amount\n1,10.00\n"));
+        verify(transactionExporter).export(eq(filter), eq(ExportFormat.CSV), any(OutputStream.class));
+    }
+
+    @Test
+    void getQueryCacheStats_ShouldReturnCounters() throws Exception {
+        given(transactionService.getQueryCacheStats()).willReturn(new QueryCacheStats(8, 2, 1, 0, 0, 5));
+
+        mockMvc.perform(get("/api/transactions/cache/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hitCount", is(8)))
+                .andExpect(jsonPath("$.missCount", is(2)))
+                .andExpect(jsonPath("$.invalidationCount", is(1)))
+                .andExpect(jsonPath("$.size", is(5)));
+    }
+
+    @Test
+    void getSummary_ShouldReturnAggregates() throws Exception {
+        AggregateStats food = new AggregateStats(2, new BigDecimal("30.50"),
+                new BigDecimal("10.00"), new BigDecimal("20.50"));
+        given(transactionService.getSummary()).willReturn(new TransactionSummary(food,
+                Map.of("Food", food), Map.of(TransactionType.DEBIT, food, TransactionType.CREDIT, AggregateStats.EMPTY)));
+
+        mockMvc.perform(get("/api/transactions/summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total.count").value(2))
+                .andExpect(jsonPath("$.byCategory.Food.sum").value(30.50))
+                .andExpect(jsonPath("$.byType.DEBIT.max").value(20.50))
+                .andExpect(jsonPath("$.byType.CREDIT.min").doesNotExist());
+    }
+
+    @Test
+    void getRollups_ShouldReturnTimeSeries() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2024, 5, 1, 12, 0);
+        given(transactionService.getRollups(RollupGranularity.MINUTE, from, null)).willReturn(List.of(
+                new RollupPoint(from, 2, new BigDecimal("30.00"), 1, new BigDecimal("5.00"))));
+
+        mockMvc.perform(get("/api/transactions/rollups")
+                .param("granularity", "MINUTE")
+                .param("from", "2024-05-01T12:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].start").value("2024-05-01T12:00:00"))
+                .andExpect(jsonPath("$[0].creditCount").value(2))
+                .andExpect(jsonPath("$[0].debitAmount").value(5.00));
+    }
+
+
+    @Test
+    void createTransaction_WithIdempotencyKey_ShouldMarkReplayedResponses() throws Exception {
+        given(transactionService.createTransaction(any(TransactionDTO.class), eq("retry-1")))
+                .willReturn(new IdempotentResult(transactionDTO, false), new IdempotentResult(transactionDTO, true));
+
+        mockMvc.perform(post("/api/transactions")
+                .header("Idempotency-Key", "retry-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(transactionDTO)))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "false"))
+                .andExpect(jsonPath("$.id", is("1")));
+        mockMvc.perform(post("/api/transactions")
+                .header("Idempotency-Key", "retry-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(transactionDTO)))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.id", is("1")));
+    }
+
+    @Test
+    void createTransaction_WithReusedIdempotencyKey_ShouldReturnUnprocessableEntity() throws Exception {
+        given(transactionService.createTransaction(any(TransactionDTO.class), eq("retry-1")))
+                .willThrow(new IdempotencyKeyConflictException("Idempotency key was already used for a different request: retry-1"));
+
+        mockMvc.perform(post("/api/transactions")
+                .header("Idempotency-Key", "retry-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(transactionDTO)))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.status", is(422)));
+    }
+
+
+    @Test
+    void getTransaction_ShouldReturnCachedETag() throws Exception {
+        given(transactionService.getCachedTransaction("1")).willReturn(new CachedTransaction(transactionDTO, "\"42\""));
+
+        mockMvc.perform(get("/api/transactions/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"42\""))
+                .andExpect(jsonPath("$.id", is("1")));
+    }
+
+    @Test
+    void updateTransaction_WithIfMatch_ShouldUseItAsExpectedVersion() throws Exception {
+        TransactionDTO updated = new TransactionDTO();
+        updated.setId("1");
+        updated.setVersion(43L);
+        given(transactionService.updateTransaction(eq("1"), any(TransactionDTO.class), eq(42L))).willReturn(updated);
+
+        mockMvc.perform(put("/api/transactions/1")
+                .header("If-Match", "\"42\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(transactionDTO)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"43\""));
+    }
+
+    @Test
+    void updateTransaction_WithWildcardIfMatch_ShouldNotCheckVersion() throws Exception {
+        transactionDTO.setVersion(42L);
+        given(transactionService.updateTransaction(eq("1"), any(TransactionDTO.class), eq(-1L))).willReturn(transactionDTO);
+
+        mockMvc.perform(put("/api/transactions/1")
+                .header("If-Match", "*")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(transactionDTO)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void updateTransaction_WithVersionConflict_ShouldReturnPreconditionFailed() throws Exception {
+        given(transactionService.updateTransaction(eq("1"), any(TransactionDTO.class), eq(42L)))
+                .willThrow(new VersionConflictException("1", 42L, 43L));
+
+        mockMvc.perform(put("/api/transactions/1")
+                .header("If-Match", "\"42\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(transactionDTO)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.status", is(412)));
+    }
+
+    @Test
+    void updateTransaction_WithWeakIfMatch_ShouldReturnPreconditionFailed() throws Exception {
+        mockMvc.perform(put("/api/transactions/1")
+                .header("If-Match", "W/\"42\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(transactionDTO)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+
+    @Test
+    void getTransaction_WithMatchingIfNoneMatch_ShouldReturnNotModifiedWithoutBody() throws Exception {
+        given(transactionService.getCachedTransaction("1")).willReturn(new CachedTransaction(transactionDTO, "\"42\""));
+
+        mockMvc.perform(get("/api/transactions/1").header("If-None-Match", "\"41\", W/\"42\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"42\""))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void getTransaction_WithStaleIfNoneMatch_ShouldReturnTransaction() throws Exception {
+        given(transactionService.getCachedTransaction("1")).willReturn(new CachedTransaction(transactionDTO, "\"42\""));
+
+        mockMvc.perform(get("/api/transactions/1").header("If-None-Match", "\"41\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"42\""))
+                .andExpect(jsonPath("$.id", is("1")));
+    }
+
+    @Test
+    void getAllTransactions_WithMatchingIfNoneMatch_ShouldReturnNotModified() throws Exception {
+        given(transactionService.getCachedPage(TransactionFilter.NONE, 0, 10))
+                .willReturn(new CachedPage(List.of(transactionDTO), "\"p1f\""));
+
+        mockMvc.perform(get("/api/transactions").header("If-None-Match", "\"p1f\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        mockMvc.perform(get("/api/transactions").header("If-None-Match", "\"p2e\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"p1f\""))
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    void getTransaction_WithCborAccept_ShouldReturnBinaryRepresentation() throws Exception {
+        transactionDTO.setTimestamp(LocalDateTime.of(2024, 3, 1, 9, 30));
+        given(transactionService.getCachedTransaction("1")).willReturn(new CachedTransaction(transactionDTO, "\"42\""));
+
+        MvcResult result = mockMvc.perform(get("/api/transactions/1").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string("ETag", "\"42\""))
+                .andExpect(header().string("Vary", "Accept"))
+                .andReturn();
+
+        TransactionDTO decoded = cborMapper().readValue(result.getResponse().getContentAsByteArray(),
+                TransactionDTO.class);
+        assertThat(decoded.getId()).isEqualTo("1");
+        assertThat(decoded.getAmount()).isEqualByComparingTo("100.00");
+        assertThat(decoded.getTimestamp()).isEqualTo(transactionDTO.getTimestamp());
+        assertThat(decoded.getType()).isEqualTo(TransactionType.CREDIT);
+    }
+
+    @Test
+    void getAllTransactions_WithCborAccept_ShouldReturnBinaryList() throws Exception {
+        given(transactionService.getCachedPage(TransactionFilter.NONE, 0, 10))
+                .willReturn(new CachedPage(List.of(transactionDTO), "\"p1\""));
+
+        MvcResult result = mockMvc.perform(get("/api/transactions").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        List<TransactionDTO> decoded = cborMapper().readValue(result.getResponse().getContentAsByteArray(),
+                new TypeReference<>() {});
+        assertThat(decoded).extracting(TransactionDTO::getDescription).containsExactly("Test transaction");
+    }
+
+    @Test
+    void createTransactions_WithCborBody_ShouldReadAndWriteCbor() throws Exception {
+        given(transactionService.createTransactions(any())).willAnswer(invocation -> {
+            List<TransactionDTO> requested = invocation.getArgument(0);
+            return new BatchResultDTO(List.of(new BatchItemResultDTO(0, BatchItemResultDTO.Status.CREATED, "1",
+                    requested.get(0), null)));
+        });
+
+        MvcResult result = mockMvc.perform(post("/api/transactions/batch")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(cborMapper().writeValueAsBytes(List.of(transactionDTO))))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        BatchResultDTO decoded = cborMapper().readValue(result.getResponse().getContentAsByteArray(),
+                BatchResultDTO.class);
+        assertThat(decoded.getSucceeded()).isEqualTo(1);
+        assertThat(decoded.getResults().get(0).getTransaction().getAmount()).isEqualByComparingTo("100.00");
+    }
+
+    @Test
+    void createTransaction_WithInvalidCborBody_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(post("/api/transactions")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .content(cborMapper().writeValueAsBytes(new TransactionDTO())))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportTransactions_AsCbor_ShouldUseBinaryContentTypeWithoutCharset() throws Exception {
+        given(transactionExporter.export(eq(TransactionFilter.NONE), eq(ExportFormat.CBOR), any(OutputStream.class)))
+                .willReturn(0L);
+
+        MvcResult result = mockMvc.perform(get("/api/transactions/export").param("format", "CBOR"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/cbor-seq"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"transactions.cbor\""));
+    }
+
+    private ObjectMapper cborMapper() {
+        return cborConverter.getObjectMapper();
+    }
+
+    @Test
+    void getTransactionsBetween_WithOnlyFrom_ShouldLeaveEndUnbounded() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        given(transactionService.getTransactionsBetween(TransactionFilter.NONE, from, null, 100))
+                .willReturn(List.of(transactionDTO));
+
+        mockMvc.perform(get("/api/transactions").param("from", "2024-01-01T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    void getTransactionsBetween_WithOnlyTo_ShouldLeaveStartUnbounded() throws Exception {
+        LocalDateTime to = LocalDateTime.of(2024, 2, 1, 0, 0);
+        given(transactionService.getTransactionsBetween(TransactionFilter.NONE, null, to, 50))
+                .willReturn(List.of(transactionDTO));
+
+        mockMvc.perform(get("/api/transactions").param("to", "2024-02-01T00:00:00").param("limit", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    void getTransactionsBetween_WithFilter_ShouldPassFilterToService() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        TransactionFilter filter = new TransactionFilter("Food", TransactionType.DEBIT, null);
+        given(transactionService.getTransactionsBetween(filter, from, null, 100)).willReturn(List.of(transactionDTO));
+
+        mockMvc.perform(get("/api/transactions")
+                .param("from", "2024-01-01T00:00:00")
+                .param("category", "Food")
+                .param("type", "DEBIT"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    void getTransactions_WithCursorAndTimeRange_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/transactions").param("after", "").param("from", "2024-01-01T00:00:00"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/transactions").param("after", "").param("to", "2024-01-01T00:00:00"))
+                .andExpect(status().isBadRequest());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,156 @@
+package com.banking.transactionservice.dto;
+
+import com.banking.transactionservice.config.WireFormatConfig;
+import com.banking.transactionservice.model.TransactionStatus;
+import com.banking.transactionservice.model.TransactionType;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TransactionDTOJsonTest {
+
+    private static final List<LocalDateTime> TIMESTAMPS = List.of(
+            LocalDateTime.of(2024, 1, 1, 0, 0),
+            LocalDateTime.of(2024, 3, 1, 9, 30, 5),
+            LocalDateTime.of(2024, 12, 31, 23, 59, 59, 120_000_000),
+            LocalDateTime.of(2024, 6, 15, 8, 0, 0, 715_157_193),
+            LocalDateTime.of(999, 2, 3, 4, 5, 0, 1_000),
+            LocalDateTime.of(12024, 1, 1, 0, 0));
+
+    @Test
+    void serialize_AsJson_ShouldMatchDefaultBeanSerializer() throws Exception {
+        ObjectMapper defaults = json().build();
+        ObjectMapper streaming = json().modulesToInstall(TransactionDTOJson.module()).build();
+
+        for (TransactionDTO dto : samples()) {
+            assertThat(streaming.writeValueAsString(dto)).isEqualTo(defaults.writeValueAsString(dto));
+        }
+        assertThat(streaming.writeValueAsString(samples())).isEqualTo(defaults.writeValueAsString(samples()));
+    }
+
+    @Test
+    void serialize_AsCbor_ShouldMatchDefaultBeanSerializer() throws Exception {
+        ObjectMapper defaults = WireFormatConfig.cborObjectMapper(new Jackson2ObjectMapperBuilder());
+        ObjectMapper streaming = WireFormatConfig.cborObjectMapper(
+                new Jackson2ObjectMapperBuilder().modulesToInstall(TransactionDTOJson.module()));
+
+        for (TransactionDTO dto : samples()) {
+            assertThat(streaming.writeValueAsBytes(dto)).isEqualTo(defaults.writeValueAsBytes(dto));
+        }
+    }
+
+    @Test
+    void serialize_WithMillisecondTimestamps_ShouldMatchDefaultBeanSerializer() throws Exception {
+        ObjectMapper defaults = new Jackson2ObjectMapperBuilder()
+                .featuresToDisable(SerializationFeature.WRITE_DATE_TIMESTAMPS_AS_NANOSECONDS).build();
+        ObjectMapper streaming = new Jackson2ObjectMapperBuilder()
+                .featuresToDisable(SerializationFeature.WRITE_DATE_TIMESTAMPS_AS_NANOSECONDS)
+                .modulesToInstall(TransactionDTOJson.module()).build();
+
+        for (TransactionDTO dto : samples()) {
+            assertThat(streaming.writeValueAsString(dto)).isEqualTo(defaults.writeValueAsString(dto));
+        }
+    }
+
+    @Test
+    void deserialize_ShouldRoundTripJsonAndCbor() throws Exception {
+        ObjectMapper jsonMapper = json().modulesToInstall(TransactionDTOJson.module()).build();
+        ObjectMapper cborMapper = WireFormatConfig.cborObjectMapper(
+                new Jackson2ObjectMapperBuilder().modulesToInstall(TransactionDTOJson.module()));
+
+        for (ObjectMapper mapper : List.of(jsonMapper, cborMapper)) {
+            List<TransactionDTO> decoded = mapper.readValue(mapper.writeValueAsBytes(samples()),
+                    new TypeReference<>() {});
+            assertThat(decoded).usingRecursiveComparison().isEqualTo(samples());
+        }
+    }
+
+    @Test
+    void deserialize_WithLenientInput_ShouldFallBackToDefaultHandling() throws Exception {
+        ObjectMapper mapper = json().modulesToInstall(TransactionDTOJson.module()).build();
+
+        TransactionDTO dto = mapper.readValue("""
+                {"unknown":{"nested":[1,2]},"id":42,"amount":"12.50","timestamp":[2024,3,1,9,30],
+                 "type":"CREDIT","status":null,"version":"7","description":"Lenient","category":"Food"}""",
+                TransactionDTO.class);
+
+        assertThat(dto.getId()).isEqualTo("42");
+        assertThat(dto.getAmount()).isEqualTo(new BigDecimal("12.50"));
+        assertThat(dto.getTimestamp()).isEqualTo(LocalDateTime.of(2024, 3, 1, 9, 30));
+        assertThat(dto.getType()).isEqualTo(TransactionType.CREDIT);
+        assertThat(dto.getStatus()).isNull();
+        assertThat(dto.getVersion()).isEqualTo(7L);
+        assertThat(dto.getCategory()).isEqualTo("Food");
+    }
+
+    @Test
+    void deserialize_WithInvalidInput_ShouldFailLikeDefaultDeserializer() throws Exception {
+        ObjectMapper mapper = json().modulesToInstall(TransactionDTOJson.module()).build();
+        ObjectMapper strict = json().modulesToInstall(TransactionDTOJson.module())
+                .featuresToEnable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES).build();
+
+        assertThrows(InvalidFormatException.class,
+                () -> mapper.readValue("{\"type\":\"REFUND\"}", TransactionDTO.class));
+        assertThrows(InvalidFormatException.class,
+                () -> mapper.readValue("{\"timestamp\":\"2024-13-01T00:00\"}", TransactionDTO.class));
+        assertThrows(InvalidFormatException.class,
+                () -> mapper.readValue("{\"timestamp\":\"2024-02-30T00:00\"}", TransactionDTO.class));
+        assertThrows(UnrecognizedPropertyException.class,
+                () -> strict.readValue("{\"unknown\":1}", TransactionDTO.class));
+    }
+
+    @Test
+    void formatAndParse_ShouldMatchIsoLocalDateTime() {
+        char[] buffer = new char[29];
+        for (LocalDateTime timestamp : TIMESTAMPS.subList(0, TIMESTAMPS.size() - 1)) {
+            String formatted = new String(buffer, 0,
+                    TransactionDTOJson.Serializer.formatIsoLocalDateTime(timestamp, buffer));
+
+            assertThat(formatted).isEqualTo(timestamp.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            assertThat(TransactionDTOJson.Deserializer.parseIsoLocalDateTime(formatted)).isEqualTo(timestamp);
+        }
+        assertThat(TransactionDTOJson.Deserializer.parseIsoLocalDateTime("2024-01-01T00:00")).isNotNull();
+        assertThat(TransactionDTOJson.Deserializer.parseIsoLocalDateTime("2024-01-01 00:00")).isNull();
+        assertThat(TransactionDTOJson.Deserializer.parseIsoLocalDateTime("2024-01-01T00:00:00.")).isNull();
+        assertThat(TransactionDTOJson.Deserializer.parseIsoLocalDateTime("2024-01-01T0a:00")).isNull();
+    }
+
+    /**
+     * 与Spring Boot配置的JSON ObjectMapper一致
+     */
+    private static Jackson2ObjectMapperBuilder json() {
+        return new Jackson2ObjectMapperBuilder().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    private static List<TransactionDTO> samples() {
+        TransactionDTO empty = new TransactionDTO();
+        List<TransactionDTO> samples = new ArrayList<>(List.of(empty));
+        for (int i = 0; i < TIMESTAMPS.size(); i++) {
+            TransactionDTO dto = new TransactionDTO();
+            dto.setId("01a14b88-4edb-7000-800e-61814f2ceb1" + i);
+            dto.setAmount(new BigDecimal(i % 2 == 0 ? "100.00" : "1E+3"));
+            dto.setDescription("Transaction \"" + i + "\" é交易\n");
+            dto.setTimestamp(TIMESTAMPS.get(i));
+            dto.setType(TransactionType.values()[i % TransactionType.values().length]);
+            dto.setCategory("Category-" + i);
+            dto.setStatus(TransactionStatus.values()[i % TransactionStatus.values().length]);
+            dto.setVersion(i == 0 ? null : (long) i << 40);
+            samples.add(dto);
+        }
+        return samples;
+    }
+}
@@ -0,0 +1,124 @@
+package com.banking.transactionservice.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TimeOrderedIdGeneratorTest {
+
+    private static final long NOW = Instant.parse("2024-05-01T12:00:00Z").toEpochMilli();
+
+    @Test
+    void nextUuid_ShouldEncodeVersionVariantTimestampAndNode() {
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(713, new MutableClock(NOW));
+
+        UUID id = generator.nextUuid();
+
+        assertThat(id.version()).isEqualTo(7);
+        assertThat(id.variant()).isEqualTo(2);
+        assertThat(id.getMostSignificantBits() >>> 16).isEqualTo(NOW);
+        assertThat((id.getLeastSignificantBits() >>> 52) & TimeOrderedIdGenerator.MAX_NODE_ID).isEqualTo(713);
+        assertThat(UUID.fromString(generator.nextId()).version()).isEqualTo(7);
+    }
+
+    @Test
+    void nextId_ShouldIncreaseWithinSameMillisecondAndWhenClockGoesBack() {
+        MutableClock clock = new MutableClock(NOW);
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(1, clock);
+        List<String> ids = new ArrayList<>();
+
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(generator.nextId());
+        }
+        clock.millis = NOW - 1_000;
+        ids.add(generator.nextId());
+        clock.millis = NOW + 60_000;
+        ids.add(generator.nextId());
+
+        assertThat(ids).isSorted().doesNotHaveDuplicates();
+        assertThat(UUID.fromString(ids.get(ids.size() - 1)).getMostSignificantBits() >>> 16).isEqualTo(NOW + 60_000);
+    }
+
+    @Test
+    void nextId_ShouldBeUniqueAcrossThreads() throws Exception {
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(0);
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 20_000; i++) {
+                        ids.add(generator.nextId());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(ids).hasSize(80_000);
+    }
+
+    @Test
+    void constructor_ShouldRejectNodeIdOutOfRange() {
+        assertThatThrownBy(() -> new TimeOrderedIdGenerator(-1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TimeOrderedIdGenerator(TimeOrderedIdGenerator.MAX_NODE_ID + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void createGenerator_ShouldSelectStrategy() {
+        assertThat(IdStrategy.RANDOM.createGenerator(0)).isSameAs(IdGenerator.RANDOM_UUID);
+        assertThat(UUID.fromString(IdStrategy.RANDOM.createGenerator(0).nextId()).version()).isEqualTo(4);
+        assertThat(IdStrategy.TIME_ORDERED.createGenerator(3)).isInstanceOf(TimeOrderedIdGenerator.class);
+    }
+
+    /**
+     * 可以手动设置毫秒数的时钟
+     */
+    private static final class MutableClock extends Clock {
+        private long millis;
+
+        MutableClock(long millis) {
+            this.millis = millis;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+    }
+}
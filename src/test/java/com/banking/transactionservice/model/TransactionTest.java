@@ -4,6 +4,7 @@ import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -86,4 +87,31 @@ class TransactionTest {
         
         assertThat(TransactionType.values()).hasSize(2);
     }
+
+    @Test
+    void testIdOnlyConstructor() {
+        Transaction transaction = new Transaction("tx-1");
+
+        assertThat(transaction.getId()).isEqualTo("tx-1");
+        assertThat(transaction.getTimestamp()).isNull();
+        assertThat(transaction.getStatus()).isNull();
+    }
+
+
+    @Test
+    void testCategoryDictionarySharesInstancesAndStopsEncodingWhenFull() {
+        CategoryDictionary categories = new CategoryDictionary(1);
+
+        int code = categories.encode(new String("Groceries"));
+        assertThat(categories.encode(new String("Groceries"))).isEqualTo(code);
+        assertThat(categories.intern(new String("Groceries"))).isSameAs(categories.decode(code)).isEqualTo("Groceries");
+        assertThat(categories.encode(null)).isEqualTo(CategoryDictionary.NONE);
+        assertThat(categories.decode(CategoryDictionary.NONE)).isNull();
+
+        String unseen = "Unseen-" + UUID.randomUUID();
+        assertThat(categories.encode(unseen)).isEqualTo(CategoryDictionary.UNENCODED);
+        assertThat(categories.intern(unseen)).isSameAs(unseen);
+        assertThat(categories.encode("Groceries")).isEqualTo(code);
+        assertThat(categories.size()).isEqualTo(1);
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,190 @@
+package com.banking.transactionservice.persistence;
+
+import com.banking.transactionservice.model.Transaction;
+import com.banking.transactionservice.model.TransactionStatus;
+import com.banking.transactionservice.model.TransactionType;
+import com.banking.transactionservice.repository.TransactionChange;
+import com.banking.transactionservice.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransactionPersistenceTest {
+
+    @TempDir
+    Path directory;
+
+    private PersistenceProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new PersistenceProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(directory.toString());
+        properties.setSnapshotCheckIntervalSeconds(3600);
+    }
+
+    @Test
+    void restart_ShouldRecoverSavesUpdatesAndDeletesFromLog() throws IOException {
+        TransactionRepository repository = new TransactionRepository();
+        TransactionPersistence persistence = start(repository);
+        repository.save(transaction("1", "100.00"));
+        repository.save(transaction("2", "200.00"));
+        repository.save(transaction("1", "150.25"));
+        repository.deleteById("2");
+        persistence.close();
+
+        TransactionRepository recovered = new TransactionRepository();
+        start(recovered).close();
+
+        assertThat(recovered.count()).isEqualTo(1);
+        Transaction restored = recovered.findById("1").orElseThrow();
+        assertThat(restored.getAmount()).isEqualTo(new BigDecimal("150.25"));
+        assertThat(restored.getDescription()).isEqualTo("Transaction 1");
+        assertThat(restored.getType()).isEqualTo(TransactionType.DEBIT);
+        assertThat(restored.getStatus()).isEqualTo(TransactionStatus.PENDING);
+        assertThat(restored.getTimestamp()).isEqualTo(LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123456789));
+        assertThat(recovered.currentSequence()).isGreaterThanOrEqualTo(repository.currentSequence());
+    }
+
+    @Test
+    void restart_ShouldCombineSnapshotWithLaterLogRecords() throws IOException {
+        TransactionRepository repository = new TransactionRepository();
+        TransactionPersistence persistence = start(repository);
+        for (int i = 0; i < 100; i++) {
+            repository.save(transaction(String.valueOf(i), "10.00"));
+        }
+        persistence.snapshot();
+        repository.deleteById("5");
+        repository.save(transaction("7", "77.00"));
+        repository.save(transaction("100", "1.00"));
+        persistence.close();
+
+        TransactionRepository recovered = new TransactionRepository();
+        start(recovered).close();
+
+        assertThat(recovered.count()).isEqualTo(100);
+        assertThat(recovered.findById("5")).isEmpty();
+        assertThat(recovered.findById("7").orElseThrow().getAmount()).isEqualTo(new BigDecimal("77.00"));
+        assertThat(recovered.findById("100")).isPresent();
+    }
+
+    @Test
+    void restart_ShouldIgnoreTornTailOfLastSegment() throws IOException {
+        TransactionRepository repository = new TransactionRepository();
+        TransactionPersistence persistence = start(repository);
+        repository.save(transaction("1", "100.00"));
+        repository.save(transaction("2", "200.00"));
+        persistence.close();
+
+        Path segment = WriteAheadLog.segmentPath(directory, 1);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        TransactionRepository recovered = new TransactionRepository();
+        start(recovered).close();
+
+        assertThat(recovered.findById("1")).isPresent();
+        assertThat(recovered.findById("2")).isEmpty();
+    }
+
+    @Test
+    void concurrentWriters_ShouldAllBeDurable() throws Exception {
+        TransactionRepository repository = new TransactionRepository();
+        TransactionPersistence persistence = start(repository);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 250; i++) {
+                    repository.save(transaction(thread + "-" + i, "1.00"));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        persistence.close();
+
+        TransactionRepository recovered = new TransactionRepository();
+        start(recovered).close();
+
+        assertThat(recovered.count()).isEqualTo(2000);
+    }
+
+    private TransactionPersistence start(TransactionRepository repository) throws IOException {
+        TransactionPersistence persistence = new TransactionPersistence(repository, properties);
+        persistence.start();
+        return persistence;
+    }
+
+    private static Transaction transaction(String id, String amount) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setAmount(new BigDecimal(amount));
+        transaction.setDescription("Transaction " + id);
+        transaction.setType(TransactionType.DEBIT);
+        transaction.setCategory("Category-1");
+        transaction.setTimestamp(LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123456789));
+        transaction.setStatus(TransactionStatus.PENDING);
+        return transaction;
+    }
+
+
+    @Test
+    void restart_ShouldPreserveVersionsFromSnapshotAndLog() throws IOException {
+        TransactionRepository repository = new TransactionRepository();
+        TransactionPersistence persistence = start(repository);
+        long snapshotted = repository.save(transaction("1", "10.00")).getVersion();
+        repository.save(transaction("2", "20.00"));
+        persistence.snapshot();
+        long logged = repository.save(transaction("2", "21.00")).getVersion();
+        persistence.close();
+
+        TransactionRepository recovered = new TransactionRepository();
+        start(recovered).close();
+
+        assertThat(recovered.findById("1").orElseThrow().getVersion()).isEqualTo(snapshotted);
+        assertThat(recovered.findById("2").orElseThrow().getVersion()).isEqualTo(logged);
+        assertThat(recovered.save(transaction("3", "30.00")).getVersion()).isGreaterThan(logged);
+    }
+
+    @Test
+    void restart_WithLogRecordsOlderThanSnapshot_ShouldKeepSnapshotRecords() throws IOException {
+        TransactionRepository repository = new TransactionRepository();
+        TransactionPersistence persistence = start(repository);
+        Transaction stale = repository.save(transaction("1", "10.00"));
+        long current = repository.save(transaction("1", "11.00")).getVersion();
+        Transaction kept = repository.save(transaction("2", "20.00"));
+        persistence.snapshot();
+        // 切段前完成写入、切段后才追加到日志的旧变更
+        persistence.onChange(new TransactionChange(stale.getVersion(), TransactionChange.Type.SAVE, "1", null, stale));
+        persistence.onChange(new TransactionChange(kept.getVersion() - 1, TransactionChange.Type.DELETE, "2", kept, null));
+        persistence.close();
+
+        TransactionRepository recovered = new TransactionRepository();
+        start(recovered).close();
+
+        Transaction restored = recovered.findById("1").orElseThrow();
+        assertThat(restored.getVersion()).isEqualTo(current);
+        assertThat(restored.getAmount()).isEqualTo(new BigDecimal("11.00"));
+        assertThat(recovered.findById("2")).isPresent();
+    }
+}
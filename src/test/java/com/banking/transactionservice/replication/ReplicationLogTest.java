@@ -0,0 +1,78 @@
+package com.banking.transactionservice.replication;
+
+import com.banking.transactionservice.model.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReplicationLogTest {
+
+    @Test
+    void read_ShouldReturnEntriesAfterPositionInOrderUpToMax() throws Exception {
+        ReplicationLog log = new ReplicationLog(10);
+        for (int i = 1; i <= 5; i++) {
+            log.append(i, "id-" + i, i, transaction("id-" + i));
+        }
+
+        List<ReplicationEntry> entries = log.read(1, 3, Duration.ZERO);
+
+        assertThat(entries).extracting(ReplicationEntry::position).containsExactly(2L, 3L, 4L);
+        assertThat(entries).extracting(ReplicationEntry::id).containsExactly("id-2", "id-3", "id-4");
+        assertThat(log.read(5, 3, Duration.ZERO)).isEmpty();
+    }
+
+    @Test
+    void read_WhenPositionWasOverwritten_ShouldThrow() throws Exception {
+        ReplicationLog log = new ReplicationLog(4);
+        for (int i = 1; i <= 10; i++) {
+            log.append(i, "id-" + i, i, null);
+        }
+
+        assertThat(log.read(6, 10, Duration.ZERO)).extracting(ReplicationEntry::position)
+                .containsExactly(7L, 8L, 9L, 10L);
+        assertThatThrownBy(() -> log.read(5, 10, Duration.ZERO)).isInstanceOf(BacklogTruncatedException.class);
+    }
+
+    @Test
+    void read_ShouldWaitForNextAppend() throws Exception {
+        ReplicationLog log = new ReplicationLog(10);
+        CompletableFuture<List<ReplicationEntry>> pending = CompletableFuture.supplyAsync(() -> {
+            try {
+                return log.read(0, 10, Duration.ofSeconds(10));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        Thread.sleep(50);
+        log.append(1, "id-1", 1, null);
+
+        assertThat(pending.get(5, TimeUnit.SECONDS)).extracting(ReplicationEntry::isDelete).containsExactly(true);
+    }
+
+    @Test
+    void awaitAcks_ShouldReturnOnceEnoughReplicasAcknowledged() throws Exception {
+        ReplicationLog log = new ReplicationLog(10);
+        long position = log.append(1, "id-1", 1, transaction("id-1"));
+        log.acknowledge("a", position);
+
+        assertThat(log.awaitAcks(position, 2, Duration.ofMillis(20))).isFalse();
+
+        log.acknowledge("b", position);
+        log.acknowledge("b", 0);
+        assertThat(log.awaitAcks(position, 2, Duration.ofMillis(20))).isTrue();
+        assertThat(log.acknowledged("b")).isEqualTo(position);
+    }
+
+    private static Transaction transaction(String id) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        return transaction;
+    }
+}
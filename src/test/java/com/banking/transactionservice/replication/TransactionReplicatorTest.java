@@ -0,0 +1,253 @@
+package com.banking.transactionservice.replication;
+
+import com.banking.transactionservice.TransactionServiceApplication;
+import com.banking.transactionservice.repository.TransactionChange;
+import com.banking.transactionservice.repository.TransactionRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 在同一个JVM中以不同端口启动三个副本，通过HTTP验证复制
+ */
+class TransactionReplicatorTest {
+
+    private static final HttpClient CLIENT = HttpClient.newHttpClient();
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String SECRET = "test-secret";
+
+    private static int[] ports;
+    private static ConfigurableApplicationContext[] replicas;
+
+    @BeforeAll
+    static void startReplicas() throws IOException {
+        ports = new int[]{freePort(), freePort(), freePort()};
+        replicas = new ConfigurableApplicationContext[3];
+        for (int i = 0; i < 3; i++) {
+            replicas[i] = start(i);
+        }
+    }
+
+    @AfterAll
+    static void stopReplicas() {
+        for (ConfigurableApplicationContext replica : replicas) {
+            if (replica != null) {
+                replica.close();
+            }
+        }
+    }
+
+    @Test
+    void create_InSyncMode_ShouldBeReadableFromOtherReplicasOnReturn() throws Exception {
+        awaitConnected();
+
+        String id = create(0, "100.00");
+
+        for (int i = 0; i < 3; i++) {
+            HttpResponse<String> response = get(i, id);
+            assertThat(response.statusCode()).isEqualTo(200);
+            assertThat(new BigDecimal(MAPPER.readTree(response.body()).get("amount").asText()))
+                    .isEqualByComparingTo("100.00");
+        }
+    }
+
+    @Test
+    void updateAndDelete_OnDifferentReplicas_ShouldApplyEverywhereInOrder() throws Exception {
+        awaitConnected();
+        String id = create(0, "10.00");
+        assertThat(get(2, id).statusCode()).isEqualTo(200); // 填充副本2的本地缓存
+
+        HttpResponse<String> updated = send(1, HttpRequest.newBuilder(uri(1, "/api/transactions/" + id))
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(body("20.00"))));
+        assertThat(updated.statusCode()).isEqualTo(200);
+
+        for (int i = 0; i < 3; i++) {
+            JsonNode transaction = MAPPER.readTree(get(i, id).body());
+            assertThat(new BigDecimal(transaction.get("amount").asText())).isEqualByComparingTo("20.00");
+            assertThat(transaction.get("version").asLong())
+                    .isEqualTo(MAPPER.readTree(updated.body()).get("version").asLong());
+        }
+
+        HttpResponse<String> deleted = send(2, HttpRequest.newBuilder(uri(2, "/api/transactions/" + id)).DELETE());
+        assertThat(deleted.statusCode()).isEqualTo(204);
+        for (int i = 0; i < 3; i++) {
+            assertThat(get(i, id).statusCode()).isEqualTo(404);
+        }
+    }
+
+    @Test
+    void restartedReplica_ShouldCatchUpFromSnapshotAndFollowLog() throws Exception {
+        awaitConnected();
+        replicas[2].close();
+        replicas[2] = null;
+        String whileDown = create(0, "30.00");
+
+        replicas[2] = start(2);
+        await(() -> get(2, whileDown).statusCode() == 200);
+        awaitConnected();
+        String afterRestart = create(1, "40.00");
+
+        assertThat(get(2, afterRestart).statusCode()).isEqualTo(200);
+        JsonNode status = MAPPER.readTree(send(2, HttpRequest.newBuilder(uri(2, "/internal/replication/status"))
+                        .header(TransactionReplicator.TOKEN_HEADER, SECRET).GET())
+                .body());
+        assertThat(status.get("peers")).hasSize(2);
+    }
+
+    @Test
+    void batchUpdate_ShouldInvalidateWarmCachesOnOtherReplicas() throws Exception {
+        awaitConnected();
+        String first = create(0, "1.00");
+        String second = create(0, "2.00");
+        for (int i = 0; i < 3; i++) {
+            assertThat(get(i, first).statusCode()).isEqualTo(200);
+            assertThat(get(i, second).statusCode()).isEqualTo(200);
+        }
+
+        HttpResponse<String> updated = send(1, HttpRequest.newBuilder(uri(1, "/api/transactions/batch"))
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString("[" + body(first, "5.00") + "," + body(second, "6.00") + ","
+                        + body(first, "7.00") + "]")));
+        assertThat(updated.statusCode()).isEqualTo(200);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(new BigDecimal(MAPPER.readTree(get(i, first).body()).get("amount").asText()))
+                    .isEqualByComparingTo("7.00");
+            assertThat(new BigDecimal(MAPPER.readTree(get(i, second).body()).get("amount").asText()))
+                    .isEqualByComparingTo("6.00");
+        }
+    }
+
+    @Test
+    void replicationEndpoints_WithoutValidToken_ShouldBeForbidden() throws Exception {
+        for (String path : new String[]{"/internal/replication/log?after=0", "/internal/replication/snapshot",
+                "/internal/replication/status"}) {
+            assertThat(send(0, HttpRequest.newBuilder(uri(0, path)).GET()).statusCode()).isEqualTo(403);
+            assertThat(send(0, HttpRequest.newBuilder(uri(0, path)).header(TransactionReplicator.TOKEN_HEADER, "wrong")
+                    .GET()).statusCode()).isEqualTo(403);
+        }
+    }
+
+    @Test
+    void read_FromUnknownReplica_ShouldNotCountAsAcknowledgement() throws Exception {
+        ReplicationProperties properties = new ReplicationProperties();
+        properties.setSelf("http://localhost:1");
+        properties.setPeers(List.of("http://localhost:1", "http://localhost:2"));
+        properties.setSharedSecret(SECRET);
+        properties.setAckMode(AckMode.SYNC);
+        properties.setSyncTimeout(Duration.ofMillis(100));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        TransactionReplicator replicator = new TransactionReplicator(new TransactionRepository(), properties,
+                CLIENT, registry);
+        long epoch = replicator.status().epoch();
+
+        replicator.read(Long.MAX_VALUE, 1, "http://localhost:3", epoch, Duration.ZERO);
+        replicator.onChange(new TransactionChange(1, TransactionChange.Type.DELETE, "forged", null, null));
+        assertThat(registry.get("transaction.replication.sync.timeouts").counter().count()).isEqualTo(1);
+
+        replicator.read(Long.MAX_VALUE, 1, "http://localhost:2/", epoch, Duration.ZERO);
+        replicator.onChange(new TransactionChange(2, TransactionChange.Type.DELETE, "acknowledged", null, null));
+        assertThat(registry.get("transaction.replication.sync.timeouts").counter().count()).isEqualTo(1);
+    }
+
+    private static ConfigurableApplicationContext start(int index) {
+        String peers = "http://localhost:" + ports[0] + ",http://localhost:" + ports[1]
+                + ",http://localhost:" + ports[2];
+        return new SpringApplicationBuilder(TransactionServiceApplication.class).run(
+                "--server.port=" + ports[index],
+                "--spring.jmx.enabled=false",
+                "--transaction.id.node-id=" + index,
+                "--transaction.replication.enabled=true",
+                "--transaction.replication.self=http://localhost:" + ports[index],
+                "--transaction.replication.peers=" + peers,
+                "--transaction.replication.shared-secret=" + SECRET,
+                "--transaction.replication.ack-mode=sync",
+                "--transaction.replication.min-acks=2",
+                "--transaction.replication.sync-timeout=2s",
+                "--transaction.replication.poll-timeout=1s",
+                "--transaction.replication.retry-interval=100ms");
+    }
+
+    /**
+     * 等待所有副本都连上各自的对等副本，之后的同步写入会等到两个对等副本都应用后才返回
+     */
+    private static void awaitConnected() throws Exception {
+        await(() -> {
+            for (int i = 0; i < 3; i++) {
+                JsonNode status = MAPPER.readTree(send(i, HttpRequest.newBuilder(uri(i, "/internal/replication/status"))
+                        .header(TransactionReplicator.TOKEN_HEADER, SECRET).GET()).body());
+                for (JsonNode peer : status.get("peers")) {
+                    if (!peer.get("connected").asBoolean()) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        });
+    }
+
+    private static String create(int index, String amount) throws Exception {
+        HttpResponse<String> response = send(index, HttpRequest.newBuilder(uri(index, "/api/transactions"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body(amount))));
+        assertThat(response.statusCode()).isEqualTo(201);
+        return MAPPER.readTree(response.body()).get("id").asText();
+    }
+
+    private static HttpResponse<String> get(int index, String id) throws Exception {
+        return send(index, HttpRequest.newBuilder(uri(index, "/api/transactions/" + id)).GET());
+    }
+
+    private static HttpResponse<String> send(int index, HttpRequest.Builder request) throws Exception {
+        return CLIENT.send(request.timeout(Duration.ofSeconds(10)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static URI uri(int index, String path) {
+        return URI.create("http://localhost:" + ports[index] + path);
+    }
+
+    private static String body(String amount) {
+        return "{\"amount\":" + amount + ",\"description\":\"Replicated\",\"type\":\"CREDIT\",\"category\":\"Test\"}";
+    }
+
+    private static String body(String id, String amount) {
+        return "{\"id\":\"" + id + "\"," + body(amount).substring(1);
+    }
+
+    private static void await(CheckedCondition condition) throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(20).toNanos();
+        while (!condition.test()) {
+            assertThat(System.nanoTime()).as("condition not met within 20s").isLessThan(deadline);
+            Thread.sleep(50);
+        }
+    }
+
+    @FunctionalInterface
+    private interface CheckedCondition {
+        boolean test() throws Exception;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -1,17 +1,26 @@
 package com.banking.transactionservice.repository;
 
+import com.banking.transactionservice.exception.VersionConflictException;
+import com.banking.transactionservice.model.CategoryDictionary;
 import com.banking.transactionservice.model.Transaction;
 import com.banking.transactionservice.model.TransactionStatus;
 import com.banking.transactionservice.model.TransactionType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class TransactionRepositoryTest {
 
@@ -143,4 +152,517 @@ class TransactionRepositoryTest {
         repository.deleteById("1");
         assertThat(repository.count()).isEqualTo(1);
     }
-} 
\ No newline at end of file
+
+    @Test
+    void findAfter_ShouldWalkAllTransactionsInTimestampOrder() {
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < 25; i++) {
+            Transaction tx = new Transaction();
+            tx.setId(String.format("id-%02d", i));
+            tx.setTimestamp(base.plusMinutes(25 - i));
+            repository.save(tx);
+        }
+
+        List<String> visited = new ArrayList<>();
+        TransactionKey cursor = null;
+        List<Transaction> page;
+        do {
+            page = repository.findAfter(cursor, 10);
+            page.forEach(tx -> visited.add(tx.getId()));
+            if (!page.isEmpty()) {
+                cursor = TransactionKey.of(page.get(page.size() - 1));
+            }
+        } while (page.size() == 10);
+
+        assertThat(visited).hasSize(25);
+        assertThat(visited.get(0)).isEqualTo("id-24");
+        assertThat(visited.get(24)).isEqualTo("id-00");
+    }
+
+    @Test
+    void findAfter_ShouldReflectTimestampChangesOnUpdate() {
+        transaction1.setTimestamp(LocalDateTime.of(2024, 1, 1, 0, 0));
+        transaction2.setTimestamp(LocalDateTime.of(2024, 1, 2, 0, 0));
+        repository.save(transaction1);
+        repository.save(transaction2);
+
+        transaction1.setTimestamp(LocalDateTime.of(2024, 1, 3, 0, 0));
+        repository.save(transaction1);
+
+        assertThat(repository.findAfter(null, 10)).extracting(Transaction::getId).containsExactly("2", "1");
+        assertThat(repository.findAll(0, 10)).extracting(Transaction::getId).containsExactly("2", "1");
+    }
+
+    @Test
+    void save_ShouldNotBeAffectedByLaterMutationOfArgument() {
+        repository.save(transaction1);
+
+        transaction1.setAmount(new BigDecimal("999.00"));
+
+        assertThat(repository.findById("1").get().getAmount()).isEqualTo(new BigDecimal("100.00"));
+    }
+
+    @Test
+    void findAll_WithFilter_ShouldReturnOnlyMatchingTransactionsInOrder() {
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < 60; i++) {
+            Transaction tx = new Transaction();
+            tx.setId(String.format("id-%02d", i));
+            tx.setTimestamp(base.plusMinutes(i));
+            tx.setCategory("Category-" + (i % 3));
+            tx.setType(i % 2 == 0 ? TransactionType.CREDIT : TransactionType.DEBIT);
+            tx.setStatus(i % 5 == 0 ? TransactionStatus.PENDING : TransactionStatus.COMPLETED);
+            repository.save(tx);
+        }
+
+        TransactionFilter filter = new TransactionFilter("Category-0", TransactionType.DEBIT, TransactionStatus.PENDING);
+        assertThat(repository.findAll(filter, 0, 10)).extracting(Transaction::getId)
+                .containsExactly("id-15", "id-45");
+
+        TransactionFilter byType = new TransactionFilter(null, TransactionType.CREDIT, null);
+        List<Transaction> credits = repository.findAll(byType, 1, 5);
+        assertThat(credits).extracting(Transaction::getId)
+                .containsExactly("id-10", "id-12", "id-14", "id-16", "id-18");
+
+        TransactionFilter byCategory = new TransactionFilter("Category-1", null, null);
+        List<Transaction> firstPage = repository.findAfter(byCategory, null, 3);
+        assertThat(firstPage).extracting(Transaction::getId).containsExactly("id-01", "id-04", "id-07");
+        assertThat(repository.findAfter(byCategory, TransactionKey.of(firstPage.get(2)), 2))
+                .extracting(Transaction::getId).containsExactly("id-10", "id-13");
+    }
+
+    @Test
+    void findAll_WithFilter_ShouldFollowUpdatesOfIndexedFields() {
+        repository.save(transaction1);
+        repository.save(transaction2);
+        TransactionFilter pendingDebits = new TransactionFilter("Test", TransactionType.DEBIT, TransactionStatus.PENDING);
+        assertThat(repository.findAll(pendingDebits, 0, 10)).extracting(Transaction::getId).containsExactly("2");
+
+        transaction2.setStatus(TransactionStatus.COMPLETED);
+        repository.save(transaction2);
+        transaction1.setType(TransactionType.DEBIT);
+        transaction1.setStatus(TransactionStatus.PENDING);
+        repository.save(transaction1);
+
+        assertThat(repository.findAll(pendingDebits, 0, 10)).extracting(Transaction::getId).containsExactly("1");
+
+        repository.deleteById("1");
+
+        assertThat(repository.findAll(pendingDebits, 0, 10)).isEmpty();
+    }
+
+    @Test
+    void findByTimestampBetween_ShouldReturnHalfOpenRangeAndFollowTimestampUpdates() {
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < 10; i++) {
+            Transaction tx = new Transaction();
+            tx.setId("id-" + i);
+            tx.setTimestamp(base.plusHours(i));
+            repository.save(tx);
+        }
+
+        assertThat(repository.findByTimestampBetween(base.plusHours(2), base.plusHours(5), 100))
+                .extracting(Transaction::getId).containsExactly("id-2", "id-3", "id-4");
+        assertThat(repository.findByTimestampBetween(base.plusHours(8), null, 100))
+                .extracting(Transaction::getId).containsExactly("id-8", "id-9");
+        assertThat(repository.findByTimestampBetween(null, base.plusHours(3), 2))
+                .extracting(Transaction::getId).containsExactly("id-0", "id-1");
+
+        Transaction moved = new Transaction(repository.findById("id-3").orElseThrow());
+        moved.setTimestamp(base.plusDays(1));
+        repository.save(moved);
+
+        assertThat(repository.findByTimestampBetween(base.plusHours(2), base.plusHours(5), 100))
+                .extracting(Transaction::getId).containsExactly("id-2", "id-4");
+        assertThat(repository.findByTimestampBetween(base.plusDays(1), null, 100))
+                .extracting(Transaction::getId).containsExactly("id-3");
+    }
+
+    @Test
+    void findByTimestampBetween_WithFilter_ShouldOnlyReturnMatchingTransactionsInRange() {
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < 10; i++) {
+            Transaction tx = new Transaction();
+            tx.setId("id-" + i);
+            tx.setTimestamp(base.plusHours(i));
+            tx.setType(i % 2 == 0 ? TransactionType.CREDIT : TransactionType.DEBIT);
+            tx.setCategory(i < 5 ? "Food" : "Travel");
+            repository.save(tx);
+        }
+
+        TransactionFilter foodDebits = new TransactionFilter("Food", TransactionType.DEBIT, null);
+        assertThat(repository.findByTimestampBetween(foodDebits, base.plusHours(1), base.plusHours(3), 100))
+                .extracting(Transaction::getId).containsExactly("id-1");
+        assertThat(repository.findByTimestampBetween(foodDebits, null, null, 100))
+                .extracting(Transaction::getId).containsExactly("id-1", "id-3");
+        TransactionFilter credits = new TransactionFilter(null, TransactionType.CREDIT, null);
+        assertThat(repository.findByTimestampBetween(credits, base.plusHours(4), null, 2))
+                .extracting(Transaction::getId).containsExactly("id-4", "id-6");
+    }
+
+    @Test
+    void saveAllAndDeleteAllById_ShouldMaintainStoreIndexesAndNotifyListenersOnce() {
+        List<List<TransactionChange>> notifications = new ArrayList<>();
+        repository.addChangeListener(new TransactionChangeListener() {
+            @Override
+            public void onChange(TransactionChange change) {
+                notifications.add(List.of(change));
+            }
+
+            @Override
+            public void onChanges(List<TransactionChange> changes) {
+                notifications.add(changes);
+            }
+        });
+
+        List<Transaction> saved = repository.saveAll(List.of(transaction1, transaction2));
+
+        assertThat(saved).extracting(Transaction::getId).containsExactly("1", "2");
+        assertThat(repository.count()).isEqualTo(2);
+        assertThat(repository.findAll(new TransactionFilter(null, TransactionType.DEBIT, null), 0, 10))
+                .extracting(Transaction::getId).containsExactly("2");
+
+        List<String> deleted = repository.deleteAllById(List.of("1", "999"));
+
+        assertThat(deleted).containsExactly("1");
+        assertThat(repository.count()).isEqualTo(1);
+        assertThat(notifications).hasSize(2);
+        assertThat(notifications.get(0)).extracting(TransactionChange::type)
+                .containsExactly(TransactionChange.Type.SAVE, TransactionChange.Type.SAVE);
+        assertThat(notifications.get(1)).extracting(TransactionChange::id).containsExactly("1");
+    }
+
+    @Test
+    void forEach_WithFilter_ShouldVisitMatchingTransactionsInOrder() {
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < 6; i++) {
+            Transaction tx = new Transaction();
+            tx.setId("id-" + i);
+            tx.setTimestamp(base.minusHours(i));
+            tx.setType(i % 2 == 0 ? TransactionType.DEBIT : TransactionType.CREDIT);
+            tx.setCategory("Food");
+            repository.save(tx);
+        }
+
+        List<String> all = new ArrayList<>();
+        repository.forEach(TransactionFilter.NONE, tx -> all.add(tx.getId()));
+        List<String> debits = new ArrayList<>();
+        repository.forEach(new TransactionFilter("Food", TransactionType.DEBIT, null), tx -> debits.add(tx.getId()));
+
+        assertThat(all).containsExactly("id-5", "id-4", "id-3", "id-2", "id-1", "id-0");
+        assertThat(debits).containsExactly("id-4", "id-2", "id-0");
+    }
+
+    @Test
+    void summarize_ShouldAggregateByCategoryAndType() {
+        transaction2.setCategory("Food");
+        repository.save(transaction1);
+        repository.save(transaction2);
+        Transaction transaction3 = new Transaction(transaction1);
+        transaction3.setId("3");
+        transaction3.setAmount(new BigDecimal("50.00"));
+        repository.save(transaction3);
+
+        TransactionSummary summary = repository.summarize();
+
+        assertThat(summary.total()).isEqualTo(new AggregateStats(3, new BigDecimal("350.00"),
+                new BigDecimal("50.00"), new BigDecimal("200.00")));
+        assertThat(summary.byCategory()).containsOnlyKeys("Food", "Test");
+        assertThat(summary.byCategory().get("Test")).isEqualTo(new AggregateStats(2, new BigDecimal("150.00"),
+                new BigDecimal("50.00"), new BigDecimal("100.00")));
+        assertThat(summary.byType().get(TransactionType.CREDIT).count()).isEqualTo(2);
+        assertThat(summary.byType().get(TransactionType.DEBIT).sum()).isEqualByComparingTo("200.00");
+    }
+
+    @Test
+    void summarize_ShouldApplyDeltaWhenUpdateChangesAmountCategoryAndType() {
+        repository.save(transaction1);
+        repository.save(transaction2);
+
+        transaction1.setAmount(new BigDecimal("30.00"));
+        transaction1.setCategory("Food");
+        transaction1.setType(TransactionType.DEBIT);
+        repository.save(transaction1);
+
+        TransactionSummary summary = repository.summarize();
+        assertThat(summary.total().count()).isEqualTo(2);
+        assertThat(summary.total().sum()).isEqualByComparingTo("230.00");
+        assertThat(summary.byCategory().get("Test")).isEqualTo(new AggregateStats(1, new BigDecimal("200.00"),
+                new BigDecimal("200.00"), new BigDecimal("200.00")));
+        assertThat(summary.byCategory().get("Food").sum()).isEqualByComparingTo("30.00");
+        assertThat(summary.byType().get(TransactionType.CREDIT).count()).isZero();
+        assertThat(summary.byType().get(TransactionType.CREDIT).max()).isNull();
+        assertThat(summary.byType().get(TransactionType.DEBIT).min()).isEqualByComparingTo("30.00");
+    }
+
+    @Test
+    void summarize_ShouldRecomputeMinAndMaxAfterDelete() {
+        repository.save(transaction1);
+        repository.save(transaction2);
+        Transaction transaction3 = new Transaction(transaction1);
+        transaction3.setId("3");
+        transaction3.setAmount(new BigDecimal("150.00"));
+        repository.save(transaction3);
+
+        repository.deleteById("2");
+        repository.deleteAllById(List.of("1"));
+
+        TransactionSummary summary = repository.summarize();
+        assertThat(summary.total()).isEqualTo(new AggregateStats(1, new BigDecimal("150.00"),
+                new BigDecimal("150.00"), new BigDecimal("150.00")));
+
+        repository.deleteById("3");
+        assertThat(repository.summarize().byCategory()).isEmpty();
+        assertThat(repository.summarize().total().sum()).isEqualByComparingTo("0");
+    }
+
+
+    @Test
+    void save_ShouldShareCategoryInstancesAndQueriesShouldNotGrowDictionary() {
+        CategoryDictionary categories = new CategoryDictionary();
+        repository = new TransactionRepository(new HeapTransactionStore(), categories);
+        transaction1.setCategory(new String("Shared"));
+        transaction2.setCategory(new String("Shared"));
+
+        Transaction first = repository.save(transaction1);
+        Transaction second = repository.save(transaction2);
+        assertThat(second.getCategory()).isSameAs(first.getCategory()).isEqualTo("Shared");
+
+        TransactionFilter filter = new TransactionFilter("Never-Used-Category", null, null);
+        assertThat(repository.findAll(filter, 0, 10)).isEmpty();
+        assertThat(repository.findAfter(filter, null, 10)).isEmpty();
+        assertThat(categories.size()).isEqualTo(1);
+    }
+
+
+    @Test
+    void save_ShouldAssignIncreasingVersions() {
+        Transaction first = repository.save(transaction1);
+        Transaction second = repository.save(transaction2);
+        Transaction updated = repository.save(transaction1);
+
+        assertThat(first.getVersion()).isPositive();
+        assertThat(second.getVersion()).isGreaterThan(first.getVersion());
+        assertThat(updated.getVersion()).isGreaterThan(second.getVersion());
+        assertThat(repository.findById("1")).get().extracting(Transaction::getVersion).isEqualTo(updated.getVersion());
+    }
+
+    @Test
+    void update_WithCurrentVersion_ShouldWriteAndAssignNewVersion() {
+        long version = repository.save(transaction1).getVersion();
+        transaction1.setAmount(new BigDecimal("150.00"));
+
+        Optional<Transaction> updated = repository.update(transaction1, version);
+
+        assertThat(updated).isPresent();
+        assertThat(updated.get().getVersion()).isGreaterThan(version);
+        assertThat(repository.findById("1")).get().extracting(Transaction::getAmount).isEqualTo(new BigDecimal("150.00"));
+    }
+
+    @Test
+    void update_WithStaleVersion_ShouldThrowAndLeaveRecordUnchanged() {
+        long version = repository.save(transaction1).getVersion();
+        repository.save(transaction1);
+        transaction1.setAmount(new BigDecimal("150.00"));
+        transaction1.setCategory("Changed");
+
+        assertThatThrownBy(() -> repository.update(transaction1, version))
+                .isInstanceOf(VersionConflictException.class);
+
+        assertThat(repository.findById("1")).get().extracting(Transaction::getAmount).isEqualTo(new BigDecimal("100.00"));
+        assertThat(repository.findAll(new TransactionFilter("Test", null, null), 0, 10)).hasSize(1);
+        assertThat(repository.findAll(new TransactionFilter("Changed", null, null), 0, 10)).isEmpty();
+    }
+
+    @Test
+    void update_WhenMissing_ShouldNotCreateRecord() {
+        repository.save(transaction1);
+        repository.deleteById("1");
+
+        assertThat(repository.update(transaction1, TransactionRepository.ANY_VERSION)).isEmpty();
+        assertThat(repository.existsById("1")).isFalse();
+        assertThat(repository.count()).isZero();
+    }
+
+    @Test
+    void update_AfterDeleteAndRecreate_ShouldRejectVersionOfDeletedRecord() {
+        long version = repository.save(transaction1).getVersion();
+        repository.deleteById("1");
+        repository.save(transaction1);
+
+        assertThatThrownBy(() -> repository.update(transaction1, version))
+                .isInstanceOf(VersionConflictException.class);
+    }
+
+    @Test
+    void update_ConcurrentWithSameVersion_ShouldLetExactlyOneSucceed() throws Exception {
+        long version = repository.save(transaction1).getVersion();
+        int writers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < writers; i++) {
+                Transaction candidate = new Transaction(transaction1);
+                candidate.setAmount(BigDecimal.valueOf(i + 1));
+                results.add(executor.submit(() -> {
+                    try {
+                        return repository.update(candidate, version).isPresent();
+                    } catch (VersionConflictException e) {
+                        return false;
+                    }
+                }));
+            }
+            int succeeded = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get()) {
+                    succeeded++;
+                }
+            }
+            assertThat(succeeded).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void restore_ShouldKeepVersionAndAdvanceSequence() {
+        transaction1.setVersion(100);
+
+        Transaction restored = repository.restore(transaction1);
+        Transaction saved = repository.save(transaction2);
+
+        assertThat(restored.getVersion()).isEqualTo(100);
+        assertThat(saved.getVersion()).isGreaterThan(100);
+        assertThat(repository.currentSequence()).isGreaterThanOrEqualTo(saved.getVersion());
+    }
+
+    @Test
+    void restoreIf_ShouldWriteOnlyWhenConditionHoldsAndNotifyListeners() {
+        List<TransactionChange> changes = new ArrayList<>();
+        repository.addChangeListener(changes::add);
+        transaction1.setVersion(10);
+        repository.restore(transaction1);
+        Transaction older = new Transaction(transaction1);
+        older.setVersion(5);
+        older.setAmount(new BigDecimal("1.00"));
+        Transaction newer = new Transaction(transaction1);
+        newer.setVersion(20);
+        newer.setAmount(new BigDecimal("2.00"));
+
+        boolean olderWritten = repository.restoreIf(older, (existing, incoming) -> incoming.getVersion() > existing.getVersion());
+        boolean newerWritten = repository.restoreIf(newer, (existing, incoming) -> incoming.getVersion() > existing.getVersion());
+
+        assertThat(olderWritten).isFalse();
+        assertThat(newerWritten).isTrue();
+        Transaction stored = repository.findById("1").orElseThrow();
+        assertThat(stored.getVersion()).isEqualTo(20);
+        assertThat(stored.getAmount()).isEqualTo(new BigDecimal("2.00"));
+        assertThat(changes).hasSize(2);
+        assertThat(repository.currentSequence()).isGreaterThan(20);
+    }
+
+    @Test
+    void deleteIf_ShouldDeleteOnlyWhenConditionHolds() {
+        transaction1.setVersion(10);
+        repository.restore(transaction1);
+
+        boolean deletedByOlder = repository.deleteIf("1", existing -> existing.getVersion() <= 5);
+        boolean deletedByNewer = repository.deleteIf("1", existing -> existing.getVersion() <= 10);
+        boolean deletedMissing = repository.deleteIf("1", existing -> true);
+
+        assertThat(deletedByOlder).isFalse();
+        assertThat(deletedByNewer).isTrue();
+        assertThat(deletedMissing).isFalse();
+        assertThat(repository.existsById("1")).isFalse();
+        assertThat(repository.findAll(0, 10)).isEmpty();
+    }
+
+    @Test
+    void updateAll_ShouldWriteOnlyExistingRecordsWithExpectedVersion() {
+        List<TransactionChange> changes = new ArrayList<>();
+        repository.addChangeListener(changes::add);
+        long version1 = repository.save(transaction1).getVersion();
+        long version2 = repository.save(transaction2).getVersion();
+        repository.save(transaction2);
+        Transaction missing = new Transaction(transaction1);
+        missing.setId("3");
+        transaction1.setAmount(new BigDecimal("150.00"));
+        transaction2.setAmount(new BigDecimal("250.00"));
+        changes.clear();
+
+        List<UpdateResult> results = repository.updateAll(List.of(transaction1, transaction2, missing),
+                new long[] {version1, version2, TransactionRepository.ANY_VERSION});
+
+        assertThat(results).extracting(UpdateResult::status).containsExactly(
+                UpdateResult.Status.UPDATED, UpdateResult.Status.CONFLICT, UpdateResult.Status.NOT_FOUND);
+        assertThat(results.get(0).transaction().getVersion()).isGreaterThan(version2);
+        assertThat(results.get(1).currentVersion()).isGreaterThan(version2);
+        assertThat(repository.findById("1")).get().extracting(Transaction::getAmount).isEqualTo(new BigDecimal("150.00"));
+        assertThat(repository.findById("2")).get().extracting(Transaction::getAmount).isEqualTo(new BigDecimal("200.00"));
+        assertThat(repository.existsById("3")).isFalse();
+        assertThat(changes).extracting(TransactionChange::id).containsExactly("1");
+    }
+
+    @Test
+    void save_WhenListenerFails_ShouldStillNotifyOtherListenersAndRethrow() {
+        List<TransactionChange> changes = new ArrayList<>();
+        repository.addChangeListener(change -> {
+            throw new UncheckedIOException(new IOException("fsync failed"));
+        });
+        repository.addChangeListener(changes::add);
+
+        assertThatThrownBy(() -> repository.save(transaction1)).isInstanceOf(UncheckedIOException.class);
+        assertThatThrownBy(() -> repository.saveAll(List.of(transaction2))).isInstanceOf(UncheckedIOException.class);
+
+        assertThat(changes).extracting(TransactionChange::id).containsExactly("1", "2");
+        assertThat(repository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void saveAll_WhenOneItemFails_ShouldReportItAndSaveAndPublishTheRest() {
+        repository = new TransactionRepository(new ColumnarTransactionStore());
+        List<TransactionChange> changes = new ArrayList<>();
+        repository.addChangeListener(changes::add);
+        Transaction outOfRange = new Transaction();
+        outOfRange.setId("3");
+        outOfRange.setAmount(new BigDecimal("300.00"));
+        outOfRange.setType(TransactionType.DEBIT);
+        outOfRange.setTimestamp(LocalDateTime.MAX);
+        Transaction outOfRangeOverwrite = new Transaction(outOfRange);
+        outOfRangeOverwrite.setId("1");
+        List<Integer> failed = new ArrayList<>();
+
+        List<Transaction> saved = repository.saveAll(
+                List.of(transaction1, outOfRange, transaction2, outOfRangeOverwrite), (e, index) -> {
+                    assertThat(e).isInstanceOf(IllegalArgumentException.class);
+                    failed.add(index);
+                });
+
+        assertThat(failed).containsExactly(1, 3);
+        assertThat(saved).hasSize(4);
+        assertThat(saved.get(1)).isNull();
+        assertThat(saved.get(2).getId()).isEqualTo("2");
+        assertThat(saved.get(3)).isNull();
+        assertThat(repository.existsById("3")).isFalse();
+        assertThat(repository.findById("1")).get().extracting(Transaction::getAmount).isEqualTo(new BigDecimal("100.00"));
+        assertThat(repository.findAll(0, 10)).extracting(Transaction::getId).containsExactlyInAnyOrder("1", "2");
+        assertThat(repository.summarize().total().count()).isEqualTo(2);
+        assertThat(changes).extracting(TransactionChange::id).containsExactly("1", "2");
+    }
+
+    @Test
+    void saveAll_WithoutFailureHandler_ShouldRethrowAndPublishItemsSavedBeforeTheFailure() {
+        repository = new TransactionRepository(new ColumnarTransactionStore());
+        List<TransactionChange> changes = new ArrayList<>();
+        repository.addChangeListener(changes::add);
+        Transaction outOfRange = new Transaction();
+        outOfRange.setId("3");
+        outOfRange.setTimestamp(LocalDateTime.MAX);
+
+        assertThatThrownBy(() -> repository.saveAll(List.of(transaction1, outOfRange, transaction2)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(changes).extracting(TransactionChange::id).containsExactly("1");
+        assertThat(repository.count()).isEqualTo(1);
+    }
+}
\ No newline at end of file
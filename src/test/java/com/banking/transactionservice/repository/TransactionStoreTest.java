@@ -0,0 +1,234 @@
+package com.banking.transactionservice.repository;
+
+import com.banking.transactionservice.model.CategoryDictionary;
+import com.banking.transactionservice.model.Transaction;
+import com.banking.transactionservice.model.TransactionStatus;
+import com.banking.transactionservice.model.TransactionType;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 所有存储引擎共用的行为测试
+ */
+class TransactionStoreTest {
+
+    @ParameterizedTest
+    @EnumSource(StorageEngine.class)
+    void compute_ShouldRoundTripAllFields(StorageEngine engine) {
+        TransactionStore store = engine.createStore();
+        String id = UUID.randomUUID().toString();
+        Transaction transaction = transaction(id, "1234.5678");
+        transaction.setTimestamp(LocalDateTime.of(1969, 12, 31, 23, 59, 59, 123456789));
+        transaction.setDescription("描述 with ünïcode");
+        transaction.setVersion(Long.MAX_VALUE - 1);
+
+        store.compute(id, (key, existing) -> transaction);
+
+        Transaction stored = store.get(id);
+        assertThat(stored).usingRecursiveComparison().isEqualTo(transaction);
+        assertThat(stored.getAmount().scale()).isEqualTo(4);
+        assertThat(store.containsKey(id)).isTrue();
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    @ParameterizedTest
+    @EnumSource(StorageEngine.class)
+    void compute_WhenCategoryDictionaryIsFull_ShouldKeepRawCategories(StorageEngine engine) {
+        CategoryDictionary categories = new CategoryDictionary(1);
+        TransactionStore store = engine.createStore(categories);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Transaction transaction = transaction(UUID.randomUUID().toString(), "1.00");
+            transaction.setCategory("Category-" + i);
+            store.compute(transaction.getId(), (key, existing) -> transaction);
+            ids.add(transaction.getId());
+        }
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(store.get(ids.get(i)).getCategory()).isEqualTo("Category-" + i);
+        }
+        assertThat(categories.size()).isLessThanOrEqualTo(1);
+
+        Transaction recategorized = store.get(ids.get(2));
+        recategorized.setCategory("Category-0");
+        store.compute(recategorized.getId(), (key, existing) -> recategorized);
+        store.compute(ids.get(1), (key, existing) -> null);
+        assertThat(store.get(ids.get(2)).getCategory()).isEqualTo("Category-0");
+        assertThat(store.get(ids.get(1))).isNull();
+    }
+
+    @ParameterizedTest
+    @EnumSource(StorageEngine.class)
+    void compute_ShouldKeepNonUuidIdsNullFieldsAndWideAmounts(StorageEngine engine) {
+        TransactionStore store = engine.createStore();
+        Transaction custom = transaction("ABC-1", "123456789012345678901234567890.12");
+        custom.setType(null);
+        custom.setStatus(null);
+        custom.setCategory(null);
+        custom.setDescription(null);
+        Transaction upperCaseUuid = transaction(UUID.randomUUID().toString().toUpperCase(), "1");
+        upperCaseUuid.setTimestamp(null);
+        upperCaseUuid.setAmount(null);
+
+        store.compute(custom.getId(), (key, existing) -> custom);
+        store.compute(upperCaseUuid.getId(), (key, existing) -> upperCaseUuid);
+
+        assertThat(store.get("ABC-1")).usingRecursiveComparison().isEqualTo(custom);
+        assertThat(store.get(upperCaseUuid.getId())).usingRecursiveComparison().isEqualTo(upperCaseUuid);
+        assertThat(store.get(upperCaseUuid.getId().toLowerCase())).isNull();
+    }
+
+    @ParameterizedTest
+    @EnumSource(StorageEngine.class)
+    void compute_ShouldKeepDescriptionsOfAnyLength(StorageEngine engine) {
+        TransactionStore store = engine.createStore();
+        Transaction transaction = transaction("1", "10.00");
+        transaction.setDescription("长描述".repeat(40));
+        store.compute("1", (key, existing) -> transaction);
+
+        assertThat(store.get("1").getDescription()).isEqualTo("长描述".repeat(40));
+
+        Transaction shortened = new Transaction(transaction);
+        shortened.setDescription("");
+        store.compute("1", (key, existing) -> shortened);
+
+        assertThat(store.get("1").getDescription()).isEmpty();
+    }
+
+    @ParameterizedTest
+    @EnumSource(StorageEngine.class)
+    void compute_ShouldPassExistingRecordAndDeleteOnNull(StorageEngine engine) {
+        TransactionStore store = engine.createStore();
+        store.compute("1", (key, existing) -> transaction(key, "10.00"));
+        store.compute("1", (key, existing) -> {
+            Transaction updated = new Transaction(existing);
+            updated.setAmount(existing.getAmount().add(BigDecimal.ONE));
+            return updated;
+        });
+
+        assertThat(store.get("1").getAmount()).isEqualTo(new BigDecimal("11.00"));
+
+        store.compute("1", (key, existing) -> null);
+        store.compute("missing", (key, existing) -> null);
+
+        assertThat(store.get("1")).isNull();
+        assertThat(store.size()).isZero();
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = StorageEngine.class, names = {"COLUMNAR", "OFF_HEAP"})
+    void compute_WithTimestampOutOfRange_ShouldLeaveStoreUnchanged(StorageEngine engine) {
+        TransactionStore store = engine.createStore();
+        Transaction transaction = transaction("1", "10.00");
+        transaction.setTimestamp(LocalDateTime.MAX);
+
+        assertThatThrownBy(() -> store.compute("1", (key, existing) -> transaction))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(store.get("1")).isNull();
+        assertThat(store.size()).isZero();
+    }
+
+    @ParameterizedTest
+    @EnumSource(StorageEngine.class)
+    void randomInsertsAndDeletes_ShouldMatchReferenceMap(StorageEngine engine) {
+        TransactionStore store = engine.createStore();
+        Map<String, Transaction> reference = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            String id = random.nextBoolean() ? "id-" + random.nextInt(2_000) : uuid(random.nextInt(2_000));
+            if (random.nextInt(3) == 0) {
+                reference.remove(id);
+                store.compute(id, (key, existing) -> null);
+            } else {
+                Transaction transaction = transaction(id, random.nextInt(100_000) + ".00");
+                reference.put(id, transaction);
+                store.compute(id, (key, existing) -> transaction);
+            }
+        }
+
+        assertThat(store.size()).isEqualTo(reference.size());
+        reference.forEach((id, transaction) ->
+                assertThat(store.get(id)).usingRecursiveComparison().isEqualTo(transaction));
+        List<String> iterated = new ArrayList<>();
+        store.forEach(transaction -> iterated.add(transaction.getId()));
+        assertThat(iterated).containsExactlyInAnyOrderElementsOf(reference.keySet());
+    }
+
+    @ParameterizedTest
+    @EnumSource(StorageEngine.class)
+    void concurrentWriters_ShouldNotLoseRecords(StorageEngine engine) throws Exception {
+        TransactionStore store = engine.createStore();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    Transaction transaction = transaction(thread + "-" + i, "1.00");
+                    store.compute(transaction.getId(), (key, existing) -> transaction);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertThat(store.size()).isEqualTo(16_000);
+        assertThat(store.get("7-1999")).isNotNull();
+    }
+
+    @ParameterizedTest
+    @EnumSource(StorageEngine.class)
+    void repository_ShouldMaintainIndexesOnEveryEngine(StorageEngine engine) {
+        TransactionStore store = engine.createStore();
+        TransactionRepository repository = new TransactionRepository(store);
+        Transaction first = transaction("1", "100.00");
+        Transaction second = transaction("2", "200.00");
+        second.setTimestamp(first.getTimestamp().plusSeconds(1));
+        repository.save(first);
+        repository.save(second);
+        first.setCategory("Food");
+        repository.save(first);
+
+        assertThat(repository.findAll(0, 10)).extracting(Transaction::getId).containsExactly("1", "2");
+        assertThat(repository.findAll(new TransactionFilter("Food", null, null), 0, 10))
+                .extracting(Transaction::getId).containsExactly("1");
+        assertThat(repository.summarize().byCategory()).containsOnlyKeys("Food", "Test");
+
+        repository.deleteById("1");
+        assertThat(repository.findAll(0, 10)).extracting(Transaction::getId).containsExactly("2");
+        assertThat(repository.count()).isEqualTo(1);
+    }
+
+    private static String uuid(int i) {
+        return new UUID(i * 0x9e3779b97f4a7c15L, i).toString();
+    }
+
+    private static Transaction transaction(String id, String amount) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setAmount(new BigDecimal(amount));
+        transaction.setDescription("Transaction " + id);
+        transaction.setType(TransactionType.DEBIT);
+        transaction.setCategory("Test");
+        transaction.setTimestamp(LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123456789));
+        transaction.setStatus(TransactionStatus.PENDING);
+        return transaction;
+    }
+}
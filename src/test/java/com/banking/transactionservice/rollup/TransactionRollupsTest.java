@@ -0,0 +1,231 @@
+package com.banking.transactionservice.rollup;
+
+import com.banking.transactionservice.model.Transaction;
+import com.banking.transactionservice.model.TransactionStatus;
+import com.banking.transactionservice.model.TransactionType;
+import com.banking.transactionservice.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransactionRollupsTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 1, 12, 30, 15);
+
+    private MutableClock clock;
+    private TransactionRepository repository;
+    private TransactionRollups rollups;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(NOW.toInstant(ZoneOffset.UTC));
+        repository = new TransactionRepository();
+        rollups = new TransactionRollups(Map.of(
+                RollupGranularity.MINUTE, Duration.ofHours(1),
+                RollupGranularity.HOUR, Duration.ofDays(1),
+                RollupGranularity.DAY, Duration.ofDays(30)), Duration.ofDays(1), clock);
+        repository.addChangeListener(rollups);
+    }
+
+    @Test
+    void save_ShouldAddToBucketOfTransactionTimestamp() {
+        repository.save(transaction("1", "100.00", TransactionType.CREDIT, NOW.minusSeconds(10)));
+        repository.save(transaction("2", "40.00", TransactionType.DEBIT, NOW.minusSeconds(5)));
+        repository.save(transaction("3", "60.00", TransactionType.CREDIT, NOW.minusMinutes(2)));
+
+        List<RollupPoint> minutes = rollups.query(RollupGranularity.MINUTE, null, null);
+        assertThat(minutes).extracting(RollupPoint::start)
+                .containsExactly(LocalDateTime.of(2024, 5, 1, 12, 28), LocalDateTime.of(2024, 5, 1, 12, 30));
+        RollupPoint current = minutes.get(1);
+        assertThat(current.creditCount()).isEqualTo(1);
+        assertThat(current.creditAmount()).isEqualByComparingTo("100.00");
+        assertThat(current.debitCount()).isEqualTo(1);
+        assertThat(current.debitAmount()).isEqualByComparingTo("40.00");
+
+        List<RollupPoint> hours = rollups.query(RollupGranularity.HOUR, null, null);
+        assertThat(hours).hasSize(1);
+        assertThat(hours.get(0).creditAmount()).isEqualByComparingTo("160.00");
+    }
+
+    @Test
+    void update_ShouldMoveTransactionBetweenBuckets() {
+        repository.save(transaction("1", "100.00", TransactionType.CREDIT, NOW));
+        repository.save(transaction("1", "25.00", TransactionType.DEBIT, NOW.minusHours(3)));
+
+        List<RollupPoint> hours = rollups.query(RollupGranularity.HOUR, null, null);
+        assertThat(hours).extracting(RollupPoint::start).containsExactly(LocalDateTime.of(2024, 5, 1, 9, 0));
+        assertThat(hours.get(0).creditCount()).isZero();
+        assertThat(hours.get(0).debitCount()).isEqualTo(1);
+        assertThat(hours.get(0).debitAmount()).isEqualByComparingTo("25.00");
+
+        repository.deleteById("1");
+        assertThat(rollups.query(RollupGranularity.DAY, null, null)).isEmpty();
+    }
+
+    @Test
+    void backdatedTransaction_ShouldBeCountedWithinRetentionAndIgnoredBeyondIt() {
+        repository.save(transaction("1", "10.00", TransactionType.DEBIT, NOW.minusMinutes(30)));
+        repository.save(transaction("2", "20.00", TransactionType.DEBIT, NOW.minusHours(2)));
+
+        assertThat(rollups.query(RollupGranularity.MINUTE, null, null)).extracting(RollupPoint::start)
+                .containsExactly(LocalDateTime.of(2024, 5, 1, 12, 0));
+        assertThat(rollups.query(RollupGranularity.HOUR, null, null)).extracting(RollupPoint::start)
+                .containsExactly(LocalDateTime.of(2024, 5, 1, 10, 0), LocalDateTime.of(2024, 5, 1, 12, 0));
+
+        repository.deleteById("2");
+        assertThat(rollups.query(RollupGranularity.MINUTE, null, null)).hasSize(1);
+    }
+
+    @Test
+    void futureTransaction_ShouldBeCountedWithinHorizonAndIgnoredBeyondIt() {
+        repository.save(transaction("1", "10.00", TransactionType.CREDIT, NOW.plusHours(3)));
+        for (int i = 0; i < 100; i++) {
+            repository.save(transaction("far-" + i, "1.00", TransactionType.CREDIT, NOW.plusYears(1).plusMinutes(i)));
+        }
+
+        assertThat(rollups.query(RollupGranularity.HOUR, null, null)).extracting(RollupPoint::start)
+                .containsExactly(LocalDateTime.of(2024, 5, 1, 15, 0));
+        assertThat(rollups.query(RollupGranularity.MINUTE, null, null)).hasSize(1);
+
+        repository.deleteById("far-0");
+        repository.deleteById("1");
+        assertThat(rollups.query(RollupGranularity.DAY, null, null)).isEmpty();
+    }
+
+    @Test
+    void query_ShouldDropBucketsOlderThanRetention() {
+        repository.save(transaction("1", "10.00", TransactionType.CREDIT, NOW));
+
+        clock.advance(Duration.ofHours(2));
+
+        assertThat(rollups.query(RollupGranularity.MINUTE, null, null)).isEmpty();
+        assertThat(rollups.query(RollupGranularity.HOUR, null, null)).hasSize(1);
+        repository.deleteById("1");
+        assertThat(rollups.query(RollupGranularity.MINUTE, null, null)).isEmpty();
+        assertThat(rollups.query(RollupGranularity.HOUR, null, null)).isEmpty();
+    }
+
+    @Test
+    void query_ShouldRestrictToRange() {
+        for (int i = 0; i < 5; i++) {
+            repository.save(transaction(String.valueOf(i), "1.00", TransactionType.CREDIT, NOW.minusMinutes(i)));
+        }
+
+        List<RollupPoint> points = rollups.query(RollupGranularity.MINUTE,
+                LocalDateTime.of(2024, 5, 1, 12, 27, 30), LocalDateTime.of(2024, 5, 1, 12, 30));
+
+        assertThat(points).extracting(RollupPoint::start).containsExactly(
+                LocalDateTime.of(2024, 5, 1, 12, 27), LocalDateTime.of(2024, 5, 1, 12, 28),
+                LocalDateTime.of(2024, 5, 1, 12, 29));
+        assertThat(rollups.query(RollupGranularity.MINUTE, null, NOW.minusDays(1))).isEmpty();
+    }
+
+    @Test
+    void load_ShouldSeedFromExistingTransactions() {
+        TransactionRepository existing = new TransactionRepository();
+        existing.save(transaction("1", "10.00", TransactionType.CREDIT, NOW));
+        existing.save(transaction("2", "15.00", TransactionType.CREDIT, NOW));
+        TransactionRollups seeded = new TransactionRollups(Map.of(RollupGranularity.DAY, Duration.ofDays(1)),
+                Duration.ofDays(1), clock);
+
+        seeded.load(existing);
+
+        List<RollupPoint> days = seeded.query(RollupGranularity.DAY, null, null);
+        assertThat(days).hasSize(1);
+        assertThat(days.get(0).creditCount()).isEqualTo(2);
+        assertThat(days.get(0).creditAmount()).isEqualByComparingTo("25.00");
+    }
+
+    @Test
+    void load_AfterRegistration_ShouldCountWritesDuringLoadOnceAndIgnoreSecondCall() {
+        TransactionRepository existing = new TransactionRepository() {
+            private boolean written;
+
+            @Override
+            public void forEach(Consumer<Transaction> action) {
+                super.forEach(transaction -> {
+                    action.accept(transaction);
+                    if (!written) {
+                        // 遍历到第一条后写入：已遍历和未遍历的记录都被更新，并删除、新建各一条
+                        written = true;
+                        save(transaction("1", "11.00", TransactionType.CREDIT, NOW));
+                        save(transaction("2", "12.00", TransactionType.CREDIT, NOW));
+                        save(transaction("3", "13.00", TransactionType.CREDIT, NOW));
+                        deleteById("4");
+                        save(transaction("5", "15.00", TransactionType.CREDIT, NOW));
+                    }
+                });
+            }
+        };
+        for (int i = 1; i <= 4; i++) {
+            existing.save(transaction(String.valueOf(i), "1.00", TransactionType.CREDIT, NOW));
+        }
+        TransactionRollups seeded = new TransactionRollups(Map.of(RollupGranularity.DAY, Duration.ofDays(1)),
+                Duration.ofDays(1), clock);
+        existing.addChangeListener(seeded);
+
+        seeded.load(existing);
+        seeded.load(existing);
+        existing.save(transaction("1", "21.00", TransactionType.CREDIT, NOW));
+        existing.deleteById("5");
+
+        List<RollupPoint> days = seeded.query(RollupGranularity.DAY, null, null);
+        assertThat(days).hasSize(1);
+        assertThat(days.get(0).creditCount()).isEqualTo(3);
+        assertThat(days.get(0).creditAmount()).isEqualByComparingTo("46.00");
+    }
+
+    private static Transaction transaction(String id, String amount, TransactionType type, LocalDateTime timestamp) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setAmount(new BigDecimal(amount));
+        transaction.setDescription("Transaction " + id);
+        transaction.setType(type);
+        transaction.setCategory("Test");
+        transaction.setTimestamp(timestamp);
+        transaction.setStatus(TransactionStatus.COMPLETED);
+        return transaction;
+    }
+
+    /**
+     * 可以手动推进的时钟
+     */
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.banking.transactionservice.service;
+
+import com.banking.transactionservice.config.WireFormatConfig;
+import com.banking.transactionservice.dto.TransactionDTO;
+import com.banking.transactionservice.model.Transaction;
+import com.banking.transactionservice.model.TransactionStatus;
+import com.banking.transactionservice.model.TransactionType;
+import com.banking.transactionservice.repository.TransactionFilter;
+import com.banking.transactionservice.repository.TransactionRepository;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TransactionExporterTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 3, 1, 9, 0);
+
+    private TransactionRepository repository;
+    private ObjectMapper objectMapper;
+    private ObjectMapper cborMapper;
+    private TransactionExporter exporter;
+
+    @BeforeEach
+    void setUp() {
+        repository = new TransactionRepository();
+        objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        cborMapper = WireFormatConfig.cborObjectMapper(new Jackson2ObjectMapperBuilder());
+        exporter = new TransactionExporter(repository, new TransactionMapper(), objectMapper,
+                new MappingJackson2CborHttpMessageConverter(cborMapper));
+    }
+
+    @Test
+    void export_AsNdjson_ShouldWriteOneTransactionPerLineInOrder() throws IOException {
+        repository.save(transaction("2", "Rent", BASE.plusHours(1), TransactionType.DEBIT));
+        repository.save(transaction("1", "Salary", BASE, TransactionType.CREDIT));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = exporter.export(TransactionFilter.NONE, ExportFormat.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(count).isEqualTo(2);
+        assertThat(out.toString(StandardCharsets.UTF_8)).endsWith("\n");
+        assertThat(lines).hasSize(2);
+        TransactionDTO first = objectMapper.readValue(lines[0], TransactionDTO.class);
+        assertThat(first.getId()).isEqualTo("1");
+        assertThat(first.getAmount()).isEqualByComparingTo("10.50");
+        assertThat(first.getTimestamp()).isEqualTo(BASE);
+        assertThat(objectMapper.readValue(lines[1], TransactionDTO.class).getId()).isEqualTo("2");
+    }
+
+    @Test
+    void export_AsCsv_ShouldApplyFilterAndQuoteSpecialCharacters() throws IOException {
+        repository.save(transaction("1", "Lunch, with \"team\"", BASE, TransactionType.DEBIT));
+        repository.save(transaction("2", "Salary", BASE.plusHours(1), TransactionType.CREDIT));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = exporter.export(new TransactionFilter(null, TransactionType.DEBIT, null), ExportFormat.CSV, out);
+
+        assertThat(count).isEqualTo(1);
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "id,amount,description,timestamp,type,category,status\n"
+                        + "1,10.50,\"Lunch, with \"\"team\"\"\",2024-03-01T09:00,DEBIT,Food,PENDING\n");
+    }
+
+    @Test
+    void export_AsCbor_ShouldWriteSequenceOfBinaryRecords() throws IOException {
+        repository.save(transaction("2", "Rent", BASE.plusHours(1), TransactionType.DEBIT));
+        repository.save(transaction("1", "Salary", BASE, TransactionType.CREDIT));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = exporter.export(TransactionFilter.NONE, ExportFormat.CBOR, out);
+
+        List<TransactionDTO> records;
+        try (MappingIterator<TransactionDTO> iterator = cborMapper.readerFor(TransactionDTO.class)
+                .readValues(out.toByteArray())) {
+            records = iterator.readAll();
+        }
+        assertThat(count).isEqualTo(2);
+        assertThat(records).extracting(TransactionDTO::getId).containsExactly("1", "2");
+        assertThat(records.get(0).getAmount()).isEqualByComparingTo("10.50");
+        assertThat(records.get(0).getTimestamp()).isEqualTo(BASE);
+        assertThat(out.toString(StandardCharsets.ISO_8859_1)).doesNotContain("10.50", "2024-03-01");
+    }
+
+    @Test
+    void export_ShouldPropagateWriteFailures() {
+        repository.save(transaction("1", "Salary", BASE, TransactionType.CREDIT));
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertThrows(IOException.class, () -> exporter.export(TransactionFilter.NONE, ExportFormat.CSV, broken));
+    }
+
+    private static Transaction transaction(String id, String description, LocalDateTime timestamp,
+                                           TransactionType type) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setAmount(new BigDecimal("10.50"));
+        transaction.setDescription(description);
+        transaction.setTimestamp(timestamp);
+        transaction.setType(type);
+        transaction.setCategory("Food");
+        transaction.setStatus(TransactionStatus.PENDING);
+        return transaction;
+    }
+}
@@ -1,6 +1,7 @@
 package com.banking.transactionservice.service;
 
 import com.banking.transactionservice.dto.TransactionDTO;
+import com.banking.transactionservice.model.IdGenerator;
 import com.banking.transactionservice.model.Transaction;
 import com.banking.transactionservice.model.TransactionStatus;
 import com.banking.transactionservice.model.TransactionType;
@@ -100,4 +101,24 @@ class TransactionMapperTest {
         assertThat(result.getTimestamp()).isNotNull();
         assertThat(result.getStatus()).isEqualTo(TransactionStatus.COMPLETED);
     }
+
+
+    @Test
+    void toEntity_WithoutId_ShouldUseConfiguredIdGenerator() {
+        IdGenerator sequence = new IdGenerator() {
+            private int next;
+
+            @Override
+            public String nextId() {
+                return "generated-" + next++;
+            }
+        };
+        TransactionMapper generating = new TransactionMapper(sequence);
+        dto.setId(null);
+
+        assertThat(generating.toEntity(dto).getId()).isEqualTo("generated-0");
+        assertThat(generating.toEntity(dto).getId()).isEqualTo("generated-1");
+        dto.setId("client-id");
+        assertThat(generating.toEntity(dto).getId()).isEqualTo("client-id");
+    }
 } 
\ No newline at end of file
@@ -1,28 +1,53 @@
 package com.banking.transactionservice.service;
 
+import com.banking.transactionservice.cache.CachedPage;
+import com.banking.transactionservice.cache.CachedTransaction;
+import com.banking.transactionservice.cache.IdempotencyCache;
+import com.banking.transactionservice.cache.IdempotentResult;
+import com.banking.transactionservice.cache.TransactionQueryCache;
+import com.banking.transactionservice.dto.BatchItemResultDTO;
+import com.banking.transactionservice.dto.BatchResultDTO;
+import com.banking.transactionservice.dto.CursorPageDTO;
 import com.banking.transactionservice.dto.TransactionDTO;
+import com.banking.transactionservice.exception.BadRequestException;
 import com.banking.transactionservice.exception.ResourceNotFoundException;
+import com.banking.transactionservice.exception.VersionConflictException;
 import com.banking.transactionservice.model.Transaction;
 import com.banking.transactionservice.model.TransactionStatus;
 import com.banking.transactionservice.model.TransactionType;
+import com.banking.transactionservice.repository.AggregateStats;
+import com.banking.transactionservice.repository.TransactionFilter;
+import com.banking.transactionservice.repository.TransactionKey;
 import com.banking.transactionservice.repository.TransactionRepository;
+import com.banking.transactionservice.repository.TransactionSummary;
+import com.banking.transactionservice.repository.UpdateResult;
+import com.banking.transactionservice.rollup.RollupGranularity;
+import com.banking.transactionservice.rollup.RollupPoint;
+import com.banking.transactionservice.rollup.TransactionRollups;
+import jakarta.validation.Validation;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.mockito.ArgumentCaptor;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.ObjIntConsumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,6 +59,15 @@ class TransactionServiceTest {
     @Mock
     private TransactionMapper transactionMapper;
 
+    @Spy
+    private TransactionQueryCache queryCache = new TransactionQueryCache(100, Duration.ofMinutes(10));
+
+    @Mock
+    private TransactionRollups rollups;
+
+    @Spy
+    private IdempotencyCache idempotencyCache = new IdempotencyCache(100, Duration.ofMinutes(10));
+
     @InjectMocks
     private TransactionService transactionService;
 
@@ -98,37 +132,40 @@ class TransactionServiceTest {
     void getTransaction_WithValidId_ShouldReturnTransaction() {
         when(transactionRepository.findById("1")).thenReturn(Optional.of(transaction));
         when(transactionMapper.toDTO(transaction)).thenReturn(transactionDTO);
+        transaction.setVersion(42);
 
-        TransactionDTO result = transactionService.getTransaction("1");
+        CachedTransaction result = transactionService.getCachedTransaction("1");
 
-        assertThat(result).isNotNull();
-        assertThat(result.getId()).isEqualTo("1");
+        assertThat(result.transaction()).isNotNull();
+        assertThat(result.transaction().getId()).isEqualTo("1");
+        assertThat(result.eTag()).isEqualTo("\"42\"");
     }
 
     @Test
     void getTransaction_WithInvalidId_ShouldThrowException() {
         when(transactionRepository.findById("999")).thenReturn(Optional.empty());
 
-        assertThrows(ResourceNotFoundException.class, () -> transactionService.getTransaction("999"));
+        assertThrows(ResourceNotFoundException.class, () -> transactionService.getCachedTransaction("999"));
     }
 
     @Test
     void updateTransaction_WithValidId_ShouldReturnUpdatedTransaction() {
-        when(transactionRepository.existsById("1")).thenReturn(true);
         when(transactionMapper.toEntity(any(TransactionDTO.class))).thenReturn(transaction);
-        when(transactionRepository.save(any(Transaction.class))).thenReturn(transaction);
+        when(transactionRepository.update(any(Transaction.class), eq(TransactionRepository.ANY_VERSION)))
+                .thenReturn(Optional.of(transaction));
         when(transactionMapper.toDTO(any(Transaction.class))).thenReturn(transactionDTO);
 
         TransactionDTO result = transactionService.updateTransaction("1", transactionDTO);
 
         assertThat(result).isNotNull();
         assertThat(result.getId()).isEqualTo("1");
-        verify(transactionRepository, times(1)).save(any(Transaction.class));
+        verify(transactionRepository, times(1)).update(any(Transaction.class), eq(TransactionRepository.ANY_VERSION));
     }
 
     @Test
     void updateTransaction_WithInvalidId_ShouldThrowException() {
-        when(transactionRepository.existsById("999")).thenReturn(false);
+        when(transactionMapper.toEntity(any(TransactionDTO.class))).thenReturn(new Transaction());
+        when(transactionRepository.update(any(Transaction.class), anyLong())).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> transactionService.updateTransaction("999", transactionDTO));
     }
@@ -178,14 +215,14 @@ class TransactionServiceTest {
         // 2. 获取交易
         when(transactionRepository.findById("1")).thenReturn(Optional.of(transaction));
         
-        TransactionDTO retrievedDTO = transactionService.getTransaction("1");
+        TransactionDTO retrievedDTO = transactionService.getCachedTransaction("1").transaction();
         assertThat(retrievedDTO).isNotNull();
         assertThat(retrievedDTO.getAmount()).isEqualTo(new BigDecimal("100.00"));
         
         // 3. 更新交易
-        when(transactionRepository.existsById("1")).thenReturn(true);
         when(transactionMapper.toEntity(updatedTransactionDTO)).thenReturn(updatedTransaction);
-        when(transactionRepository.save(updatedTransaction)).thenReturn(updatedTransaction);
+        when(transactionRepository.update(updatedTransaction, TransactionRepository.ANY_VERSION))
+                .thenReturn(Optional.of(updatedTransaction));
         when(transactionMapper.toDTO(updatedTransaction)).thenReturn(updatedTransactionDTO);
         
         TransactionDTO result = transactionService.updateTransaction("1", updatedTransactionDTO);
@@ -203,13 +240,14 @@ class TransactionServiceTest {
         when(transactionRepository.findById("1")).thenReturn(Optional.empty());
         
         assertThrows(ResourceNotFoundException.class, () -> {
-            transactionService.getTransaction("1");
+            transactionService.getCachedTransaction("1");
         });
         
-        // 验证save方法被调用了两次
-        verify(transactionRepository, times(2)).save(transactionCaptor.capture());
+        // 创建通过save写入，更新通过条件更新写入
+        verify(transactionRepository, times(1)).save(transactionCaptor.capture());
+        verify(transactionRepository, times(1)).update(transactionCaptor.capture(), eq(TransactionRepository.ANY_VERSION));
         // 验证其他调用
-        verify(transactionRepository, times(2)).existsById("1");
+        verify(transactionRepository, times(1)).existsById("1");
         verify(transactionRepository).deleteById("1");
         verify(transactionRepository, times(2)).findById("1");
         
@@ -218,7 +256,7 @@ class TransactionServiceTest {
         assertThat(savedTransactions).hasSize(2);
         // 第一次保存的是创建时的事务
         assertThat(savedTransactions.get(0)).isEqualTo(transaction);
-        // 第二次保存的是更新后的事务
+        // 第二次写入的是更新后的事务
         assertThat(savedTransactions.get(1)).isEqualTo(updatedTransaction);
     }
     
@@ -267,13 +305,13 @@ class TransactionServiceTest {
 
     @Test
     void updateTransaction_WhenIdDoesNotExist_ShouldThrowException() {
-        when(transactionRepository.existsById("999")).thenReturn(false);
+        when(transactionMapper.toEntity(any(TransactionDTO.class))).thenReturn(new Transaction());
+        when(transactionRepository.update(any(Transaction.class), anyLong())).thenReturn(Optional.empty());
         
         assertThrows(ResourceNotFoundException.class, () -> {
             transactionService.updateTransaction("999", transactionDTO);
         });
         
-        verify(transactionRepository).existsById("999");
         verify(transactionRepository, never()).save(any(Transaction.class));
     }
 
@@ -288,4 +326,301 @@ class TransactionServiceTest {
         verify(transactionRepository).existsById("999");
         verify(transactionRepository, never()).deleteById(anyString());
     }
-} 
\ No newline at end of file
+
+    @Test
+    void getTransactionsAfter_ShouldReturnNextCursorWhenMoreRecordsExist() {
+        Transaction transaction2 = new Transaction();
+        transaction2.setId("2");
+        when(transactionRepository.findAfter(TransactionFilter.NONE, null, 2)).thenReturn(List.of(transaction, transaction2));
+        when(transactionMapper.toDTO(transaction)).thenReturn(transactionDTO);
+
+        CursorPageDTO page = transactionService.getTransactionsAfter("", 1);
+
+        assertThat(page.getContent()).hasSize(1);
+        assertThat(page.getNextCursor()).isNotNull();
+
+        when(transactionRepository.findAfter(TransactionFilter.NONE, TransactionKey.of(transaction), 2)).thenReturn(List.of(transaction2));
+        TransactionDTO dto2 = new TransactionDTO();
+        dto2.setId("2");
+        when(transactionMapper.toDTO(transaction2)).thenReturn(dto2);
+
+        CursorPageDTO next = transactionService.getTransactionsAfter(page.getNextCursor(), 1);
+
+        assertThat(next.getContent()).extracting(TransactionDTO::getId).containsExactly("2");
+        assertThat(next.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getTransactionsAfter_WithInvalidCursor_ShouldThrowException() {
+        assertThrows(BadRequestException.class, () -> transactionService.getTransactionsAfter("not a cursor!", 10));
+    }
+
+    @Test
+    void getTransactions_WithFilter_ShouldUseFilteredRepositoryQuery() {
+        TransactionFilter filter = new TransactionFilter("Test", TransactionType.CREDIT, null);
+        when(transactionRepository.findAll(filter, 0, 10)).thenReturn(List.of(transaction));
+        when(transactionMapper.toDTO(transaction)).thenReturn(transactionDTO);
+
+        List<TransactionDTO> result = transactionService.getTransactions(filter, 0, 10);
+
+        assertThat(result).extracting(TransactionDTO::getId).containsExactly("1");
+    }
+
+    @Test
+    void getTransactionsBetween_WithInvertedRange_ShouldThrowException() {
+        LocalDateTime now = LocalDateTime.now();
+
+        assertThrows(BadRequestException.class,
+                () -> transactionService.getTransactionsBetween(now, now.minusDays(1), 10));
+        verify(transactionRepository, never()).findByTimestampBetween(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void createTransactions_ShouldSaveValidItemsInOneBatchAndReportInvalidOnes() {
+        TransactionService service = new TransactionService(transactionRepository, transactionMapper,
+                Validation.buildDefaultValidatorFactory().getValidator(), queryCache, rollups, idempotencyCache);
+        TransactionDTO invalid = new TransactionDTO();
+        invalid.setAmount(new BigDecimal("-1"));
+        invalid.setTimestamp(LocalDateTime.now().plusDays(2));
+        when(transactionMapper.toEntity(transactionDTO)).thenReturn(transaction);
+        when(transactionRepository.saveAll(eq(List.of(transaction)), any())).thenReturn(List.of(transaction));
+        when(transactionMapper.toDTO(transaction)).thenReturn(transactionDTO);
+
+        BatchResultDTO result = service.createTransactions(Arrays.asList(invalid, transactionDTO));
+
+        assertThat(result.getSucceeded()).isEqualTo(1);
+        assertThat(result.getFailed()).isEqualTo(1);
+        assertThat(result.getResults().get(0).getStatus()).isEqualTo(BatchItemResultDTO.Status.INVALID);
+        assertThat(result.getResults().get(0).getErrors())
+                .containsKeys("amount", "description", "timestamp", "type", "category");
+        assertThat(result.getResults().get(1).getStatus()).isEqualTo(BatchItemResultDTO.Status.CREATED);
+        assertThat(result.getResults().get(1).getId()).isEqualTo("1");
+        verify(transactionRepository, times(1)).saveAll(any(), any());
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+
+    @Test
+    void createTransactions_WhenSomeItemsFailToConvertOrStore_ShouldReportThemAndCreateTheRest() {
+        TransactionService service = new TransactionService(transactionRepository, transactionMapper,
+                Validation.buildDefaultValidatorFactory().getValidator(), queryCache, rollups, idempotencyCache);
+        TransactionDTO unconvertible = new TransactionDTO();
+        unconvertible.setId("3");
+        unconvertible.setAmount(new BigDecimal("100.00"));
+        unconvertible.setDescription("Unconvertible");
+        unconvertible.setType(TransactionType.CREDIT);
+        unconvertible.setCategory("Test");
+        unconvertible.setTimestamp(LocalDateTime.now());
+        TransactionDTO unstorable = new TransactionDTO();
+        unstorable.setId("2");
+        unstorable.setAmount(new BigDecimal("100.00"));
+        unstorable.setDescription("Unstorable");
+        unstorable.setType(TransactionType.CREDIT);
+        unstorable.setCategory("Test");
+        unstorable.setTimestamp(LocalDateTime.now());
+        Transaction unstorableTransaction = new Transaction();
+        unstorableTransaction.setId("2");
+        when(transactionMapper.toEntity(unconvertible)).thenThrow(new IllegalStateException("id generator failed"));
+        when(transactionMapper.toEntity(unstorable)).thenReturn(unstorableTransaction);
+        when(transactionMapper.toEntity(transactionDTO)).thenReturn(transaction);
+        when(transactionRepository.saveAll(eq(List.of(unstorableTransaction, transaction)), any()))
+                .thenAnswer(invocation -> {
+                    ObjIntConsumer<RuntimeException> onFailure = invocation.getArgument(1);
+                    onFailure.accept(new IllegalArgumentException("Timestamp out of range"), 0);
+                    return Arrays.asList(null, transaction);
+                });
+        when(transactionMapper.toDTO(transaction)).thenReturn(transactionDTO);
+
+        BatchResultDTO result = service.createTransactions(List.of(unconvertible, unstorable, transactionDTO));
+
+        assertThat(result.getSucceeded()).isEqualTo(1);
+        assertThat(result.getFailed()).isEqualTo(2);
+        assertThat(result.getResults()).extracting(BatchItemResultDTO::getStatus).containsExactly(
+                BatchItemResultDTO.Status.FAILED, BatchItemResultDTO.Status.FAILED,
+                BatchItemResultDTO.Status.CREATED);
+        assertThat(result.getResults().get(0).getErrors()).containsEntry("error", "id generator failed");
+        assertThat(result.getResults().get(1).getId()).isEqualTo("2");
+        assertThat(result.getResults().get(1).getErrors()).containsEntry("error", "Timestamp out of range");
+    }
+
+    @Test
+    void createTransaction_WithWritePipeline_ShouldWriteThroughPipeline() {
+        TransactionWritePipeline pipeline = mock(TransactionWritePipeline.class);
+        TransactionService service = new TransactionService(transactionRepository, transactionMapper,
+                Validation.buildDefaultValidatorFactory().getValidator(), queryCache, rollups, idempotencyCache,
+                pipeline);
+        when(transactionMapper.toEntity(transactionDTO)).thenReturn(transaction);
+        when(pipeline.save(transaction)).thenReturn(transaction);
+        when(transactionMapper.toDTO(transaction)).thenReturn(transactionDTO);
+
+        TransactionDTO created = service.createTransaction(transactionDTO);
+
+        assertThat(created).isEqualTo(transactionDTO);
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+
+    @Test
+    void updateTransactions_ShouldReportMissingTransactionsAsNotFound() {
+        TransactionService service = new TransactionService(transactionRepository, transactionMapper,
+                Validation.buildDefaultValidatorFactory().getValidator(), queryCache, rollups, idempotencyCache);
+        TransactionDTO missing = new TransactionDTO();
+        missing.setId("999");
+        missing.setAmount(new BigDecimal("10.00"));
+        missing.setDescription("Missing");
+        missing.setType(TransactionType.DEBIT);
+        missing.setCategory("Test");
+        Transaction missingTransaction = new Transaction();
+        missingTransaction.setId("999");
+        when(transactionMapper.toEntity(updatedTransactionDTO)).thenReturn(updatedTransaction);
+        when(transactionMapper.toEntity(missing)).thenReturn(missingTransaction);
+        when(transactionRepository.updateAll(eq(List.of(updatedTransaction, missingTransaction)), any()))
+                .thenReturn(List.of(new UpdateResult(UpdateResult.Status.UPDATED, updatedTransaction, 2),
+                        new UpdateResult(UpdateResult.Status.NOT_FOUND, null, 0)));
+        when(transactionMapper.toDTO(updatedTransaction)).thenReturn(updatedTransactionDTO);
+
+        BatchResultDTO result = service.updateTransactions(List.of(updatedTransactionDTO, missing));
+
+        assertThat(result.getResults()).extracting(BatchItemResultDTO::getStatus)
+                .containsExactly(BatchItemResultDTO.Status.UPDATED, BatchItemResultDTO.Status.NOT_FOUND);
+    }
+
+    @Test
+    void deleteTransactions_ShouldReportDeletedAndMissingIds() {
+        when(transactionRepository.deleteAllById(List.of("1", "999"))).thenReturn(List.of("1"));
+
+        BatchResultDTO result = transactionService.deleteTransactions(List.of("1", "999"));
+
+        assertThat(result.getSucceeded()).isEqualTo(1);
+        assertThat(result.getResults()).extracting(BatchItemResultDTO::getStatus)
+                .containsExactly(BatchItemResultDTO.Status.DELETED, BatchItemResultDTO.Status.NOT_FOUND);
+    }
+
+    @Test
+    void createTransactions_WithOversizedBatch_ShouldThrowException() {
+        List<TransactionDTO> batch = Collections.nCopies(TransactionService.MAX_BATCH_SIZE + 1, transactionDTO);
+
+        assertThrows(BadRequestException.class, () -> transactionService.createTransactions(batch));
+    }
+
+    @Test
+    void getSummary_ShouldReturnRepositoryAggregates() {
+        TransactionSummary summary = new TransactionSummary(AggregateStats.EMPTY, Map.of(), Map.of());
+        when(transactionRepository.summarize()).thenReturn(summary);
+
+        assertThat(transactionService.getSummary()).isSameAs(summary);
+        verify(transactionRepository, never()).findAll();
+    }
+
+    @Test
+    void getRollups_ShouldReadFromRollupsWithoutScanningRepository() {
+        LocalDateTime from = LocalDateTime.of(2024, 5, 1, 0, 0);
+        RollupPoint point = new RollupPoint(from, 1, new BigDecimal("100.00"), 0, BigDecimal.ZERO);
+        when(rollups.query(RollupGranularity.HOUR, from, null)).thenReturn(List.of(point));
+
+        assertThat(transactionService.getRollups(RollupGranularity.HOUR, from, null)).containsExactly(point);
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void getRollups_WithInvertedRange_ShouldThrowException() {
+        LocalDateTime now = LocalDateTime.now();
+
+        assertThrows(BadRequestException.class,
+                () -> transactionService.getRollups(RollupGranularity.MINUTE, now, now.minusHours(1)));
+        verifyNoInteractions(rollups);
+    }
+
+
+    @Test
+    void createTransaction_WithIdempotencyKey_ShouldSaveOnceAndReplay() {
+        when(transactionMapper.toEntity(any(TransactionDTO.class))).thenReturn(transaction);
+        when(transactionRepository.save(any(Transaction.class))).thenReturn(transaction);
+        when(transactionMapper.toDTO(any(Transaction.class))).thenReturn(transactionDTO);
+
+        IdempotentResult first = transactionService.createTransaction(transactionDTO, "retry-1");
+        IdempotentResult retry = transactionService.createTransaction(transactionDTO, "retry-1");
+
+        assertThat(first.replayed()).isFalse();
+        assertThat(retry.replayed()).isTrue();
+        assertThat(retry.transaction().getId()).isEqualTo("1");
+        verify(transactionRepository, times(1)).save(any(Transaction.class));
+    }
+
+    @Test
+    void createTransaction_WithBlankOrOversizedIdempotencyKey_ShouldThrowBadRequest() {
+        assertThrows(BadRequestException.class, () -> transactionService.createTransaction(transactionDTO, " "));
+        assertThrows(BadRequestException.class,
+                () -> transactionService.createTransaction(transactionDTO, "k".repeat(256)));
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+
+
+    @Test
+    void updateTransaction_ShouldUseVersionFromDtoAsExpectedVersion() {
+        transactionDTO.setVersion(7L);
+        when(transactionMapper.toEntity(transactionDTO)).thenReturn(transaction);
+        when(transactionRepository.update(transaction, 7L)).thenThrow(new VersionConflictException("1", 7L, 8L));
+
+        assertThrows(VersionConflictException.class, () -> transactionService.updateTransaction("1", transactionDTO));
+    }
+
+    @Test
+    void updateTransaction_WithExpectedVersion_ShouldOverrideVersionFromDto() {
+        transactionDTO.setVersion(7L);
+        when(transactionMapper.toEntity(transactionDTO)).thenReturn(transaction);
+        when(transactionRepository.update(transaction, 8L)).thenReturn(Optional.of(transaction));
+        when(transactionMapper.toDTO(transaction)).thenReturn(transactionDTO);
+
+        transactionService.updateTransaction("1", transactionDTO, 8L);
+
+        verify(transactionRepository).update(transaction, 8L);
+    }
+
+    @Test
+    void updateTransactions_WithStaleVersion_ShouldReportConflictPerItem() {
+        TransactionRepository repository = new TransactionRepository();
+        TransactionMapper mapper = new TransactionMapper();
+        TransactionService service = new TransactionService(repository, mapper,
+                Validation.buildDefaultValidatorFactory().getValidator(), queryCache, rollups, idempotencyCache);
+        long version = repository.save(transaction).getVersion();
+        Transaction other = new Transaction(transaction);
+        other.setId("2");
+        long otherVersion = repository.save(other).getVersion();
+        repository.save(transaction);
+        TransactionDTO stale = mapper.toDTO(updatedTransaction);
+        stale.setVersion(version);
+        TransactionDTO current = mapper.toDTO(updatedTransaction);
+        current.setId("2");
+        current.setVersion(otherVersion);
+
+        BatchResultDTO result = service.updateTransactions(List.of(stale, current));
+
+        assertThat(result.getResults()).extracting(BatchItemResultDTO::getStatus)
+                .containsExactly(BatchItemResultDTO.Status.CONFLICT, BatchItemResultDTO.Status.UPDATED);
+        assertThat(result.getFailed()).isEqualTo(1);
+        assertThat(repository.findById("1")).get().extracting(Transaction::getDescription)
+                .isEqualTo("Test transaction");
+        assertThat(repository.findById("2")).get().extracting(Transaction::getDescription)
+                .isEqualTo("Updated transaction");
+    }
+
+    @Test
+    void updateTransactions_WhenDeletedConcurrently_ShouldNotRecreateTransaction() {
+        TransactionRepository repository = new TransactionRepository();
+        TransactionMapper mapper = spy(new TransactionMapper());
+        TransactionService service = new TransactionService(repository, mapper,
+                Validation.buildDefaultValidatorFactory().getValidator(), queryCache, rollups, idempotencyCache);
+        repository.save(transaction);
+        // 在校验之后、写入之前删除交易
+        doAnswer(invocation -> {
+            repository.deleteById("1");
+            return invocation.callRealMethod();
+        }).when(mapper).toEntity(updatedTransactionDTO);
+
+        BatchResultDTO result = service.updateTransactions(List.of(updatedTransactionDTO));
+
+        assertThat(result.getResults()).extracting(BatchItemResultDTO::getStatus)
+                .containsExactly(BatchItemResultDTO.Status.NOT_FOUND);
+        assertThat(repository.existsById("1")).isFalse();
+        assertThat(repository.count()).isZero();
+    }
+}
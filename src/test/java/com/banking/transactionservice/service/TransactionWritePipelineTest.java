@@ -0,0 +1,214 @@
+package com.banking.transactionservice.service;
+
+import com.banking.transactionservice.model.Transaction;
+import com.banking.transactionservice.model.TransactionType;
+import com.banking.transactionservice.repository.TransactionChange;
+import com.banking.transactionservice.repository.TransactionChangeListener;
+import com.banking.transactionservice.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TransactionWritePipelineTest {
+
+    private TransactionRepository repository;
+    private SimpleMeterRegistry registry;
+    private RecordingListener listener;
+    private TransactionWritePipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        repository = new TransactionRepository();
+        registry = new SimpleMeterRegistry();
+        listener = new RecordingListener();
+        repository.addChangeListener(listener);
+    }
+
+    @AfterEach
+    void tearDown() {
+        listener.gate.countDown();
+        if (pipeline != null) {
+            pipeline.close();
+        }
+    }
+
+    @Test
+    void save_ShouldReturnStoredTransactionToEachCaller() throws Exception {
+        pipeline = new TransactionWritePipeline(repository, 100, 10, registry);
+        List<CompletableFuture<Transaction>> saves = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Transaction transaction = transaction("id-" + i);
+            saves.add(CompletableFuture.supplyAsync(() -> pipeline.save(transaction)));
+        }
+
+        for (int i = 0; i < 50; i++) {
+            Transaction saved = saves.get(i).get(5, TimeUnit.SECONDS);
+            assertThat(saved.getId()).isEqualTo("id-" + i);
+            assertThat(saved.getVersion()).isPositive();
+            assertThat(repository.findById("id-" + i)).contains(saved);
+        }
+        assertThat(listener.batches.stream().mapToInt(List::size).sum()).isEqualTo(50);
+        assertThat(listener.batches).allSatisfy(batch -> assertThat(batch).hasSizeLessThanOrEqualTo(10));
+    }
+
+    @Test
+    void save_WhileWriterIsBusy_ShouldGroupQueuedCreatesIntoOneBatch() throws Exception {
+        pipeline = new TransactionWritePipeline(repository, 100, 1000, registry);
+        listener.gate = new CountDownLatch(1);
+        CompletableFuture<Transaction> first = CompletableFuture.supplyAsync(() -> pipeline.save(transaction("first")));
+        assertThat(listener.blocked.await(5, TimeUnit.SECONDS)).isTrue();
+
+        List<CompletableFuture<Transaction>> queued = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Transaction transaction = transaction("id-" + i);
+            queued.add(CompletableFuture.supplyAsync(() -> pipeline.save(transaction)));
+        }
+        awaitQueued(21);
+        listener.gate.countDown();
+
+        first.get(5, TimeUnit.SECONDS);
+        CompletableFuture.allOf(queued.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+        assertThat(listener.batches).extracting(List::size).containsExactly(1, 20);
+        assertThat(registry.get("transaction.pipeline.batch.size").summary().max()).isEqualTo(20);
+    }
+
+    @Test
+    void save_WhenBatchFails_ShouldRethrowToEveryCaller() {
+        pipeline = new TransactionWritePipeline(repository, 100, 10, registry);
+        listener.failure = new IllegalStateException("disk full");
+
+        assertThatThrownBy(() -> pipeline.save(transaction("id-0")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("disk full");
+    }
+
+    @Test
+    void save_WhenQueueIsFull_ShouldWriteOnCallingThread() throws Exception {
+        pipeline = new TransactionWritePipeline(repository, 1, 10, registry);
+        listener.gate = new CountDownLatch(1);
+        CompletableFuture<Transaction> first = CompletableFuture.supplyAsync(() -> pipeline.save(transaction("first")));
+        assertThat(listener.blocked.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Transaction> queued = CompletableFuture.supplyAsync(() -> pipeline.save(transaction("queued")));
+        awaitQueued(2);
+
+        Transaction overflow = pipeline.save(transaction("overflow"));
+
+        assertThat(repository.findById("overflow")).contains(overflow);
+        assertThat(registry.get("transaction.pipeline.overflows").counter().count()).isEqualTo(1);
+        listener.gate.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS).getId()).isEqualTo("first");
+        assertThat(queued.get(5, TimeUnit.SECONDS).getId()).isEqualTo("queued");
+    }
+
+    @Test
+    void close_ShouldWriteQueuedCreatesAndThenWriteDirectly() throws Exception {
+        pipeline = new TransactionWritePipeline(repository, 100, 10, registry);
+        listener.gate = new CountDownLatch(1);
+        CompletableFuture<Transaction> first = CompletableFuture.supplyAsync(() -> pipeline.save(transaction("first")));
+        assertThat(listener.blocked.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Transaction> queued = CompletableFuture.supplyAsync(() -> pipeline.save(transaction("queued")));
+        awaitQueued(2);
+
+        CompletableFuture<Void> closed = CompletableFuture.runAsync(pipeline::close);
+        listener.gate.countDown();
+        closed.get(5, TimeUnit.SECONDS);
+
+        assertThat(first.get(5, TimeUnit.SECONDS).getId()).isEqualTo("first");
+        assertThat(queued.get(5, TimeUnit.SECONDS).getId()).isEqualTo("queued");
+        assertThat(pipeline.save(transaction("after-close")).getId()).isEqualTo("after-close");
+    }
+
+    /**
+     * 等待写入线程正在处理的请求和队列中的请求总数达到expected
+     */
+    private void awaitQueued(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (listener.calls.get() + queueLength() < expected) {
+            assertThat(System.nanoTime()).as("creates not queued within 5s").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private double queueLength() {
+        return registry.get("transaction.pipeline.queue.size").gauge().value();
+    }
+
+    private static Transaction transaction(String id) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setAmount(new BigDecimal("1.00"));
+        transaction.setDescription("Pipeline " + id);
+        transaction.setTimestamp(LocalDateTime.of(2024, 1, 1, 0, 0));
+        transaction.setType(TransactionType.DEBIT);
+        transaction.setCategory("Test");
+        return transaction;
+    }
+
+    /**
+     * 记录每批变更，可以让写入线程阻塞在第一批上，或让写入失败
+     */
+    private static final class RecordingListener implements TransactionChangeListener {
+
+        private final List<List<TransactionChange>> batches = new CopyOnWriteArrayList<>();
+        private final CountDownLatch blocked = new CountDownLatch(1);
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile CountDownLatch gate = new CountDownLatch(0);
+        private volatile RuntimeException failure;
+
+        @Override
+        public void onChange(TransactionChange change) {
+            // 直接写入的路径，不经过写入线程
+        }
+
+        @Override
+        public void onChanges(List<TransactionChange> changes) {
+            if (failure != null) {
+                throw failure;
+            }
+            calls.addAndGet(changes.size());
+            blocked.countDown();
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            batches.add(changes);
+        }
+    }
+
+    @Test
+    void close_WhileCreatesAreSubmitted_ShouldCompleteEveryCreate() throws Exception {
+        pipeline = new TransactionWritePipeline(repository, 1000, 10, registry);
+        CountDownLatch started = new CountDownLatch(4);
+        List<CompletableFuture<Void>> producers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            producers.add(CompletableFuture.runAsync(() -> {
+                started.countDown();
+                for (int i = 0; i < 500; i++) {
+                    pipeline.save(transaction(thread + "-" + i));
+                }
+            }));
+        }
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        pipeline.close();
+
+        CompletableFuture.allOf(producers.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+        assertThat(repository.count()).isEqualTo(2000);
+    }
+}
@@ -0,0 +1,42 @@
+package com.banking.transactionservice.threading;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PinnedThreadMonitorTest {
+
+    private final Object lock = new Object();
+
+    @Test
+    void blockingInsideSynchronized_ShouldBeCountedAsPinned() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        try (PinnedThreadMonitor monitor = new PinnedThreadMonitor(Duration.ofMillis(10), registry)) {
+            monitor.start();
+
+            Thread.ofVirtual().start(() -> {
+                synchronized (lock) {
+                    sleep(50);
+                }
+            }).join();
+
+            long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            while (monitor.pinnedCount() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+            }
+            assertThat(monitor.pinnedCount()).isPositive();
+            assertThat(registry.get("jvm.threads.virtual.pinned").counter().count()).isPositive();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.banking.transactionservice.simulation
+
+import io.gatling.core.Predef._
+import io.gatling.http.Predef._
+import scala.concurrent.duration._
+import java.util.UUID
+
+/**
+ * 高并发连接测试，用于比较平台线程与虚拟线程两种执行模式
+ * 每个虚拟用户使用独立连接循环执行 创建→读取→列表，并发用户数通过 -Dusers 指定
+ */
+class ConcurrencySimulation extends Simulation {
+
+  val users = Integer.getInteger("users", 1000).intValue
+  val rampSeconds = Integer.getInteger("rampSeconds", 20).intValue
+  val durationSeconds = Integer.getInteger("durationSeconds", 60).intValue
+  val baseUrl = System.getProperty("baseUrl", "http://localhost:8080")
+
+  // 不共享连接池，每个用户占用一条连接，模拟大量并发客户端
+  val httpProtocol = http
+    .baseUrl(baseUrl)
+    .acceptHeader("application/json")
+    .contentTypeHeader("application/json")
+    .connectionHeader("keep-alive")
+
+  val transactionFeeder = Iterator.continually(Map(
+    "amount" -> (100 + scala.util.Random.nextInt(900)),
+    "description" -> s"Concurrency test ${UUID.randomUUID().toString.substring(0, 8)}",
+    "type" -> (if (scala.util.Random.nextBoolean()) "CREDIT" else "DEBIT"),
+    "category" -> s"Category-${scala.util.Random.nextInt(5) + 1}"
+  ))
+
+  val concurrentUsersScenario = scenario(s"Concurrent Users ($users)")
+    .forever {
+      feed(transactionFeeder)
+        .exec(http("Create Transaction")
+          .post("/api/transactions")
+          .body(StringBody("""{"amount": ${amount}, "description": "${description}", "type": "${type}", "category": "${category}"}"""))
+          .check(status.is(201))
+          .check(jsonPath("$.id").exists.saveAs("transactionId")))
+        .exec(http("Get Transaction")
+          .get("/api/transactions/${transactionId}")
+          .check(status.is(200)))
+        .exec(http("List Transactions")
+          .get("/api/transactions?page=0&size=20")
+          .check(status.is(200)))
+    }
+
+  setUp(
+    concurrentUsersScenario.inject(
+      rampConcurrentUsers(0) to (users) during (rampSeconds.seconds),
+      constantConcurrentUsers(users) during (durationSeconds.seconds)
+    )
+  ).protocols(httpProtocol)
+   .maxDuration((rampSeconds + durationSeconds).seconds)
+   .assertions(
+      global.failedRequests.percent.lt(1)           // 失败率小于1%
+   )
+}
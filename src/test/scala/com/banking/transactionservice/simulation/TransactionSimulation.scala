@@ -35,6 +35,20 @@ class TransactionSimulation extends Simulation {
     .exitHereIfFailed // 如果创建失败，退出场景
     .exec { session => session }
   
+  // 批量创建吞吐量测试 - 每个请求提交一批交易，与逐条创建对比每秒交易数
+  val batchSize = 100
+
+  val createTransactionBatchScenario = scenario("Create Transaction Batch TPS Test")
+    .exec(http("Create Transaction Batch")
+      .post("/api/transactions/batch")
+      .body(StringBody { _ =>
+        transactionFeeder.take(batchSize).map { t =>
+          s"""{"amount": ${t("amount")}, "description": "${t("description")}", "type": "${t("type")}", "category": "${t("category")}"}"""
+        }.mkString("[", ",", "]")
+      })
+      .check(status.is(201))
+      .check(jsonPath("$.succeeded").is(batchSize.toString)))
+  
   // 延迟测试 - 获取同一交易
   val getTransactionLatencyScenario = scenario("Get Transaction Latency Test")
     // 先创建一个共享交易
@@ -54,14 +68,24 @@ class TransactionSimulation extends Simulation {
         .check(jsonPath("$.id").is("${sharedId}")))
     }
   
-  // 并发创建交易测试
+  // 并发创建交易测试 - 每个用户带幂等键创建后立即用同一个键重试，模拟客户端超时重试
   val concurrentCreateScenario = scenario("Concurrent Create Test")
     .feed(transactionFeeder)
+    .exec(session => session.set("idempotencyKey", UUID.randomUUID().toString))
     .exec(http("Concurrent Create")
       .post("/api/transactions")
+      .header("Idempotency-Key", "${idempotencyKey}")
       .body(StringBody("""{"amount": ${amount}, "description": "Concurrent ${description}", "type": "${type}", "category": "${category}"}"""))
       .check(status.is(201))
+      .check(header("Idempotent-Replayed").is("false"))
       .check(jsonPath("$.id").exists.saveAs("concurrentId")))
+    .exec(http("Concurrent Create Retry")
+      .post("/api/transactions")
+      .header("Idempotency-Key", "${idempotencyKey}")
+      .body(StringBody("""{"amount": ${amount}, "description": "Concurrent ${description}", "type": "${type}", "category": "${category}"}"""))
+      .check(status.is(201))
+      .check(header("Idempotent-Replayed").is("true"))
+      .check(jsonPath("$.id").is("${concurrentId}")))
   
   // 并发读取测试
   val concurrentReadScenario = scenario("Concurrent Read Test")
@@ -108,6 +132,11 @@ class TransactionSimulation extends Simulation {
       constantUsersPerSec(numberOfUsers) during(30.seconds)
     ),
     
+    createTransactionBatchScenario.inject(
+      rampUsersPerSec(1) to (numberOfUsers / batchSize) during(30.seconds),
+      constantUsersPerSec(numberOfUsers / batchSize) during(30.seconds)
+    ),
+    
     getTransactionLatencyScenario.inject(
       rampUsers(numberOfUsers) during(20.seconds),
       constantUsersPerSec(numberOfUsers) during(20.seconds)